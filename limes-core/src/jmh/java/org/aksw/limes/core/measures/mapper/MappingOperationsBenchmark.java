@@ -0,0 +1,175 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the run times of the set operations of {@link MappingOperations}
+ * with the previous implementation, which added every link to a new mapping.
+ * Run it with the jmh profile, larger mappings are compared with e.g.
+ * {@code -Djmh.args="MappingOperationsBenchmark -p size=10000000 -jvmArgsAppend -Xmx16g"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappingOperationsBenchmark {
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "MEMORY_MAPPING", "INTERNED_MAPPING" })
+    public MappingType type;
+
+    private AMapping large;
+    private AMapping small;
+
+    /**
+     * The inputs of the operations with reused inputs are modified, thus they
+     * are generated for each invocation.
+     */
+    @State(Scope.Thread)
+    public static class ReusedInputs {
+
+        private AMapping large;
+        private AMapping small;
+
+        @Setup(Level.Invocation)
+        public void setUp(MappingOperationsBenchmark benchmark) {
+            large = generateMapping(MappingType.MEMORY_MAPPING, benchmark.size, 1);
+            small = generateMapping(MappingType.MEMORY_MAPPING, benchmark.size / 10, 2);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        large = generateMapping(type, size, 1);
+        small = generateMapping(type, size / 10, 2);
+    }
+
+    @Benchmark
+    public AMapping union() {
+        return MappingOperations.union(large, small);
+    }
+
+    @Benchmark
+    public AMapping intersection() {
+        return MappingOperations.intersection(large, small);
+    }
+
+    @Benchmark
+    public AMapping difference() {
+        return MappingOperations.difference(large, small);
+    }
+
+    @Benchmark
+    public AMapping legacyUnion() {
+        return legacyUnion(large, small);
+    }
+
+    @Benchmark
+    public AMapping legacyIntersection() {
+        return legacyIntersection(large, small);
+    }
+
+    @Benchmark
+    public AMapping legacyDifference() {
+        return legacyDifference(large, small);
+    }
+
+    @Benchmark
+    public AMapping reusedUnion(ReusedInputs inputs) {
+        return MappingOperations.union(inputs.large, inputs.small, true);
+    }
+
+    @Benchmark
+    public AMapping reusedIntersection(ReusedInputs inputs) {
+        return MappingOperations.intersection(inputs.large, inputs.small, true);
+    }
+
+    @Benchmark
+    public AMapping reusedDifference(ReusedInputs inputs) {
+        return MappingOperations.difference(inputs.large, inputs.small, true);
+    }
+
+    private static AMapping generateMapping(MappingType type, int size, long seed) {
+        AMapping m = MappingFactory.createMapping(type);
+        Random random = new Random(seed);
+        int sources = Math.max(1, size / 10);
+        for (int i = 0; i < size; i++) {
+            m.add("http://example.org/source/" + random.nextInt(sources),
+                    "http://example.org/target/" + random.nextInt(sources), random.nextDouble());
+        }
+        return m;
+    }
+
+    private static AMapping legacyDifference(AMapping map1, AMapping map2) {
+        AMapping map = MappingFactory.createDefaultMapping();
+        for (String key : map1.getMap().keySet()) {
+            if (map2.getMap().containsKey(key)) {
+                for (String value : map1.getMap().get(key).keySet()) {
+                    if (!map2.getMap().get(key).containsKey(value)) {
+                        map.add(key, value, map1.getMap().get(key).get(value));
+                    }
+                }
+            } else {
+                map.add(key, map1.getMap().get(key));
+            }
+        }
+        return map;
+    }
+
+    private static AMapping legacyIntersection(AMapping map1, AMapping map2) {
+        AMapping map = MappingFactory.createDefaultMapping();
+        if (map1.size() == 0 || map2.size() == 0) {
+            return MappingFactory.createDefaultMapping();
+        }
+        for (String key : map1.getMap().keySet()) {
+            if (map2.getMap().containsKey(key)) {
+                for (String value : map1.getMap().get(key).keySet()) {
+                    if (map2.getMap().get(key).containsKey(value)) {
+                        if (map1.getMap().get(key).get(value) <= map2.getMap().get(key).get(value)) {
+                            map.add(key, value, map1.getMap().get(key).get(value));
+                        } else {
+                            map.add(key, value, map2.getMap().get(key).get(value));
+                        }
+                    }
+                }
+            }
+        }
+        return map;
+    }
+
+    private static AMapping legacyUnion(AMapping map1, AMapping map2) {
+        AMapping map = MappingFactory.createDefaultMapping();
+        for (String key : map1.getMap().keySet()) {
+            for (String value : map1.getMap().get(key).keySet()) {
+                map.add(key, value, map1.getMap().get(key).get(value));
+            }
+        }
+        for (String key : map2.getMap().keySet()) {
+            for (String value : map2.getMap().get(key).keySet()) {
+                map.add(key, value, map2.getMap().get(key).get(value));
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,142 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the run times of {@link FastNGramMapper#compute} with the previous
+ * implementation, which indexed the target strings in hash maps of string
+ * sets and counted the candidates of every source string in a new hash map.
+ * Run it with the jmh profile, more labels are compared with e.g.
+ * {@code -Djmh.args="FastNGramBenchmark -p size=1000000 -e legacy"}, as the
+ * previous implementation takes hours for them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FastNGramBenchmark {
+
+    private static final double THRESHOLD = 0.8;
+
+    @Param({ "10000", "100000" })
+    public int size;
+
+    private Set<String> source;
+    private Set<String> target;
+
+    @Setup
+    public void setUp() {
+        source = generateLabels(size, 1);
+        target = generateLabels(size, 2);
+    }
+
+    @Benchmark
+    public AMapping legacy() {
+        return legacyCompute(source, target, 3, THRESHOLD);
+    }
+
+    @Benchmark
+    public AMapping singleThread() {
+        return FastNGramMapper.compute(source, target, 3, THRESHOLD, 1);
+    }
+
+    @Benchmark
+    public AMapping allThreads() {
+        return FastNGramMapper.compute(source, target, 3, THRESHOLD, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generates labels of two to four random syllables, so that many labels
+     * share q-grams.
+     */
+    private static Set<String> generateLabels(int size, long seed) {
+        String[] syllables = { "ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "ber", "lin", "dor", "fen", "gra",
+                "hol", "ing", "jus", "pro", "zen" };
+        Random random = new Random(seed);
+        Set<String> labels = new HashSet<String>();
+        while (labels.size() < size) {
+            StringBuilder label = new StringBuilder();
+            for (int i = 2 + random.nextInt(3); i > 0; i--) {
+                label.append(syllables[random.nextInt(syllables.length)]);
+            }
+            label.append(' ').append(random.nextInt(100));
+            labels.add(label.toString());
+        }
+        return labels;
+    }
+
+    private static AMapping legacyCompute(Set<String> source, Set<String> target, int q, double threshold) {
+        Index index = new Index(q);
+        double kappa = (1 + threshold) / threshold;
+        QGramSimilarityMeasure sim = new QGramSimilarityMeasure(q);
+        ITokenizer tokenizer = new NGramTokenizer();
+        Map<String, Set<String>> targetTokens = new HashMap<String, Set<String>>();
+        AMapping result = MappingFactory.createDefaultMapping();
+        for (String t : target) {
+            targetTokens.put(t, index.addString(t));
+        }
+        for (String s : source) {
+            Set<Integer> allSizes = index.getAllSizes();
+            Set<String> sourceTokens = tokenizer.tokenize(s, q);
+            double sourceSize = (double) sourceTokens.size();
+            for (int size = (int) Math.ceil(sourceSize * threshold); size <= (int) Math
+                    .floor(sourceSize / threshold); size++) {
+                if (allSizes.contains(size)) {
+                    Map<String, Set<String>> stringsOfSize = index.getStrings(size);
+                    Map<String, Integer> countMap = new HashMap<String, Integer>();
+                    for (String token : sourceTokens) {
+                        if (stringsOfSize.containsKey(token)) {
+                            for (String candidate : stringsOfSize.get(token)) {
+                                if (!countMap.containsKey(candidate)) {
+                                    countMap.put(candidate, 0);
+                                }
+                                countMap.put(candidate, countMap.get(candidate) + 1);
+                            }
+                        }
+                    }
+                    for (String candidate : countMap.keySet()) {
+                        double count = (double) countMap.get(candidate);
+                        if (kappa * count >= (sourceSize + size)) {
+                            double similarity = sim.getSimilarity(targetTokens.get(candidate), sourceTokens);
+                            if (similarity >= threshold) {
+                                result.add(s, candidate, similarity);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        AMapping tempMapping = MappingFactory.createDefaultMapping();
+        for (String key : result.getMap().keySet()) {
+            for (String value : result.getMap().get(key).keySet()) {
+                double confidence = result.getConfidence(key, value);
+                if (confidence >= threshold) {
+                    tempMapping.add(key, value, confidence);
+                }
+            }
+        }
+        return tempMapping;
+    }
+}
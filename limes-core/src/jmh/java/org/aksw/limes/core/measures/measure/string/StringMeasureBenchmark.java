@@ -0,0 +1,174 @@
+package org.aksw.limes.core.measures.measure.string;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleBiFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.CosineSimilarity;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein;
+
+/**
+ * Compares the throughput of the {@link StringKernels} with the previous
+ * implementations of the measures, which built sets of substrings or lists of
+ * characters, or called SimMetrics, for every comparison. Each operation is
+ * one comparison of all pairs of labels. Run it with the jmh profile, the
+ * allocation per comparison is reported with
+ * {@code -Djmh.args="StringMeasureBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@OperationsPerInvocation(StringMeasureBenchmark.PAIRS)
+public class StringMeasureBenchmark {
+
+    static final int SIZE = 300;
+    static final int PAIRS = SIZE * SIZE;
+    private static final double THRESHOLD = 0.8;
+
+    private String[] labels;
+
+    @Setup
+    public void setUp() {
+        labels = generateLabels(SIZE, 1);
+    }
+
+    @Benchmark
+    public double trigramLegacy() {
+        return compareAll(labels, StringMeasureBenchmark::legacyTrigram);
+    }
+
+    @Benchmark
+    public double trigramKernel() {
+        return compareAll(labels, (a, b) -> StringKernels.qGramSimilarity(a, b, 3, 0));
+    }
+
+    @Benchmark
+    public double trigramKernelThreshold() {
+        return compareAll(labels, (a, b) -> StringKernels.qGramSimilarity(a, b, 3, THRESHOLD));
+    }
+
+    @Benchmark
+    public double levenshteinLegacy() {
+        return compareAll(labels, (a, b) -> new Levenshtein().getSimilarity(a, b));
+    }
+
+    @Benchmark
+    public double levenshteinKernel() {
+        return compareAll(labels, (a, b) -> StringKernels.levenshteinSimilarity(a, b, 0));
+    }
+
+    @Benchmark
+    public double levenshteinKernelThreshold() {
+        return compareAll(labels, (a, b) -> StringKernels.levenshteinSimilarity(a, b, THRESHOLD));
+    }
+
+    @Benchmark
+    public double jaroLegacy() {
+        return compareAll(labels, StringMeasureBenchmark::legacyJaro);
+    }
+
+    @Benchmark
+    public double jaroKernel() {
+        return compareAll(labels, (a, b) -> StringKernels.jaroSimilarity(a, b, 0));
+    }
+
+    @Benchmark
+    public double jaroKernelThreshold() {
+        return compareAll(labels, (a, b) -> StringKernels.jaroSimilarity(a, b, THRESHOLD));
+    }
+
+    @Benchmark
+    public double cosineLegacy() {
+        return compareAll(labels, (a, b) -> new CosineSimilarity().getSimilarity(a, b));
+    }
+
+    @Benchmark
+    public double cosineKernel() {
+        return compareAll(labels, (a, b) -> StringKernels.cosineSimilarity(a, b, 0));
+    }
+
+    @Benchmark
+    public double cosineKernelThreshold() {
+        return compareAll(labels, (a, b) -> StringKernels.cosineSimilarity(a, b, THRESHOLD));
+    }
+
+    /**
+     * Generates labels of one to three words of random syllables, so that
+     * many labels share q-grams and words.
+     */
+    private static String[] generateLabels(int size, long seed) {
+        String[] syllables = { "ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "ber", "lin", "dor", "fen", "gra",
+                "hol", "ing", "jus", "pro", "zen" };
+        Random random = new Random(seed);
+        String[] labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder label = new StringBuilder();
+            for (int w = 1 + random.nextInt(3); w > 0; w--) {
+                for (int s = 2 + random.nextInt(2); s > 0; s--) {
+                    label.append(syllables[random.nextInt(syllables.length)]);
+                }
+                label.append(w > 1 ? " " : "");
+            }
+            labels[i] = label.toString();
+        }
+        return labels;
+    }
+
+    private static double compareAll(String[] labels, ToDoubleBiFunction<String, String> measure) {
+        double sum = 0;
+        for (String a : labels) {
+            for (String b : labels) {
+                sum += measure.applyAsDouble(a, b);
+            }
+        }
+        return sum;
+    }
+
+    private static double legacyTrigram(String a, String b) {
+        String p1 = "  " + a + "  ";
+        String p2 = "  " + b + "  ";
+        Set<String> t1 = new HashSet<>();
+        for (int i = 3; i <= p1.length(); i++) {
+            t1.add(p1.substring(i - 3, i));
+        }
+        Set<String> t2 = new HashSet<>();
+        for (int i = 3; i <= p2.length(); i++) {
+            t2.add(p2.substring(i - 3, i));
+        }
+        double counter = 0;
+        for (String s : t1) {
+            if (t2.contains(s))
+                counter++;
+        }
+        return counter / (t1.size() + t2.size() - counter);
+    }
+
+    private static double legacyJaro(String a, String b) {
+        int halfLength = Math.min(a.length(), b.length()) / 2;
+        List<Character> common1 = JaroMeasure.getCommonCharacters(a, b, halfLength);
+        List<Character> common2 = JaroMeasure.getCommonCharacters(b, a, halfLength);
+        int transpositions = JaroMeasure.getTranspositions(common1, common2);
+        if (transpositions == -1)
+            return 0f;
+        return (common1.size() / ((float) a.length()) + common2.size() / ((float) b.length())
+                + (common1.size() - transpositions) / ((float) common1.size())) / 3.0f;
+    }
+}
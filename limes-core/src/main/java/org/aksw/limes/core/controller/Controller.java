@@ -7,19 +7,21 @@ import org.aksw.commons.util.Files;
 import org.aksw.limes.core.evaluation.oracle.OracleFactory;
 import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.planning.planner.CostCalibrator;
+import org.aksw.limes.core.execution.planning.planner.CostProfile;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 //import org.aksw.limes.core.gui.LimesGUI;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.HybridCache;
-import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.cache.CacheLoader;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.config.Configuration;
 import org.aksw.limes.core.io.config.reader.AConfigurationReader;
 import org.aksw.limes.core.io.config.reader.rdf.RDFConfigurationReader;
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
-import org.aksw.limes.core.io.preprocessing.Preprocessor;
 import org.aksw.limes.core.io.serializer.ISerializer;
 import org.aksw.limes.core.io.serializer.SerializerFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
@@ -35,7 +37,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.function.Function;
 
 /**
  * This is the default LIMES Controller used to run the software as CLI.
@@ -84,7 +85,9 @@ public class Controller {
                 System.exit(1);
             }
             Configuration config = getConfig(cmd);
-            LimesResult result = getMapping(config);
+            LimesResult result = cmd.hasOption('c')
+                    ? getMapping(config, -1, new ConsoleOracle(MAX_ITERATIONS_NUMBER), new File(cmd.getOptionValue('c')))
+                    : getMapping(config);
             if (cmd.hasOption('1')) {
                 //force 1-to-1 result
                 logger.info("Enforcing 1-to-1 result...");
@@ -178,25 +181,42 @@ public class Controller {
     }
 
     static LimesResult getMapping(Configuration config, int limit, ActiveLearningOracle oracle) {
+        return getMapping(config, limit, oracle, null);
+    }
+
+    /**
+     * Execute LIMES, estimating the costs of the Helios and the Dynamic
+     * planner with a cost profile that is calibrated on the loaded data.
+     *
+     * @param config
+     *            LIMES configuration object
+     * @param limit
+     *            Maximal number of source and target resources, -1 for no
+     *            limit
+     * @param oracle
+     *            Oracle of the active learning algorithms
+     * @param costProfileFile
+     *            File of the cost profile, which is read if it exists and
+     *            written after calibrating the measures of the link
+     *            specification that it does not calibrate yet, or null to use
+     *            the fixed cost approximations
+     *
+     * @return Instance of ResultMapping
+     */
+    static LimesResult getMapping(Configuration config, int limit, ActiveLearningOracle oracle,
+            File costProfileFile) {
         if (logger == null)
             logger = LoggerFactory.getLogger(Controller.class);
         AMapping results = null;
 
-        // 3. Fill Caches
-        ACache sourceCache = HybridCache.getData(config.getSourceInfo());
-        ACache targetCache = HybridCache.getData(config.getTargetInfo());
-        if (limit > 0) {
-            Function<ACache, ACache> getSubCache = c -> {
-                ACache reducedCache = new MemoryCache();
-                c.getAllInstances().subList(0, limit).forEach(reducedCache::addInstance);
-                return reducedCache;
-            };
-            sourceCache = getSubCache.apply(sourceCache);
-            targetCache = getSubCache.apply(targetCache);
-        }
-        // 4. Apply preprocessing 
-        sourceCache = Preprocessor.applyFunctionsToCache(sourceCache, config.getSourceInfo().getFunctions());
-        targetCache = Preprocessor.applyFunctionsToCache(targetCache, config.getTargetInfo().getFunctions());
+        // 3. Fill caches and 4. apply preprocessing, source and target
+        // concurrently
+        CacheLoader loader = new CacheLoader(new File(""), limit);
+        loader.load(config.getSourceInfo(), config.getTargetInfo());
+        ACache sourceCache = loader.getSourceCache();
+        ACache targetCache = loader.getTargetCache();
+        // share the indexes of the mappers between the atomic measures
+        IndexRegistry.attach(sourceCache, targetCache);
 
         // 5. Machine Learning or Planning
         StopWatch stopWatch = new StopWatch();
@@ -211,12 +231,18 @@ public class Controller {
                 e.printStackTrace();
             }
         } else {
-            results = LSPipeline.execute(sourceCache, targetCache, config.getMetricExpression(),
-                    config.getVerificationThreshold(), config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
-                    RewriterFactory.getRewriterType(config.getExecutionRewriter()),
+            LinkSpecification ls = new LinkSpecification(config.getMetricExpression(),
+                    config.getVerificationThreshold());
+            CostProfile costProfile = null;
+            if (costProfileFile != null) {
+                costProfile = getCostProfile(costProfileFile, ls, sourceCache, targetCache, config);
+            }
+            results = LSPipeline.execute(sourceCache, targetCache, ls, config.getSourceInfo().getVar(),
+                    config.getTargetInfo().getVar(), RewriterFactory.getRewriterType(config.getExecutionRewriter()),
                     ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
                     ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()),
-                    config.getOptimizationTime(), config.getExpectedSelectivity());
+                    config.getOptimizationTime(), config.getExpectedSelectivity(), config.getExecutionParallelism(),
+                    costProfile);
         }
         long runTime = stopWatch.getTime();
         logger.info("Mapping task finished in " + runTime + " ms");
@@ -225,9 +251,37 @@ public class Controller {
         AMapping verificationMapping = MappingOperations.difference(results, acceptanceMapping);
         logger.info("Mapping size: " + acceptanceMapping.size() + " (accepted) + " + verificationMapping.size()
                 + " (need verification) = " + results.size() + " (total)");
+        loader.awaitSnapshots();
         return new LimesResult(verificationMapping, acceptanceMapping, sourceCache, targetCache, runTime);
     }
 
+    /**
+     * Reads a cost profile, calibrates it on the caches if it does not
+     * calibrate all measures of the link specification and writes it back.
+     */
+    private static CostProfile getCostProfile(File file, LinkSpecification ls, ACache sourceCache,
+            ACache targetCache, Configuration config) {
+        CostProfile costProfile = new CostProfile();
+        if (file.exists()) {
+            try {
+                costProfile = CostProfile.load(file);
+            } catch (IOException e) {
+                logger.warn("Could not read the cost profile " + file + ", calibrating a new one: " + e);
+            }
+        }
+        if (!costProfile.isCalibrated(ls)) {
+            logger.info("Calibrating the costs of the measures...");
+            new CostCalibrator(sourceCache, targetCache, config.getSourceInfo().getVar(),
+                    config.getTargetInfo().getVar()).calibrate(costProfile, ls);
+            try {
+                costProfile.save(file);
+            } catch (IOException e) {
+                logger.warn("Could not write the cost profile " + file + ": " + e);
+            }
+        }
+        return costProfile;
+    }
+
     private static void writeResults(LimesResult mappings, Configuration config) {
         String outputFormat = config.getOutputFormat();
         ISerializer output = SerializerFactory.createSerializer(outputFormat);
@@ -264,6 +318,8 @@ public class Controller {
         options.addOption("l", true, "Optionally configure a limit for source and target resources processed by LIMES Server. Only effective if -s is specified. Default value is -1 (no limit).");
         options.addOption("1", false, "Force 1-to-1 mappings, i.e. for each source resource only keep the link with the highest probability.");
         options.addOption("d", true, "Configure path for the statistics JSON output file.");
+        options.addOption("c", true, "Estimate the costs of the HELIOS and DYNAMIC planners with a cost profile " +
+                "calibrated on the loaded data. The profile is read from the given file if it exists and written to it.");
         // options.addOption("v", false, "Verbose run");
         return options;
     }
@@ -2,6 +2,7 @@ package org.aksw.limes.core.controller;
 
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.planning.planner.CostProfile;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.Planner;
 import org.aksw.limes.core.execution.rewriter.Rewriter;
@@ -48,9 +49,47 @@ public class LSPipeline {
             String sourceVar, String targetVar, RewriterFactory.RewriterType rewriterType,
             ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
             ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k) {
+        return execute(sourceCache, targetCache, metricExpression, threshold, sourceVar, targetVar, rewriterType,
+                executionPlannerType, executionEngineType, maxOpt, k, 0);
+    }
+
+    /**
+     * Execute a LS given a string metric expression and a double threshold,
+     * generating a mapping.
+     *
+     * @param sourceCache
+     *            Resources from source KB
+     * @param targetCache
+     *            Resources from target KB
+     * @param metricExpression
+     *            Specifies which measures are used and how they are combined to
+     *            assert the similarity between two resources
+     * @param threshold
+     *            Minimal similarity value for resource pairs to be included in
+     *            the generated mapping
+     * @param sourceVar
+     *            Name of SPARQL variable for resources from source KB
+     * @param targetVar
+     *            Name of SPARQL variable for resources from target KB
+     * @param rewriterType
+     *            Specifies rewriter module to use
+     * @param executionPlannerType
+     *            Specifies executionPlanner module to use
+     * @param executionEngineType
+     *            Specifies executionEngine module to use
+     * @param parallelism
+     *            Maximal number of subplans executed at the same time by the
+     *            parallel execution engine, 0 for the default
+     * @return Mapping of resources in sourceCache to resources in targetCache
+     *         with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, String metricExpression, double threshold,
+            String sourceVar, String targetVar, RewriterFactory.RewriterType rewriterType,
+            ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+            ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k, int parallelism) {
         LinkSpecification ls = new LinkSpecification(metricExpression, threshold);
         return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
-                executionEngineType, maxOpt, k);
+                executionEngineType, maxOpt, k, parallelism);
     }
 
     /**
@@ -79,16 +118,90 @@ public class LSPipeline {
             String targetVar, RewriterFactory.RewriterType rewriterType,
             ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
             ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k) {
+        return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, maxOpt, k, 0);
+    }
+
+    /**
+     * Execute a given LS, generating a mapping.
+     *
+     * @param sourceCache
+     *            Resources from source KB
+     * @param targetCache
+     *            Resources from target KB
+     * @param ls
+     *            LIMES Link Specification
+     * @param sourceVar
+     *            Name of SPARQL variable for resources from source KB
+     * @param targetVar
+     *            Name of SPARQL variable for resources from target KB
+     * @param rewriterType
+     *            Specifies rewriter module to use
+     * @param executionPlannerType
+     *            Specifies executionPlanner module to use
+     * @param executionEngineType
+     *            Specifies executionEngine module to use
+     * @param parallelism
+     *            Maximal number of subplans executed at the same time by the
+     *            parallel execution engine, 0 for the default
+     * @return Mapping of resources in sourceCache to resources in targetCache
+     *         with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+            String targetVar, RewriterFactory.RewriterType rewriterType,
+            ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+            ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k, int parallelism) {
+        return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, maxOpt, k, parallelism, null);
+    }
+
+    /**
+     * Execute a given LS, generating a mapping. The Helios and the Dynamic
+     * planner estimate the costs of the LS with a cost profile, e.g. one that
+     * was calibrated on the caches by a
+     * {@link org.aksw.limes.core.execution.planning.planner.CostCalibrator}.
+     *
+     * @param sourceCache
+     *            Resources from source KB
+     * @param targetCache
+     *            Resources from target KB
+     * @param ls
+     *            LIMES Link Specification
+     * @param sourceVar
+     *            Name of SPARQL variable for resources from source KB
+     * @param targetVar
+     *            Name of SPARQL variable for resources from target KB
+     * @param rewriterType
+     *            Specifies rewriter module to use
+     * @param executionPlannerType
+     *            Specifies executionPlanner module to use
+     * @param executionEngineType
+     *            Specifies executionEngine module to use
+     * @param parallelism
+     *            Maximal number of subplans executed at the same time by the
+     *            parallel execution engine, 0 for the default
+     * @param costProfile
+     *            Calibrated costs of the mappers and measures, null to use
+     *            their fixed approximations
+     * @return Mapping of resources in sourceCache to resources in targetCache
+     *         with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+            String targetVar, RewriterFactory.RewriterType rewriterType,
+            ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+            ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k, int parallelism,
+            CostProfile costProfile) {
         // Optimize LS by rewriting
         Rewriter rw = RewriterFactory.getRewriter(rewriterType);
         assert rw != null;
         LinkSpecification rwLs = rw.rewrite(ls);
         // Planning execution of the LS
-        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache,
+                costProfile);
         assert planner != null;
         // Execute the ExecutionPlan obtained from the LS
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache, targetCache,
-                sourceVar, targetVar, maxOpt, k);
+                sourceVar, targetVar, maxOpt, k, parallelism);
         assert engine != null;
         return engine.execute(rwLs, planner);
     }
@@ -0,0 +1,124 @@
+package org.aksw.limes.core.datastrutures;
+
+import java.io.Serializable;
+
+/**
+ * Open-addressing hash map from primitive long keys to non-negative int
+ * values. Neither keys nor values are boxed. Entries can be added and updated
+ * but not removed. The map is not thread-safe.
+ */
+public class LongIntHashMap implements Serializable {
+
+    private static final long serialVersionUID = -4207317297474530641L;
+
+    private long[] keys;
+    /**
+     * value + 1 of the entry at each slot, 0 for empty slots.
+     */
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expectedSize,
+     *            number of entries the map is expected to hold
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) * 2;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param key,
+     *            the key
+     * @return the value of the key or -1 if the key is not in the map
+     */
+    public int get(long key) {
+        return values[slot(key)] - 1;
+    }
+
+    public boolean containsKey(long key) {
+        return values[slot(key)] != 0;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key,
+     *            the key
+     * @param value,
+     *            the new value, must not be negative
+     */
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative: " + value);
+        }
+        int slot = slot(key);
+        if (values[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value + 1;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Combines two ints to a long key.
+     *
+     * @param high,
+     *            the first int
+     * @param low,
+     *            the second int
+     * @return the key of the pair (high, low)
+     */
+    public static long pair(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newSize) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[newSize];
+        values = new int[newSize];
+        int mask = newSize - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
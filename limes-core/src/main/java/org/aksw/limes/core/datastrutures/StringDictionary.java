@@ -0,0 +1,129 @@
+package org.aksw.limes.core.datastrutures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Dictionary that interns strings to consecutive int ids, starting with 0.
+ * Every string is stored only once and the ids are kept in an open-addressing
+ * table of primitive ints, so that looking up a string does not create any
+ * objects. Strings can be added but not removed. The dictionary is not
+ * thread-safe.
+ */
+public class StringDictionary implements Serializable {
+
+    private static final long serialVersionUID = 6227961389212004585L;
+
+    /**
+     * Strings by id.
+     */
+    private String[] strings;
+    /**
+     * Hash table that contains id + 1 of the string hashed at each slot, 0
+     * for empty slots.
+     */
+    private int[] table;
+    private int size;
+
+    public StringDictionary() {
+        this(16);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expectedSize,
+     *            number of strings the dictionary is expected to hold
+     */
+    public StringDictionary(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.strings = new String[capacity];
+        this.table = new int[tableSize(capacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the id of a string, adding the string to the dictionary if
+     * needed.
+     *
+     * @param s,
+     *            the string
+     * @return the id of s
+     */
+    public int add(String s) {
+        int slot = slot(s);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, strings.length + (strings.length >> 1));
+        }
+        int id = size++;
+        strings[id] = s;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of a string.
+     *
+     * @param s,
+     *            the string
+     * @return the id of s or -1 if s is not in the dictionary
+     */
+    public int getId(String s) {
+        return table[slot(s)] - 1;
+    }
+
+    /**
+     * @param id,
+     *            the id of a string
+     * @return the string with the given id
+     */
+    public String getString(int id) {
+        return strings[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot of the table that contains s, or the empty slot where
+     * s belongs.
+     */
+    private int slot(String s) {
+        int mask = table.length - 1;
+        int slot = mix(s.hashCode()) & mask;
+        while (table[slot] != 0 && !strings[table[slot] - 1].equals(s)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newSize) {
+        table = new int[newSize];
+        int mask = newSize - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(strings[id].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) * 2;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,218 @@
+package org.aksw.limes.core.execution.engine;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.IMapper;
+import org.aksw.limes.core.measures.mapper.ThresholdSweep;
+
+/**
+ * Bounded memo of the mappings of atomic link specifications, shared by the
+ * engines that execute many specifications with common atomic parts, e.g. the
+ * individuals of all generations of EAGLE. Only the mappings of exact mappers,
+ * see {@link IMapper#isExact()}, are memoized. The links of an atomic measure
+ * are kept as a {@link ThresholdSweep}, thus a request at a threshold is answered
+ * by any entry of the same measure and properties computed at a lower or equal
+ * threshold. A request at a lower threshold replaces the entry. When the
+ * number of memoized links exceeds the bound, the least recently used entries
+ * are evicted.
+ * <p>
+ * The memo can be used by several threads. Threads that miss the same entry
+ * at the same time compute it independently. The caches are compared by
+ * identity, and the memo is cleared when the content of a cache with
+ * memoized entries changes, see {@link ACache#addInvalidationListener(Runnable)}.
+ */
+public class AtomicMappingMemo {
+
+    public static final long DEFAULT_MAX_LINKS = 5000000;
+
+    private final long maxLinks;
+    private long links = 0;
+    private long hits = 0;
+    private long misses = 0;
+    /**
+     * Incremented by {@link #clear()}, so that mappings computed before are
+     * not memoized
+     */
+    private long generation = 0;
+    /**
+     * Caches of the memoized entries, whose changes clear the memo
+     */
+    private final Set<ACache> observed = Collections.newSetFromMap(new IdentityHashMap<ACache, Boolean>());
+    private final Runnable invalidationListener = this::clear;
+    /**
+     * Entries in access order, the least recently used first
+     */
+    private final LinkedHashMap<Key, ThresholdSweep> entries = new LinkedHashMap<Key, ThresholdSweep>(16, 0.75f,
+            true);
+
+    public AtomicMappingMemo() {
+        this(DEFAULT_MAX_LINKS);
+    }
+
+    /**
+     * @param maxLinks
+     *            Maximal number of memoized links
+     */
+    public AtomicMappingMemo(long maxLinks) {
+        this.maxLinks = maxLinks;
+    }
+
+    /**
+     * Returns the mapping of an atomic link specification, computing it with
+     * the mapper if no entry with a lower or equal threshold is memoized. The
+     * mappings of mappers that are not exact are always computed.
+     *
+     * @param mapper
+     *            Mapper of the measure of the expression
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param expression
+     *            Atomic metric expression
+     * @param threshold
+     *            Threshold of the specification
+     * @return a new mapping of the links whose similarity reaches the
+     *         threshold
+     */
+    public AMapping getMapping(IMapper mapper, ACache source, ACache target, String sourceVar, String targetVar,
+            String expression, double threshold) {
+        if (!mapper.isExact()) {
+            synchronized (this) {
+                misses++;
+            }
+            return mapper.getMapping(source, target, sourceVar, targetVar, expression, threshold);
+        }
+        Key key = new Key(source, target, sourceVar + '\u0000' + targetVar + '\u0000' + expression);
+        ThresholdSweep sweep;
+        long computedGeneration;
+        synchronized (this) {
+            observe(source);
+            observe(target);
+            computedGeneration = generation;
+            sweep = entries.get(key);
+            if (sweep != null && sweep.getMinThreshold() <= threshold) {
+                hits++;
+            } else {
+                sweep = null;
+                misses++;
+            }
+        }
+        if (sweep == null) {
+            sweep = mapper.getSweep(source, target, sourceVar, targetVar, expression, threshold);
+            put(key, sweep, computedGeneration);
+        }
+        return sweep.getMapping(threshold);
+    }
+
+    private void observe(ACache cache) {
+        if (observed.add(cache)) {
+            cache.addInvalidationListener(invalidationListener);
+        }
+    }
+
+    private synchronized void put(Key key, ThresholdSweep sweep, long computedGeneration) {
+        if (computedGeneration != generation) {
+            // a cache changed while the mapping was computed
+            return;
+        }
+        long size = sweep.size(sweep.getMinThreshold());
+        if (size > maxLinks) {
+            return;
+        }
+        ThresholdSweep old = entries.get(key);
+        if (old != null) {
+            // another thread may have memoized a lower threshold meanwhile
+            if (old.getMinThreshold() <= sweep.getMinThreshold()) {
+                return;
+            }
+            links -= old.size(old.getMinThreshold());
+        }
+        entries.put(key, sweep);
+        links += size;
+        Iterator<Map.Entry<Key, ThresholdSweep>> iter = entries.entrySet().iterator();
+        while (links > maxLinks && iter.hasNext()) {
+            ThresholdSweep e = iter.next().getValue();
+            iter.remove();
+            links -= e.size(e.getMinThreshold());
+        }
+    }
+
+    /**
+     * Drops all entries. Called when the content of a cache of an entry
+     * changes.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        links = 0;
+        generation++;
+        for (ACache cache : observed) {
+            cache.removeInvalidationListener(invalidationListener);
+        }
+        observed.clear();
+    }
+
+    /**
+     * @return number of memoized links
+     */
+    public synchronized long getLinks() {
+        return links;
+    }
+
+    /**
+     * @return number of requests answered by the memo
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of requests that ran a mapper
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Key of an entry: the caches, compared by identity, and the variables
+     * and metric expression.
+     */
+    private static class Key {
+
+        final ACache source;
+        final ACache target;
+        final String description;
+
+        Key(ACache source, ACache target, String description) {
+            this.source = source;
+            this.target = target;
+            this.description = description;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(source) + System.identityHashCode(target))
+                    + description.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return source == other.source && target == other.target && description.equals(other.description);
+        }
+    }
+}
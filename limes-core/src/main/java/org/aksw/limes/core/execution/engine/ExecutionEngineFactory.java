@@ -20,7 +20,7 @@ public class ExecutionEngineFactory {
      * Enum class of allowed execution engine types.
      */
     public enum ExecutionEngineType {
-        DEFAULT, SIMPLE, PARTIAL_RECALL
+        DEFAULT, SIMPLE, PARALLEL, PARTIAL_RECALL
     }
 
     /**
@@ -32,6 +32,11 @@ public class ExecutionEngineFactory {
      */
     public static final String SIMPLE = "simple";
 
+    /**
+     * Execution engine factory field for parallel execution engine.
+     */
+    public static final String PARALLEL = "parallel";
+
     /**
      * Execution engine factory field for partial recall (LIGER) execution
      * engine.
@@ -53,6 +58,9 @@ public class ExecutionEngineFactory {
         if (name.equalsIgnoreCase(SIMPLE)) {
             return ExecutionEngineType.SIMPLE;
         }
+        if (name.equalsIgnoreCase(PARALLEL)) {
+            return ExecutionEngineType.PARALLEL;
+        }
         if (name.equalsIgnoreCase(PARTIAL_RECALL)) {
             return ExecutionEngineType.PARTIAL_RECALL;
         }
@@ -79,10 +87,41 @@ public class ExecutionEngineFactory {
      */
     public static ExecutionEngine getEngine(ExecutionEngineType type, ACache source, ACache target, String sourceVar,
             String targetVar, long maxOpt, double k) {
+        return getEngine(type, source, target, sourceVar, targetVar, maxOpt, k, 0);
+    }
+
+    /**
+     * Factory function for retrieving the desired execution engine instance.
+     * 
+     * @param type
+     *            Type of the Execution Engine
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param parallelism
+     *            Maximal number of subplans executed at the same time by the
+     *            parallel execution engine, 0 for the default
+     * @return a specific execution engine instance
+     * 
+     */
+    public static ExecutionEngine getEngine(ExecutionEngineType type, ACache source, ACache target, String sourceVar,
+            String targetVar, long maxOpt, double k, int parallelism) {
         switch (type) {
         case DEFAULT:
         case SIMPLE:
             return new SimpleExecutionEngine(source, target, sourceVar, targetVar);
+        case PARALLEL:
+            ParallelExecutionEngine engine = new ParallelExecutionEngine(source, target, sourceVar, targetVar,
+                    maxOpt, k);
+            if (parallelism > 0) {
+                engine.setParallelism(parallelism);
+            }
+            return engine;
         case PARTIAL_RECALL:
             return new PartialRecallExecutionEngine(source, target, sourceVar, targetVar, maxOpt,k);
         default:
@@ -1,21 +1,82 @@
 package org.aksw.limes.core.execution.engine;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.util.ComputeScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 /**
- * Implements the default execution engine class. The idea is that the engine
+ * Implements the parallel execution engine class. The idea is that the engine
  * gets as input a link specification and a planner type, executes the
  * independent parts of the plan returned from the planner in parallel and
- * returns a MemoryMemoryMapping.
+ * returns a MemoryMapping. Subplans of a nested plan are executed as tasks of
+ * the shared {@link ComputeScheduler}, while their results are combined in the
+ * same order as in the {@link SimpleExecutionEngine}, so that both engines
+ * return the same mappings.
  *
  *
  * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version 1.0
  */
 public class ParallelExecutionEngine extends ExecutionEngine {
+
+    static Logger logger = LoggerFactory.getLogger(ParallelExecutionEngine.class);
+
+    /**
+     * Maximal number of subplans that are executed at the same time.
+     */
+    private int parallelism;
+
+    /**
+     * Constructor for a parallel execution engine. The parallelism is set to
+     * the number of available processors.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar) {
+        this(source, target, sourceVar, targetVar, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for a parallel execution engine.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param parallelism
+     *            Maximal number of subplans executed at the same time
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar,
+            int parallelism) {
+        super(source, target, sourceVar, targetVar);
+        setParallelism(parallelism);
+    }
+
     /**
      * Constructor for a parallel execution engine.
      *
@@ -27,15 +88,52 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      *            Source variable
      * @param targetVar
      *            Target variable
+     * @param maxOpt,
+     *            optimization time constraint
+     * @param k,
+     *            expected selectivity
      */
     public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar, long maxOpt,
             double k) {
-        super(source, target, sourceVar, targetVar);
+        super(source, target, sourceVar, targetVar, maxOpt, k);
+        setParallelism(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Executes an immutable nested plan. If a plan is atomic, it is executed
+     * and the result mapping is returned. If it is complex, all its subplans
+     * are executed in parallel, the operator is applied on their mappings from
+     * left to right and the result mapping gets filtered using the filtering
+     * instruction of the plan (if any).
+     *
+     * @param plan
+     *            A nested plan created by a static planner (Canonical or
+     *            Helios)
+     * @return The mapping obtained from executing the plan
+     */
+    public AMapping executeStatic(NestedPlan plan) {
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("execution", parallelism);
+        try {
+            return executeNested(plan, job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while executing the plan");
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
+        }
     }
 
     /**
      * Implementation of the execution of an execution plan. Independent parts
-     * of the plan are executed in parallel.
+     * of the plan are executed in parallel. Plans of the Dynamic planner are
+     * re-planned after each executed subplan, therefore they are executed
+     * sequentially by a {@link SimpleExecutionEngine}.
      *
      * @param spec
      *            The input link specification
@@ -45,7 +143,78 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      */
     @Override
     public AMapping execute(LinkSpecification spec, IPlanner planner) {
-        throw new UnsupportedOperationException("Not implemented yet");
+        spec = planner.normalize(spec);
+        if (planner.isStatic() == false) {
+            logger.info("Dynamic plans can not be executed in parallel. Executing them sequentially.");
+            return createWorker().executeDynamic(spec, (DynamicPlanner) planner);
+        }
+        NestedPlan plan = planner.plan(spec);
+        return executeStatic(plan);
     }
 
+    /**
+     * Creates a sequential engine for a single task. Every task gets its own
+     * engine since the buffer of the instructions is not shared between
+     * threads.
+     *
+     * @return a new simple execution engine over the same caches
+     */
+    private SimpleExecutionEngine createWorker() {
+        return new SimpleExecutionEngine(source, target, sourceVariable, targetVariable);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            logger.info("\nParallelism must be positive. Your input value is " + parallelism
+                    + ".\nSetting it to the default value: " + Runtime.getRuntime().availableProcessors() + ".");
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+        } else
+            this.parallelism = parallelism;
+    }
+
+    /**
+     * Executes a nested plan. The subplans of a complex plan but the first one
+     * are submitted to the job, the first one is executed by the calling
+     * thread.
+     */
+    private AMapping executeNested(NestedPlan plan, ComputeScheduler.Job job)
+            throws InterruptedException, ExecutionException {
+        // empty nested plan contains nothing
+        if (plan.isEmpty()) {
+            return MappingFactory.createDefaultMapping();
+        }
+        SimpleExecutionEngine worker = createWorker();
+        // atomic nested plan just contain simple list of instructions
+        if (plan.isAtomic()) {
+            return worker.executeInstructions(plan);
+        }
+        // a single run whose links are filtered while they are computed
+        Instruction run = worker.getPipelinedRun(plan);
+        if (run != null) {
+            return worker.executeFilteredRun(run, plan.getFilteringInstruction());
+        }
+        List<NestedPlan> subPlans = plan.getSubPlans();
+        List<Future<AMapping>> forked = new ArrayList<>(subPlans.size() - 1);
+        for (NestedPlan subPlan : subPlans.subList(1, subPlans.size())) {
+            forked.add(job.submit(() -> executeNested(subPlan, job)));
+        }
+        AMapping m = executeNested(subPlans.get(0), job);
+        // join in reverse submission order, then combine the results in plan
+        // order, as the simple engine does
+        AMapping[] results = new AMapping[forked.size()];
+        for (int i = forked.size() - 1; i >= 0; i--) {
+            results[i] = job.join(forked.get(i));
+        }
+        for (AMapping m2 : results) {
+            m = worker.executeOperator(plan, m, m2);
+        }
+        if (plan.getFilteringInstruction() != null) {
+            m = worker.executeFilter(plan.getFilteringInstruction(), m);
+        }
+        return m;
+    }
 }
@@ -16,6 +16,7 @@ import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.mapping.MemoryMapping;
 import org.aksw.limes.core.measures.mapper.IMapper;
@@ -43,6 +44,11 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      * Map of intermediate mappings. Used for dynamic planning.
      */
     private HashMap<String, AMapping> dynamicResults = new HashMap<String, AMapping>();
+    /**
+     * Memo of atomic mappings shared with other engines, null if the atomic
+     * mappings are always computed.
+     */
+    private AtomicMappingMemo memo = null;
 
     /**
      * Constructor for a simple execution engine.
@@ -81,6 +87,21 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         super(source, target, sourceVar, targetVar, maxOpt, k);
     }
 
+    public AtomicMappingMemo getMemo() {
+        return memo;
+    }
+
+    /**
+     * Sets a memo, through which the mappings of the RUN instructions are
+     * obtained.
+     *
+     * @param memo
+     *            Memo of atomic mappings or null
+     */
+    public void setMemo(AtomicMappingMemo memo) {
+        this.memo = memo;
+    }
+
     /**
      * Implementation of the execution of a plan. It receives a plan as a set of
      * instructions and executes them sequentially. This function does not
@@ -189,6 +210,10 @@ public class SimpleExecutionEngine extends ExecutionEngine {
             MeasureType type = MeasureFactory.getMeasureType(inst.getMeasureExpression());
             mapper = MapperFactory.createMapper(type);
 
+            if (memo != null) {
+                return memo.getMapping(mapper, source, target, sourceVariable, targetVariable,
+                        inst.getMeasureExpression(), threshold);
+            }
             return mapper.getMapping(source, target, sourceVariable, targetVariable, inst.getMeasureExpression(),
                     threshold);
             /*
@@ -203,6 +228,84 @@ public class SimpleExecutionEngine extends ExecutionEngine {
 
     }
 
+    /**
+     * Executes an atomic RUN instruction and filters its links with a
+     * filtering instruction as they are computed by the mapper. Only the links
+     * that pass the filter are materialized. The result is the same as the
+     * one of executing the RUN instruction and then filtering its mapping
+     * with {@link #executeFilter(Instruction, AMapping)}. If the engine has
+     * a memo, the memoized mapping of the RUN instruction is filtered.
+     *
+     * @param run
+     *            Atomic RUN instruction
+     * @param filter
+     *            Filtering instruction
+     * @return The filtered mapping obtained from executing the RUN instruction
+     */
+    public AMapping executeFilteredRun(Instruction run, Instruction filter) {
+        if (memo != null) {
+            return executeFilter(filter, executeRun(run));
+        }
+        double threshold = Double.parseDouble(run.getThreshold());
+        if (threshold <= 0) {
+            throw new InvalidThresholdException(threshold);
+        }
+        MeasureType type = MeasureFactory.getMeasureType(run.getMeasureExpression());
+        IMapper mapper = MapperFactory.createMapper(type);
+        AMapping result = MappingFactory.createDefaultMapping();
+        LinkConsumer consumer = createFilter(filter, result::add);
+        mapper.getMapping(source, target, sourceVariable, targetVariable, run.getMeasureExpression(), threshold,
+                consumer);
+        return result;
+    }
+
+    /**
+     * Creates the pipelined counterpart of
+     * {@link #executeFilter(Instruction, AMapping)}.
+     *
+     * @param inst
+     *            Input instruction with FILTER command
+     * @param output
+     *            Consumer of the filtered links
+     * @return a consumer that filters the links it receives
+     */
+    private LinkConsumer createFilter(Instruction inst, LinkConsumer output) {
+        LinearFilter filter = new LinearFilter();
+        if (inst.getMeasureExpression() == null) {
+            return filter.filter(output, Double.parseDouble(inst.getThreshold()));
+        } else if (inst.getMainThreshold() != null) {
+            return filter.filter(output, inst.getMeasureExpression(), Double.parseDouble(inst.getThreshold()),
+                    Double.parseDouble(inst.getMainThreshold()), source, target, sourceVariable, targetVariable);
+        } else {
+            return filter.filter(output, inst.getMeasureExpression(), Double.parseDouble(inst.getThreshold()), source,
+                    target, sourceVariable, targetVariable);
+        }
+    }
+
+    /**
+     * Returns the RUN instruction of a complex nested plan whose result can be
+     * filtered while it is computed. This is the case for plans that have a
+     * filtering instruction and a single atomic subplan consisting of a RUN
+     * instruction, e.g. the plans created by Helios for an AND whose second
+     * child is executed as a filter.
+     *
+     * @param plan
+     *            A complex nested plan
+     * @return The RUN instruction of the subplan or null if the plan can not be
+     *         pipelined
+     */
+    protected Instruction getPipelinedRun(NestedPlan plan) {
+        if (plan.isAtomic() || plan.getFilteringInstruction() == null || plan.getSubPlans().size() != 1) {
+            return null;
+        }
+        NestedPlan subPlan = plan.getSubPlans().get(0);
+        if (subPlan.isEmpty() || !subPlan.isAtomic() || subPlan.getInstructionList().size() != 1) {
+            return null;
+        }
+        Instruction run = subPlan.getInstructionList().get(0);
+        return run.getCommand().equals(Command.RUN) ? run : null;
+    }
+
     /**
      * Runs the reverse filtering operator.
      *
@@ -283,6 +386,45 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         return MappingOperations.union(m1, m2);
     }
 
+    /**
+     * Applies the operator of a complex nested plan to the mappings of two of
+     * its subplans. If the operator is not supported, the first mapping is
+     * returned unchanged. The mappings of the subplans are only used by the
+     * execution of the plan, thus union, intersection and difference reuse
+     * them for the result instead of copying them. The input mappings must not
+     * be used afterwards.
+     *
+     * @param plan
+     *            The complex nested plan whose operator is applied
+     * @param m1
+     *            Mapping of the left subplan
+     * @param m2
+     *            Mapping of the right subplan
+     * @return The combined mapping of m1 and m2
+     */
+    public AMapping executeOperator(NestedPlan plan, AMapping m1, AMapping m2) {
+        AMapping result = m1;
+        if (plan.getOperator().equals(Command.INTERSECTION)) {
+            result = MappingOperations.intersection(m1, m2, true);
+        } // union
+        else if (plan.getOperator().equals(Command.UNION)) {
+            result = MappingOperations.union(m1, m2, true);
+        } // diff
+        else if (plan.getOperator().equals(Command.DIFF)) {
+            result = MappingOperations.difference(m1, m2, true);
+            // exclusive or
+        } else if (plan.getOperator().equals(Command.XOR)) {
+            LinearFilter f = new LinearFilter();
+            AMapping mleft = executeUnion(m1, m2);
+            mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
+
+            AMapping mright = executeIntersection(m1, m2);
+            mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
+            result = executeDifference(mleft, mright);
+        }
+        return result;
+    }
+
     /**
      * Executes an immutable nested plan in lNr depth first oder. See
      * {@link #execute(LinkSpecification, IPlanner)}. If a plan is atomic, it is
@@ -306,30 +448,16 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         } // nested plans contain subplans, an operator for merging the results
           // of the subplans and a filter for filtering the results of the
           // subplan
-        else {
+        else if (getPipelinedRun(plan) != null) {
+            // filter the links of the single subplan while they are computed
+            m = executeFilteredRun(getPipelinedRun(plan), plan.getFilteringInstruction());
+        } else {
             // run all the subplans
             m = executeStatic(plan.getSubPlans().get(0));
             AMapping m2, result = m;
             for (int i = 1; i < plan.getSubPlans().size(); i++) {
                 m2 = executeStatic(plan.getSubPlans().get(i));
-                if (plan.getOperator().equals(Command.INTERSECTION)) {
-                    result = executeIntersection(m, m2);
-                } // union
-                else if (plan.getOperator().equals(Command.UNION)) {
-                    result = executeUnion(m, m2);
-                } // diff
-                else if (plan.getOperator().equals(Command.DIFF)) {
-                    result = executeDifference(m, m2);
-                    // exclusive or
-                } else if (plan.getOperator().equals(Command.XOR)) {
-                    LinearFilter f = new LinearFilter();
-                    AMapping mleft = executeUnion(m, m2);
-                    mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
-
-                    AMapping mright = executeIntersection(m, m2);
-                    mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
-                    result = executeDifference(mleft, mright);
-                }
+                result = executeOperator(plan, m, m2);
                 m = result;
             }
             // only run filtering if there is a filter indeed, else simply
@@ -1,11 +1,15 @@
 package org.aksw.limes.core.execution.engine.filter;
 
+import java.util.HashMap;
+import java.util.Map.Entry;
+
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,8 +43,9 @@ public class LinearFilter implements IFilter {
             AMapping result = MappingFactory.createDefaultMapping();
             // run on all pairs and remove those whose similarity is below
             // the threshold
-            for (String key : map.getMap().keySet()) {
-                for (String value : map.getMap().get(key).keySet()) {
+            for (Entry<String, HashMap<String, Double>> entry : map.getMap().entrySet()) {
+                String key = entry.getKey();
+                for (String value : entry.getValue().keySet()) {
                     sim = map.getConfidence(key, value);
                     if (sim >= threshold) {
                         result.add(key, value, sim);
@@ -83,14 +88,16 @@ public class LinearFilter implements IFilter {
             logger.error("Null condition in filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
         AMapping result = MappingFactory.createDefaultMapping();
         // 2. run on all pairs and remove those
-        for (String key : map.getMap().keySet()) {
+        for (Entry<String, HashMap<String, Double>> entry : map.getMap().entrySet()) {
+            String key = entry.getKey();
             s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
+            for (String value : entry.getValue().keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = expression.getSimilarity(s, t);
                 if (sim >= threshold) {
                     result.add(s.getUri(), t.getUri(), sim);
                 }
@@ -138,12 +145,14 @@ public class LinearFilter implements IFilter {
             logger.info("Null condition in extended filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
-        for (String key : map.getMap().keySet()) {
+        for (Entry<String, HashMap<String, Double>> entry : map.getMap().entrySet()) {
+            String key = entry.getKey();
             s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
+            for (String value : entry.getValue().keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = expression.getSimilarity(s, t);
                 // result must pass the filter threshold first!
                 if (sim >= threshold) {
                     double sim2 = map.getConfidence(key, value);
@@ -199,13 +208,15 @@ public class LinearFilter implements IFilter {
             System.err.println("Null condition in extended reverse filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
         // 2. run on all pairs and remove those
-        for (String key : map.getMap().keySet()) {
+        for (Entry<String, HashMap<String, Double>> entry : map.getMap().entrySet()) {
+            String key = entry.getKey();
             s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
+            for (String value : entry.getValue().keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = expression.getSimilarity(s, t);
 
                 // similarity of s and t must be 0 to be accepted
                 if (sim == 0) {
@@ -220,6 +231,156 @@ public class LinearFilter implements IFilter {
 
     }
 
+    /**
+     * Pipelined version of {@link #filter(AMapping, double)}. Returns a
+     * consumer that passes the links it receives with a similarity above the
+     * input threshold to the output consumer.
+     *
+     * @param output
+     *            Consumer of the filtered links
+     * @param threshold
+     *            Value of threshold
+     * @return a consumer that filters the links by sim {@literal >}=
+     *         threshold
+     */
+    public LinkConsumer filter(LinkConsumer output, double threshold) {
+        if (threshold <= 0.0) {
+            return output;
+        }
+        return (key, value, sim) -> {
+            if (sim >= threshold) {
+                output.accept(key, value, sim);
+            }
+        };
+    }
+
+    /**
+     * Pipelined version of
+     * {@link #filter(AMapping, String, double, ACache, ACache, String, String)}.
+     * The condition is evaluated on each link as soon as it is received, thus
+     * the links that do not satisfy it are never materialized.
+     *
+     * @param output
+     *            Consumer of the filtered links
+     * @param condition
+     *            The condition for filtering
+     * @param threshold
+     *            Value of threshold
+     * @param source
+     *            Source knowledge base
+     * @param target
+     *            Target knowledge base
+     * @param sourceVar
+     *            Source property
+     * @param targetVar
+     *            Target property
+     * @return a consumer that filters the links by both the condition and the
+     *         threshold
+     */
+    public LinkConsumer filter(LinkConsumer output, String condition, double threshold, ACache source,
+            ACache target, String sourceVar, String targetVar) {
+        if (condition == null) {
+            logger.error("Null condition in filter function (LinearFilter). Exiting..");
+            throw new RuntimeException();
+        }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
+        return (key, value, mapSim) -> {
+            Instance s = source.getInstance(key);
+            Instance t = target.getInstance(value);
+            double sim = expression.getSimilarity(s, t);
+            if (sim >= threshold) {
+                output.accept(s.getUri(), t.getUri(), sim);
+            }
+        };
+    }
+
+    /**
+     * Pipelined version of
+     * {@link #filter(AMapping, String, double, double, ACache, ACache, String, String)}
+     * . A link is passed to the output consumer with the minimum of its
+     * initial similarity and its similarity based on the input condition.
+     *
+     * @param output
+     *            Consumer of the filtered links
+     * @param condition
+     *            The condition for filtering
+     * @param threshold
+     *            Value of the first threshold
+     * @param mainThreshold
+     *            Value of second threshold
+     * @param source
+     *            Source knowledge base
+     * @param target
+     *            Target knowledge base
+     * @param sourceVar
+     *            Source property
+     * @param targetVar
+     *            Target property
+     * @return a consumer that filters the links by both the condition and the
+     *         thresholds
+     */
+    public LinkConsumer filter(LinkConsumer output, String condition, double threshold, double mainThreshold,
+            ACache source, ACache target, String sourceVar, String targetVar) {
+        if (condition == null) {
+            logger.info("Null condition in extended filter function (LinearFilter). Exiting..");
+            throw new RuntimeException();
+        }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
+        return (key, value, mapSim) -> {
+            double sim = expression.getSimilarity(source.getInstance(key), target.getInstance(value));
+            // result must pass the filter threshold first!
+            if (sim >= threshold) {
+                // min similarity because of AND operator
+                double minSimilarity = Math.min(sim, mapSim);
+                if (minSimilarity >= mainThreshold) {
+                    output.accept(key, value, minSimilarity);
+                }
+            }
+        };
+    }
+
+    /**
+     * Pipelined version of
+     * {@link #reversefilter(AMapping, String, double, double, ACache, ACache, String, String)}
+     * . A link is passed to the output consumer only if it does not fulfill
+     * the input condition and its initial similarity is above the
+     * mainThreshold.
+     *
+     * @param output
+     *            Consumer of the filtered links
+     * @param condition
+     *            The condition for filtering
+     * @param threshold
+     *            Value of the first threshold
+     * @param mainThreshold
+     *            Value of second threshold
+     * @param source
+     *            Source knowledge base
+     * @param target
+     *            Target knowledge base
+     * @param sourceVar
+     *            Source property
+     * @param targetVar
+     *            Target property
+     * @return a consumer that filters the links by both the condition and the
+     *         thresholds
+     */
+    public LinkConsumer reversefilter(LinkConsumer output, String condition, double threshold, double mainThreshold,
+            ACache source, ACache target, String sourceVar, String targetVar) {
+        if (condition == null) {
+            logger.error("Null condition in extended reverse filter function (LinearFilter). Exiting..");
+            throw new RuntimeException();
+        }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
+        return (key, value, mapSim) -> {
+            // similarity of s and t must be 0 to be accepted
+            if (mapSim >= mainThreshold
+                    && expression.getSimilarity(source.getInstance(key), target.getInstance(value)) == 0) {
+                output.accept(key, value, mapSim);
+            }
+        };
+    }
+
     /**
      * Filter for linear combinations when operation is set to "add", given the
      * expression a*sim1 + b*sim2 {@literal >}= t or multiplication given the
@@ -255,8 +416,9 @@ public class LinearFilter implements IFilter {
         // we can be sure that each key in m is also in m1 and m2 as we used
         // intersection
         if (operation.equalsIgnoreCase("add")) {
-            for (String key : m.getMap().keySet()) {
-                for (String value : m.getMap().get(key).keySet()) {
+            for (Entry<String, HashMap<String, Double>> entry : m.getMap().entrySet()) {
+                String key = entry.getKey();
+                for (String value : entry.getValue().keySet()) {
                     sim = coef1 * map1.getConfidence(key, value) + coef2 * map2.getConfidence(key, value);
                     if (sim >= threshold) {
                         result.add(key, value, sim);
@@ -264,8 +426,9 @@ public class LinearFilter implements IFilter {
                 }
             }
         } else {
-            for (String key : m.getMap().keySet()) {
-                for (String value : m.getMap().get(key).keySet()) {
+            for (Entry<String, HashMap<String, Double>> entry : m.getMap().entrySet()) {
+                String key = entry.getKey();
+                for (String value : entry.getValue().keySet()) {
                     sim = coef1 * coef2 * map1.getConfidence(key, value) * map2.getConfidence(key, value);
                     if (sim >= threshold) {
                         result.add(key, value, sim);
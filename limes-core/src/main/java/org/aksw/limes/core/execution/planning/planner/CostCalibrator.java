@@ -0,0 +1,167 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Micro-benchmark that fits the models of a {@link CostProfile} to the
+ * source and target caches at hand. For each atomic measure of a link
+ * specification, the mapper of the measure is run on samples of different
+ * sizes of the caches and with different thresholds, and the similarity of
+ * random pairs of instances is computed to measure the cost of filtering with
+ * the measure.
+ */
+public class CostCalibrator {
+
+    static Logger logger = LoggerFactory.getLogger(CostCalibrator.class);
+
+    private static final double[] SAMPLE_FRACTIONS = { 0.25, 0.5, 1 };
+    private static final int FILTER_PAIRS = 10000;
+
+    private ACache source;
+    private ACache target;
+    private String sourceVar;
+    private String targetVar;
+    private int sampleSize = 1000;
+    private Random random = new Random(42);
+
+    /**
+     * Constructor of the CostCalibrator class.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public CostCalibrator(ACache source, ACache target, String sourceVar, String targetVar) {
+        this.source = source;
+        this.target = target;
+        this.sourceVar = sourceVar;
+        this.targetVar = targetVar;
+    }
+
+    /**
+     * Sets the size of the largest samples of the caches. Larger samples give
+     * better estimates for large caches, but take longer to run.
+     *
+     * @param sampleSize
+     *            Maximal number of instances of a sample
+     */
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Calibrates the mappers and measures of all atomic specifications of a
+     * link specification.
+     *
+     * @param profile
+     *            Profile to which the observations are added
+     * @param spec
+     *            Link specification
+     */
+    public void calibrate(CostProfile profile, LinkSpecification spec) {
+        Set<String> expressions = new HashSet<String>();
+        for (LinkSpecification leaf : spec.getAllLeaves()) {
+            if (expressions.add(leaf.getFilterExpression())) {
+                calibrate(profile, leaf.getFilterExpression(), leaf.getThreshold());
+            }
+        }
+    }
+
+    /**
+     * Calibrates the mapper and the measure of an atomic metric expression.
+     * The mapper is run with the input threshold and with a higher one.
+     *
+     * @param profile
+     *            Profile to which the observations are added
+     * @param expression
+     *            Atomic metric expression
+     * @param threshold
+     *            Threshold of the expression
+     */
+    public void calibrate(CostProfile profile, String expression, double threshold) {
+        MeasureType type = MeasureFactory.getMeasureType(expression);
+        AMapper mapper = MapperFactory.createMapper(type);
+        List<Instance> sourceSample = sample(source);
+        List<Instance> targetSample = sample(target);
+        double[] thresholds = threshold < 1 ? new double[] { threshold, (1 + threshold) / 2 }
+                : new double[] { threshold };
+        // warm up
+        mapper.getMapping(toCache(sourceSample, 0.25), toCache(targetSample, 0.25), sourceVar, targetVar, expression,
+                threshold);
+        for (double theta : thresholds) {
+            for (double sourceFraction : SAMPLE_FRACTIONS) {
+                for (double targetFraction : SAMPLE_FRACTIONS) {
+                    ACache s = toCache(sourceSample, sourceFraction);
+                    ACache t = toCache(targetSample, targetFraction);
+                    long begin = System.nanoTime();
+                    AMapping m = mapper.getMapping(s, t, sourceVar, targetVar, expression, theta);
+                    double runtime = (System.nanoTime() - begin) / 1e6;
+                    profile.addRun(type, s.size(), t.size(), theta, runtime, m.getNumberofMappings());
+                }
+            }
+        }
+        calibrateFilter(profile, type, expression, threshold, sourceSample, targetSample);
+        logger.info("Calibrated " + type + " on " + sourceSample.size() + " source and " + targetSample.size()
+                + " target instances.");
+    }
+
+    private void calibrateFilter(CostProfile profile, MeasureType type, String expression, double threshold,
+            List<Instance> sourceSample, List<Instance> targetSample) {
+        if (sourceSample.isEmpty() || targetSample.isEmpty()) {
+            return;
+        }
+        CompiledExpression compiled = CompiledExpression.compile(expression, threshold, sourceVar, targetVar);
+        int[] s = new int[FILTER_PAIRS];
+        int[] t = new int[FILTER_PAIRS];
+        for (int i = 0; i < FILTER_PAIRS; i++) {
+            s[i] = random.nextInt(sourceSample.size());
+            t[i] = random.nextInt(targetSample.size());
+        }
+        double sum = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < FILTER_PAIRS; i++) {
+            sum += compiled.getSimilarity(sourceSample.get(s[i]), targetSample.get(t[i]));
+        }
+        double runtime = (System.nanoTime() - begin) / 1e6;
+        logger.debug("Mean similarity of " + type + ": " + sum / FILTER_PAIRS);
+        profile.addFilter(type, FILTER_PAIRS, runtime);
+    }
+
+    private List<Instance> sample(ACache cache) {
+        List<Instance> instances = new ArrayList<Instance>(cache.getAllInstances());
+        Collections.shuffle(instances, random);
+        return instances.subList(0, Math.min(sampleSize, instances.size()));
+    }
+
+    private ACache toCache(List<Instance> sample, double fraction) {
+        ACache cache = new MemoryCache();
+        int size = (int) Math.ceil(sample.size() * fraction);
+        for (Instance i : sample.subList(0, size)) {
+            cache.addInstance(i);
+        }
+        return cache;
+    }
+}
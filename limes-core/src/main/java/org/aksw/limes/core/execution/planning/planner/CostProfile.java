@@ -0,0 +1,223 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runtime and mapping size models of the mappers and runtime costs of the
+ * measures, keyed by measure type. The models are fitted to the runtimes and
+ * mapping sizes observed on the data at hand, either by the
+ * {@link CostCalibrator} or by the executions of the {@link DynamicPlanner}
+ * plans, and replace the fixed approximations of the mappers and measures in
+ * the {@link HeliosPlanner} and the {@link DynamicPlanner}. Runtimes are
+ * measured in milliseconds, whereas the fixed approximations have their own
+ * units. Thus the planners only use a profile for link specifications whose
+ * measures are all calibrated, see {@link #isCalibrated(LinkSpecification)}.
+ * Profiles can be saved and reused for later runs on similar data.
+ */
+public class CostProfile implements Serializable {
+
+    private static final long serialVersionUID = 6218004527409871355L;
+
+    static Logger logger = LoggerFactory.getLogger(CostProfile.class);
+
+    /**
+     * Number of observations a mapper model needs before it is used, fewer
+     * observations cannot determine the model.
+     */
+    public static final int MIN_OBSERVATIONS = LinearCostModel.FEATURES;
+
+    private final Map<MeasureType, LinearCostModel> runtimes = new EnumMap<MeasureType, LinearCostModel>(
+            MeasureType.class);
+    private final Map<MeasureType, LinearCostModel> sizes = new EnumMap<MeasureType, LinearCostModel>(
+            MeasureType.class);
+    /**
+     * Total runtime and number of similarity computations of each measure.
+     */
+    private final Map<MeasureType, double[]> filterCosts = new EnumMap<MeasureType, double[]>(MeasureType.class);
+
+    /**
+     * Adds an observed run of a mapper.
+     *
+     * @param type
+     *            Measure type of the mapper
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param threshold
+     *            Threshold of the run
+     * @param runtime
+     *            Runtime of the run in milliseconds
+     * @param mappingSize
+     *            Size of the returned mapping
+     */
+    public synchronized void addRun(MeasureType type, int sourceSize, int targetSize, double threshold,
+            double runtime, double mappingSize) {
+        runtimes.computeIfAbsent(type, t -> new LinearCostModel()).add(sourceSize, targetSize, threshold, runtime);
+        sizes.computeIfAbsent(type, t -> new LinearCostModel()).add(sourceSize, targetSize, threshold, mappingSize);
+    }
+
+    /**
+     * Adds an observed filtering with a measure.
+     *
+     * @param type
+     *            Measure type
+     * @param pairs
+     *            Number of computed similarities
+     * @param runtime
+     *            Runtime of the filtering in milliseconds
+     */
+    public synchronized void addFilter(MeasureType type, long pairs, double runtime) {
+        double[] cost = filterCosts.computeIfAbsent(type, t -> new double[2]);
+        cost[0] += runtime;
+        cost[1] += pairs;
+    }
+
+    /**
+     * @param type
+     *            Measure type of a mapper
+     * @return true if the mapper has enough observations to estimate its
+     *         runtime and mapping size
+     */
+    public synchronized boolean isCalibrated(MeasureType type) {
+        return runtimes.containsKey(type) && runtimes.get(type).size() >= MIN_OBSERVATIONS;
+    }
+
+    /**
+     * @param spec
+     *            Link specification
+     * @return true if the mappers and the measures of all atomic
+     *         specifications of the link specification are calibrated
+     */
+    public synchronized boolean isCalibrated(LinkSpecification spec) {
+        for (LinkSpecification leaf : spec.getAllLeaves()) {
+            if (leaf.isEmpty()) {
+                continue;
+            }
+            MeasureType type = MeasureFactory.getMeasureType(leaf.getFilterExpression());
+            if (!isCalibrated(type) || !isFilterCalibrated(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param type
+     *            Measure type
+     * @return true if the runtime of a measure was observed
+     */
+    public synchronized boolean isFilterCalibrated(MeasureType type) {
+        return filterCosts.containsKey(type) && filterCosts.get(type)[1] > 0;
+    }
+
+    /**
+     * Estimates the runtime of a mapper. The mapper must be calibrated.
+     *
+     * @param type
+     *            Measure type of the mapper
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param threshold
+     *            Threshold of the run
+     * @return estimated runtime in milliseconds
+     */
+    public synchronized double getRuntimeApproximation(MeasureType type, int sourceSize, int targetSize,
+            double threshold) {
+        checkCalibrated(type);
+        return runtimes.get(type).estimate(sourceSize, targetSize, threshold);
+    }
+
+    /**
+     * Estimates the size of the mapping of a mapper. The mapper must be
+     * calibrated.
+     *
+     * @param type
+     *            Measure type of the mapper
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param threshold
+     *            Threshold of the run
+     * @return estimated mapping size, at most sourceSize * targetSize
+     */
+    public synchronized double getMappingSizeApproximation(MeasureType type, int sourceSize, int targetSize,
+            double threshold) {
+        checkCalibrated(type);
+        return Math.min((double) sourceSize * targetSize, sizes.get(type).estimate(sourceSize, targetSize, threshold));
+    }
+
+    /**
+     * Estimates the runtime of filtering a mapping with a measure. The
+     * measure must be calibrated.
+     *
+     * @param type
+     *            Measure type
+     * @param mappingSize
+     *            Size of the mapping to filter
+     * @return estimated runtime in milliseconds
+     */
+    public synchronized double getFilterRuntimeApproximation(MeasureType type, double mappingSize) {
+        if (!isFilterCalibrated(type)) {
+            logger.error("No runtime of measure " + type + " was observed.");
+            throw new RuntimeException("No runtime of measure " + type + " was observed.");
+        }
+        double[] cost = filterCosts.get(type);
+        return mappingSize * cost[0] / cost[1];
+    }
+
+    private void checkCalibrated(MeasureType type) {
+        if (!isCalibrated(type)) {
+            logger.error("Mapper of measure " + type + " is not calibrated.");
+            throw new RuntimeException("Mapper of measure " + type + " is not calibrated.");
+        }
+    }
+
+    /**
+     * Writes the profile to a file.
+     *
+     * @param file
+     *            File to write to
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public synchronized void save(File file) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeObject(this);
+        }
+    }
+
+    /**
+     * Reads a profile from a file.
+     *
+     * @param file
+     *            File written by {@link #save(File)}
+     * @return the profile
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static CostProfile load(File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            return (CostProfile) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("File " + file + " does not contain a cost profile", e);
+        }
+    }
+}
@@ -45,6 +45,16 @@ public class DynamicPlanner extends Planner {
      * Language of the source/target data.
      */
     private Language lang;
+    /**
+     * Calibrated costs of the mappers and measures, null to use their fixed
+     * approximations.
+     */
+    private CostProfile costProfile = null;
+    /**
+     * False if the cost profile does not calibrate all measures of the link
+     * specification being planned
+     */
+    private boolean useCostProfile = true;
     /**
      * Sub-link specifications (as string) and their corresponding plans.
      */
@@ -66,6 +76,34 @@ public class DynamicPlanner extends Planner {
         lang = Language.EN;
     }
 
+    /**
+     * Sets the calibrated costs used to estimate the runtimes and mapping
+     * sizes of the mappers and measures. The runtimes of the profile and of
+     * the fixed approximations have different units, thus a link
+     * specification is only planned with the profile if the profile
+     * calibrates all of its measures, see
+     * {@link CostProfile#isCalibrated(LinkSpecification)}. Otherwise all of
+     * its costs are estimated by the fixed approximations.
+     *
+     * @param costProfile
+     *            The cost profile, null to only use the fixed approximations
+     */
+    public void setCostProfile(CostProfile costProfile) {
+        this.costProfile = costProfile;
+    }
+
+    public CostProfile getCostProfile() {
+        return costProfile;
+    }
+
+    /**
+     * @return true if the costs of a measure of the link specification being
+     *         planned are estimated by the cost profile
+     */
+    private boolean useCostProfile(MeasureType type) {
+        return costProfile != null && useCostProfile && costProfile.isCalibrated(type);
+    }
+
     public Map<String, NestedPlan> getPlans() {
         return plans;
     }
@@ -156,6 +194,9 @@ public class DynamicPlanner extends Planner {
     public double getAtomicRuntimeCosts(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (useCostProfile(type)) {
+            return costProfile.getRuntimeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -175,6 +216,9 @@ public class DynamicPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (useCostProfile(type)) {
+            return costProfile.getMappingSizeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -207,7 +251,11 @@ public class DynamicPlanner extends Planner {
             for (String measure : measures) {
                 double tempCost = 0;
                 MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                if (useCostProfile(type) && costProfile.isFilterCalibrated(type)) {
+                    tempCost = costProfile.getFilterRuntimeApproximation(type, mappingSize);
+                } else {
+                    tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                }
                 cost += tempCost;
             }
         }
@@ -245,7 +293,10 @@ public class DynamicPlanner extends Planner {
     }
 
     /**
-     * Updates the characteristics of a plan once it is executed.
+     * Updates the characteristics of a plan once it is executed. If the
+     * planner has a cost profile and the plan ran the mapper of an atomic
+     * specification, the observed runtime and mapping size are added to the
+     * profile, which refines the estimates of the following plans.
      *
      * @param spec
      *            The link specification from which the plan was generated
@@ -261,6 +312,12 @@ public class DynamicPlanner extends Planner {
             logger.error("Specification: " + spec.getFullExpression() + " was not initialised. Exiting..");
             throw new RuntimeException();
         }
+        // atomic specifications with a dependency are computed by filtering
+        // the mapping of another specification instead of running a mapper
+        if (costProfile != null && spec.isAtomic() && !spec.isEmpty() && getDependency(spec) == null) {
+            MeasureType type = MeasureFactory.getMeasureType(spec.getFilterExpression());
+            costProfile.addRun(type, source.size(), target.size(), spec.getThreshold(), rt, msize);
+        }
         NestedPlan plan = plans.get(spec.toString());
         plan.setRuntimeCost(rt);
         plan.setSelectivity(selectivity);
@@ -280,6 +337,7 @@ public class DynamicPlanner extends Planner {
      */
     @Override
     public NestedPlan plan(LinkSpecification spec) {
+        useCostProfile = costProfile != null && spec != null && costProfile.isCalibrated(spec);
         return plan(spec, source, target, MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
 
     }
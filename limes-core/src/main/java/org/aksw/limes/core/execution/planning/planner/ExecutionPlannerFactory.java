@@ -94,4 +94,31 @@ public class ExecutionPlannerFactory {
         }
     }
 
+    /**
+     * Factory function for retrieving the desired planner instance, whose
+     * cost estimates are based on a cost profile. Only the Helios and the
+     * Dynamic planner estimate costs.
+     *
+     * @param type
+     *            Type of the Planner
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param costProfile
+     *            Calibrated costs of the mappers and measures
+     *
+     * @return a specific planner instance
+     */
+    public static Planner getPlanner(ExecutionPlannerType type, ACache source, ACache target,
+            CostProfile costProfile) {
+        Planner planner = getPlanner(type, source, target);
+        if (planner instanceof HeliosPlanner) {
+            ((HeliosPlanner) planner).setCostProfile(costProfile);
+        } else if (planner instanceof DynamicPlanner) {
+            ((DynamicPlanner) planner).setCostProfile(costProfile);
+        }
+        return planner;
+    }
+
 }
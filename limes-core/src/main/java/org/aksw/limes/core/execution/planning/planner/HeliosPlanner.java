@@ -43,6 +43,16 @@ public class HeliosPlanner extends Planner {
      * Language of the source/target data.
      */
     public Language lang;
+    /**
+     * Calibrated costs of the mappers and measures, null to use their fixed
+     * approximations.
+     */
+    private CostProfile costProfile = null;
+    /**
+     * False if the cost profile does not calibrate all measures of the link
+     * specification being planned
+     */
+    private boolean useCostProfile = true;
 
     /**
      * Constructor of the Helios planner class.
@@ -58,6 +68,34 @@ public class HeliosPlanner extends Planner {
         this.lang = Language.EN;
     }
 
+    /**
+     * Sets the calibrated costs used to estimate the runtimes and mapping
+     * sizes of the mappers and measures. The runtimes of the profile and of
+     * the fixed approximations have different units, thus a link
+     * specification is only planned with the profile if the profile
+     * calibrates all of its measures, see
+     * {@link CostProfile#isCalibrated(LinkSpecification)}. Otherwise all of
+     * its costs are estimated by the fixed approximations.
+     *
+     * @param costProfile
+     *            The cost profile, null to only use the fixed approximations
+     */
+    public void setCostProfile(CostProfile costProfile) {
+        this.costProfile = costProfile;
+    }
+
+    public CostProfile getCostProfile() {
+        return costProfile;
+    }
+
+    /**
+     * @return true if the costs of a measure of the link specification being
+     *         planned are estimated by the cost profile
+     */
+    private boolean useCostProfile(MeasureType type) {
+        return costProfile != null && useCostProfile && costProfile.isCalibrated(type);
+    }
+
     /**
      * Computes atomic costs for a metric expression. If the metric expression
      * of is not supported by the framework, it throws an
@@ -73,6 +111,9 @@ public class HeliosPlanner extends Planner {
 
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (useCostProfile(type)) {
+            return costProfile.getRuntimeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
 
@@ -92,6 +133,9 @@ public class HeliosPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (useCostProfile(type)) {
+            return costProfile.getMappingSizeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -113,7 +157,11 @@ public class HeliosPlanner extends Planner {
             for (String measure : measures) {
                 double tempCost = 0;
                 MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                if (useCostProfile(type) && costProfile.isFilterCalibrated(type)) {
+                    tempCost = costProfile.getFilterRuntimeApproximation(type, mappingSize);
+                } else {
+                    tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                }
                 cost += tempCost;
             }
         }
@@ -129,6 +177,7 @@ public class HeliosPlanner extends Planner {
      */
     @Override
     public NestedPlan plan(LinkSpecification spec) {
+        useCostProfile = costProfile != null && spec != null && costProfile.isCalibrated(spec);
         return plan(spec, source, target, MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
     }
 
@@ -225,7 +274,8 @@ public class HeliosPlanner extends Planner {
                 plan.setRuntimeCost(0);
                 double selectivity = 1d;
                 for (LinkSpecification child : spec.getChildren()) {
-                    NestedPlan childPlan = plan(child);
+                    NestedPlan childPlan = plan(child, this.source, this.target,
+                            MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
                     children.add(childPlan);
                     plan.setRuntimeCost(plan.getRuntimeCost() + childPlan.getRuntimeCost());
                     selectivity = selectivity * childPlan.getSelectivity();
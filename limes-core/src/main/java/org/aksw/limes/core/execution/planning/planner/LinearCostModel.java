@@ -0,0 +1,130 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import java.io.Serializable;
+
+/**
+ * Least squares model of the runtime or of the mapping size of a mapper. The
+ * model is linear in the features 1, |S|, |T|, |S||T|, |S||T|theta and
+ * theta, where |S| and |T| are the sizes of the source and target caches and
+ * theta is the threshold. Only the sufficient statistics of the observations
+ * are kept, thus observations can be added at any time and the model is
+ * refitted lazily.
+ */
+class LinearCostModel implements Serializable {
+
+    private static final long serialVersionUID = -2851263720149478519L;
+
+    static final int FEATURES = 6;
+    /**
+     * Ridge regularization, relative to the mean of the diagonal of X'X. It
+     * keeps the system solvable when the observations do not vary all
+     * features, e.g. when all runs use the same caches.
+     */
+    private static final double RIDGE = 1e-6;
+
+    private final double[][] xtx = new double[FEATURES][FEATURES];
+    private final double[] xty = new double[FEATURES];
+    private long observations = 0;
+    private transient double[] coefficients;
+
+    /**
+     * Sizes are scaled to thousands of instances to keep X'X well
+     * conditioned.
+     */
+    private static double[] getFeatures(double sourceSize, double targetSize, double threshold) {
+        double s = sourceSize / 1000d;
+        double t = targetSize / 1000d;
+        return new double[] { 1, s, t, s * t, s * t * threshold, threshold };
+    }
+
+    /**
+     * Adds an observation to the model.
+     *
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param threshold
+     *            Threshold of the measure
+     * @param value
+     *            Observed runtime or mapping size
+     */
+    synchronized void add(double sourceSize, double targetSize, double threshold, double value) {
+        double[] x = getFeatures(sourceSize, targetSize, threshold);
+        for (int i = 0; i < FEATURES; i++) {
+            for (int j = 0; j < FEATURES; j++) {
+                xtx[i][j] += x[i] * x[j];
+            }
+            xty[i] += x[i] * value;
+        }
+        observations++;
+        coefficients = null;
+    }
+
+    /**
+     * @return number of observations of the model
+     */
+    synchronized long size() {
+        return observations;
+    }
+
+    /**
+     * Estimates the runtime or mapping size for the input sizes and
+     * threshold. Estimates are never negative.
+     */
+    synchronized double estimate(double sourceSize, double targetSize, double threshold) {
+        if (coefficients == null) {
+            coefficients = fit();
+        }
+        double[] x = getFeatures(sourceSize, targetSize, threshold);
+        double result = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            result += coefficients[i] * x[i];
+        }
+        return Math.max(0, result);
+    }
+
+    /**
+     * Solves (X'X + lambda I) w = X'y by Gaussian elimination with partial
+     * pivoting.
+     */
+    private double[] fit() {
+        double trace = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            trace += xtx[i][i];
+        }
+        double lambda = Math.max(RIDGE * trace / FEATURES, Double.MIN_NORMAL);
+        double[][] a = new double[FEATURES][FEATURES + 1];
+        for (int i = 0; i < FEATURES; i++) {
+            System.arraycopy(xtx[i], 0, a[i], 0, FEATURES);
+            a[i][i] += lambda;
+            a[i][FEATURES] = xty[i];
+        }
+        for (int col = 0; col < FEATURES; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < FEATURES; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            for (int row = col + 1; row < FEATURES; row++) {
+                double factor = a[row][col] / a[col][col];
+                for (int k = col; k <= FEATURES; k++) {
+                    a[row][k] -= factor * a[col][k];
+                }
+            }
+        }
+        double[] w = new double[FEATURES];
+        for (int row = FEATURES - 1; row >= 0; row--) {
+            double sum = a[row][FEATURES];
+            for (int k = row + 1; k < FEATURES; k++) {
+                sum -= a[row][k] * w[k];
+            }
+            w[row] = sum / a[row][row];
+        }
+        return w;
+    }
+}
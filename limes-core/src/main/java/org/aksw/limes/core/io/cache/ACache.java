@@ -1,9 +1,12 @@
 package org.aksw.limes.core.io.cache;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.aksw.limes.core.io.preprocessing.PreprocessingPipeline;
 import org.apache.jena.rdf.model.Model;
 
 /**
@@ -11,6 +14,15 @@ import org.apache.jena.rdf.model.Model;
  * @version Jul 8, 2015
  */
 public abstract class ACache implements ICache {
+
+    private IndexRegistry indexRegistry = null;
+    /**
+     * True if the registry may hold indexes of this cache
+     */
+    volatile boolean indexed = false;
+    private PreprocessingPipeline ingestPipeline = null;
+    private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<Runnable>();
+
     public abstract void addInstance(Instance i);
 
     public abstract Instance getNextInstance();
@@ -36,6 +48,111 @@ public abstract class ACache implements ICache {
     public abstract void replaceInstance(String uri, Instance a);
 
     public abstract Set<String> getAllProperties();
+
+    /**
+     * @return the registry of the indexes of this cache, or null if the
+     *         indexes of the mappers are not shared
+     */
+    public IndexRegistry getIndexRegistry() {
+        return indexRegistry;
+    }
+
+    /**
+     * Sets the registry in which the mappers share the indexes of this
+     * cache, see {@link IndexRegistry#attach(ACache, ACache)}.
+     *
+     * @param indexRegistry
+     *            Registry, or null to build the indexes for each mapping
+     */
+    public void setIndexRegistry(IndexRegistry indexRegistry) {
+        invalidateIndexes();
+        this.indexRegistry = indexRegistry;
+    }
+
+    /**
+     * @return the pipeline applied to the values added by
+     *         {@link #addTriple(String, String, String)}, or null if the
+     *         values are stored as they are
+     */
+    public PreprocessingPipeline getIngestPipeline() {
+        return ingestPipeline;
+    }
+
+    /**
+     * Sets a pipeline that is applied to each value added by
+     * {@link #addTriple(String, String, String)}, so that only the processed
+     * values are stored. Only pipelines whose functions transform single
+     * values can be applied while the cache is filled.
+     *
+     * @param ingestPipeline
+     *            Value-local pipeline, or null to store the values as they are
+     */
+    public void setIngestPipeline(PreprocessingPipeline ingestPipeline) {
+        if (ingestPipeline != null && !ingestPipeline.isValueLocal()) {
+            throw new IllegalArgumentException("Functions that read several properties can not be applied on ingest");
+        }
+        this.ingestPipeline = ingestPipeline;
+    }
+
+    /**
+     * Adds a value to an instance of this cache, after applying the ingest
+     * pipeline if the pipeline processes the property.
+     *
+     * @param instance
+     *            Instance of this cache
+     * @param property
+     *            Property of the value
+     * @param value
+     *            Raw value
+     */
+    protected void addValue(Instance instance, String property, String value) {
+        PreprocessingPipeline pipeline = ingestPipeline;
+        if (pipeline != null && pipeline.processes(property)) {
+            Instance processed = pipeline.applyToValue(property, value);
+            for (String processedProperty : processed.getAllProperties()) {
+                instance.addProperty(processedProperty, processed.getProperty(processedProperty));
+            }
+        } else {
+            instance.addProperty(property, value);
+        }
+    }
+
+    /**
+     * Registers a listener that is run whenever the content of this cache
+     * changes, e.g. to drop results computed from it.
+     *
+     * @param listener
+     *            Listener
+     */
+    public void addInvalidationListener(Runnable listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * @param listener
+     *            Listener registered by
+     *            {@link #addInvalidationListener(Runnable)}
+     */
+    public void removeInvalidationListener(Runnable listener) {
+        invalidationListeners.remove(listener);
+    }
+
+    /**
+     * Drops the indexes of this cache from its registry and notifies the
+     * invalidation listeners. Called by the methods that change the content
+     * of the cache.
+     */
+    protected void invalidateIndexes() {
+        if (indexed && indexRegistry != null) {
+            indexed = false;
+            indexRegistry.invalidate(this);
+        }
+        if (!invalidationListeners.isEmpty()) {
+            for (Runnable listener : invalidationListeners) {
+                listener.run();
+            }
+        }
+    }
     
     @Override
     public abstract ACache clone();
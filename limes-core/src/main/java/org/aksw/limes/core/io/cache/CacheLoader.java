@@ -0,0 +1,167 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.preprocessing.PreprocessingPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Loading stage of a linking task: fetches and preprocesses the source and
+ * the target knowledge base concurrently, as the two fetches are independent
+ * and may each take long for remote endpoints or large dumps. The progress
+ * and the timing of each side are logged.
+ * <p>
+ * If the preprocessing functions of a side only transform single values, they
+ * are applied while the cache is filled, see
+ * {@link HybridCache#getPreprocessedData(File, KBInfo, ExecutorService)}, and
+ * the snapshot of the cache is written in the background while the caches are
+ * used. Call {@link #awaitSnapshots()} before the caches are modified or the
+ * application exits. Otherwise the raw data is cached first and the functions
+ * are applied afterwards.
+ */
+public class CacheLoader {
+
+    static Logger logger = LoggerFactory.getLogger(CacheLoader.class);
+
+    private final File folder;
+    private final int limit;
+    private final List<ExecutorService> snapshotWriters = new ArrayList<>();
+    private ACache sourceCache;
+    private ACache targetCache;
+
+    public CacheLoader() {
+        this(new File(""), -1);
+    }
+
+    /**
+     * @param folder
+     *            Path to the parent folder of the "cache" folder
+     * @param limit
+     *            Maximal number of instances of each cache, -1 for all
+     */
+    public CacheLoader(File folder, int limit) {
+        this.folder = folder;
+        this.limit = limit;
+    }
+
+    /**
+     * Loads and preprocesses the source and the target concurrently. Both
+     * sides are loaded one after the other if they are stored in the same
+     * cache file. A loader may load several times, the caches of the last
+     * call are kept.
+     *
+     * @param sourceInfo
+     *            Source knowledge base
+     * @param targetInfo
+     *            Target knowledge base
+     */
+    public void load(KBInfo sourceInfo, KBInfo targetInfo) {
+        long begin = System.currentTimeMillis();
+        ExecutorService snapshotWriter = Executors.newSingleThreadExecutor();
+        synchronized (snapshotWriters) {
+            snapshotWriters.add(snapshotWriter);
+        }
+        try {
+            load(sourceInfo, targetInfo, snapshotWriter);
+        } finally {
+            // no further snapshots are submitted
+            snapshotWriter.shutdown();
+        }
+        logger.info("Loading stage done in " + (System.currentTimeMillis() - begin) + "ms");
+    }
+
+    private void load(KBInfo sourceInfo, KBInfo targetInfo, ExecutorService snapshotWriter) {
+        if (sourceInfo.hashCode() == targetInfo.hashCode()) {
+            sourceCache = load(sourceInfo, "Source", snapshotWriter);
+            targetCache = load(targetInfo, "Target", snapshotWriter);
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                Future<ACache> source = pool.submit(() -> load(sourceInfo, "Source", snapshotWriter));
+                Future<ACache> target = pool.submit(() -> load(targetInfo, "Target", snapshotWriter));
+                sourceCache = source.get();
+                targetCache = target.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                logger.error(MarkerFactory.getMarker("FATAL"), "Error while loading the knowledge bases");
+                throw new RuntimeException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private ACache load(KBInfo kb, String side, ExecutorService snapshotWriter) {
+        long begin = System.currentTimeMillis();
+        logger.info(side + ": loading " + kb.getId() + " from " + kb.getEndpoint());
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(kb.getFunctions());
+        ACache cache;
+        if (pipeline.isValueLocal()) {
+            cache = HybridCache.getPreprocessedData(folder, kb, snapshotWriter);
+        } else {
+            // the snapshot of the raw data is written before it is processed
+            cache = HybridCache.getData(folder, kb);
+        }
+        logger.info(side + ": loaded " + cache.size() + " instances in " + (System.currentTimeMillis() - begin)
+                + "ms");
+        if (limit > 0) {
+            ACache reducedCache = new MemoryCache();
+            cache.getAllInstances().subList(0, Math.min(limit, cache.size())).forEach(reducedCache::addInstance);
+            cache = reducedCache;
+        }
+        if (!pipeline.isValueLocal()) {
+            long start = System.currentTimeMillis();
+            pipeline.apply(cache, Runtime.getRuntime().availableProcessors());
+            logger.info(side + ": preprocessed " + cache.size() + " instances in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        }
+        return cache;
+    }
+
+    /**
+     * Waits until the snapshots of all caches loaded so far are written.
+     */
+    public void awaitSnapshots() {
+        List<ExecutorService> writers;
+        synchronized (snapshotWriters) {
+            writers = new ArrayList<>(snapshotWriters);
+            snapshotWriters.clear();
+        }
+        try {
+            long begin = System.currentTimeMillis();
+            for (ExecutorService snapshotWriter : writers) {
+                snapshotWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+            logger.debug("Waited " + (System.currentTimeMillis() - begin) + "ms for snapshots");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the loaded and preprocessed source cache
+     */
+    public ACache getSourceCache() {
+        return sourceCache;
+    }
+
+    /**
+     * @return the loaded and preprocessed target cache
+     */
+    public ACache getTargetCache() {
+        return targetCache;
+    }
+}
@@ -0,0 +1,450 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.aksw.limes.core.datastrutures.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary snapshot of the content of a cache. A snapshot is read through a
+ * memory-mapped file, thus opening it does not deserialize the cache: the
+ * URIs and properties of an instance are only decoded when the instance is
+ * requested.
+ * <p>
+ * All strings of a snapshot (URIs, property names and values) are stored
+ * once, in a dictionary. The instances are stored in the order of
+ * {@link ACache#getAllUris()} together with a hash table for looking up their
+ * URIs. The values of each property are stored in a length-prefixed column
+ * with the offsets of the values of each instance followed by the ids of the
+ * values. The layout of version 1 is
+ *
+ * <pre>
+ * header (64 bytes):
+ *   int magic, int version, long checksum, int strings, int instances,
+ *   int properties, int key id, long string table, long instances,
+ *   long hash table, long column table
+ * strings:      [int length, UTF-8 bytes] per string
+ * string table: long position per string
+ * instances:    int URI id per instance
+ * hash table:   int size, int (instance + 1) per slot
+ * columns:      [int property id, long length, int[instances + 1] offsets,
+ *               int[] value ids] per property
+ * column table: long position per property
+ * </pre>
+ *
+ * The checksum is the CRC32 of all bytes after the header. It is verified
+ * when a snapshot is opened.
+ */
+public class CacheSnapshot implements Closeable {
+
+    static Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    public static final int MAGIC = 0x4C494D43;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    /**
+     * Files are mapped in segments of this size. Each segment overlaps the
+     * next one by 8 bytes, so that ints and longs never span two segments.
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int OVERLAP = 8;
+
+    private final File file;
+    private MappedByteBuffer[] segments;
+    private final int strings;
+    private final int instances;
+    private final long stringTable;
+    private final long instanceTable;
+    private final long hashTable;
+    private final int hashSize;
+    private final String key;
+    private final String[] propertyNames;
+    private final long[] columns;
+
+    private CacheSnapshot(File file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Truncated cache snapshot " + file);
+            }
+            segments = new MappedByteBuffer[(int) ((size - 1) / SEGMENT_SIZE) + 1];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE + OVERLAP, size - start));
+            }
+            if (getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a cache snapshot");
+            }
+            if (getInt(4) != VERSION) {
+                throw new IOException("Unsupported version " + getInt(4) + " of cache snapshot " + file);
+            }
+            if (getLong(8) != checksum(size)) {
+                throw new IOException("Checksum of cache snapshot " + file + " does not match");
+            }
+        }
+        strings = getInt(16);
+        instances = getInt(20);
+        int properties = getInt(24);
+        stringTable = getLong(32);
+        instanceTable = getLong(40);
+        hashTable = getLong(48);
+        hashSize = getInt(hashTable);
+        key = getString(getInt(28));
+        long columnTable = getLong(56);
+        propertyNames = new String[properties];
+        columns = new long[properties];
+        for (int p = 0; p < properties; p++) {
+            columns[p] = getLong(columnTable + 8L * p);
+            propertyNames[p] = getString(getInt(columns[p]));
+        }
+    }
+
+    /**
+     * Opens a snapshot and verifies its checksum.
+     *
+     * @param file
+     *            The snapshot file
+     * @return the snapshot
+     * @throws IOException
+     *             if the file can not be read or is not a valid snapshot
+     */
+    public static CacheSnapshot open(File file) throws IOException {
+        return new CacheSnapshot(file);
+    }
+
+    /**
+     * Writes a snapshot of a cache. The snapshot is written to a temporary
+     * file in the directory of the snapshot file, which then replaces the
+     * snapshot file atomically. Thus a snapshot that another cache has
+     * mapped is never truncated or overwritten. If the snapshot can not be
+     * written, no file is left behind and an existing snapshot file is kept.
+     *
+     * @param cache
+     *            The cache to write
+     * @param key
+     *            Describes the data of the cache, e.g. the knowledge base it
+     *            was retrieved from
+     * @param file
+     *            The snapshot file
+     * @throws IOException
+     *             if the file can not be written
+     */
+    public static void write(ACache cache, String key, File file) throws IOException {
+        ArrayList<String> uris = cache.getAllUris();
+        ArrayList<Instance> instances = new ArrayList<>(uris.size());
+        StringDictionary dictionary = new StringDictionary(uris.size() * 4);
+        StringDictionary properties = new StringDictionary();
+        int keyId = dictionary.add(key);
+        for (String uri : uris) {
+            Instance i = cache.getInstance(uri);
+            instances.add(i);
+            dictionary.add(uri);
+            for (String p : i.getAllProperties()) {
+                properties.add(p);
+                dictionary.add(p);
+                for (String v : i.getProperty(p)) {
+                    dictionary.add(v);
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        File tmp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            long stringTable, instanceTable, hashTable, columnTable;
+            try (FileOutputStream fos = new FileOutputStream(tmp)) {
+                fos.write(new byte[HEADER_SIZE]);
+                SnapshotOutput counter = new SnapshotOutput(new CheckedOutputStream(fos, crc), HEADER_SIZE);
+                DataOutputStream out = new DataOutputStream(counter);
+                // strings
+                long[] stringPositions = new long[dictionary.size()];
+                for (int id = 0; id < dictionary.size(); id++) {
+                    stringPositions[id] = counter.position;
+                    byte[] bytes = dictionary.getString(id).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                stringTable = counter.position;
+                for (long position : stringPositions) {
+                    out.writeLong(position);
+                }
+                // instances
+                instanceTable = counter.position;
+                int[] uriIds = new int[uris.size()];
+                for (int index = 0; index < uris.size(); index++) {
+                    uriIds[index] = dictionary.getId(uris.get(index));
+                    out.writeInt(uriIds[index]);
+                }
+                hashTable = counter.position;
+                int[] table = new int[hashSize(uris.size())];
+                for (int index = 0; index < uris.size(); index++) {
+                    int slot = mix(uris.get(index).hashCode()) & (table.length - 1);
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & (table.length - 1);
+                    }
+                    table[slot] = index + 1;
+                }
+                out.writeInt(table.length);
+                for (int slot : table) {
+                    out.writeInt(slot);
+                }
+                // columns
+                long[] columnPositions = new long[properties.size()];
+                int[] offsets = new int[uris.size() + 1];
+                for (int p = 0; p < properties.size(); p++) {
+                    String property = properties.getString(p);
+                    int[] valueIds = new int[16];
+                    int count = 0;
+                    for (int index = 0; index < instances.size(); index++) {
+                        offsets[index] = count;
+                        for (String v : instances.get(index).getProperty(property)) {
+                            if (count == valueIds.length) {
+                                valueIds = Arrays.copyOf(valueIds, count * 2);
+                            }
+                            valueIds[count++] = dictionary.getId(v);
+                        }
+                    }
+                    offsets[instances.size()] = count;
+                    columnPositions[p] = counter.position;
+                    out.writeInt(dictionary.getId(property));
+                    out.writeLong(4L * (offsets.length + count));
+                    for (int offset : offsets) {
+                        out.writeInt(offset);
+                    }
+                    for (int v = 0; v < count; v++) {
+                        out.writeInt(valueIds[v]);
+                    }
+                }
+                columnTable = counter.position;
+                for (long position : columnPositions) {
+                    out.writeLong(position);
+                }
+                out.flush();
+            }
+            try (RandomAccessFile header = new RandomAccessFile(tmp, "rw")) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeLong(crc.getValue());
+                header.writeInt(dictionary.size());
+                header.writeInt(uris.size());
+                header.writeInt(properties.size());
+                header.writeInt(keyId);
+                header.writeLong(stringTable);
+                header.writeLong(instanceTable);
+                header.writeLong(hashTable);
+                header.writeLong(columnTable);
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the key the snapshot was written with
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the number of instances of the snapshot
+     */
+    public int size() {
+        return instances;
+    }
+
+    /**
+     * @param index
+     *            Index of an instance
+     * @return the URI of the instance
+     */
+    public String getUri(int index) {
+        return getString(getInt(instanceTable + 4L * index));
+    }
+
+    /**
+     * @return the URIs of all instances, in the order of the cache the
+     *         snapshot was written from
+     */
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> result = new ArrayList<String>(instances);
+        for (int index = 0; index < instances; index++) {
+            result.add(getUri(index));
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the instance with a URI through the hash table of the
+     * snapshot, only decoding the URI it is looking for.
+     *
+     * @param uri
+     *            URI to look for
+     * @return the index of the instance with the URI or -1 if there is none
+     */
+    public int indexOf(String uri) {
+        byte[] bytes = uri.getBytes(StandardCharsets.UTF_8);
+        int mask = hashSize - 1;
+        int slot = mix(uri.hashCode()) & mask;
+        int entry;
+        while ((entry = getInt(hashTable + 4 + 4L * slot)) != 0) {
+            if (stringEquals(getInt(instanceTable + 4L * (entry - 1)), bytes)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes an instance of the snapshot.
+     *
+     * @param index
+     *            Index of the instance
+     * @return a new instance with the URI and the properties of the instance
+     */
+    public Instance getInstance(int index) {
+        Instance instance = new Instance(getUri(index));
+        for (int p = 0; p < columns.length; p++) {
+            long offsets = columns[p] + 12;
+            int start = getInt(offsets + 4L * index);
+            int end = getInt(offsets + 4L * (index + 1));
+            long values = offsets + 4L * (instances + 1);
+            for (int v = start; v < end; v++) {
+                instance.addProperty(propertyNames[p], getString(getInt(values + 4L * v)));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Releases the mapped file. The mapping itself is released by the garbage
+     * collector.
+     */
+    @Override
+    public void close() {
+        segments = null;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheSnapshot(" + file + ", " + instances + " instances, " + strings + " strings)";
+    }
+
+    private String getString(int id) {
+        long position = getLong(stringTable + 8L * id);
+        byte[] bytes = new byte[getInt(position)];
+        get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(int id, byte[] bytes) {
+        long position = getLong(stringTable + 8L * id);
+        if (getInt(position) != bytes.length) {
+            return false;
+        }
+        position += 4;
+        for (int i = 0; i < bytes.length; i++) {
+            long p = position + i;
+            if (segments[(int) (p / SEGMENT_SIZE)].get((int) (p % SEGMENT_SIZE)) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getInt(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].getInt((int) (position % SEGMENT_SIZE));
+    }
+
+    private long getLong(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].getLong((int) (position % SEGMENT_SIZE));
+    }
+
+    private void get(long position, byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            long p = position + done;
+            ByteBuffer segment = segments[(int) (p / SEGMENT_SIZE)].duplicate();
+            segment.position((int) (p % SEGMENT_SIZE));
+            int length = (int) Math.min(bytes.length - done, SEGMENT_SIZE - p % SEGMENT_SIZE);
+            segment.get(bytes, done, length);
+            done += length;
+        }
+    }
+
+    private long checksum(long size) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < segments.length; i++) {
+            ByteBuffer segment = segments[i].duplicate();
+            segment.position(i == 0 ? HEADER_SIZE : 0);
+            segment.limit((int) Math.min(SEGMENT_SIZE, size - i * SEGMENT_SIZE));
+            crc.update(segment);
+        }
+        return crc.getValue();
+    }
+
+    private static int hashSize(int entries) {
+        return Integer.highestOneBit(Math.max(8, entries) * 2 - 1) * 2;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Output stream that keeps track of the number of bytes written.
+     */
+    private static class SnapshotOutput extends FilterOutputStream {
+
+        long position;
+
+        SnapshotOutput(OutputStream out, long position) {
+            super(new BufferedOutputStream(out, 1 << 16));
+            this.position = position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+    }
+}
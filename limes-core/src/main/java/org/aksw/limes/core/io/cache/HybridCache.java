@@ -11,8 +11,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.preprocessing.PreprocessingPipeline;
 import org.aksw.limes.core.io.query.IQueryModule;
 import org.aksw.limes.core.io.query.NoPrefixSparqlQueryModule;
 import org.aksw.limes.core.io.query.QueryModuleFactory;
@@ -45,6 +48,8 @@ public class HybridCache extends MemoryCache implements Serializable {
 
     // pointing to the parent folder of the "cache" folder
     private File folder = new File("");
+    // snapshot the instances are read from until the cache is modified
+    private transient volatile SnapshotView snapshot;
 
     public HybridCache() {
         instanceMap = new TreeMap<String, Instance>();
@@ -92,6 +97,44 @@ public class HybridCache extends MemoryCache implements Serializable {
         }
     }
 
+    /**
+     * Opens a snapshot written by {@link #saveSnapshot(File, String)}. The
+     * instances are not loaded: each instance is read from the memory-mapped
+     * snapshot when it is first accessed. The whole content of the snapshot is
+     * only loaded when the cache is modified or iterated.
+     *
+     * @param file
+     *            File from which the content is to be loaded
+     * @return A Hybrid cache
+     * @throws IOException
+     *             if the file can not be read or is not a valid snapshot
+     */
+    public static HybridCache loadSnapshot(File file) throws IOException {
+        HybridCache cache = new HybridCache();
+        cache.snapshot = new SnapshotView(CacheSnapshot.open(file));
+        return cache;
+    }
+
+    /**
+     * Writes the content of the cache to a binary snapshot, see
+     * {@link CacheSnapshot}. If it fails, no file is written to avoid the
+     * corruption of future data sources.
+     *
+     * @param file
+     *            File wherein the content of the cache is to be written
+     * @param key
+     *            Description of the data of the cache, which is compared when
+     *            the snapshot is loaded by {@link #getData(File, KBInfo)}
+     */
+    public void saveSnapshot(File file, String key) {
+        logger.info("Writing snapshot of " + size() + " objects to " + file.getAbsolutePath());
+        try {
+            CacheSnapshot.write(this, key, file);
+        } catch (IOException e) {
+            logger.warn("Could not write snapshot: " + e.getMessage());
+        }
+    }
+
     public static HybridCache getData(KBInfo kb) {
         return getData(new File(""), kb);
     }
@@ -107,39 +150,75 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return HybridCache of the data
      */
     public static HybridCache getData(File folder, KBInfo kb) {
-
-        HybridCache cache = new HybridCache(folder);
-        // 1. Try to get content from a serialization
-        String hash = kb.hashCode() + "";
-        File cacheFile = new File(folder + "cache/" + hash + ".ser");
-        logger.info("Checking for file " + cacheFile.getAbsolutePath());
-        try {
-            if (cacheFile.exists()) {
-                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
-                cache = HybridCache.loadFromFile(cacheFile);
-            }
-            if (cache.size() == 0) {
-                throw new Exception();
-            } else {
-                logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
-                logger.info("Size = " + cache.size());
-            }
-        } // 2. If it does not work, then get it from data sourceInfo as
-          // specified
-        catch (Exception e) {
-
+        HybridCache cache = getCachedData(folder, kb);
+        if (cache == null) {
             // need to add a QueryModuleFactory
             logger.info("No cached data found for " + kb.getId());
+            cache = new HybridCache(folder);
             IQueryModule module = QueryModuleFactory.getQueryModule(kb.getType(), kb);
             module.fillCache(cache);
+            cache.saveSnapshot(getCacheFile(folder, kb, ".snapshot"), getSnapshotKey(kb));
+        }
+        return cache;
+    }
 
-            if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists()
-                    || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
-                new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
+    /**
+     * Gets the data of a knowledge base like {@link #getData(File, KBInfo)}
+     * and applies its preprocessing functions. If the functions only transform
+     * single values, they are applied while the cache is filled, so that the
+     * raw values are never stored, and the processed data is cached in its own
+     * snapshot. Otherwise, they are applied once the cache is filled.
+     *
+     * @param folder
+     *            Path to the parent folder of the "cache" folder.
+     * @param kb
+     *            Endpoint specification.
+     * @return HybridCache of the preprocessed data
+     */
+    public static HybridCache getPreprocessedData(File folder, KBInfo kb) {
+        return getPreprocessedData(folder, kb, null);
+    }
+
+    /**
+     * Gets the preprocessed data of a knowledge base like
+     * {@link #getPreprocessedData(File, KBInfo)}. The snapshot of data that
+     * was preprocessed while the cache was filled is written by the given
+     * executor, so that the cache can be used meanwhile. The cache must not be
+     * modified until the snapshot is written.
+     *
+     * @param folder
+     *            Path to the parent folder of the "cache" folder.
+     * @param kb
+     *            Endpoint specification.
+     * @param snapshotWriter
+     *            Executor that writes the snapshot, or null to write it
+     *            before returning
+     * @return HybridCache of the preprocessed data
+     */
+    public static HybridCache getPreprocessedData(File folder, KBInfo kb, ExecutorService snapshotWriter) {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(kb.getFunctions());
+        if (!pipeline.isValueLocal()) {
+            HybridCache cache = getData(folder, kb);
+            pipeline.apply(cache, Runtime.getRuntime().availableProcessors());
+            return cache;
+        }
+        File snapshotFile = getCacheFile(folder, kb, ".preprocessed.snapshot");
+        String key = getSnapshotKey(kb) + "\nPreprocessed on ingest";
+        HybridCache cache = getSnapshotData(folder, snapshotFile, key);
+        if (cache == null) {
+            logger.info("No cached preprocessed data found for " + kb.getId());
+            cache = new HybridCache(folder);
+            cache.setIngestPipeline(pipeline);
+            IQueryModule module = QueryModuleFactory.getQueryModule(kb.getType(), kb);
+            module.fillCache(cache);
+            cache.setIngestPipeline(null);
+            if (snapshotWriter != null) {
+                HybridCache filled = cache;
+                snapshotWriter.execute(() -> filled.saveSnapshot(snapshotFile, key));
+            } else {
+                cache.saveSnapshot(snapshotFile, key);
             }
-            cache.saveToFile(new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + hash + ".ser"));
         }
-
         return cache;
     }
 
@@ -165,37 +244,116 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return A cache filled with the entities to link
      */
     public static HybridCache getNoPrefixData(File folder, KBInfo kb) {
-        HybridCache cache = new HybridCache();
-        // 1. Try to get content from a serialization
-        File cacheFile = new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + kb.hashCode() + ".ser");
-        try {
-            if (cacheFile.exists()) {
-                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
-                cache = HybridCache.loadFromFile(cacheFile);
-            }
-            if (cache.size() == 0) {
-                throw new Exception();
-            } else {
-                logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
-                logger.info("Size = " + cache.size());
-            }
-        } // 2. If it does not work, then get it from data sourceInfo as
-          // specified
-        catch (Exception e) {
+        HybridCache cache = getCachedData(folder, kb);
+        if (cache == null) {
             // need to add a QueryModuleFactory
             logger.info("No cached data found for " + kb.getId());
+            cache = new HybridCache(folder);
             NoPrefixSparqlQueryModule module = new NoPrefixSparqlQueryModule(kb);
             module.fillCache(cache);
+            cache.saveSnapshot(getCacheFile(folder, kb, ".snapshot"), getSnapshotKey(kb));
+        }
+        return cache;
+    }
 
-            if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists()
-                    || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
-                new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
+    /**
+     * Retrieves the cached data of a knowledge base. The binary snapshot is
+     * preferred. Caches serialized by previous versions are still read and
+     * are converted to a snapshot.
+     *
+     * @param folder
+     *            Path to parent folder of the cache folder.
+     * @param kb
+     *            Info to the knowledge base
+     * @return The cached data or null if the knowledge base is not cached
+     */
+    private static HybridCache getCachedData(File folder, KBInfo kb) {
+        File snapshotFile = getCacheFile(folder, kb, ".snapshot");
+        HybridCache snapshotCache = getSnapshotData(folder, snapshotFile, getSnapshotKey(kb));
+        if (snapshotCache != null) {
+            return snapshotCache;
+        }
+        File cacheFile = getCacheFile(folder, kb, ".ser");
+        if (cacheFile.exists()) {
+            logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
+            try {
+                HybridCache cache = HybridCache.loadFromFile(cacheFile);
+                if (cache.size() > 0) {
+                    logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
+                    logger.info("Size = " + cache.size());
+                    cache.saveSnapshot(snapshotFile, getSnapshotKey(kb));
+                    return cache;
+                }
+            } catch (Exception e) {
+                logger.warn("Could not load cached data: " + e.getMessage());
             }
-            cache.saveToFile(
-                    new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + kb.hashCode() + ".ser"));
         }
+        return null;
+    }
 
-        return cache;
+    /**
+     * Opens a snapshot if it exists and was written with the given key.
+     *
+     * @return The cached data or null if there is no such snapshot
+     */
+    private static HybridCache getSnapshotData(File folder, File snapshotFile, String key) {
+        logger.info("Checking for file " + snapshotFile.getAbsolutePath());
+        if (snapshotFile.exists()) {
+            try {
+                HybridCache cache = loadSnapshot(snapshotFile);
+                if (cache.size() > 0 && cache.snapshot.snapshot.getKey().equals(key)) {
+                    cache.setFolder(folder);
+                    logger.info("Cached data loaded successfully from file " + snapshotFile.getAbsolutePath());
+                    logger.info("Size = " + cache.size());
+                    return cache;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not load snapshot: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static File getCacheFile(File folder, KBInfo kb, String extension) {
+        File cacheFolder = new File(folder.getAbsolutePath() + File.separatorChar + "cache");
+        if (!cacheFolder.exists() || !cacheFolder.isDirectory()) {
+            cacheFolder.mkdir();
+        }
+        return new File(cacheFolder, kb.hashCode() + extension);
+    }
+
+    /**
+     * The key of a snapshot describes the knowledge base the data was
+     * retrieved from, so that a snapshot is not used for another knowledge
+     * base with the same hash code.
+     */
+    private static String getSnapshotKey(KBInfo kb) {
+        return "Endpoint: " + kb.getEndpoint() + "\nGraph: " + kb.getGraph() + "\nID: " + kb.getId() + "\nType: "
+                + kb.getType() + "\nPrefixes: " + kb.getPrefixes() + "\nRestrictions: " + kb.getRestrictions()
+                + "\nProperties: " + kb.getProperties() + "\nOptionalProperties: " + kb.getOptionalProperties()
+                + "\nFunctions: " + kb.getFunctions() + "\nPage size: " + kb.getPageSize() + "\nMinOffset: "
+                + kb.getMinOffset() + "\nMaxOffset: " + kb.getMaxOffset();
+    }
+
+    /**
+     * Loads all instances of the snapshot, if any, into the cache. Called
+     * before the cache is modified or iterated. The instances are read
+     * through the view, so that an instance read concurrently by
+     * {@link #getInstance(String)} is the instance of the cache.
+     */
+    private synchronized void loadInstances() {
+        SnapshotView view = snapshot;
+        if (view != null) {
+            for (int index = 0; index < view.snapshot.size(); index++) {
+                instanceMap.put(view.snapshot.getUri(index), view.getInstance(index));
+            }
+            snapshot = null;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        loadInstances();
+        out.defaultWriteObject();
     }
 
     /**
@@ -204,6 +362,7 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return null if no next instance, else the next instance
      */
     public Instance getNextInstance() {
+        loadInstances();
         if (instanceIterator == null) {
             instanceIterator = instanceMap.values().iterator();
         }
@@ -221,11 +380,14 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return ArrayList containing all instances
      */
     public ArrayList<Instance> getAllInstances() {
+        loadInstances();
         return new ArrayList<Instance>(instanceMap.values());
     }
 
 
     public void addInstance(Instance i) {
+        invalidateIndexes();
+        loadInstances();
         if (!instanceMap.containsKey(i.getUri())) {
             instanceMap.put(i.getUri(), i);
         }
@@ -237,6 +399,11 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return The instance with the URI uri if it is in the cache, else null
      */
     public Instance getInstance(String uri) {
+        SnapshotView snapshot = this.snapshot;
+        if (snapshot != null) {
+            int index = snapshot.snapshot.indexOf(uri);
+            return index < 0 ? null : snapshot.getInstance(index);
+        }
         if (instanceMap.containsKey(uri)) {
             return instanceMap.get(uri);
         } else {
@@ -248,6 +415,10 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return The size of the cache
      */
     public int size() {
+        SnapshotView snapshot = this.snapshot;
+        if (snapshot != null) {
+            return snapshot.snapshot.size();
+        }
         return instanceMap.size();
     }
 
@@ -262,16 +433,25 @@ public class HybridCache extends MemoryCache implements Serializable {
      *            The value of the property of p for the entity s
      */
     public void addTriple(String s, String p, String o) {
+        invalidateIndexes();
+        loadInstances();
         if (instanceMap.containsKey(s)) {
             Instance m = instanceMap.get(s);
-            m.addProperty(p, o);
+            addValue(m, p, o);
         } else {
             Instance m = new Instance(s);
-            m.addProperty(p, o);
+            addValue(m, p, o);
             instanceMap.put(s, m);
         }
     }
 
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        invalidateIndexes();
+        loadInstances();
+        instanceMap.put(uri, a);
+    }
+
     /**
      * @param uri
      *            The URI to looks for
@@ -279,19 +459,29 @@ public class HybridCache extends MemoryCache implements Serializable {
      *         false
      */
     public boolean containsUri(String uri) {
+        SnapshotView snapshot = this.snapshot;
+        if (snapshot != null) {
+            return snapshot.snapshot.indexOf(uri) >= 0;
+        }
         return instanceMap.containsKey(uri.toString());
     }
 
     public void resetIterator() {
+        loadInstances();
         instanceIterator = instanceMap.values().iterator();
     }
 
     @Override
     public String toString() {
+        loadInstances();
         return instanceMap.toString();
     }
 
     public ArrayList<String> getAllUris() {
+        SnapshotView snapshot = this.snapshot;
+        if (snapshot != null) {
+            return snapshot.snapshot.getAllUris();
+        }
         return new ArrayList<String>(instanceMap.keySet());
     }
 
@@ -301,7 +491,7 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return true if the URI of the instance is found in the cache
      */
     public boolean containsInstance(Instance i) {
-        return instanceMap.containsKey(i.getUri());
+        return containsUri(i.getUri());
     }
 
     /**
@@ -344,4 +534,21 @@ public class HybridCache extends MemoryCache implements Serializable {
     public void setFolder(File folder) {
         this.folder = folder;
     }
-}
\ No newline at end of file
+
+    /**
+     * A snapshot and the instances read from it, published together. Each
+     * instance is read once, also if it is read concurrently.
+     */
+    private static final class SnapshotView {
+        final CacheSnapshot snapshot;
+        final ConcurrentHashMap<String, Instance> instances = new ConcurrentHashMap<String, Instance>();
+
+        SnapshotView(CacheSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        Instance getInstance(int index) {
+            return instances.computeIfAbsent(snapshot.getUri(index), u -> snapshot.getInstance(index));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package org.aksw.limes.core.io.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the indexes that mappers build over the property values of a
+ * cache or of a pair of caches, e.g. the map from the values of a property to
+ * the URIs of their instances, the q-gram index of the values or the tokenized
+ * records of PPJoin+. Once a registry is attached to the caches with
+ * {@link #attach(ACache, ACache)}, each index is built once per cache,
+ * property and index type and shared by all mappers and thresholds that ask
+ * for it. When the estimated footprint of the indexes exceeds the memory
+ * budget, the least recently used indexes are evicted.
+ * <p>
+ * The indexes of a cache are dropped when instances or triples are added to
+ * it. Changes of instances that do not go through the cache, e.g. by
+ * preprocessing functions, are not tracked: call {@link #invalidate(ACache)}
+ * after such changes. The registry only holds weak references to the caches,
+ * the indexes of a collected cache are dropped.
+ */
+public class IndexRegistry {
+
+    static Logger logger = LoggerFactory.getLogger(IndexRegistry.class);
+
+    private long memoryBudget;
+    private long memoryUsage = 0;
+    private long hits = 0;
+    private long misses = 0;
+    /**
+     * Indexes in access order, the least recently used first
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    private final ReferenceQueue<ACache> collected = new ReferenceQueue<ACache>();
+
+    /**
+     * Creates a registry whose budget is a quarter of the maximal heap size.
+     */
+    public IndexRegistry() {
+        this(Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /**
+     * @param memoryBudget
+     *            Maximal estimated footprint of the indexes in bytes
+     */
+    public IndexRegistry(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Attaches a registry to a source and a target cache, so that the indexes
+     * of both caches and of the pair are shared. A registry that is already
+     * attached to one of the caches is reused, otherwise a new one is
+     * created.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @return the registry of the source cache
+     */
+    public static IndexRegistry attach(ACache source, ACache target) {
+        IndexRegistry registry = source.getIndexRegistry();
+        if (registry == null) {
+            registry = target.getIndexRegistry() != null ? target.getIndexRegistry() : new IndexRegistry();
+            source.setIndexRegistry(registry);
+        }
+        if (target.getIndexRegistry() == null) {
+            target.setIndexRegistry(registry);
+        }
+        return registry;
+    }
+
+    /**
+     * Returns the index of a property of a cache. The index is built if the
+     * cache has no registry or if the registry does not contain it.
+     *
+     * @param cache
+     *            Indexed cache
+     * @param property
+     *            Indexed property
+     * @param type
+     *            Type of the index, including all parameters the index
+     *            depends on, e.g. the q of a q-gram index
+     * @param builder
+     *            Builds the index
+     * @param footprint
+     *            Estimates the footprint of the index in bytes
+     * @param <T>
+     *            Index class
+     * @return the index, which must not be modified
+     */
+    public static <T> T getIndex(ACache cache, String property, String type, Supplier<T> builder,
+            ToLongFunction<T> footprint) {
+        IndexRegistry registry = cache.getIndexRegistry();
+        if (registry == null) {
+            return builder.get();
+        }
+        return registry.get(new Key(registry, cache, null, property + '\u0000' + type), builder, footprint);
+    }
+
+    /**
+     * Returns an index of a property of a source cache and a property of a
+     * target cache. The index is built if the caches do not share a registry
+     * or if the registry does not contain it.
+     *
+     * @param source
+     *            Source cache
+     * @param sourceProperty
+     *            Indexed property of the source
+     * @param target
+     *            Target cache
+     * @param targetProperty
+     *            Indexed property of the target
+     * @param type
+     *            Type of the index, including all parameters the index
+     *            depends on
+     * @param builder
+     *            Builds the index
+     * @param footprint
+     *            Estimates the footprint of the index in bytes
+     * @param <T>
+     *            Index class
+     * @return the index, which must not be modified
+     */
+    public static <T> T getIndex(ACache source, String sourceProperty, ACache target, String targetProperty,
+            String type, Supplier<T> builder, ToLongFunction<T> footprint) {
+        IndexRegistry registry = source.getIndexRegistry();
+        if (registry == null || registry != target.getIndexRegistry()) {
+            return builder.get();
+        }
+        return registry.get(
+                new Key(registry, source, target, sourceProperty + '\u0000' + targetProperty + '\u0000' + type),
+                builder, footprint);
+    }
+
+    /**
+     * Estimates the footprint of a string.
+     *
+     * @param s
+     *            a string
+     * @return estimated size in bytes
+     */
+    public static long footprint(String s) {
+        return 40 + 2L * s.length();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Supplier<T> builder, ToLongFunction<T> footprint) {
+        Entry entry;
+        boolean build = false;
+        synchronized (this) {
+            purge();
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(new FutureTask<Object>(builder::get));
+                entries.put(key, entry);
+                key.markIndexed();
+                build = true;
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        if (build) {
+            entry.task.run();
+        }
+        T index;
+        try {
+            index = (T) entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    entries.remove(key);
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            logger.error("Error while building an index");
+            throw new RuntimeException(e.getCause());
+        }
+        if (build) {
+            long size = footprint.applyAsLong(index);
+            synchronized (this) {
+                // the entry may have been invalidated meanwhile
+                if (entries.get(key) == entry) {
+                    entry.footprint = size;
+                    memoryUsage += size;
+                    evict();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Evicts the least recently used indexes until the footprint is within
+     * the budget. Indexes that are still being built are kept.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+        while (memoryUsage > memoryBudget && iter.hasNext()) {
+            Entry e = iter.next().getValue();
+            if (e.task.isDone()) {
+                iter.remove();
+                memoryUsage -= e.footprint;
+                logger.debug("Evicted an index of " + e.footprint + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Drops the indexes of the caches that were garbage collected.
+     */
+    private void purge() {
+        boolean cleared = false;
+        while (collected.poll() != null) {
+            cleared = true;
+        }
+        if (cleared) {
+            remove(null);
+        }
+    }
+
+    /**
+     * Drops the indexes of a cache, including the indexes of the pairs the
+     * cache is part of.
+     *
+     * @param cache
+     *            a cache
+     */
+    public synchronized void invalidate(ACache cache) {
+        remove(cache);
+    }
+
+    /**
+     * Removes the indexes of a cache, or of the collected caches if the
+     * cache is null.
+     */
+    private void remove(ACache cache) {
+        Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Key, Entry> e = iter.next();
+            if (e.getKey().refersTo(cache)) {
+                iter.remove();
+                memoryUsage -= e.getValue().footprint;
+            }
+        }
+    }
+
+    /**
+     * Drops all indexes.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        memoryUsage = 0;
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the memory budget and evicts indexes if they exceed it.
+     *
+     * @param memoryBudget
+     *            Maximal estimated footprint of the indexes in bytes
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        evict();
+    }
+
+    /**
+     * @return estimated footprint of the indexes in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * @return number of indexes in the registry
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of requests that found their index in the registry
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of requests that built their index
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static class Entry {
+
+        final FutureTask<Object> task;
+        long footprint = 0;
+
+        Entry(FutureTask<Object> task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Key of an index: the indexed caches, compared by identity, and a
+     * description of the properties and of the type of the index.
+     */
+    private static class Key {
+
+        final Reference<ACache> source;
+        final Reference<ACache> target;
+        final String description;
+        final int hash;
+
+        Key(IndexRegistry registry, ACache source, ACache target, String description) {
+            this.source = new WeakReference<ACache>(source, registry.collected);
+            this.target = target == null ? null : new WeakReference<ACache>(target, registry.collected);
+            this.description = description;
+            this.hash = 31 * (31 * System.identityHashCode(source) + System.identityHashCode(target))
+                    + description.hashCode();
+        }
+
+        /**
+         * @return true if the key refers to the cache, or to a collected
+         *         cache if the cache is null
+         */
+        boolean refersTo(ACache cache) {
+            return source.get() == cache || (target != null && target.get() == cache);
+        }
+
+        void markIndexed() {
+            ACache s = source.get();
+            if (s != null) {
+                s.indexed = true;
+            }
+            ACache t = target == null ? null : target.get();
+            if (t != null) {
+                t.indexed = true;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            ACache s = source.get();
+            ACache t = target == null ? null : target.get();
+            // keys of collected caches are only equal to themselves
+            return s != null && (target == null) == (other.target == null) && s == other.source.get()
+                    && (target == null || (t != null && t == other.target.get()))
+                    && description.equals(other.description);
+        }
+    }
+}
@@ -68,7 +68,8 @@ public class Instance implements Comparable<Object>, Serializable {
                 properties.get(propUri).add(iter.next());
             }
         } else {
-            properties.put(propUri, values);
+            // read-only values of a cache are copied
+            properties.put(propUri, values instanceof ValueSet ? new TreeSet<String>(values) : values);
         }
     }
 
@@ -191,7 +192,8 @@ public class Instance implements Comparable<Object>, Serializable {
 		if (obj == null)
 			return false;
 		if (getClass() != obj.getClass())
-			return false;
+			// views of instances, e.g. of the InternedCache, compare by content
+			return getClass() == Instance.class && obj instanceof Instance && obj.equals(this);
 		Instance other = (Instance) obj;
 		if (Double.doubleToLongBits(distance) != Double.doubleToLongBits(other.distance))
 			return false;
@@ -0,0 +1,608 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.aksw.limes.core.datastrutures.StringDictionary;
+
+/**
+ * Implements an in-memory cache for very large knowledge bases. URIs, property
+ * names and property values are interned in dictionaries, thus each string is
+ * stored only once. The values of each property are kept in a column of
+ * primitive int arrays indexed by the dense id of the instances, and URIs are
+ * mapped to ids through a hash-based dictionary. The cache does not keep
+ * {@link Instance} objects: the instances returned by it are views that read
+ * their properties from the columns and write changes of their properties
+ * back to the cache. The dictionaries and columns are guarded by a
+ * read-write lock, thus the views of several threads can read their
+ * properties concurrently, and writes, e.g. of a preprocessing pipeline
+ * applied in parallel, are serialized. The decoded values of a property are
+ * kept as read-only sets until the property of the instance changes.
+ */
+public class InternedCache extends MemoryCache implements Serializable {
+
+    private static final long serialVersionUID = 3810957203671950291L;
+
+    /**
+     * URIs of the instances, the id of a URI is the id of its instance.
+     */
+    private StringDictionary uris = new StringDictionary();
+    private StringDictionary properties = new StringDictionary();
+    private StringDictionary values = new StringDictionary();
+    /**
+     * Columns of the properties, by property id.
+     */
+    private ArrayList<Column> columns = new ArrayList<Column>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Id of the instance returned by the next call of getNextInstance.
+     */
+    private transient int cursor = 0;
+
+    /**
+     * Values of a property. The values of an instance are a linked list of
+     * entries, starting at the head of the instance.
+     */
+    private static class Column implements Serializable {
+
+        private static final long serialVersionUID = -1750226434120954786L;
+
+        /**
+         * First entry of each instance id, -1 if the instance has no values.
+         */
+        int[] head = new int[0];
+        /**
+         * Value id of each entry.
+         */
+        int[] values = new int[16];
+        /**
+         * Next entry of the same instance, -1 for the last entry.
+         */
+        int[] next = new int[16];
+        int entries = 0;
+        /**
+         * Decoded values of each instance id, filled by the readers and
+         * cleared by the writers of an instance.
+         */
+        transient volatile AtomicReferenceArray<ValueSet> decoded;
+
+        boolean isEmpty(int id) {
+            return id >= head.length || head[id] < 0;
+        }
+
+        /**
+         * Returns the decoded values of an instance. Called with the read
+         * lock, thus concurrent readers may decode the same values.
+         */
+        ValueSet get(int id, StringDictionary dictionary) {
+            if (isEmpty(id)) {
+                return ValueSet.EMPTY;
+            }
+            AtomicReferenceArray<ValueSet> cached = decoded;
+            if (cached == null || id >= cached.length()) {
+                AtomicReferenceArray<ValueSet> grown = new AtomicReferenceArray<ValueSet>(head.length);
+                for (int i = 0; cached != null && i < cached.length(); i++) {
+                    grown.set(i, cached.get(i));
+                }
+                decoded = cached = grown;
+            }
+            ValueSet result = cached.get(id);
+            if (result == null) {
+                result = new ValueSet();
+                for (int e = head[id]; e >= 0; e = next[e]) {
+                    result.add(dictionary.getString(values[e]));
+                }
+                result.seal();
+                cached.set(id, result);
+            }
+            return result;
+        }
+
+        /**
+         * Drops the decoded values of an instance. Called with the write lock.
+         */
+        private void invalidate(int id) {
+            AtomicReferenceArray<ValueSet> cached = decoded;
+            if (cached != null && id < cached.length()) {
+                cached.set(id, null);
+            }
+        }
+
+        void add(int id, int value) {
+            if (id >= head.length) {
+                int oldLength = head.length;
+                head = Arrays.copyOf(head, Math.max(id + 1, oldLength * 2));
+                Arrays.fill(head, oldLength, head.length, -1);
+            }
+            // the values of an instance are a set
+            for (int e = head[id]; e >= 0; e = next[e]) {
+                if (values[e] == value) {
+                    return;
+                }
+            }
+            if (entries == values.length) {
+                values = Arrays.copyOf(values, entries * 2);
+                next = Arrays.copyOf(next, entries * 2);
+            }
+            values[entries] = value;
+            next[entries] = head[id];
+            head[id] = entries++;
+            invalidate(id);
+        }
+
+        void clear(int id) {
+            if (id < head.length) {
+                head[id] = -1;
+                invalidate(id);
+            }
+        }
+    }
+
+    public InternedCache() {
+    }
+
+    /**
+     * Returns the id of the instance with the input URI.
+     *
+     * @param uri
+     *            URI to look for
+     * @return the id of the instance or -1 if it is not in the cache
+     */
+    public int getId(String uri) {
+        lock.readLock().lock();
+        try {
+            return uris.getId(uri);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id
+     *            id of an instance
+     * @return the URI of the instance with the input id
+     */
+    public String getUri(int id) {
+        lock.readLock().lock();
+        try {
+            return uris.getString(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the values of a property for an instance, without creating a
+     * view of the instance.
+     *
+     * @param id
+     *            id of the instance
+     * @param property
+     *            URI of the property
+     * @return read-only TreeSet of the values of the property, shared by
+     *         the callers until the property of the instance changes
+     */
+    public TreeSet<String> getProperty(int id, String property) {
+        lock.readLock().lock();
+        try {
+            int p = properties.getId(property);
+            if (p < 0) {
+                return ValueSet.EMPTY;
+            }
+            return columns.get(p).get(id, values);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> getAllProperties(int id) {
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<String>();
+            for (int p = 0; p < columns.size(); p++) {
+                if (!columns.get(p).isEmpty(id)) {
+                    result.add(properties.getString(p));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addProperty(int id, String property, String value) {
+        lock.writeLock().lock();
+        try {
+            int p = properties.add(property);
+            if (p == columns.size()) {
+                columns.add(new Column());
+            }
+            columns.get(p).add(id, values.add(value));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeProperty(int id, String property) {
+        lock.writeLock().lock();
+        try {
+            int p = properties.getId(property);
+            if (p >= 0) {
+                columns.get(p).clear(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called with the write lock.
+     */
+    private void removeProperties(int id) {
+        for (Column column : columns) {
+            column.clear(id);
+        }
+    }
+
+    /**
+     * Called with the write lock.
+     */
+    private void copyProperties(int id, Instance i) {
+        for (String property : i.getAllProperties()) {
+            for (String value : i.getProperty(property)) {
+                addProperty(id, property, value);
+            }
+        }
+    }
+
+    @Override
+    public Instance getNextInstance() {
+        // the cursor is only moved under the write lock
+        lock.writeLock().lock();
+        try {
+            if (cursor < uris.size()) {
+                return new InstanceView(cursor++);
+            } else {
+                return null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        lock.readLock().lock();
+        try {
+            ArrayList<Instance> result = new ArrayList<Instance>(uris.size());
+            for (int id = 0; id < uris.size(); id++) {
+                result.add(new InstanceView(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the properties of an instance to the cache, if no instance with
+     * the same URI is in the cache. The properties are copied, thus later
+     * changes of the input instance are not reflected by the cache.
+     *
+     * @param i
+     *            The instance to add
+     */
+    @Override
+    public void addInstance(Instance i) {
+        lock.writeLock().lock();
+        try {
+            invalidateIndexes();
+            if (uris.getId(i.getUri()) < 0) {
+                copyProperties(uris.add(i.getUri()), i);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param uri
+     *            URI to look for
+     * @return A view of the instance with the URI uri if it is in the cache,
+     *         else null
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        lock.readLock().lock();
+        try {
+            int id = uris.getId(uri);
+            if (id < 0) {
+                return null;
+            }
+            return new InstanceView(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return uris.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addTriple(String s, String p, String o) {
+        lock.writeLock().lock();
+        try {
+            invalidateIndexes();
+            addValue(new InstanceView(uris.add(s)), p, o);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsInstance(Instance i) {
+        return containsUri(i.getUri());
+    }
+
+    @Override
+    public boolean containsUri(String uri) {
+        return getId(uri) >= 0;
+    }
+
+    @Override
+    public void resetIterator() {
+        cursor = 0;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        lock.readLock().lock();
+        try {
+            ArrayList<String> result = new ArrayList<String>(uris.size());
+            for (int id = 0; id < uris.size(); id++) {
+                result.add(uris.getString(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ACache getSample(int size) {
+        InternedCache c = new InternedCache();
+        while (c.size() < size) {
+            int id = (int) Math.floor(Math.random() * size());
+            c.addInstance(new InstanceView(id));
+        }
+        return c;
+    }
+
+    @Override
+    public Set<String> getAllProperties() {
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<String>();
+            for (int p = 0; p < columns.size(); p++) {
+                if (columns.get(p).entries > 0) {
+                    result.add(properties.getString(p));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        lock.writeLock().lock();
+        try {
+            invalidateIndexes();
+            int id = uris.add(uri);
+            // the values of a view of this instance are read before they are
+            // removed
+            Instance copy = a.copy();
+            removeProperties(id);
+            copyProperties(id, copy);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getAllInstances().toString();
+    }
+
+    @Override
+    public InternedCache clone() {
+        InternedCache clone = new InternedCache();
+        for (Instance i : getAllInstances()) {
+            clone.addInstance(i);
+        }
+        return clone;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (Instance i : getAllInstances()) {
+            result += i.hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Two interned caches are equal if they contain the same URIs with the
+     * same property values, regardless of the order in which they were added.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof InternedCache)) {
+            return false;
+        }
+        InternedCache other = (InternedCache) obj;
+        if (size() != other.size()) {
+            return false;
+        }
+        for (Instance i : getAllInstances()) {
+            Instance j = other.getInstance(i.getUri());
+            if (j == null || !i.equals(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates an interned cache with the instances of another cache.
+     *
+     * @param cache
+     *            The cache to copy
+     * @return An interned cache containing copies of all instances of the
+     *         input cache
+     */
+    public static InternedCache copyOf(ACache cache) {
+        InternedCache result = new InternedCache();
+        for (Instance i : cache.getAllInstances()) {
+            result.addInstance(i);
+        }
+        return result;
+    }
+
+    /**
+     * View of an instance of the cache. All properties are read from and
+     * written to the columns of the cache.
+     */
+    private class InstanceView extends Instance {
+
+        private static final long serialVersionUID = 7140863618230713648L;
+
+        private final int id;
+
+        InstanceView(int id) {
+            super(InternedCache.this.getUri(id));
+            this.id = id;
+        }
+
+        @Override
+        public void addProperty(String propUri, String value) {
+            InternedCache.this.addProperty(id, propUri, value);
+        }
+
+        @Override
+        public void addProperty(String propUri, TreeSet<String> values) {
+            lock.writeLock().lock();
+            try {
+                for (String value : values) {
+                    InternedCache.this.addProperty(id, propUri, value);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void replaceProperty(String propUri, TreeSet<String> values) {
+            lock.writeLock().lock();
+            try {
+                removeProperty(id, propUri);
+                addProperty(propUri, values);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public TreeSet<String> getProperty(String propUri) {
+            return InternedCache.this.getProperty(id, propUri);
+        }
+
+        @Override
+        public Set<String> getAllProperties() {
+            return InternedCache.this.getAllProperties(id);
+        }
+
+        @Override
+        public void removePropery(String uri) {
+            removeProperty(id, uri);
+        }
+
+        @Override
+        public Instance copy() {
+            Instance instance = new Instance(getUri());
+            for (String p : getAllProperties()) {
+                instance.addProperty(p, new TreeSet<String>(getProperty(p)));
+            }
+            instance.distance = distance;
+            return instance;
+        }
+
+        private HashMap<String, TreeSet<String>> getProperties() {
+            HashMap<String, TreeSet<String>> result = new HashMap<String, TreeSet<String>>();
+            for (String p : getAllProperties()) {
+                result.put(p, getProperty(p));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return copy().toString();
+        }
+
+        @Override
+        public int hashCode() {
+            return copy().hashCode();
+        }
+
+        /**
+         * A view is equal to any instance with the same URI, distance and
+         * properties.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Instance)) {
+                return false;
+            }
+            Instance other = (Instance) obj;
+            if (Double.doubleToLongBits(distance) != Double.doubleToLongBits(other.distance)
+                    || !getUri().equals(other.getUri())) {
+                return false;
+            }
+            HashMap<String, TreeSet<String>> otherProperties = new HashMap<String, TreeSet<String>>();
+            for (String p : other.getAllProperties()) {
+                otherProperties.put(p, other.getProperty(p));
+            }
+            return getProperties().equals(otherProperties);
+        }
+
+        /**
+         * Views are serialized as plain instances.
+         */
+        private Object writeReplace() {
+            return copy();
+        }
+    }
+}
@@ -70,6 +70,7 @@ public class MemoryCache extends ACache {
     }
 
     public void addInstance(Instance i) {
+        invalidateIndexes();
         if (instanceMap.containsKey(i.getUri())) {
             // Instance m = instanceMap.get(i.getUri());
         } else {
@@ -111,12 +112,13 @@ public class MemoryCache extends ACache {
      */
     @Override
     public void addTriple(String s, String p, String o) {
+        invalidateIndexes();
         if (instanceMap.containsKey(s)) {
             Instance m = instanceMap.get(s);
-            m.addProperty(p, o);
+            addValue(m, p, o);
         } else {
             Instance m = new Instance(s);
-            m.addProperty(p, o);
+            addValue(m, p, o);
             instanceMap.put(s, m);
         }
     }
@@ -195,6 +197,7 @@ public class MemoryCache extends ACache {
     }
 
     public void replaceInstance(String uri, Instance a) {
+        invalidateIndexes();
         if (instanceMap.containsKey(uri)) {
             instanceMap.remove(uri);
         }
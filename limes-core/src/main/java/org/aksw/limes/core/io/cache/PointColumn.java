@@ -0,0 +1,149 @@
+package org.aksw.limes.core.io.cache;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Typed column of the numeric values of one or more properties of a cache,
+ * e.g. the latitude and longitude of its instances. The values are parsed once
+ * and stored as points of a fixed dimension in a single <code>double[]</code>,
+ * so that space measures and blockers do not parse strings per comparison.
+ * Instances with several values for a property get the points of all
+ * combinations of their values. Values that are not numbers are ignored.
+ * <p>
+ * The points of the instance at index i are the points getOffsets()[i] to
+ * getOffsets()[i + 1] - 1, the coordinates of the point at index p are
+ * getPoints()[p * getDimension()] to getPoints()[(p + 1) * getDimension() - 1].
+ */
+public class PointColumn {
+
+    static Logger logger = LoggerFactory.getLogger(PointColumn.class);
+
+    private final int dimension;
+    private final String[] uris;
+    private final int[] offsets;
+    private final double[] points;
+
+    /**
+     * Parses the values of properties of all instances of a cache.
+     *
+     * @param cache
+     *            Cache whose instances are to be parsed
+     * @param properties
+     *            Properties that make up each dimension, separated by |
+     */
+    public PointColumn(ACache cache, String properties) {
+        String[] split = properties.split("\\|");
+        dimension = split.length;
+        ArrayList<String> allUris = cache.getAllUris();
+        uris = allUris.toArray(new String[allUris.size()]);
+        offsets = new int[uris.length + 1];
+        double[][] values = new double[dimension][];
+        double[] buffer = new double[16 * dimension];
+        int size = 0;
+        for (int i = 0; i < uris.length; i++) {
+            Instance instance = cache.getInstance(uris[i]);
+            int combinations = 1;
+            for (int d = 0; d < dimension; d++) {
+                values[d] = parse(instance.getProperty(split[d]));
+                combinations *= values[d].length;
+            }
+            if ((size + combinations) * dimension > buffer.length) {
+                double[] grown = new double[Math.max(2 * buffer.length, (size + combinations) * dimension)];
+                System.arraycopy(buffer, 0, grown, 0, size * dimension);
+                buffer = grown;
+            }
+            for (int c = 0; c < combinations; c++) {
+                int rest = c;
+                for (int d = dimension - 1; d >= 0; d--) {
+                    buffer[(size + c) * dimension + d] = values[d][rest % values[d].length];
+                    rest /= values[d].length;
+                }
+            }
+            size += combinations;
+            offsets[i + 1] = size;
+        }
+        points = new double[size * dimension];
+        System.arraycopy(buffer, 0, points, 0, points.length);
+    }
+
+    /**
+     * Returns the column of properties of a cache. The column is shared if an
+     * {@link IndexRegistry} is attached to the cache.
+     *
+     * @param cache
+     *            Cache whose instances are to be parsed
+     * @param properties
+     *            Properties that make up each dimension, separated by |
+     * @return the column of the properties
+     */
+    public static PointColumn getColumn(ACache cache, String properties) {
+        return IndexRegistry.getIndex(cache, properties, "points", () -> new PointColumn(cache, properties),
+                PointColumn::footprint);
+    }
+
+    private static double[] parse(TreeSet<String> propValues) {
+        double[] values = new double[propValues.size()];
+        int size = 0;
+        for (String s : propValues) {
+            try {
+                values[size] = Double.parseDouble(s);
+                size++;
+            } catch (NumberFormatException e) {
+                logger.warn(s + " is not a number. Will be ignored.");
+            }
+        }
+        if (size < values.length) {
+            double[] parsed = new double[size];
+            System.arraycopy(values, 0, parsed, 0, size);
+            return parsed;
+        }
+        return values;
+    }
+
+    private static long footprint(PointColumn column) {
+        // the URIs are shared with the cache
+        return 64 + 8L * column.uris.length + 4L * column.offsets.length + 8L * column.points.length;
+    }
+
+    /**
+     * @return number of coordinates of a point
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return number of instances
+     */
+    public int size() {
+        return uris.length;
+    }
+
+    /**
+     * @param instance
+     *            Index of an instance
+     * @return URI of the instance
+     */
+    public String getUri(int instance) {
+        return uris[instance];
+    }
+
+    /**
+     * @return offsets of the points of the instances, which must not be
+     *         modified
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return coordinates of all points, which must not be modified
+     */
+    public double[] getPoints() {
+        return points;
+    }
+}
@@ -0,0 +1,156 @@
+package org.aksw.limes.core.io.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Read-only set of the values of a property, returned by caches that share
+ * the decoded values of an instance between callers. The values are added
+ * before the set is sealed, afterwards every modification throws an
+ * {@link UnsupportedOperationException}. Instances copy value sets that are
+ * added to them, see {@link Instance#addProperty(String, TreeSet)}.
+ */
+class ValueSet extends TreeSet<String> {
+
+    private static final long serialVersionUID = -2306981519364720485L;
+
+    static final ValueSet EMPTY = new ValueSet().seal();
+
+    private boolean sealed = false;
+
+    ValueSet seal() {
+        sealed = true;
+        return this;
+    }
+
+    private void checkModifiable() {
+        if (sealed) {
+            throw new UnsupportedOperationException("The values of the property are read-only");
+        }
+    }
+
+    @Override
+    public boolean add(String e) {
+        checkModifiable();
+        return super.add(e);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        checkModifiable();
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        checkModifiable();
+        return super.remove(o);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        checkModifiable();
+        return super.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        checkModifiable();
+        return super.retainAll(c);
+    }
+
+    @Override
+    public void clear() {
+        checkModifiable();
+        super.clear();
+    }
+
+    @Override
+    public String pollFirst() {
+        checkModifiable();
+        return super.pollFirst();
+    }
+
+    @Override
+    public String pollLast() {
+        checkModifiable();
+        return super.pollLast();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        Iterator<String> iterator = super.iterator();
+        // remove is not supported by default
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<String> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public NavigableSet<String> descendingSet() {
+        return Collections.unmodifiableNavigableSet(super.descendingSet());
+    }
+
+    @Override
+    public NavigableSet<String> subSet(String fromElement, boolean fromInclusive, String toElement,
+            boolean toInclusive) {
+        return Collections.unmodifiableNavigableSet(super.subSet(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    @Override
+    public NavigableSet<String> headSet(String toElement, boolean inclusive) {
+        return Collections.unmodifiableNavigableSet(super.headSet(toElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<String> tailSet(String fromElement, boolean inclusive) {
+        return Collections.unmodifiableNavigableSet(super.tailSet(fromElement, inclusive));
+    }
+
+    @Override
+    public SortedSet<String> subSet(String fromElement, String toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<String> headSet(String toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<String> tailSet(String fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * @return a modifiable copy of the values
+     */
+    @Override
+    public Object clone() {
+        return new TreeSet<String>(this);
+    }
+
+    /**
+     * Value sets are serialized as modifiable sets.
+     */
+    private Object writeReplace() {
+        return new TreeSet<String>(this);
+    }
+}
@@ -48,6 +48,7 @@ public class Configuration implements IConfiguration {
     protected String executionEngine = DEFAULT;
     protected long optimizationTime = 0l;
     protected double expectedSelectivity = 1.0d;
+    protected int executionParallelism = 0;
 
     protected int granularity = 2;
 
@@ -119,7 +120,8 @@ public class Configuration implements IConfiguration {
         return new HashSet<String>(Arrays.asList("sourceInfo", "targetInfo", "metricExpression", "acceptanceRelation",
                 "verificationRelation", "acceptanceThreshold", "acceptanceFile", "verificationThreshold",
                 "verificationFile", "exemplars", "prefixes", "outputFormat", "executionPlan", "granularity",
-                "recallRegulator", "recallThreshold", "optimizationTime", "expectedSelectivity"));
+                "recallRegulator", "recallThreshold", "optimizationTime", "expectedSelectivity",
+                "executionParallelism"));
     }
 
     public int getGranularity() {
@@ -306,6 +308,19 @@ public class Configuration implements IConfiguration {
         return this.expectedSelectivity;
     }
 
+    /**
+     * @param parallelism
+     *            maximal number of subplans executed at the same time by the
+     *            parallel execution engine, 0 for the default
+     */
+    public void setExecutionParallelism(int parallelism) {
+        this.executionParallelism = parallelism;
+    }
+
+    public int getExecutionParallelism() {
+        return this.executionParallelism;
+    }
+
     public String getMlTrainingDataFile() {
         return mlTrainingDataFile;
     }
@@ -319,7 +334,8 @@ public class Configuration implements IConfiguration {
                 + verificationFile + ", prefixes=" + prefixes + ", outputFormat=" + outputFormat
                 + ", executionRewriter=" + executionRewriter + ", executionPlanner=" + executionPlanner
                 + ", executionEngine=" + executionEngine + ", optimization time=" + optimizationTime
-                + ", expected selectivity=" + expectedSelectivity + ", granularity=" + granularity
+                + ", expected selectivity=" + expectedSelectivity + ", parallelism=" + executionParallelism
+                + ", granularity=" + granularity
                 + ", mlAlgorithmName=" + mlAlgorithmName + ", mlParameters=" + mlAlgorithmParameters
                 + ", mlImplementationType=" + mlImplementationType + ", mlTrainingDataFile=" + mlTrainingDataFile
                 + ", mlPseudoFMeasure=" + mlPseudoFMeasure + "]";
@@ -356,6 +372,7 @@ public class Configuration implements IConfiguration {
         result = prime * result + (int) (temp ^ (temp >>> 32));
         temp = Double.doubleToLongBits(this.expectedSelectivity);
         result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + executionParallelism;
         return result;
     }
 
@@ -457,6 +474,8 @@ public class Configuration implements IConfiguration {
             return false;
         if (Double.doubleToLongBits(expectedSelectivity) != Double.doubleToLongBits(other.expectedSelectivity))
             return false;
+        if (executionParallelism != other.executionParallelism)
+            return false;
         return true;
     }
 
@@ -38,6 +38,7 @@ public class LIMES {
     public static final Property executionEngine = property("executionEngine");
     public static final Property optimizationTime = property("optimizationTime");
     public static final Property expectedSelectivity = property("expectedSelectivity");
+    public static final Property executionParallelism = property("executionParallelism");
     public static final Property granularity = property("granularity");
     public static final Property outputFormat = property("outputFormat");
     public static final Property mlParameterName = property("mlParameterName");
@@ -200,6 +200,16 @@ public class RDFConfigurationReader extends AConfigurationReader {
                         + "Use default expected selectivity: 1.0" + "\n--End of message--");
                 configuration.setExpectedSelectivity(1.0d);
             }
+            RDFNode parallelism = getObject(exeParamResource, LIMES.executionParallelism, false);
+            if (parallelism != null) {
+                if (Integer.parseInt(parallelism.toString()) < 0) {
+                    logger.info("\nIgnore this message if you chose the default or simple execution engine:"
+                            + "\nParallelism cannot be negative. Your input value is " + parallelism
+                            + ".\nSetting it to the default value: 0." + "\n--End of message--");
+                    configuration.setExecutionParallelism(0);
+                } else
+                    configuration.setExecutionParallelism(Integer.parseInt(parallelism.toString()));
+            }
 
         } else {
             logger.info("Use default execution parameters.");
@@ -78,6 +78,7 @@ public class XMLConfigurationReader extends AConfigurationReader {
     protected static final String FUNCTION = "FUNCTION";
     protected static final String OPTIMIZATION_TIME = "OPTIMIZATION_TIME";
     protected static final String EXPECTED_SELECTIVITY = "EXPECTED_SELECTIVITY";
+    protected static final String PARALLELISM = "PARALLELISM";
 
     /**
      * Constructor
@@ -473,6 +474,18 @@ public class XMLConfigurationReader extends AConfigurationReader {
                                 } else
                                     configuration.setExpectedSelectivity(k);
 
+                            } else if (child.getNodeName().equals(PARALLELISM)) {
+                                int parallelism = Integer.parseInt(getText(child));
+                                if (parallelism < 0) {
+                                    logger.info(
+                                            "\nIgnore this message if you chose the default or simple execution engine:"
+                                                    + "\nParallelism cannot be negative. Your input value is "
+                                                    + parallelism + ".\nSetting it to the default value: 0."
+                                                    + "\n--End of message--");
+                                    configuration.setExecutionParallelism(0);
+                                } else
+                                    configuration.setExecutionParallelism(parallelism);
+
                             }
                         }
                     }
@@ -160,6 +160,7 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
 		m.add(s, LIMES.executionEngine, configuration.getExecutionEngine());
 		m.add(s, LIMES.optimizationTime, String.valueOf(configuration.getOptimizationTime()));
 		m.add(s, LIMES.expectedSelectivity, String.valueOf(configuration.getExpectedSelectivity()));
+		m.add(s, LIMES.executionParallelism, String.valueOf(configuration.getExecutionParallelism()));
 
 		//7. TILING if necessary
 		m.add(s, LIMES.granularity, String.valueOf(configuration.getGranularity()));
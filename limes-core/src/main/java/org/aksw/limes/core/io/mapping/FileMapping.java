@@ -1,83 +1,849 @@
 package org.aksw.limes.core.io.mapping;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aksw.limes.core.datastrutures.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
+ * Mapping that stores its links on disk, for mappings that do not fit in
+ * memory. Links are appended to memory-mapped segment files. Every record
+ * points to the previous record of the same source URI, thus the only data
+ * kept in memory is the offset of the last record of each source URI.
+ *
+ * Links that are added in ascending order of (source, target) are kept
+ * sorted and duplicate-free at insertion time. Otherwise, the links are
+ * sorted by an external sort-merge, which also keeps the highest similarity
+ * of duplicate links, as soon as the size or the links of the mapping are
+ * requested. Iterating over a file mapping streams its links in ascending
+ * order without loading them into memory.
+ *
+ * The directory of a mapping is only created when its first link is added.
+ * The first segment file is small and each further one is twice as large as
+ * its predecessor, up to the maximal segment size, thus the files grow with
+ * the links. {@link #getMap()} and {@link #getReversedMap()} load all links
+ * into memory and are only supported for compatibility. The files of a
+ * mapping are deleted by {@link #close()}, or when the JVM exits if the
+ * mapping was not closed.
+ *
  * @author Mohamed Sherif {@literal <}sherif {@literal @} informatik.uni-leipzig.de{@literal >}
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version Nov 12, 2015
  */
-public class FileMapping extends AMapping {
+public class FileMapping extends AMapping implements Iterable<Link>, Closeable {
 
-	/**
-	 * 
-	 */
-	private static final long serialVersionUID = -6896787320093743557L;
-	public HashMap<String, HashMap<String, Double>> map;
+    private static final long serialVersionUID = -6896787320093743557L;
 
-    public int getNumberofMappings() {
-        // TODO Auto-generated method stub
-        return 0;
+    static Logger logger = LoggerFactory.getLogger(FileMapping.class);
+
+    /**
+     * Default maximal size of a segment file in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+    /**
+     * Size of the first segment file of a mapping in bytes.
+     */
+    private static final int INITIAL_SEGMENT_SIZE = 1 << 16;
+    /**
+     * Default number of links that are sorted in memory at once.
+     */
+    public static final int DEFAULT_SORT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Size of the fixed part of a record: offset of the previous record of
+     * the source, similarity, length of the source and of the target URI.
+     */
+    private static final int HEADER_SIZE = 8 + 8 + 4 + 4;
+
+    /**
+     * Directories of the mappings that have not been closed yet, deleted when
+     * the JVM exits.
+     */
+    private static final Set<Path> OPEN_DIRECTORIES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Path directory : OPEN_DIRECTORIES) {
+                deleteDirectory(directory);
+            }
+        }));
     }
 
-    public FileMapping reverseSourceTarget() {
-        // TODO Auto-generated method stub
-        return null;
+    private final File parentDirectory;
+    private final int segmentSize;
+    private final int sortBufferSize;
+    /**
+     * Directory of the segment files, null until the first segment is added.
+     */
+    private transient Path directory;
+    /**
+     * Segments of the records. The offset of a record is the index of its
+     * segment in the upper and its position in the lower 32 bits.
+     */
+    private transient List<MappedByteBuffer> segments;
+    private transient int[] segmentEnds;
+    /**
+     * Number of compactions, used to name the segment files.
+     */
+    private transient int generation;
+    /**
+     * Source URIs and the offset of their last record.
+     */
+    private transient StringDictionary sourceIds;
+    private transient long[] lastRecords;
+    /**
+     * True if the records are in ascending order without duplicates.
+     */
+    private transient boolean sorted;
+    private transient Link lastLink;
+    private transient long lastOffset;
+    /**
+     * Number of changes of the links, used to detect changes while iterating.
+     */
+    private transient int version;
+
+    public FileMapping() {
+        this(new File(System.getProperty("java.io.tmpdir")), DEFAULT_SEGMENT_SIZE, DEFAULT_SORT_BUFFER_SIZE);
     }
 
-    public int size() {
-        // TODO Auto-generated method stub
-        return 0;
+    /**
+     * Constructor
+     *
+     * @param parentDirectory,
+     *            directory in which the files of the mapping are created
+     * @param segmentSize,
+     *            maximal size of a segment file in bytes
+     * @param sortBufferSize,
+     *            number of links that are sorted in memory at once
+     */
+    public FileMapping(File parentDirectory, int segmentSize, int sortBufferSize) {
+        super();
+        this.parentDirectory = parentDirectory;
+        this.segmentSize = segmentSize;
+        this.sortBufferSize = sortBufferSize;
+        this.directory = null;
+        this.generation = 0;
+        this.version = 0;
+        reset();
     }
 
-    public void add(String key, String value, Double double1) {
-        // TODO Auto-generated method stub
+    /**
+     * Creates an empty file mapping with the same settings as this one.
+     *
+     * @return a new empty file mapping
+     */
+    public FileMapping createEmptyMapping() {
+        FileMapping m = new FileMapping(parentDirectory, segmentSize, sortBufferSize);
+        m.predicate = predicate;
+        return m;
+    }
 
+    /**
+     * Empties the in-memory state of the mapping. Segment files are not
+     * deleted.
+     */
+    private void reset() {
+        segments = new ArrayList<>();
+        segmentEnds = new int[16];
+        sourceIds = new StringDictionary();
+        lastRecords = new long[16];
+        Arrays.fill(lastRecords, -1L);
+        sorted = true;
+        lastLink = null;
+        lastOffset = -1L;
+        size = 0;
     }
 
-    public void add(String key, HashMap<String, Double> hashMap) {
-        // TODO Auto-generated method stub
+    /**
+     * Returns the directory of the segment files and creates it if needed.
+     */
+    private Path getDirectory() {
+        if (directory == null) {
+            try {
+                Files.createDirectories(parentDirectory.toPath());
+                directory = Files.createTempDirectory(parentDirectory.toPath(), "limes-mapping-");
+            } catch (IOException e) {
+                logger.error("Could not create directory for file mapping in " + parentDirectory);
+                throw new RuntimeException(e);
+            }
+            OPEN_DIRECTORIES.add(directory);
+        }
+        return directory;
+    }
 
+    /**
+     * Adds a segment that is twice as large as the last one, at most of the
+     * maximal segment size, and large enough for a record of a given length.
+     */
+    private void addSegment(int length) {
+        long capacity = segments.isEmpty() ? INITIAL_SEGMENT_SIZE
+                : 2L * segments.get(segments.size() - 1).capacity();
+        capacity = Math.max(length, Math.min(segmentSize, capacity));
+        Path file = getDirectory().resolve("segment-" + generation + "-" + segments.size());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segments.add(channel.map(MapMode.READ_WRITE, 0, capacity));
+        } catch (IOException e) {
+            logger.error("Could not create segment file " + file);
+            throw new RuntimeException(e);
+        }
+        if (segments.size() > segmentEnds.length) {
+            segmentEnds = Arrays.copyOf(segmentEnds, segmentEnds.length * 2);
+        }
+        segmentEnds[segments.size() - 1] = 0;
     }
 
-    public double getConfidence(String key, String value) {
-        // TODO Auto-generated method stub
-        return 0.0d;
+    private void deleteSegments(int segmentGeneration, int count) {
+        if (directory == null) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            try {
+                Files.deleteIfExists(directory.resolve("segment-" + segmentGeneration + "-" + i));
+            } catch (IOException e) {
+                logger.warn("Could not delete segment file: " + e.getMessage());
+            }
+        }
     }
 
+    /**
+     * Appends a record to the last segment.
+     *
+     * @return the offset of the record
+     */
+    private long append(String source, String target, double similarity) {
+        byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+        byte[] targetBytes = target.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_SIZE + sourceBytes.length + targetBytes.length;
+        if (length > segmentSize) {
+            logger.error("Link " + source + " -> " + target + " does not fit in a segment of " + segmentSize
+                    + " bytes.");
+            throw new RuntimeException("Link does not fit in a segment of " + segmentSize + " bytes");
+        }
+        if (segments.isEmpty()
+                || segmentEnds[segments.size() - 1] + length > segments.get(segments.size() - 1).capacity()) {
+            addSegment(length);
+        }
+        int segment = segments.size() - 1;
+        int position = segmentEnds[segment];
+        long offset = ((long) segment << 32) | position;
+
+        int id = sourceIds.add(source);
+        if (id >= lastRecords.length) {
+            int oldLength = lastRecords.length;
+            lastRecords = Arrays.copyOf(lastRecords, oldLength * 2);
+            Arrays.fill(lastRecords, oldLength, lastRecords.length, -1L);
+        }
+        ByteBuffer buffer = segments.get(segment).duplicate();
+        buffer.position(position);
+        buffer.putLong(lastRecords[id]);
+        buffer.putDouble(similarity);
+        buffer.putInt(sourceBytes.length);
+        buffer.putInt(targetBytes.length);
+        buffer.put(sourceBytes);
+        buffer.put(targetBytes);
+        segmentEnds[segment] = position + length;
+        lastRecords[id] = offset;
+        return offset;
+    }
+
+    private ByteBuffer getRecord(long offset) {
+        ByteBuffer buffer = segments.get((int) (offset >>> 32)).duplicate();
+        buffer.position((int) offset);
+        return buffer;
+    }
+
+    /**
+     * Add one entry to the mapping
+     *
+     * @param source
+     *            Uri in the source knowledge bases
+     * @param target
+     *            Mapping uri in the target knowledge base
+     * @param similarity
+     *            Similarity of uri and mappingUri
+     */
     @Override
-    public void add(String key, String value, double sim) {
-        // TODO Auto-generated method stub
+    public void add(String source, String target, double similarity) {
+        version++;
+        Link link = new Link(source, target, similarity);
+        if (sorted && lastLink != null) {
+            int c = link.compareTo(lastLink);
+            if (c == 0) {
+                // duplicate of the last link, keep the highest similarity
+                if (similarity > lastLink.getSimilarity()) {
+                    ByteBuffer record = getRecord(lastOffset);
+                    record.putDouble(record.position() + 8, similarity);
+                    lastLink = link;
+                }
+                return;
+            }
+            if (c < 0) {
+                sorted = false;
+            }
+        }
+        lastOffset = append(source, target, similarity);
+        lastLink = link;
+        size++;
+    }
 
+    /**
+     * Add a batch of similarities to the mapping
+     *
+     * @param uri
+     *            A resource from the source knowledge base
+     * @param instances
+     *            Map containing uris from the target knowledge base and their
+     *            similarity to uri
+     */
+    @Override
+    public void add(String uri, HashMap<String, Double> instances) {
+        for (Entry<String, Double> entry : instances.entrySet()) {
+            add(uri, entry.getKey(), entry.getValue());
+        }
     }
 
+    /**
+     * Checks whether the map contains a certain pair. If yes, its similarity
+     * is returned. Else 0 is returned
+     *
+     * @param sourceInstance
+     *            Instance from the source knowledge base
+     * @param targetInstance
+     *            Instance from the target knowledge base
+     * @return Similarity of the two instances according to the mapping
+     */
     @Override
-    public boolean contains(String key, String value) {
-        // TODO Auto-generated method stub
-        return false;
+    public double getConfidence(String sourceInstance, String targetInstance) {
+        return lookup(sourceInstance, targetInstance, 0d);
     }
 
     @Override
-    public AMapping getBestOneToNMapping() {
-        // TODO Auto-generated method stub
-        return null;
+    public boolean contains(String sourceInstance, String targetInstance) {
+        return !Double.isNaN(lookup(sourceInstance, targetInstance, Double.NaN));
+    }
+
+    /**
+     * Follows the records of the source and returns the highest similarity of
+     * the link to the target, or the default value if there is no such link.
+     */
+    private double lookup(String source, String target, double defaultValue) {
+        int id = sourceIds.getId(source);
+        if (id < 0) {
+            return defaultValue;
+        }
+        byte[] targetBytes = target.getBytes(StandardCharsets.UTF_8);
+        double similarity = Double.NEGATIVE_INFINITY;
+        boolean found = false;
+        long offset = lastRecords[id];
+        while (offset >= 0) {
+            ByteBuffer record = getRecord(offset);
+            long previous = record.getLong();
+            double recordSimilarity = record.getDouble();
+            int sourceLength = record.getInt();
+            int targetLength = record.getInt();
+            if (targetLength == targetBytes.length) {
+                record.position(record.position() + sourceLength);
+                boolean equal = true;
+                for (int i = 0; i < targetLength && equal; i++) {
+                    equal = record.get() == targetBytes[i];
+                }
+                if (equal) {
+                    found = true;
+                    similarity = Math.max(similarity, recordSimilarity);
+                    if (sorted) {
+                        // sorted mappings contain no duplicates
+                        break;
+                    }
+                }
+            }
+            offset = previous;
+        }
+        return found ? similarity : defaultValue;
+    }
+
+    /**
+     * Sorts the records and merges duplicate links, keeping their highest
+     * similarity. Chunks of links are sorted in memory and written to run
+     * files, which are then merged into new segment files.
+     */
+    private void compact() {
+        if (sorted) {
+            return;
+        }
+        List<Path> runs = new ArrayList<>();
+        List<Link> buffer = new ArrayList<>();
+        try {
+            Iterator<Link> records = scan();
+            while (records.hasNext()) {
+                buffer.add(records.next());
+                if (buffer.size() == sortBufferSize) {
+                    runs.add(writeRun(buffer));
+                    buffer.clear();
+                }
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(writeRun(buffer));
+                buffer.clear();
+            }
+            int oldGeneration = generation;
+            int oldSegments = segments.size();
+            generation++;
+            reset();
+            mergeRuns(runs);
+            deleteSegments(oldGeneration, oldSegments);
+        } catch (IOException e) {
+            logger.error("Could not sort file mapping in " + directory);
+            throw new RuntimeException(e);
+        } finally {
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    logger.warn("Could not delete run file: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Path writeRun(List<Link> buffer) throws IOException {
+        Collections.sort(buffer);
+        Path run = Files.createTempFile(getDirectory(), "run-", "");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            Link current = null;
+            for (Link link : buffer) {
+                if (current != null && current.compareTo(link) == 0) {
+                    if (link.getSimilarity() > current.getSimilarity()) {
+                        current = link;
+                    }
+                } else {
+                    if (current != null) {
+                        writeLink(out, current);
+                    }
+                    current = link;
+                }
+            }
+            if (current != null) {
+                writeLink(out, current);
+            }
+            out.writeBoolean(false);
+        }
+        return run;
+    }
+
+    private static void writeLink(DataOutputStream out, Link link) throws IOException {
+        byte[] source = link.getSource().getBytes(StandardCharsets.UTF_8);
+        byte[] target = link.getTarget().getBytes(StandardCharsets.UTF_8);
+        out.writeBoolean(true);
+        out.writeInt(source.length);
+        out.write(source);
+        out.writeInt(target.length);
+        out.write(target);
+        out.writeDouble(link.getSimilarity());
+    }
+
+    private void mergeRuns(List<Path> runs) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                if (reader.current != null) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                // add() keeps the highest similarity of consecutive duplicates
+                add(reader.current.getSource(), reader.current.getTarget(), reader.current.getSimilarity());
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : queue) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the sorted links of a run file.
+     */
+    private static class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        private Link current;
+
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+            next();
+        }
+
+        boolean next() throws IOException {
+            if (!in.readBoolean()) {
+                current = null;
+                return false;
+            }
+            byte[] source = new byte[in.readInt()];
+            in.readFully(source);
+            byte[] target = new byte[in.readInt()];
+            in.readFully(target);
+            current = new Link(new String(source, StandardCharsets.UTF_8), new String(target,
+                    StandardCharsets.UTF_8), in.readDouble());
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            return current.compareTo(other.current);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Iterates over the records in the order in which they are stored.
+     */
+    private Iterator<Link> scan() {
+        return new Iterator<Link>() {
+            private final int expectedVersion = version;
+            private int segment = 0;
+            private ByteBuffer buffer = segments.isEmpty() ? null : segments.get(0).duplicate();
+
+            @Override
+            public boolean hasNext() {
+                while (buffer != null && buffer.position() >= segmentEnds[segment]) {
+                    segment++;
+                    buffer = segment < segments.size() ? segments.get(segment).duplicate() : null;
+                }
+                return buffer != null;
+            }
+
+            @Override
+            public Link next() {
+                if (expectedVersion != version) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                buffer.getLong();
+                double similarity = buffer.getDouble();
+                byte[] source = new byte[buffer.getInt()];
+                byte[] target = new byte[buffer.getInt()];
+                buffer.get(source);
+                buffer.get(target);
+                return new Link(new String(source, StandardCharsets.UTF_8), new String(target,
+                        StandardCharsets.UTF_8), similarity);
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over the links of the mapping, in ascending order of
+     * source and target URI and without duplicates. The links are read from
+     * disk while iterating.
+     *
+     * @return iterator over the links of the mapping
+     */
+    @Override
+    public Iterator<Link> iterator() {
+        compact();
+        return scan();
+    }
+
+    /**
+     * Returns the number of links. Sorts the links if they are not sorted.
+     */
+    @Override
+    public int size() {
+        compact();
+        return size;
     }
 
+    @Override
+    public int getSize() {
+        return size();
+    }
+
+    @Override
+    public int getNumberofMappings() {
+        return size();
+    }
+
+    @Override
+    public int getNumberofPositiveMappings() {
+        int positive = 0;
+        for (Link link : this) {
+            if (link.getSimilarity() > 0) {
+                positive++;
+            }
+        }
+        return positive;
+    }
+
+    @Override
+    public AMapping getOnlyPositiveExamples() {
+        FileMapping m = createEmptyMapping();
+        for (Link link : this) {
+            if (link.getSimilarity() > 0) {
+                m.add(link.getSource(), link.getTarget(), link.getSimilarity());
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Returns a mapping that contains all elements of the current mapping that
+     * have similarity above the threshold.
+     *
+     * @param threshold
+     *            Similarity threshold for filtering
+     * @return Mapping that contains all elements (s,t) with sim(s,t) {@literal >}= threshold
+     */
     @Override
     public AMapping getSubMap(double threshold) {
-        // TODO Auto-generated method stub
-        return null;
+        FileMapping m = createEmptyMapping();
+        for (Link link : this) {
+            if (link.getSimilarity() >= threshold) {
+                m.add(link.getSource(), link.getTarget(), link.getSimilarity());
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Computes the best one to n mapping for the current mapping, i.e., for
+     * each element of the source, it gets the best t from target. Only the
+     * links of one source at a time are kept in memory.
+     *
+     * @return Best one to n mapping
+     */
+    @Override
+    public AMapping getBestOneToNMapping() {
+        FileMapping m = createEmptyMapping();
+        List<Link> best = new ArrayList<>();
+        String currentSource = null;
+        double maxSim = 0;
+        for (Link link : this) {
+            // the links of a source are consecutive
+            if (!link.getSource().equals(currentSource)) {
+                addAll(m, best);
+                best.clear();
+                maxSim = 0;
+                currentSource = link.getSource();
+            }
+            if (link.getSimilarity() > maxSim) {
+                maxSim = link.getSimilarity();
+                best.clear();
+                best.add(link);
+            } else if (link.getSimilarity() == maxSim) {
+                best.add(link);
+            }
+        }
+        addAll(m, best);
+        return m;
+    }
+
+    private static void addAll(AMapping m, List<Link> links) {
+        for (Link link : links) {
+            m.add(link.getSource(), link.getTarget(), link.getSimilarity());
+        }
+    }
+
+    /**
+     * Reverses source and target
+     *
+     * @return Reversed map
+     */
+    @Override
+    public AMapping reverseSourceTarget() {
+        FileMapping m = createEmptyMapping();
+        for (Link link : this) {
+            m.add(link.getTarget(), link.getSource(), link.getSimilarity());
+        }
+        return m;
     }
 
-	@Override
-	public int getNumberofPositiveMappings() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
+    /**
+     * Loads all links into a new map on each call. The map is not kept by the
+     * mapping, thus changes of the returned map are not reflected in the
+     * mapping.
+     */
+    @Override
+    public HashMap<String, HashMap<String, Double>> getMap() {
+        HashMap<String, HashMap<String, Double>> copy = new HashMap<>();
+        for (Link link : this) {
+            HashMap<String, Double> targets = copy.get(link.getSource());
+            if (targets == null) {
+                targets = new HashMap<>();
+                copy.put(link.getSource(), targets);
+            }
+            targets.put(link.getTarget(), link.getSimilarity());
+        }
+        return copy;
+    }
+
+    /**
+     * Loads all links into memory, indexed by their similarity. Changes of the
+     * returned map are not reflected in the mapping.
+     */
+    @Override
+    public HashMap<Double, HashMap<String, TreeSet<String>>> getReversedMap() {
+        HashMap<Double, HashMap<String, TreeSet<String>>> reversedMap = new HashMap<>();
+        for (Link link : this) {
+            HashMap<String, TreeSet<String>> pairs = reversedMap.get(link.getSimilarity());
+            if (pairs == null) {
+                pairs = new HashMap<>();
+                reversedMap.put(link.getSimilarity(), pairs);
+            }
+            TreeSet<String> targets = pairs.get(link.getSource());
+            if (targets == null) {
+                targets = new TreeSet<>();
+                pairs.put(link.getSource(), targets);
+            }
+            targets.add(link.getTarget());
+        }
+        return reversedMap;
+    }
+
+    /**
+     * Replaces all links of the mapping by the links of the input map.
+     */
+    @Override
+    public void setMap(HashMap<String, HashMap<String, Double>> map) {
+        int oldGeneration = generation;
+        int oldSegments = segments.size();
+        generation++;
+        reset();
+        version++;
+        deleteSegments(oldGeneration, oldSegments);
+        for (Entry<String, HashMap<String, Double>> entry : map.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Deletes the files of the mapping. The mapping is empty afterwards.
+     */
+    @Override
+    public void close() {
+        reset();
+        version++;
+        if (directory != null) {
+            OPEN_DIRECTORIES.remove(directory);
+            deleteDirectory(directory);
+            directory = null;
+        }
+    }
 
-	@Override
-	public AMapping getOnlyPositiveExamples() {
-		// TODO Auto-generated method stub
-		return null;
-	}
+    /**
+     * Deletes a directory of a mapping and the files in it.
+     */
+    private static void deleteDirectory(Path directory) {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    logger.warn("Could not delete file " + file);
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            logger.warn("Could not delete directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (Link link : this) {
+            s.append(link).append("\n");
+        }
+        return s.toString();
+    }
 
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+        int links = 0;
+        for (Link link : this) {
+            links += link.getSource().hashCode() ^ link.getTarget().hashCode()
+                    ^ Double.hashCode(link.getSimilarity());
+        }
+        result = prime * result + links;
+        result = prime * result + size;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        FileMapping other = (FileMapping) obj;
+        if (predicate == null) {
+            if (other.predicate != null)
+                return false;
+        } else if (!predicate.equals(other.predicate))
+            return false;
+        if (size() != other.size())
+            return false;
+        Iterator<Link> it1 = iterator();
+        Iterator<Link> it2 = other.iterator();
+        while (it1.hasNext()) {
+            Link l1 = it1.next();
+            Link l2 = it2.next();
+            if (l1.compareTo(l2) != 0 || Double.compare(l1.getSimilarity(), l2.getSimilarity()) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        throw new NotSerializableException("File mappings are stored on disk and can not be serialized.");
+    }
 }
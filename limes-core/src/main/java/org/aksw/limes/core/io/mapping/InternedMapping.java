@@ -0,0 +1,517 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.datastrutures.LongIntHashMap;
+import org.aksw.limes.core.datastrutures.StringDictionary;
+
+/**
+ * Mapping that stores its links in primitive columns instead of nested hash
+ * maps. Source and target URIs are interned to int ids by a dictionary, and
+ * each link is a row (source id, target id, similarity) of three arrays. Pairs
+ * are indexed by an open-addressing map from the packed pair of ids to their
+ * row, thus adding, looking up and filtering links does not box any value. As
+ * with {@link MemoryMapping}, if (s, t, sim1) is already in the mapping and
+ * (s, t, sim2) is added then the mapping will contain (s, t, max(sim1, sim2)).
+ * <p>
+ * Mappings derived from this one, e.g. by {@link #getSubMap(double)}, share
+ * its dictionary as long as none of them adds a URI. A shared dictionary is
+ * never modified: a mapping that adds a URI first copies the URIs of its own
+ * links into a new dictionary. Mappings that share a dictionary can thus be
+ * used by different threads, and the dictionary of a mapping does not keep
+ * the URIs of the links it dropped.
+ * <p>
+ * {@link #getMap()} and {@link #getReversedMap()} are only supported for
+ * compatibility: they build a copy of the links, which is kept until the
+ * mapping changes. The copy must not be modified.
+ */
+public class InternedMapping extends AMapping {
+
+    private static final long serialVersionUID = 2390553766591735219L;
+
+    private StringDictionary uris;
+    /**
+     * False if the dictionary may be shared with other mappings
+     */
+    private boolean ownsUris = true;
+    private int[] sources;
+    private int[] targets;
+    private double[] similarities;
+    private LongIntHashMap index;
+    private transient HashMap<String, HashMap<String, Double>> map = null;
+    private transient HashMap<Double, HashMap<String, TreeSet<String>>> reversedMap = null;
+
+    protected InternedMapping() {
+        this(new StringDictionary(), 16);
+    }
+
+    private InternedMapping(StringDictionary uris, int capacity) {
+        super();
+        this.uris = uris;
+        capacity = Math.max(16, capacity);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.similarities = new double[capacity];
+        this.index = new LongIntHashMap(capacity);
+    }
+
+    /**
+     * Creates an empty mapping that shares the URI dictionary of this mapping.
+     */
+    private InternedMapping createDerivedMapping(int capacity) {
+        InternedMapping m = new InternedMapping(uris, capacity);
+        m.predicate = predicate;
+        ownsUris = false;
+        m.ownsUris = false;
+        return m;
+    }
+
+    /**
+     * Replaces the dictionary by a new one that only holds the URIs of the
+     * links of this mapping, and renumbers the links.
+     */
+    private void compactUris() {
+        StringDictionary own = new StringDictionary(2 * size);
+        int[] ids = new int[uris.size()];
+        Arrays.fill(ids, -1);
+        index = new LongIntHashMap(sources.length);
+        for (int row = 0; row < size; row++) {
+            if (ids[sources[row]] < 0) {
+                ids[sources[row]] = own.add(uris.getString(sources[row]));
+            }
+            if (ids[targets[row]] < 0) {
+                ids[targets[row]] = own.add(uris.getString(targets[row]));
+            }
+            sources[row] = ids[sources[row]];
+            targets[row] = ids[targets[row]];
+            index.put(LongIntHashMap.pair(sources[row], targets[row]), row);
+        }
+        uris = own;
+        ownsUris = true;
+    }
+
+    /**
+     * Adds a link between two interned URIs, keeping the highest similarity
+     * of duplicate links.
+     */
+    private void add(int source, int target, double similarity) {
+        map = null;
+        reversedMap = null;
+        long key = LongIntHashMap.pair(source, target);
+        int row = index.get(key);
+        if (row >= 0) {
+            if (similarity > similarities[row]) {
+                similarities[row] = similarity;
+            }
+            return;
+        }
+        if (size == sources.length) {
+            int capacity = size + (size >> 1);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            similarities = Arrays.copyOf(similarities, capacity);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        similarities[size] = similarity;
+        index.put(key, size);
+        size++;
+    }
+
+    /**
+     * Returns the row of a link or -1 if the mapping does not contain it.
+     */
+    private int getRow(String source, String target) {
+        int sourceId = uris.getId(source);
+        if (sourceId < 0) {
+            return -1;
+        }
+        int targetId = uris.getId(target);
+        if (targetId < 0) {
+            return -1;
+        }
+        return index.get(LongIntHashMap.pair(sourceId, targetId));
+    }
+
+    /**
+     * Add one entry to the mapping
+     *
+     * @param source
+     *            Uri in the source knowledge bases
+     * @param target
+     *            Mapping uri in the target knowledge base
+     * @param similarity
+     *            Similarity of uri and mappingUri
+     */
+    @Override
+    public void add(String source, String target, double similarity) {
+        int sourceId = uris.getId(source);
+        int targetId = uris.getId(target);
+        if (sourceId < 0 || targetId < 0) {
+            // a shared dictionary is replaced by a copy before adding a URI
+            if (!ownsUris) {
+                compactUris();
+            }
+            sourceId = uris.add(source);
+            targetId = uris.add(target);
+        }
+        add(sourceId, targetId, similarity);
+    }
+
+    /**
+     * Add a batch of similarities to the mapping
+     *
+     * @param uri
+     *            A resource from the source knowledge base
+     * @param instances
+     *            Map containing uris from the target knowledge base and their
+     *            similarity to uri
+     */
+    @Override
+    public void add(String uri, HashMap<String, Double> instances) {
+        for (Entry<String, Double> entry : instances.entrySet()) {
+            add(uri, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Checks whether the map contains a certain pair. If yes, its similarity
+     * is returned. Else 0 is returned
+     *
+     * @param sourceInstance
+     *            Instance from the source knowledge base
+     * @param targetInstance
+     *            Instance from the target knowledge base
+     * @return Similarity of the two instances according to the mapping
+     */
+    @Override
+    public double getConfidence(String sourceInstance, String targetInstance) {
+        int row = getRow(sourceInstance, targetInstance);
+        return row < 0 ? 0 : similarities[row];
+    }
+
+    @Override
+    public boolean contains(String sourceInstance, String targetInstance) {
+        return getRow(sourceInstance, targetInstance) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getNumberofMappings() {
+        return size;
+    }
+
+    @Override
+    public int getNumberofPositiveMappings() {
+        int positive = 0;
+        for (int row = 0; row < size; row++) {
+            if (similarities[row] > 0) {
+                positive++;
+            }
+        }
+        return positive;
+    }
+
+    @Override
+    public AMapping getOnlyPositiveExamples() {
+        InternedMapping m = createDerivedMapping(size);
+        for (int row = 0; row < size; row++) {
+            if (similarities[row] > 0) {
+                m.add(sources[row], targets[row], similarities[row]);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Returns a mapping that contains all elements of the current mapping that
+     * have similarity above the threshold.
+     *
+     * @param threshold
+     *            Similarity threshold for filtering
+     * @return Mapping that contains all elements (s,t) with sim(s,t) {@literal >}= threshold
+     */
+    @Override
+    public AMapping getSubMap(double threshold) {
+        InternedMapping m = createDerivedMapping(size);
+        for (int row = 0; row < size; row++) {
+            if (similarities[row] >= threshold) {
+                m.add(sources[row], targets[row], similarities[row]);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Computes the best one to n mapping for the current mapping, i.e., for
+     * each element of the source, it gets the best t from target. This does
+     * not mean an 1 to 1 mapping, as a t can be mapped to several s.
+     *
+     * @return Best one to n mapping
+     */
+    @Override
+    public AMapping getBestOneToNMapping() {
+        // highest similarity of each source, links with negative similarities
+        // are ignored as in the memory mapping
+        double[] maxSim = new double[uris.size()];
+        for (int row = 0; row < size; row++) {
+            if (similarities[row] > maxSim[sources[row]]) {
+                maxSim[sources[row]] = similarities[row];
+            }
+        }
+        InternedMapping m = createDerivedMapping(size);
+        for (int row = 0; row < size; row++) {
+            if (similarities[row] == maxSim[sources[row]]) {
+                m.add(sources[row], targets[row], similarities[row]);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Reverses source and target
+     *
+     * @return Reversed map
+     */
+    @Override
+    public AMapping reverseSourceTarget() {
+        InternedMapping m = createDerivedMapping(size);
+        m.sources = Arrays.copyOf(targets, Math.max(16, size));
+        m.targets = Arrays.copyOf(sources, Math.max(16, size));
+        m.similarities = Arrays.copyOf(similarities, Math.max(16, size));
+        m.size = size;
+        for (int row = 0; row < size; row++) {
+            m.index.put(LongIntHashMap.pair(m.sources[row], m.targets[row]), row);
+        }
+        return m;
+    }
+
+    /**
+     * Returns the ids of the URIs of another mapping in the dictionary of
+     * this mapping. If add is false, URIs that are not in the dictionary get
+     * the id -1. If add is true, this mapping must own its dictionary.
+     */
+    private int[] translateIds(InternedMapping other, boolean add) {
+        int[] ids = new int[other.uris.size()];
+        for (int id = 0; id < ids.length; id++) {
+            String uri = other.uris.getString(id);
+            ids[id] = add ? uris.add(uri) : uris.getId(uri);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the row of a link of another mapping in this mapping, or -1.
+     */
+    private int getRow(int[] ids, int source, int target) {
+        if (ids != null) {
+            source = ids[source];
+            target = ids[target];
+            if (source < 0 || target < 0) {
+                return -1;
+            }
+        }
+        return index.get(LongIntHashMap.pair(source, target));
+    }
+
+    /**
+     * Computes the union of this mapping and another one, on their URI ids.
+     * In case a link exists in both mappings the maximal similarity is taken.
+     *
+     * @param other,
+     *            the second mapping
+     * @return union of the two mappings
+     */
+    public InternedMapping union(InternedMapping other) {
+        InternedMapping larger = size >= other.size ? this : other;
+        InternedMapping smaller = larger == this ? other : this;
+        InternedMapping m = larger.createDerivedMapping(size + other.size);
+        for (int row = 0; row < larger.size; row++) {
+            m.add(larger.sources[row], larger.targets[row], larger.similarities[row]);
+        }
+        int[] ids = null;
+        if (larger.uris != smaller.uris) {
+            m.compactUris();
+            ids = m.translateIds(smaller, true);
+        }
+        for (int row = 0; row < smaller.size; row++) {
+            int source = ids == null ? smaller.sources[row] : ids[smaller.sources[row]];
+            int target = ids == null ? smaller.targets[row] : ids[smaller.targets[row]];
+            m.add(source, target, smaller.similarities[row]);
+        }
+        return m;
+    }
+
+    /**
+     * Computes the intersection of this mapping and another one, on their URI
+     * ids. The links of the smaller mapping are probed in the index of the
+     * larger one. In case a link exists in both mappings the minimal
+     * similarity is taken.
+     *
+     * @param other,
+     *            the second mapping
+     * @return intersection of the two mappings
+     */
+    public InternedMapping intersection(InternedMapping other) {
+        InternedMapping larger = size >= other.size ? this : other;
+        InternedMapping smaller = larger == this ? other : this;
+        InternedMapping m = smaller.createDerivedMapping(smaller.size);
+        int[] ids = larger.uris == smaller.uris ? null : larger.translateIds(smaller, false);
+        for (int row = 0; row < smaller.size; row++) {
+            int largerRow = larger.getRow(ids, smaller.sources[row], smaller.targets[row]);
+            if (largerRow >= 0) {
+                m.add(smaller.sources[row], smaller.targets[row],
+                        Math.min(smaller.similarities[row], larger.similarities[largerRow]));
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Computes the difference of this mapping and another one, on their URI
+     * ids.
+     *
+     * @param other,
+     *            the second mapping
+     * @return this \ other
+     */
+    public InternedMapping difference(InternedMapping other) {
+        InternedMapping m = createDerivedMapping(size);
+        int[] ids = uris == other.uris ? null : other.translateIds(this, false);
+        for (int row = 0; row < size; row++) {
+            if (other.getRow(ids, sources[row], targets[row]) < 0) {
+                m.add(sources[row], targets[row], similarities[row]);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Returns a copy of the links as nested hash maps, which is kept until
+     * the mapping changes. The copy must not be modified.
+     */
+    @Override
+    public HashMap<String, HashMap<String, Double>> getMap() {
+        if (map != null) {
+            return map;
+        }
+        HashMap<String, HashMap<String, Double>> copy = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            String source = uris.getString(sources[row]);
+            HashMap<String, Double> targetMap = copy.get(source);
+            if (targetMap == null) {
+                targetMap = new HashMap<>();
+                copy.put(source, targetMap);
+            }
+            targetMap.put(uris.getString(targets[row]), similarities[row]);
+        }
+        map = copy;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the links indexed by their similarity, which is kept
+     * until the mapping changes. The copy must not be modified.
+     */
+    @Override
+    public HashMap<Double, HashMap<String, TreeSet<String>>> getReversedMap() {
+        if (reversedMap != null) {
+            return reversedMap;
+        }
+        HashMap<Double, HashMap<String, TreeSet<String>>> reversedMap = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            HashMap<String, TreeSet<String>> pairs = reversedMap.get(similarities[row]);
+            if (pairs == null) {
+                pairs = new HashMap<>();
+                reversedMap.put(similarities[row], pairs);
+            }
+            String source = uris.getString(sources[row]);
+            TreeSet<String> targetSet = pairs.get(source);
+            if (targetSet == null) {
+                targetSet = new TreeSet<>();
+                pairs.put(source, targetSet);
+            }
+            targetSet.add(uris.getString(targets[row]));
+        }
+        this.reversedMap = reversedMap;
+        return reversedMap;
+    }
+
+    /**
+     * Replaces all links of the mapping by the links of the input map.
+     */
+    @Override
+    public void setMap(HashMap<String, HashMap<String, Double>> map) {
+        size = 0;
+        index = new LongIntHashMap(sources.length);
+        uris = new StringDictionary();
+        ownsUris = true;
+        this.map = null;
+        this.reversedMap = null;
+        for (Entry<String, HashMap<String, Double>> entry : map.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            s.append("[").append(uris.getString(sources[row])).append(" -> (")
+                    .append(uris.getString(targets[row])).append("|").append(similarities[row]).append(")]\n");
+        }
+        return s.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+        // order-independent sum of the hash codes of the links
+        int links = 0;
+        for (int row = 0; row < size; row++) {
+            links += uris.getString(sources[row]).hashCode() ^ uris.getString(targets[row]).hashCode()
+                    ^ Double.hashCode(similarities[row]);
+        }
+        result = prime * result + links;
+        result = prime * result + size;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        InternedMapping other = (InternedMapping) obj;
+        if (predicate == null) {
+            if (other.predicate != null)
+                return false;
+        } else if (!predicate.equals(other.predicate))
+            return false;
+        if (size != other.size)
+            return false;
+        for (int row = 0; row < size; row++) {
+            int otherRow = other.getRow(uris.getString(sources[row]), uris.getString(targets[row]));
+            if (otherRow < 0 || Double.compare(similarities[row], other.similarities[otherRow]) != 0)
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package org.aksw.limes.core.io.mapping;
+
+/**
+ * A single link (source, target, similarity) of a mapping. Links are ordered
+ * by source URI and then by target URI.
+ */
+public class Link implements Comparable<Link> {
+
+    private final String source;
+    private final String target;
+    private final double similarity;
+
+    public Link(String source, String target, double similarity) {
+        this.source = source;
+        this.target = target;
+        this.similarity = similarity;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    /**
+     * Compares the source and target URIs of two links, ignoring their
+     * similarities.
+     */
+    @Override
+    public int compareTo(Link other) {
+        int c = source.compareTo(other.source);
+        if (c != 0) {
+            return c;
+        }
+        return target.compareTo(other.target);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + source + " -> (" + target + "|" + similarity + ")]";
+    }
+}
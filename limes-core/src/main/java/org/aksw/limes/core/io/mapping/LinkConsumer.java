@@ -0,0 +1,25 @@
+package org.aksw.limes.core.io.mapping;
+
+/**
+ * Receives the links of a mapping one at a time, as they are computed. Used to
+ * pipeline the output of a mapper into a filter without materializing the
+ * unfiltered mapping. A mapping can consume links through its add method,
+ * e.g. <code>mapping::add</code>.
+ */
+@FunctionalInterface
+public interface LinkConsumer {
+
+    /**
+     * Consumes a link. The same pair of URIs may be consumed more than once,
+     * consumers that collect links must keep the maximal similarity as
+     * {@link AMapping#add(String, String, double)} does.
+     *
+     * @param source
+     *            URI of the source instance
+     * @param target
+     *            URI of the target instance
+     * @param similarity
+     *            similarity of the link
+     */
+    void accept(String source, String target, double similarity);
+}
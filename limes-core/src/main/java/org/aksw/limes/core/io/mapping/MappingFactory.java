@@ -33,6 +33,8 @@ public class MappingFactory {
             return new HybridMapping();
         if (type == MappingType.FILE_MAPPING)
             return new FileMapping();
+        if (type == MappingType.INTERNED_MAPPING)
+            return new InternedMapping();
         logger.warn("Sorry, " + type + " is not yet implemented. Generating " + MappingType.DEFAULT + " map ...");
         return createDefaultMapping();
     }
@@ -41,7 +43,8 @@ public class MappingFactory {
         DEFAULT, // currently memory mapping
         MEMORY_MAPPING,
         HYBIRD_MAPPING,
-        FILE_MAPPING
+        FILE_MAPPING,
+        INTERNED_MAPPING // primitive columns with interned URIs, for very large mappings
     }
 
 
@@ -27,6 +27,18 @@ public abstract class APreprocessingFunction implements IPreprocessingFunction {
 
 	public abstract Instance applyFunctionAfterCheck(Instance inst, String property, String... arguments);
 
+	/**
+	 * Prepares the function before it is applied to many instances with the
+	 * same arguments, e.g. compiles regular expressions. After this call, the
+	 * function must not be modified by its application, as it may be applied
+	 * by several threads at once.
+	 * 
+	 * @param arguments
+	 *            the arguments of the function
+	 */
+	public void prepare(String... arguments) {
+	}
+
 	public void testIfNumberOfArgumentsIsLegal(String... arguments) throws IllegalNumberOfParametersException {
 		if (arguments.length < minNumberOfArguments()) {
 			throw new IllegalNumberOfParametersException("The function "
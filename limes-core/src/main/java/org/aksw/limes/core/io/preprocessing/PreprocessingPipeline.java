@@ -0,0 +1,219 @@
+package org.aksw.limes.core.io.preprocessing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.util.ComputeScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Compiled form of the preprocessing functions of a knowledge base. The
+ * function chains are parsed once: each function is looked up, instantiated,
+ * checked and prepared for its arguments, e.g. regular expressions are
+ * compiled. The pipeline is immutable and can be applied to the instances of a
+ * cache by several threads at once.
+ * <p>
+ * A pipeline whose functions only transform single values, see
+ * {@link #isValueLocal()}, can also be applied while a cache is filled, see
+ * {@link ACache#setIngestPipeline(PreprocessingPipeline)}, so that the raw
+ * values are never stored.
+ */
+public class PreprocessingPipeline {
+	static Logger logger = LoggerFactory.getLogger(PreprocessingPipeline.class.getName());
+
+	/**
+	 * Minimal number of instances processed by one thread
+	 */
+	public static final int MIN_PARTITION_SIZE = 1000;
+
+	private final List<Chain> chains;
+
+	/**
+	 * Compiles the preprocessing functions of a knowledge base.
+	 *
+	 * @param functions
+	 *            maps each property to the properties it is renamed to and
+	 *            the function chain applied to them, see
+	 *            {@link Preprocessor#applyFunctionsToCache(ACache, Map, boolean)}
+	 */
+	public PreprocessingPipeline(Map<String, Map<String, String>> functions) {
+		List<Chain> compiled = new ArrayList<>();
+		functions.forEach((property, innerMap) -> {
+			innerMap.forEach((propertyDub, functionChain) -> {
+				compiled.add(new Chain(property, propertyDub, functionChain));
+			});
+		});
+		chains = Collections.unmodifiableList(compiled);
+	}
+
+	/**
+	 * Applies all function chains to an instance.
+	 *
+	 * @param inst
+	 *            instance that will be processed
+	 * @return the processed instance
+	 */
+	public Instance apply(Instance inst) {
+		for (Chain chain : chains) {
+			chain.apply(inst);
+		}
+		return inst;
+	}
+
+	/**
+	 * Applies all function chains to the instances of a cache. The instances
+	 * are split in partitions of at least {@link #MIN_PARTITION_SIZE}
+	 * instances that are processed in parallel.
+	 *
+	 * @param cache
+	 *            cache whose instances will be processed
+	 * @param threads
+	 *            maximal number of threads
+	 */
+	public void apply(ACache cache, int threads) {
+		if (chains.isEmpty()) {
+			return;
+		}
+		List<Instance> instances = cache.getAllInstances();
+		int workers = Math.min(threads, (instances.size() + MIN_PARTITION_SIZE - 1) / MIN_PARTITION_SIZE);
+		if (workers <= 1) {
+			instances.forEach(this::apply);
+			return;
+		}
+		ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("preprocessing", workers);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			int partitionSize = (instances.size() + workers - 1) / workers;
+			for (int start = 0; start < instances.size(); start += partitionSize) {
+				List<Instance> partition = instances.subList(start, Math.min(start + partitionSize, instances.size()));
+				results.add(job.submit(() -> partition.forEach(this::apply)));
+			}
+			for (Future<?> result : results) {
+				job.join(result);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			logger.error(MarkerFactory.getMarker("FATAL"), "Error while applying the preprocessing functions");
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			job.cancel();
+		}
+	}
+
+	/**
+	 * @return true if all functions of the pipeline only transform the values
+	 *         of the processed property, i.e. no function reads other
+	 *         properties
+	 */
+	public boolean isValueLocal() {
+		for (Chain chain : chains) {
+			for (APreprocessingFunction function : chain.functions) {
+				if (function.isComplex()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param property
+	 *            a property
+	 * @return true if a function chain processes the values of the property
+	 */
+	public boolean processes(String property) {
+		for (Chain chain : chains) {
+			if (chain.property.equals(property)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the function chains to a single raw value. As in
+	 * {@link #apply(Instance)}, the chains are applied in order, so that a
+	 * chain sees the values renamed or processed by the previous ones, e.g. a
+	 * chain of a property finds the values renamed by a previous chain of the
+	 * same property. Since the functions of a {@link #isValueLocal()
+	 * value-local} pipeline transform each value on its own, adding the
+	 * results of all values of an instance yields the processed instance.
+	 * Chains of properties without values are skipped, they would only add
+	 * empty properties.
+	 *
+	 * @param property
+	 *            property of the value
+	 * @param value
+	 *            raw value
+	 * @return instance that holds the processed values under their final
+	 *         properties
+	 */
+	public Instance applyToValue(String property, String value) {
+		Instance inst = new Instance("");
+		inst.addProperty(property, value);
+		for (Chain chain : chains) {
+			if (inst.getAllProperties().contains(chain.property)) {
+				chain.apply(inst);
+			}
+		}
+		return inst;
+	}
+
+	/**
+	 * A renaming of a property followed by a compiled function chain.
+	 */
+	private static class Chain {
+		final String property;
+		final String propertyDub;
+		final APreprocessingFunction rename;
+		final APreprocessingFunction[] functions;
+		final String[][] arguments;
+
+		Chain(String property, String propertyDub, String functionChain) {
+			this.property = property;
+			this.propertyDub = propertyDub;
+			if (property != null && !property.equals("") && propertyDub != null && !propertyDub.equals("")
+					&& !property.equals(propertyDub)) {
+				rename = PreprocessingFunctionFactory.getPreprocessingFunction(PreprocessingFunctionFactory
+						.getPreprocessingType(PreprocessingFunctionFactory.RENAME_PROPERTY));
+			} else {
+				rename = null;
+			}
+			logger.debug("Function chain = " + functionChain);
+			String split[] = functionChain == null || functionChain.equals("") ? new String[] {}
+					: functionChain.split("->");
+			functions = new APreprocessingFunction[split.length];
+			arguments = new String[split.length][];
+			for (int i = 0; i < split.length; i++) {
+				String functionId = Preprocessor.getFunctionId(split[i]);
+				PreprocessingFunctionType type = PreprocessingFunctionFactory.getPreprocessingType(functionId);
+				functions[i] = PreprocessingFunctionFactory.getPreprocessingFunction(type);
+				arguments[i] = functions[i].retrieveArguments(split[i]);
+				functions[i].testIfNumberOfArgumentsIsLegal(arguments[i]);
+				functions[i].prepare(arguments[i]);
+			}
+		}
+
+		void apply(Instance inst) {
+			if (rename != null) {
+				rename.applyFunctionAfterCheck(inst, property, propertyDub);
+			}
+			for (int i = 0; i < functions.length; i++) {
+				functions[i].applyFunctionAfterCheck(inst, propertyDub, arguments[i]);
+			}
+		}
+	}
+}
@@ -27,44 +27,33 @@ public class Preprocessor {
 	}
 
 	/**
-	 * 
+	 * Calls {@link #applyFunctionsToCache(ACache, Map, boolean, int)} with one
+	 * thread per available processor
 	 * @param cache cache that should be processed
 	 * @param functions preprocessing functions that will be applied
 	 * @param cloneCache if true, the cache will be cloned and the given cache is left as is
 	 * @return cache with instances on which the preprocessing functions where applied, if cloneCache was set to true this a different cache than the provided
 	 */
 	public static ACache applyFunctionsToCache(ACache cache, Map<String, Map<String, String>> functions, boolean cloneCache) {
+		return applyFunctionsToCache(cache, functions, cloneCache, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Compiles the functions into a {@link PreprocessingPipeline} and applies it to the instances of the cache in parallel
+	 * @param cache cache that should be processed
+	 * @param functions preprocessing functions that will be applied
+	 * @param cloneCache if true, the cache will be cloned and the given cache is left as is
+	 * @param threads maximal number of threads
+	 * @return cache with instances on which the preprocessing functions where applied, if cloneCache was set to true this a different cache than the provided
+	 */
+	public static ACache applyFunctionsToCache(ACache cache, Map<String, Map<String, String>> functions, boolean cloneCache, int threads) {
 		ACache cacheClone;
 		if(cloneCache){
 			cacheClone = cache.clone();
 		}else{
 			cacheClone = cache;
 		}
-		functions.forEach((property, innerMap) -> {
-			innerMap.forEach((propertyDub, functionChain) -> {
-				for(Instance inst : cacheClone.getAllInstances()){
-                    logger.debug("Function chain = " + functionChain);
-                    applyRenameIfNecessary(inst, property, propertyDub);
-                    if (functionChain != null) {
-                        if (!functionChain.equals("")) {
-                            String split[] = functionChain.split("->");
-                            for (int i = 0; i < split.length; i++) {
-                                String functionId = getFunctionId(split[i]);
-                                PreprocessingFunctionType type = PreprocessingFunctionFactory
-                                        .getPreprocessingType(functionId);
-                                APreprocessingFunction func = PreprocessingFunctionFactory.getPreprocessingFunction(type);
-                                String[] arguments = func.retrieveArguments(split[i]);
-                                if (arguments.length > 0) {
-                                    func.applyFunction(inst, propertyDub, arguments);
-                                } else {
-                                    func.applyFunction(inst, propertyDub);
-                                }
-                            }
-                        }
-                    }
-				}
-			});
-		});
+		new PreprocessingPipeline(functions).apply(cacheClone, threads);
 		return cacheClone;
 	}
 
@@ -1,19 +1,30 @@
 package org.aksw.limes.core.io.preprocessing.functions;
 
 import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.preprocessing.APreprocessingFunction;
 import org.aksw.limes.core.io.preprocessing.IPreprocessingFunction;
 
 public class RegexReplace extends APreprocessingFunction implements IPreprocessingFunction {
+	private Pattern pattern;
+
+	@Override
+	public void prepare(String... arguments) {
+		pattern = Pattern.compile(arguments[0]);
+	}
 
 	@Override
 	public Instance applyFunctionAfterCheck(Instance i, String property, String... arguments) {
+		Pattern regex = pattern;
+		if (regex == null || !regex.pattern().equals(arguments[0])) {
+			regex = Pattern.compile(arguments[0]);
+		}
 		TreeSet<String> oldValues = i.getProperty(property);
 		TreeSet<String> newValues = new TreeSet<>();
 		for (String value : oldValues) {
-			newValues.add(value.replaceAll(arguments[0], arguments[1]));
+			newValues.add(regex.matcher(value).replaceAll(arguments[1]));
 		}
 		i.replaceProperty(property, newValues);
 		return i;
@@ -8,6 +8,12 @@ import org.aksw.limes.core.io.preprocessing.APreprocessingFunction;
 import org.aksw.limes.core.io.preprocessing.IPreprocessingFunction;
 
 public class Replace extends APreprocessingFunction implements IPreprocessingFunction {
+	private Pattern pattern;
+
+	@Override
+	public void prepare(String... arguments) {
+		pattern = Pattern.compile(arguments[0], Pattern.LITERAL);
+	}
 
 	@Override
 	public Instance applyFunctionAfterCheck(Instance i, String property, String... arguments) {
@@ -19,10 +25,14 @@ public class Replace extends APreprocessingFunction implements IPreprocessingFun
 			replacee = arguments[1];
 		}
 
+		Pattern literal = pattern;
+		if (literal == null || !literal.pattern().equals(arguments[0])) {
+			literal = Pattern.compile(arguments[0], Pattern.LITERAL);
+		}
 		TreeSet<String> oldValues = i.getProperty(property);
 		TreeSet<String> newValues = new TreeSet<>();
 		for (String value : oldValues) {
-			newValues.add(value.replaceAll(Pattern.quote(arguments[0]), replacee));
+			newValues.add(literal.matcher(value).replaceAll(replacee));
 		}
 		i.replaceProperty(property, newValues);
 		return i;
@@ -16,6 +16,16 @@ public class QueryModuleFactory {
 
     public static IQueryModule getQueryModule(String name, KBInfo kbinfo) {
         logger.info("Generating <" + name + "> reader");
+        //streams RDF files instead of loading them in a model, e.g. stream-nt
+        if (name.toLowerCase().startsWith("stream-")) {
+            String type = getFileType(name.substring("stream-".length()));
+            if (type == null) {
+                logger.error("Only RDF files can be streamed, got " + name);
+                throw new RuntimeException("Only RDF files can be streamed, got " + name);
+            }
+            kbinfo.setType(type);
+            return new StreamingFileQueryModule(kbinfo);
+        }
         if (name.toLowerCase().startsWith("csv")) {
             return new CsvQueryModule(kbinfo);
         }
@@ -46,4 +56,24 @@ public class QueryModuleFactory {
         //default
         return new ResilientSparqlQueryModule(kbinfo);
     }
+
+    /**
+     * @param name
+     *         Name of a RDF file format
+     * @return the Jena name of the format or null if the name is not a RDF
+     *         file format
+     */
+    private static String getFileType(String name) {
+        name = name.toLowerCase();
+        if (name.startsWith("n3") || name.startsWith("nt")) {
+            return "N3";
+        } else if (name.startsWith("n-triple")) {
+            return "N-TRIPLE";
+        } else if (name.startsWith("turtle") || name.startsWith("ttl")) {
+            return "TURTLE";
+        } else if (name.startsWith("rdf") || name.startsWith("xml")) {
+            return "RDF/XML";
+        }
+        return null;
+    }
 }
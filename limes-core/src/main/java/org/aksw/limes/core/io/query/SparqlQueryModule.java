@@ -1,6 +1,13 @@
 package org.aksw.limes.core.io.query;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.config.KBInfo;
@@ -10,7 +17,6 @@ import org.apache.jena.query.QueryExecutionFactory;
 import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.query.ResultSetFormatter;
 import org.apache.jena.query.Syntax;
 import org.apache.jena.rdf.model.Model;
 import org.slf4j.Logger;
@@ -23,6 +29,9 @@ public class SparqlQueryModule implements IQueryModule {
 
     protected KBInfo kb;
     private Logger logger = LoggerFactory.getLogger(SparqlQueryModule.class.getName());
+    protected int pagesInFlight = 4;
+    protected int pageRetries = 3;
+    protected long pageRetryDelayInMs = 500;
 
     public SparqlQueryModule(KBInfo kbinfo) {
         kb = kbinfo;
@@ -40,7 +49,13 @@ public class SparqlQueryModule implements IQueryModule {
     }
 
     /**
-     * Reads from a SPARQL endpoint or a file and writes the results in a cache
+     * Reads from a SPARQL endpoint or a file and writes the results in a cache.
+     * If the knowledge base has a page size, up to
+     * {@link #setPagesInFlight(int)} pages are queried concurrently. The
+     * results of the pages are written to the cache by the calling thread
+     * only, as they arrive, thus the cache does not need to be thread-safe.
+     * A new page is only requested once the results of another page were
+     * written, so that at most that many pages are kept in memory.
      *
      * @param cache
      *         The cache in which the content on the SPARQL endpoint is to be
@@ -51,112 +66,228 @@ public class SparqlQueryModule implements IQueryModule {
      */
     public void fillCache(ACache cache, boolean isSparql) {
         long startTime = System.currentTimeMillis();
-        String query = generateQuery();
+        // the query is parsed once, pages only differ by limit and offset
+        Query query = QueryFactory.create(generateQuery(), Syntax.syntaxARQ);
+        Model model = null;
+        if (!isSparql) {
+            model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
+            if (model == null) {
+                throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
+            }
+        }
 
         // run query
         logger.info("Querying the endpoint.");
+        int counter = 0;
+        if (kb.getPageSize() > 0) {
+            counter = fillCachePaged(cache, query, model);
+        } else {
+            if (kb.getMaxOffset() > 0) {
+                query.setLimit(kb.getMaxOffset());
+            }
+            counter = addRows(cache, getRows(query, model));
+        }
+        logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
+        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
+
+    /**
+     * Queries the pages of the results concurrently, until a page is empty or
+     * the maximal offset of the knowledge base is reached.
+     *
+     * @return the number of results
+     */
+    private int fillCachePaged(ACache cache, Query query, Model model) {
         int offset = 0;
         if (kb.getMinOffset() > 0) {
             offset = kb.getMinOffset();
         }
-
-        boolean moreResults = false;
+        ExecutorService pool = Executors.newFixedThreadPool(pagesInFlight);
+        CompletionService<List<String[]>> pages = new ExecutorCompletionService<List<String[]>>(pool);
         int counter = 0;
-        String basicQuery = query;
-        do {
-            int nextOffset = offset + kb.getPageSize();
-            if(kb.getMaxOffset() > 0) {
-                nextOffset = Math.min(kb.getMaxOffset(), nextOffset);
-            }
-
-            logger.info("Getting statements " + offset + " to " + nextOffset);
+        int inFlight = 0;
+        boolean moreResults = true;
+        boolean first = true;
+        try {
+            do {
+                while (moreResults && inFlight < pagesInFlight
+                        && (first || offset < kb.getMaxOffset() || kb.getMaxOffset() < 0)) {
+                    first = false;
+                    int nextOffset = offset + kb.getPageSize();
+                    if (kb.getMaxOffset() > 0) {
+                        nextOffset = Math.min(kb.getMaxOffset(), nextOffset);
+                    }
+                    if (nextOffset <= offset) {
+                        break;
+                    }
+                    logger.info("Getting statements " + offset + " to " + nextOffset);
+                    Query page = query.cloneQuery();
+                    page.setLimit(nextOffset - offset);
+                    page.setOffset(offset);
+                    pages.submit(() -> getRows(page, model));
+                    inFlight++;
+                    offset = offset + kb.getPageSize();
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                List<String[]> rows = pages.take().get();
+                inFlight--;
+                if (rows.isEmpty()) {
+                    // pages after an empty page are empty as well
+                    moreResults = false;
+                }
+                counter += addRows(cache, rows);
+            } while (inFlight > 0 || moreResults);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while querying " + kb.getEndpoint());
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error("Error while querying " + kb.getEndpoint() + ": " + e.getCause());
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return counter;
+    }
 
-            if (kb.getPageSize() > 0) {
-                int limit = kb.getPageSize();
-                if(kb.getMaxOffset() > 0) {
-                    limit = nextOffset - offset;
+    /**
+     * Runs a query and returns its results. If the query fails, it is retried
+     * up to {@link #setPageRetries(int, long)} times, doubling the delay
+     * before each retry.
+     *
+     * @param query
+     *         The query to run
+     * @param model
+     *         The model to query or null to query the SPARQL endpoint
+     * @return the URI and the values of the properties of each result, null
+     *         for missing values
+     */
+    protected List<String[]> getRows(Query query, Model model) {
+        for (int attempt = 0;; attempt++) {
+            QueryExecution qexec = null;
+            try {
+                qexec = createQueryExecution(query, model);
+                ResultSet results = qexec.execSelect();
+                List<String[]> rows = new ArrayList<String[]>();
+                while (results.hasNext()) {
+                    rows.add(getRow(results.nextSolution()));
                 }
-                query = basicQuery + " LIMIT " + limit + " OFFSET " + offset;
-            } else {
-                query = basicQuery;
-                if(kb.getMaxOffset() > 0) {
-                    query = query + " LIMIT " + kb.getMaxOffset();
+                return rows;
+            } catch (RuntimeException e) {
+                if (attempt >= pageRetries) {
+                    logger.error("Query at offset " + query.getOffset() + " failed after " + (attempt + 1)
+                            + " attempts");
+                    throw e;
+                }
+                long delay = pageRetryDelayInMs << attempt;
+                logger.warn("Query at offset " + query.getOffset() + " failed: " + e.getMessage() + ". Retrying in "
+                        + delay + " ms");
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ie);
+                }
+            } finally {
+                if (qexec != null) {
+                    qexec.close();
                 }
             }
+        }
+    }
 
-            Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
-            QueryExecution qexec;
+    /**
+     * Creates the execution of a query. Only takes one graph. Seems like some
+     * sparql endpoint do not like the FROM option.
+     *
+     * @param query
+     *         The query to run
+     * @param model
+     *         The model to query or null to query the SPARQL endpoint
+     * @return the query execution
+     */
+    protected QueryExecution createQueryExecution(Query query, Model model) {
+        if (model != null) {
+            return QueryExecutionFactory.create(query, model);
+        } else if (kb.getGraph() != null) {
+            return QueryExecutionFactory.sparqlService(kb.getEndpoint(), query, kb.getGraph());
+        } else {
+            return QueryExecutionFactory.sparqlService(kb.getEndpoint(), query);
+        }
+    }
 
-            // take care of graph issues. Only takes one graph. Seems like some
-            // sparql endpoint do
-            // not like the FROM option.
-            if (!isSparql) {
-                Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
-                if (model == null) {
-                    throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
-                }
-                qexec = QueryExecutionFactory.create(sparqlQuery, model);
-            } else {
-                if (kb.getGraph() != null) {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
-                } //
-                else {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+    private String[] getRow(QuerySolution soln) {
+        int numVars = kb.getProperties().size()
+                + (kb.getOptionalProperties() == null ? 0 : kb.getOptionalProperties().size());
+        String[] row = new String[numVars + 1];
+        try {
+            row[0] = soln.get(kb.getVar().substring(1)).toString();
+            for (int i = 1; i <= numVars; i++) {
+                if (soln.contains("v" + i)) {
+                    row[i] = soln.get("v" + i).toString();
                 }
             }
-            ResultSet results = qexec.execSelect();
+        } catch (Exception e) {
+            logger.warn("Error while processing: " + soln.toString());
+            logger.warn("Following exception occurred: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+        return row;
+    }
 
-            // write
-            String uri, value;
-            try {
-                if (results.hasNext()) {
-                    moreResults = true;
-                } else {
-                    moreResults = false;
-                    break;
+    /**
+     * Writes the results of a query in a cache.
+     *
+     * @return the number of results
+     */
+    private int addRows(ACache cache, List<String[]> rows) {
+        for (String[] row : rows) {
+            int i = 1;
+            for (String propertyLabel : kb.getProperties()) {
+                if (row[i] != null) {
+                    cache.addTriple(row[0], propertyLabel, row[i]);
                 }
-
-                while (results.hasNext()) {
-                    QuerySolution soln = results.nextSolution();
-                    try {
-                        uri = soln.get(kb.getVar().substring(1)).toString();
-                        int i = 1;
-                        for (String propertyLabel : kb.getProperties()) {
-                            if (soln.contains("v" + i)) {
-                                value = soln.get("v" + i).toString();
-                                cache.addTriple(uri, propertyLabel, value);
-                            }
-                            i++;
-                        }
-                        if(kb.getOptionalProperties() != null){
-                            for (String propertyLabel : kb.getOptionalProperties()) {
-                                if (soln.contains("v" + i)) {
-                                    value = soln.get("v" + i).toString();
-                                    cache.addTriple(uri, propertyLabel, value);
-                                }
-                            }
-                            i++;
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Error while processing: " + soln.toString());
-                        logger.warn("Following exception occurred: " + e.getMessage());
-                        e.printStackTrace();
-                        throw new RuntimeException();
+                i++;
+            }
+            if (kb.getOptionalProperties() != null) {
+                for (String propertyLabel : kb.getOptionalProperties()) {
+                    if (row[i] != null) {
+                        cache.addTriple(row[0], propertyLabel, row[i]);
                     }
-                    counter++;
+                    i++;
                 }
-            } catch (Exception e) {
-                logger.warn("Exception while handling query");
-                logger.warn(e.toString());
-                logger.warn("XML = \n" + ResultSetFormatter.asXMLString(results));
-            } finally {
-                qexec.close();
             }
-            offset = offset + kb.getPageSize();
+        }
+        return rows.size();
+    }
 
-        } while (moreResults && kb.getPageSize() > 0 && (offset < kb.getMaxOffset() || kb.getMaxOffset() < 0));
-        logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
-        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    /**
+     * Sets the number of pages that are queried concurrently. Default is 4,
+     * 1 queries the pages one after another.
+     *
+     * @param pagesInFlight
+     *         Number of concurrent queries
+     */
+    public void setPagesInFlight(int pagesInFlight) {
+        if (pagesInFlight < 1) {
+            throw new IllegalArgumentException("At least one page must be queried at a time");
+        }
+        this.pagesInFlight = pagesInFlight;
+    }
+
+    /**
+     * Sets how often a failed query is retried.
+     *
+     * @param pageRetries
+     *         Number of retries, 0 to fail on the first error
+     * @param pageRetryDelayInMs
+     *         Delay before the first retry, doubled for each further retry
+     */
+    public void setPageRetries(int pageRetries, long pageRetryDelayInMs) {
+        this.pageRetries = pageRetries;
+        this.pageRetryDelayInMs = pageRetryDelayInMs;
     }
 
     protected String generateQuery() {
@@ -0,0 +1,454 @@
+package org.aksw.limes.core.io.query;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.RDF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a RDF file as a stream of triples and writes the values of the
+ * properties of the knowledge base directly in a cache, without loading the
+ * file in a Jena model and querying it. Only the triples whose predicate is
+ * one of the (optional) properties of the knowledge base are kept, and only
+ * the instances of the class of the knowledge base that have all its
+ * properties are written to the cache. The cache thus contains the same
+ * instances as the cache filled by the {@link FileQueryModule}.
+ * <p>
+ * The values are written to the cache while the file is read. If the class
+ * or the required properties may exclude subjects, the file is read twice:
+ * the first pass only keeps the subjects that are written by the second one.
+ * <p>
+ * Streaming only supports plain properties and a single rdf:type
+ * restriction. For other knowledge bases, e.g. with property paths, inverse
+ * properties, filters or offsets, the module falls back to the
+ * {@link FileQueryModule}. N-Triples files can be read by several threads,
+ * see {@link #setParallelism(int)}.
+ */
+public class StreamingFileQueryModule implements IQueryModule {
+
+    private static final int LINES_PER_CHUNK = 10000;
+
+    private Logger logger = LoggerFactory.getLogger(StreamingFileQueryModule.class.getName());
+    private KBInfo kb;
+    private int parallelism = 1;
+    /**
+     * Only used to convert nodes to the strings returned by SPARQL queries.
+     */
+    private Model nodeModel = ModelFactory.createDefaultModel();
+
+    public StreamingFileQueryModule(KBInfo kbinfo) {
+        kb = kbinfo;
+    }
+
+    /**
+     * Sets the number of threads that parse a N-Triples file. Other formats
+     * are always parsed by a single thread.
+     *
+     * @param parallelism
+     *         Number of threads, 1 to parse the file in the calling thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is needed to read a file");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads the file of the knowledge base and writes the instances in a
+     * cache.
+     *
+     * @param cache
+     *         Cache to be filled
+     */
+    public void fillCache(ACache cache) {
+        if (!canStream(kb)) {
+            logger.info("Knowledge base " + kb.getId() + " cannot be streamed, loading it as a model.");
+            new FileQueryModule(kb).fillCache(cache);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        int size = cache.size();
+        SubjectFilter filter = new SubjectFilter();
+        Set<String> subjects = null;
+        if (filter.isNeeded()) {
+            read(filter);
+            subjects = filter.getSubjects();
+        }
+        TripleWriter writer = new TripleWriter(cache, subjects);
+        read(writer);
+        logger.info("Read " + writer.triples + " triples and " + (cache.size() - size) + " entities from "
+                + kb.getEndpoint() + " in " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
+
+    private void read(TripleSink sink) {
+        Lang lang = getLang();
+        try {
+            if (parallelism > 1 && lang == Lang.NTRIPLES) {
+                readParallel(sink);
+            } else {
+                try (InputStream in = openEndpoint()) {
+                    RDFDataMgr.parse(sink, in, lang);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error while reading " + kb.getEndpoint());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Checks whether the instances of a knowledge base can be read from a
+     * stream of triples, i.e., whether its properties are plain properties
+     * and whether it is at most restricted to a class.
+     *
+     * @param kb
+     *         Knowledge base to check
+     * @return true if the knowledge base can be streamed
+     */
+    public static boolean canStream(KBInfo kb) {
+        if (kb.getMinOffset() > 0 || kb.getMaxOffset() >= 0) {
+            return false;
+        }
+        List<String> properties = new ArrayList<String>(kb.getProperties());
+        if (kb.getOptionalProperties() != null) {
+            properties.addAll(kb.getOptionalProperties());
+        }
+        for (String property : properties) {
+            if (property.contains("/") && !property.startsWith("<") || property.contains("^")
+                    || expand(kb, property) == null) {
+                return false;
+            }
+        }
+        int classes = 0;
+        for (String restriction : kb.getRestrictions()) {
+            if (restriction.trim().length() <= 3) {
+                // ignored by the SPARQL query as well
+                continue;
+            }
+            if (getRestrictedClass(kb, restriction) == null || ++classes > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the class URI of a restriction of the form var rdf:type class,
+     *         else null
+     */
+    private static String getRestrictedClass(KBInfo kb, String restriction) {
+        String[] tokens = restriction.trim().split("\\s+");
+        if (tokens.length != 3 || !tokens[0].equals(kb.getVar())) {
+            return null;
+        }
+        String predicate = tokens[1].equals("a") ? RDF.type.getURI() : expand(kb, tokens[1]);
+        if (!RDF.type.getURI().equals(predicate)) {
+            return null;
+        }
+        return expand(kb, tokens[2]);
+    }
+
+    /**
+     * @return the full URI of a URI or prefixed name, null if the prefix is
+     *         unknown
+     */
+    private static String expand(KBInfo kb, String name) {
+        if (name.startsWith("<") && name.endsWith(">")) {
+            return name.substring(1, name.length() - 1);
+        }
+        int colon = name.indexOf(':');
+        if (colon < 0 || !kb.getPrefixes().containsKey(name.substring(0, colon))) {
+            return null;
+        }
+        return kb.getPrefixes().get(name.substring(0, colon)) + name.substring(colon + 1);
+    }
+
+    private Lang getLang() {
+        Lang lang = RDFLanguages.nameToLang(kb.getType());
+        if (lang == null) {
+            lang = RDFLanguages.filenameToLang(kb.getEndpoint());
+        }
+        if (lang == null) {
+            logger.error("Unknown RDF format " + kb.getType());
+            throw new RuntimeException("Unknown RDF format " + kb.getType());
+        }
+        // N3 is only used for N-Triples and Turtle files, it is parsed as
+        // Turtle, thus N-Triples files can be parsed line by line
+        if (lang == Lang.N3 && kb.getEndpoint().toLowerCase().endsWith(".nt")) {
+            return Lang.NTRIPLES;
+        }
+        return lang;
+    }
+
+    /**
+     * Loads the endpoint as a file and if that fails as a resource.
+     */
+    private InputStream openEndpoint() throws IOException {
+        File file = new File(kb.getEndpoint());
+        if (file.exists()) {
+            return new FileInputStream(file);
+        }
+        InputStream in = getClass().getClassLoader().getResourceAsStream(kb.getEndpoint());
+        if (in == null) {
+            logger.error("Endpoint " + kb.getEndpoint() + " could not be loaded as a file or resource");
+            throw new RuntimeException("Endpoint " + kb.getEndpoint() + " could not be loaded as a file or resource");
+        }
+        return in;
+    }
+
+    /**
+     * Reads a N-Triples file in chunks of lines, which are parsed and
+     * filtered concurrently. The calling thread keeps at most two chunks per
+     * thread in memory and adds the results of the chunks to the sink in the
+     * order of the file.
+     */
+    private void readParallel(TripleSink sink) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<Future<TripleSink>> chunks = new ArrayDeque<Future<TripleSink>>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openEndpoint(), StandardCharsets.UTF_8))) {
+            StringBuilder chunk = new StringBuilder();
+            int lines = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.append(line).append('\n');
+                if (++lines == LINES_PER_CHUNK) {
+                    if (chunks.size() == 2 * parallelism) {
+                        sink.addAll(chunks.poll().get());
+                    }
+                    chunks.add(pool.submit(parseChunk(sink, chunk.toString())));
+                    chunk.setLength(0);
+                    lines = 0;
+                }
+            }
+            chunks.add(pool.submit(parseChunk(sink, chunk.toString())));
+            while (!chunks.isEmpty()) {
+                sink.addAll(chunks.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while reading " + kb.getEndpoint());
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error("Error while reading " + kb.getEndpoint() + ": " + e.getCause());
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Blank node labels are kept as given, so that the same label denotes the
+     * same node in all chunks.
+     */
+    private Callable<TripleSink> parseChunk(TripleSink sink, String chunk) {
+        return () -> {
+            TripleSink result = sink.createChunk();
+            RDFParser.create().fromString(chunk).lang(Lang.NTRIPLES)
+                    .labelToNode(LabelToNode.createUseLabelAsGiven()).parse(result);
+            return result;
+        };
+    }
+
+    /**
+     * Receives the triples of the file. The triples of a chunk of a N-Triples
+     * file are sent to a sink created by {@link #createChunk()}, which is
+     * added to this sink afterwards.
+     */
+    private abstract class TripleSink extends StreamRDFBase {
+
+        /**
+         * Labels of the (optional) properties by full URI.
+         */
+        final Map<String, String> labels = new HashMap<String, String>();
+        final List<String> required = new ArrayList<String>();
+        final String type;
+        long triples = 0;
+
+        TripleSink() {
+            for (String property : kb.getProperties()) {
+                labels.put(expand(kb, property), property);
+                if (!required.contains(property)) {
+                    required.add(property);
+                }
+            }
+            if (kb.getOptionalProperties() != null) {
+                for (String property : kb.getOptionalProperties()) {
+                    labels.putIfAbsent(expand(kb, property), property);
+                }
+            }
+            String c = null;
+            for (String restriction : kb.getRestrictions()) {
+                if (restriction.trim().length() > 3) {
+                    c = getRestrictedClass(kb, restriction);
+                }
+            }
+            type = c;
+        }
+
+        String toValue(Node node) {
+            return nodeModel.asRDFNode(node).toString();
+        }
+
+        abstract TripleSink createChunk();
+
+        abstract void addAll(TripleSink chunk);
+    }
+
+    /**
+     * Keeps the subjects that are instances of the class of the knowledge
+     * base and have all its required properties, without their values.
+     */
+    private class SubjectFilter extends TripleSink {
+
+        /**
+         * Required properties found for each subject with a property of the
+         * knowledge base.
+         */
+        private final Map<String, BitSet> found = new HashMap<String, BitSet>();
+        private final Set<String> typed = new HashSet<String>();
+
+        /**
+         * @return false if every subject with a property of the knowledge
+         *         base is an instance, i.e., if there is no class and at most
+         *         one property, which is required
+         */
+        boolean isNeeded() {
+            return type != null || required.size() > 1 || !required.isEmpty() && labels.size() > 1;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            String predicate = triple.getPredicate().getURI();
+            if (type != null && predicate.equals(RDF.type.getURI())
+                    && triple.getObject().isURI() && triple.getObject().getURI().equals(type)) {
+                typed.add(toValue(triple.getSubject()));
+            }
+            String label = labels.get(predicate);
+            if (label != null) {
+                BitSet properties = found.computeIfAbsent(toValue(triple.getSubject()), s -> new BitSet());
+                int index = required.indexOf(label);
+                if (index >= 0) {
+                    properties.set(index);
+                }
+            }
+        }
+
+        @Override
+        TripleSink createChunk() {
+            return new SubjectFilter();
+        }
+
+        @Override
+        void addAll(TripleSink chunk) {
+            SubjectFilter other = (SubjectFilter) chunk;
+            typed.addAll(other.typed);
+            for (Map.Entry<String, BitSet> entry : other.found.entrySet()) {
+                BitSet properties = found.get(entry.getKey());
+                if (properties == null) {
+                    found.put(entry.getKey(), entry.getValue());
+                } else {
+                    properties.or(entry.getValue());
+                }
+            }
+        }
+
+        /**
+         * @return the subjects of the instances of the class that have all
+         *         required properties
+         */
+        Set<String> getSubjects() {
+            Set<String> subjects = new HashSet<String>();
+            for (Map.Entry<String, BitSet> entry : found.entrySet()) {
+                if ((type == null || typed.contains(entry.getKey()))
+                        && entry.getValue().cardinality() == required.size()) {
+                    subjects.add(entry.getKey());
+                }
+            }
+            return subjects;
+        }
+    }
+
+    /**
+     * Writes the values of the properties of the knowledge base to a cache.
+     * The triples of a chunk are kept until the chunk is added, so that the
+     * values are written in the order of the file.
+     */
+    private class TripleWriter extends TripleSink {
+
+        private final ACache cache;
+        /**
+         * Subjects to be written, null to write all subjects.
+         */
+        private final Set<String> subjects;
+        private final List<String[]> values = new ArrayList<String[]>();
+
+        TripleWriter(ACache cache, Set<String> subjects) {
+            this.cache = cache;
+            this.subjects = subjects;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            triples++;
+            String label = labels.get(triple.getPredicate().getURI());
+            if (label != null) {
+                String subject = toValue(triple.getSubject());
+                if (subjects == null || subjects.contains(subject)) {
+                    String value = toValue(triple.getObject());
+                    if (cache == null) {
+                        values.add(new String[] { subject, label, value });
+                    } else {
+                        cache.addTriple(subject, label, value);
+                    }
+                }
+            }
+        }
+
+        @Override
+        TripleSink createChunk() {
+            return new TripleWriter(null, subjects);
+        }
+
+        @Override
+        void addAll(TripleSink chunk) {
+            TripleWriter other = (TripleWriter) chunk;
+            triples += other.triples;
+            for (String[] value : other.values) {
+                cache.addTriple(value[0], value[1], value[2]);
+            }
+        }
+    }
+}
@@ -84,8 +84,9 @@ public class NtSerializer implements ISerializer {
         String predicatePrefix = getPrefix(predicate);
 
         if (mapping.size() > 0) {
-            for (String s : mapping.getMap().keySet()) {
-                for (String t : mapping.getMap().get(s).keySet()) {
+            for (Entry<String, HashMap<String, Double>> entry : mapping.getMap().entrySet()) {
+                String s = entry.getKey();
+                for (String t : entry.getValue().keySet()) {
                     writer.println("<" + s + "> "
                             + "<" + expand(predicate, predicatePrefix) + "> "
                             + "<" + t + "> .");
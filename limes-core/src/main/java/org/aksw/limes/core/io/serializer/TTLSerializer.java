@@ -11,6 +11,7 @@ import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.TreeSet;
 
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -77,8 +78,9 @@ public class TTLSerializer implements ISerializer {
         open(file);
         printPrefixes();
         statements = new TreeSet<String>();
-        for (String s : mapping.getMap().keySet()) {
-            for (String t : mapping.getMap().get(s).keySet()) {
+        for (Entry<String, HashMap<String, Double>> entry : mapping.getMap().entrySet()) {
+            String s = entry.getKey();
+            for (String t : entry.getValue().keySet()) {
                 writer.println("<" + s + "> <" + predicate + "> <" + t + "> .");
             }
         }
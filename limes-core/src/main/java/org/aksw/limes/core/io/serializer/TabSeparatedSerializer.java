@@ -1,5 +1,8 @@
 package org.aksw.limes.core.io.serializer;
 
+import java.util.HashMap;
+import java.util.Map.Entry;
+
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,8 +59,9 @@ public class TabSeparatedSerializer extends NtSerializer {
         open(file);
 
         if (mapping.size() > 0) {
-            for (String s : mapping.getMap().keySet()) {
-                for (String t : mapping.getMap().get(s).keySet()) {
+            for (Entry<String, HashMap<String, Double>> entry : mapping.getMap().entrySet()) {
+                String s = entry.getKey();
+                for (String t : entry.getValue().keySet()) {
                     writer.println("<" + s + ">\t<" + t + ">\t" + mapping.getConfidence(s, t));
                 }
             }
@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 
@@ -20,16 +21,22 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 public abstract class AMapper implements IMapper {
 
     /**
-     * Helper method, re-factored from common setup code of Mappers.
+     * Helper method, re-factored from common setup code of Mappers. The map
+     * is shared through the index registry of the cache, if it has one.
      *
      * @param cache,
      *            Input cache
      * @param property,
      *            Input linking property
      * @return reversed Map from literal values to resource uris for a specified
-     *         property
+     *         property, which must not be modified
      */
     protected Map<String, Set<String>> getValueToUriMap(ACache cache, String property) {
+        return IndexRegistry.getIndex(cache, property, "values", () -> buildValueToUriMap(cache, property),
+                AMapper::footprint);
+    }
+
+    private static Map<String, Set<String>> buildValueToUriMap(ACache cache, String property) {
         Map<String, Set<String>> result = new HashMap<>();
         List<String> uris = cache.getAllUris();
         for (String uri : uris) {
@@ -44,6 +51,22 @@ public abstract class AMapper implements IMapper {
         return result;
     }
 
+    /**
+     * Estimates the footprint of a map from values to URIs. The URIs are
+     * shared with the cache and not counted.
+     *
+     * @param valueToUriMap
+     *            Map from values to URIs
+     * @return estimated size in bytes
+     */
+    protected static long footprint(Map<String, Set<String>> valueToUriMap) {
+        long size = 48;
+        for (Map.Entry<String, Set<String>> e : valueToUriMap.entrySet()) {
+            size += 32 + IndexRegistry.footprint(e.getKey()) + 64 + 40L * e.getValue().size();
+        }
+        return size;
+    }
+
     /**
      * Helper method, re-factored from common return code blocks.
      *
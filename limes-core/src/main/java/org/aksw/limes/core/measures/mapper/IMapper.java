@@ -1,7 +1,11 @@
 package org.aksw.limes.core.measures.mapper;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 
 /**
  * Implements the mapper interface.
@@ -32,7 +36,81 @@ public interface IMapper {
     AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold);
 
-    ;
+    /**
+     * Computes the links of a link specification and passes them to a
+     * consumer as they are found, instead of collecting them in a mapping.
+     * The default implementation computes the mapping and passes its links to
+     * the consumer afterwards. Mappers that can generate their links
+     * incrementally override it, so that a consumer such as a filter only
+     * materializes the links it accepts.
+     *
+     * @param source
+     *            source cache
+     * @param target
+     *            target cache
+     * @param sourceVar
+     *            source property variable
+     * @param targetVar
+     *            size property variable
+     * @param expression
+     *            metric expression of link specification
+     * @param threshold
+     *            threshold of link specification
+     * @param consumer
+     *            consumer of the resulting links
+     */
+    default void getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, LinkConsumer consumer) {
+        AMapping mapping = getMapping(source, target, sourceVar, targetVar, expression, threshold);
+        for (Map.Entry<String, HashMap<String, Double>> links : mapping.getMap().entrySet()) {
+            for (Map.Entry<String, Double> entry : links.getValue().entrySet()) {
+                consumer.accept(links.getKey(), entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns true if the mapper is exact: its mapping at a threshold holds
+     * every pair whose similarity reaches the threshold, and the similarities
+     * do not depend on the threshold. Then the mapping at a threshold is the
+     * links of the mapping at any lower threshold whose similarity reaches
+     * it. Mappers that filter approximately or whose scores depend on the
+     * threshold are not exact, which is the default.
+     *
+     * @return true if the mapper is exact
+     */
+    default boolean isExact() {
+        return false;
+    }
+
+    /**
+     * Computes the links of a link specification once at a minimal threshold,
+     * so that its mapping at any higher threshold can be read from the sweep.
+     * Only the links of exact mappers, see {@link #isExact()}, are computed
+     * once; the sweep of any other mapper runs the mapper at each threshold.
+     *
+     * @param source
+     *            source cache
+     * @param target
+     *            target cache
+     * @param sourceVar
+     *            source property variable
+     * @param targetVar
+     *            size property variable
+     * @param expression
+     *            metric expression of link specification
+     * @param minThreshold
+     *            lowest threshold that will be read from the sweep
+     * @return the links sorted by similarity
+     */
+    default ThresholdSweep getSweep(ACache source, ACache target, String sourceVar, String targetVar,
+            String expression, double minThreshold) {
+        if (!isExact()) {
+            return ThresholdSweep.direct(this, source, target, sourceVar, targetVar, expression, minThreshold);
+        }
+        return new ThresholdSweep(getMapping(source, target, sourceVar, targetVar, expression, minThreshold),
+                minThreshold);
+    }
 
     /**
      * Returns the estimated time needed to obtain the mapping computed by the
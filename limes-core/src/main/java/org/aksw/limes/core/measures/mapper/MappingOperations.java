@@ -1,9 +1,34 @@
 package org.aksw.limes.core.measures.mapper;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.FileMapping;
+import org.aksw.limes.core.io.mapping.InternedMapping;
+import org.aksw.limes.core.io.mapping.Link;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.aksw.limes.core.io.mapping.MemoryMapping;
 /**
- * Implements the mapping operations abstract class.
+ * Implements the mapping operations abstract class. The strategy of each
+ * operation depends on the type and the size of its inputs:
+ * <ul>
+ * <li>If one of the input mappings is a {@link FileMapping}, the operations
+ * merge the sorted links of both mappings and write the result to a new file
+ * mapping, thus the mappings are never loaded into memory.</li>
+ * <li>If both inputs are {@link InternedMapping}s, the operations run on the
+ * interned ids of the URIs.</li>
+ * <li>Otherwise, the operations are hash joins on the maps of the inputs,
+ * which iterate over the smaller input where possible and copy the
+ * similarities of the inputs instead of adding the links one by one.</li>
+ * </ul>
+ * The variants with a reuseInputs flag merge the smaller input into the
+ * larger one instead of copying both, if the inputs are memory mappings.
  *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  * @version 1.0
@@ -20,25 +45,82 @@ public class MappingOperations {
      * @return map1 \ map2
      */
     public static AMapping difference(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
-        
-        // go through all the keys in map1
-        for (String key : map1.getMap().keySet()) {
-            // if the first term (key) can also be found in map2
-            if (map2.getMap().containsKey(key)) {
-                // then go through the second terms and checks whether they can
-                // be found in map2 as well
-                for (String value : map1.getMap().get(key).keySet()) {
-                    // if no, save the link
-                    if (!map2.getMap().get(key).containsKey(value)) {
-                        map.add(key, value, map1.getMap().get(key).get(value));
+        if (map1 instanceof FileMapping || map2 instanceof FileMapping) {
+            return mergeDifference(map1, map2);
+        }
+        if (map1 instanceof InternedMapping && map2 instanceof InternedMapping) {
+            return ((InternedMapping) map1).difference((InternedMapping) map2);
+        }
+        HashMap<String, HashMap<String, Double>> result = new HashMap<>();
+        int size = 0;
+        HashMap<String, HashMap<String, Double>> links2 = map2.getMap();
+        for (Entry<String, HashMap<String, Double>> entry : map1.getMap().entrySet()) {
+            HashMap<String, Double> targets2 = links2.get(entry.getKey());
+            HashMap<String, Double> targets;
+            if (targets2 == null) {
+                // no link of the source is in map2
+                targets = new HashMap<>(entry.getValue());
+            } else {
+                targets = new HashMap<>();
+                for (Entry<String, Double> link : entry.getValue().entrySet()) {
+                    if (!targets2.containsKey(link.getKey())) {
+                        targets.put(link.getKey(), link.getValue());
                     }
                 }
-            } else {
-                map.add(key, map1.getMap().get(key));
+            }
+            if (!targets.isEmpty()) {
+                result.put(entry.getKey(), targets);
+                size += targets.size();
             }
         }
-        return map;
+        return createMemoryMapping(result, size);
+    }
+
+    /**
+     * Computes the difference of two mappings. If reuseInputs is true and
+     * map1 is a memory mapping, the links of map2 are removed from map1,
+     * which is returned. In this case the input mappings must not be used by
+     * the caller afterwards.
+     *
+     * @param map1
+     *            First mapping
+     * @param map2
+     *            Second mapping
+     * @param reuseInputs
+     *            True if the input mappings can be modified
+     * @return map1 \ map2
+     */
+    public static AMapping difference(AMapping map1, AMapping map2, boolean reuseInputs) {
+        if (!reuseInputs || !isMemoryMapping(map1) || map2 instanceof FileMapping) {
+            return difference(map1, map2);
+        }
+        HashMap<String, HashMap<String, Double>> links1 = map1.getMap();
+        if (map2.size() < map1.size()) {
+            // remove the links of the smaller map2 from map1
+            for (Entry<String, HashMap<String, Double>> entry : map2.getMap().entrySet()) {
+                HashMap<String, Double> targets1 = links1.get(entry.getKey());
+                if (targets1 != null) {
+                    targets1.keySet().removeAll(entry.getValue().keySet());
+                    if (targets1.isEmpty()) {
+                        links1.remove(entry.getKey());
+                    }
+                }
+            }
+        } else {
+            HashMap<String, HashMap<String, Double>> links2 = map2.getMap();
+            Iterator<Entry<String, HashMap<String, Double>>> it = links1.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry<String, HashMap<String, Double>> entry = it.next();
+                HashMap<String, Double> targets2 = links2.get(entry.getKey());
+                if (targets2 != null) {
+                    entry.getValue().keySet().removeIf(targets2::containsKey);
+                    if (entry.getValue().isEmpty()) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+        return updated(map1);
     }
 
     /**
@@ -52,30 +134,87 @@ public class MappingOperations {
      * @return Intersection of map1 and map2
      */
     public static AMapping intersection(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        if (map1 instanceof FileMapping || map2 instanceof FileMapping) {
+            return mergeIntersection(map1, map2);
+        }
+        if (map1 instanceof InternedMapping && map2 instanceof InternedMapping) {
+            return ((InternedMapping) map1).intersection((InternedMapping) map2);
+        }
         // takes care of not running the filter if some set is empty
         if (map1.size() == 0 || map2.size() == 0) {
             return MappingFactory.createDefaultMapping();
         }
-        // go through all the keys in map1
-        for (String key : map1.getMap().keySet()) {
-            // if the first term (key) can also be found in map2
-            if (map2.getMap().containsKey(key)) {
-                // then go through the second terms and checks whether they can
-                // be found in map2 as well
-                for (String value : map1.getMap().get(key).keySet()) {
-                    // if yes, take the highest similarity
-                    if (map2.getMap().get(key).containsKey(value)) {
-                        if (map1.getMap().get(key).get(value) <= map2.getMap().get(key).get(value)) {
-                            map.add(key, value, map1.getMap().get(key).get(value));
-                        } else {
-                            map.add(key, value, map2.getMap().get(key).get(value));
-                        }
-                    }
+        // probe the links of the smaller mapping in the larger one
+        HashMap<String, HashMap<String, Double>> smaller = (map1.size() <= map2.size() ? map1 : map2).getMap();
+        HashMap<String, HashMap<String, Double>> larger = (map1.size() <= map2.size() ? map2 : map1).getMap();
+        HashMap<String, HashMap<String, Double>> result = new HashMap<>();
+        int size = 0;
+        for (Entry<String, HashMap<String, Double>> entry : smaller.entrySet()) {
+            HashMap<String, Double> largerTargets = larger.get(entry.getKey());
+            if (largerTargets == null) {
+                continue;
+            }
+            HashMap<String, Double> targets = new HashMap<>();
+            for (Entry<String, Double> link : entry.getValue().entrySet()) {
+                Double largerSimilarity = largerTargets.get(link.getKey());
+                if (largerSimilarity != null) {
+                    // take the lowest similarity
+                    targets.put(link.getKey(),
+                            link.getValue() <= largerSimilarity ? link.getValue() : largerSimilarity);
                 }
             }
+            if (!targets.isEmpty()) {
+                result.put(entry.getKey(), targets);
+                size += targets.size();
+            }
         }
-        return map;
+        return createMemoryMapping(result, size);
+    }
+
+    /**
+     * Computes the intersection of two mappings. If reuseInputs is true and
+     * the smaller input is a memory mapping, the links that are not in the
+     * larger input are removed from the smaller one, which is returned. In
+     * this case the input mappings must not be used by the caller afterwards.
+     *
+     * @param map1
+     *            First mapping
+     * @param map2
+     *            Second mapping
+     * @param reuseInputs
+     *            True if the input mappings can be modified
+     * @return Intersection of map1 and map2
+     */
+    public static AMapping intersection(AMapping map1, AMapping map2, boolean reuseInputs) {
+        AMapping smaller = map1.size() <= map2.size() ? map1 : map2;
+        AMapping larger = smaller == map1 ? map2 : map1;
+        if (!reuseInputs || !isMemoryMapping(smaller) || larger instanceof FileMapping) {
+            return intersection(map1, map2);
+        }
+        HashMap<String, HashMap<String, Double>> largerLinks = larger.getMap();
+        Iterator<Entry<String, HashMap<String, Double>>> it = smaller.getMap().entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<String, HashMap<String, Double>> entry = it.next();
+            HashMap<String, Double> largerTargets = largerLinks.get(entry.getKey());
+            if (largerTargets == null) {
+                it.remove();
+                continue;
+            }
+            Iterator<Entry<String, Double>> links = entry.getValue().entrySet().iterator();
+            while (links.hasNext()) {
+                Entry<String, Double> link = links.next();
+                Double largerSimilarity = largerTargets.get(link.getKey());
+                if (largerSimilarity == null) {
+                    links.remove();
+                } else if (largerSimilarity < link.getValue()) {
+                    link.setValue(largerSimilarity);
+                }
+            }
+            if (entry.getValue().isEmpty()) {
+                it.remove();
+            }
+        }
+        return updated(smaller);
     }
 
     /**
@@ -89,17 +228,196 @@ public class MappingOperations {
      * @return Union of map1 and map2
      */
     public static AMapping union(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
-        // go through all the keys in map1
-        for (String key : map1.getMap().keySet()) {
-            for (String value : map1.getMap().get(key).keySet()) {
-                map.add(key, value, map1.getMap().get(key).get(value));
+        if (map1 instanceof FileMapping || map2 instanceof FileMapping) {
+            return mergeUnion(map1, map2);
+        }
+        if (map1 instanceof InternedMapping && map2 instanceof InternedMapping) {
+            return ((InternedMapping) map1).union((InternedMapping) map2);
+        }
+        // copy the larger mapping and merge the smaller one into the copy
+        AMapping smaller = map1.size() <= map2.size() ? map1 : map2;
+        AMapping larger = smaller == map1 ? map2 : map1;
+        HashMap<String, HashMap<String, Double>> result = new HashMap<>();
+        int size = 0;
+        for (Entry<String, HashMap<String, Double>> entry : larger.getMap().entrySet()) {
+            result.put(entry.getKey(), new HashMap<>(entry.getValue()));
+            size += entry.getValue().size();
+        }
+        size += merge(result, smaller.getMap());
+        return createMemoryMapping(result, size);
+    }
+
+    /**
+     * Computes the union of two mappings. If reuseInputs is true and the
+     * larger input is a memory mapping, the smaller input is merged into the
+     * larger one, which is returned. In this case the input mappings must not
+     * be used by the caller afterwards.
+     *
+     * @param map1
+     *            First mapping
+     * @param map2
+     *            Second mapping
+     * @param reuseInputs
+     *            True if the input mappings can be modified
+     * @return Union of map1 and map2
+     */
+    public static AMapping union(AMapping map1, AMapping map2, boolean reuseInputs) {
+        AMapping smaller = map1.size() <= map2.size() ? map1 : map2;
+        AMapping larger = smaller == map1 ? map2 : map1;
+        if (!reuseInputs || !isMemoryMapping(larger) || smaller instanceof FileMapping) {
+            return union(map1, map2);
+        }
+        merge(larger.getMap(), smaller.getMap());
+        return updated(larger);
+    }
+
+    /**
+     * Merges links into a map, keeping the maximal similarity of links that
+     * exist in both.
+     *
+     * @return the number of links that were not in the map
+     */
+    private static int merge(HashMap<String, HashMap<String, Double>> map,
+            HashMap<String, HashMap<String, Double>> links) {
+        int added = 0;
+        for (Entry<String, HashMap<String, Double>> entry : links.entrySet()) {
+            HashMap<String, Double> targets = map.get(entry.getKey());
+            if (targets == null) {
+                map.put(entry.getKey(), new HashMap<>(entry.getValue()));
+                added += entry.getValue().size();
+                continue;
+            }
+            for (Entry<String, Double> link : entry.getValue().entrySet()) {
+                Double similarity = targets.putIfAbsent(link.getKey(), link.getValue());
+                if (similarity == null) {
+                    added++;
+                } else if (similarity < link.getValue()) {
+                    targets.put(link.getKey(), link.getValue());
+                }
             }
         }
-        for (String key : map2.getMap().keySet()) {
-            // if the first term (key) can also be found in map2
-            for (String value : map2.getMap().get(key).keySet()) {
-                map.add(key, value, map2.getMap().get(key).get(value));
+        return added;
+    }
+
+    /**
+     * Memory mappings are the only mappings whose map can be modified.
+     */
+    private static boolean isMemoryMapping(AMapping m) {
+        return m.getClass() == MemoryMapping.class;
+    }
+
+    private static AMapping createMemoryMapping(HashMap<String, HashMap<String, Double>> map, int size) {
+        AMapping m = MappingFactory.createMapping(MappingType.MEMORY_MAPPING);
+        m.setMap(map);
+        m.setSize(size);
+        return m;
+    }
+
+    /**
+     * Updates the size of a memory mapping whose map has been modified and
+     * drops its index by similarity, which is no longer valid.
+     */
+    private static AMapping updated(AMapping m) {
+        int size = 0;
+        for (HashMap<String, Double> targets : m.getMap().values()) {
+            size += targets.size();
+        }
+        m.setSize(size);
+        m.getReversedMap().clear();
+        return m;
+    }
+
+    /**
+     * Returns the links of a mapping in ascending order of source and target
+     * URI. The links of file mappings are streamed from disk, all others are
+     * sorted in memory.
+     */
+    private static Iterator<Link> sortedLinks(AMapping m) {
+        if (m instanceof FileMapping) {
+            return ((FileMapping) m).iterator();
+        }
+        List<Link> links = new ArrayList<>(m.size());
+        for (Entry<String, HashMap<String, Double>> entry : m.getMap().entrySet()) {
+            String key = entry.getKey();
+            for (Entry<String, Double> link : entry.getValue().entrySet()) {
+                links.add(new Link(key, link.getKey(), link.getValue()));
+            }
+        }
+        Collections.sort(links);
+        return links.iterator();
+    }
+
+    private static Link next(Iterator<Link> links) {
+        return links.hasNext() ? links.next() : null;
+    }
+
+    private static FileMapping createFileMapping(AMapping map1, AMapping map2) {
+        if (map1 instanceof FileMapping) {
+            return ((FileMapping) map1).createEmptyMapping();
+        }
+        return ((FileMapping) map2).createEmptyMapping();
+    }
+
+    private static AMapping mergeDifference(AMapping map1, AMapping map2) {
+        FileMapping map = createFileMapping(map1, map2);
+        Iterator<Link> it1 = sortedLinks(map1);
+        Iterator<Link> it2 = sortedLinks(map2);
+        Link l1 = next(it1);
+        Link l2 = next(it2);
+        while (l1 != null) {
+            int c = l2 == null ? -1 : l1.compareTo(l2);
+            if (c < 0) {
+                map.add(l1.getSource(), l1.getTarget(), l1.getSimilarity());
+                l1 = next(it1);
+            } else if (c > 0) {
+                l2 = next(it2);
+            } else {
+                l1 = next(it1);
+                l2 = next(it2);
+            }
+        }
+        return map;
+    }
+
+    private static AMapping mergeIntersection(AMapping map1, AMapping map2) {
+        FileMapping map = createFileMapping(map1, map2);
+        Iterator<Link> it1 = sortedLinks(map1);
+        Iterator<Link> it2 = sortedLinks(map2);
+        Link l1 = next(it1);
+        Link l2 = next(it2);
+        while (l1 != null && l2 != null) {
+            int c = l1.compareTo(l2);
+            if (c < 0) {
+                l1 = next(it1);
+            } else if (c > 0) {
+                l2 = next(it2);
+            } else {
+                map.add(l1.getSource(), l1.getTarget(), Math.min(l1.getSimilarity(), l2.getSimilarity()));
+                l1 = next(it1);
+                l2 = next(it2);
+            }
+        }
+        return map;
+    }
+
+    private static AMapping mergeUnion(AMapping map1, AMapping map2) {
+        FileMapping map = createFileMapping(map1, map2);
+        Iterator<Link> it1 = sortedLinks(map1);
+        Iterator<Link> it2 = sortedLinks(map2);
+        Link l1 = next(it1);
+        Link l2 = next(it2);
+        while (l1 != null || l2 != null) {
+            int c = l1 == null ? 1 : l2 == null ? -1 : l1.compareTo(l2);
+            if (c < 0) {
+                map.add(l1.getSource(), l1.getTarget(), l1.getSimilarity());
+                l1 = next(it1);
+            } else if (c > 0) {
+                map.add(l2.getSource(), l2.getTarget(), l2.getSimilarity());
+                l2 = next(it2);
+            } else {
+                map.add(l1.getSource(), l1.getTarget(), Math.max(l1.getSimilarity(), l2.getSimilarity()));
+                l1 = next(it1);
+                l2 = next(it2);
             }
         }
         return map;
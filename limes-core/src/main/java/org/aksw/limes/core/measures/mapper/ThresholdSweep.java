@@ -0,0 +1,195 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+
+/**
+ * The links of an atomic link specification computed once at a minimal
+ * threshold and sorted by decreasing similarity. The mapping of the
+ * specification at any higher threshold is the prefix of the links whose
+ * similarity is at least that threshold, so it is answered without running
+ * the mapper again. Used by learning algorithms that try many thresholds of
+ * the same measure, e.g. WOMBAT. This holds only for exact mappers, see
+ * {@link IMapper#isExact()}; the sweep of any other mapper runs the mapper at
+ * each threshold.
+ */
+public class ThresholdSweep {
+
+    private final double minThreshold;
+    private final String[] sources;
+    private final String[] targets;
+    /**
+     * Similarities of the links in decreasing order
+     */
+    private final double[] similarities;
+
+    /**
+     * @param mapping
+     *            mapping of the specification at the minimal threshold
+     * @param minThreshold
+     *            minimal threshold, links below it are ignored
+     */
+    public ThresholdSweep(AMapping mapping, double minThreshold) {
+        this.minThreshold = minThreshold;
+        int n = 0;
+        for (Map<String, Double> targetMap : mapping.getMap().values()) {
+            n += targetMap.size();
+        }
+        String[] s = new String[n];
+        String[] t = new String[n];
+        double[] sim = new double[n];
+        int i = 0;
+        for (Map.Entry<String, ? extends Map<String, Double>> e : mapping.getMap().entrySet()) {
+            for (Map.Entry<String, Double> link : e.getValue().entrySet()) {
+                if (link.getValue() >= minThreshold) {
+                    s[i] = e.getKey();
+                    t[i] = link.getKey();
+                    sim[i] = link.getValue();
+                    i++;
+                }
+            }
+        }
+        // the similarities are sorted as primitives, then each link is put
+        // after the links of higher similarity and the links of the same
+        // similarity that were put before it
+        double[] sorted = Arrays.copyOf(sim, i);
+        Arrays.sort(sorted);
+        int[] placed = new int[i];
+        sources = new String[i];
+        targets = new String[i];
+        similarities = new double[i];
+        for (int k = 0; k < i; k++) {
+            int higher = i - upperBound(sorted, sim[k]);
+            int position = higher + placed[higher]++;
+            sources[position] = s[k];
+            targets[position] = t[k];
+            similarities[position] = sim[k];
+        }
+    }
+
+    /**
+     * @return index of the first value of an ascending array that is greater
+     *         than the given value
+     */
+    private static int upperBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the links whose similarity is at least the threshold, i.e. the
+     * mapping of the specification at this threshold.
+     *
+     * @param threshold
+     *            threshold, at least the minimal threshold
+     * @return the mapping at the threshold
+     */
+    public AMapping getMapping(double threshold) {
+        if (threshold < minThreshold) {
+            throw new IllegalArgumentException(
+                    "Threshold " + threshold + " is below the minimal threshold " + minThreshold + " of the sweep");
+        }
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (int k = 0, n = size(threshold); k < n; k++) {
+            mapping.add(sources[k], targets[k], similarities[k]);
+        }
+        return mapping;
+    }
+
+    /**
+     * @param threshold
+     *            a threshold
+     * @return number of links whose similarity is at least the threshold
+     */
+    public int size(double threshold) {
+        // first link below the threshold
+        int low = 0;
+        int high = similarities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (similarities[mid] >= threshold) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public double getMinThreshold() {
+        return minThreshold;
+    }
+
+    /**
+     * Creates the sweep of a mapper that is not exact, which computes the
+     * mapping at each threshold by running the mapper.
+     *
+     * @param mapper
+     *            Mapper of the measure of the expression
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param expression
+     *            Atomic metric expression
+     * @param minThreshold
+     *            lowest threshold that will be read from the sweep
+     * @return the sweep
+     */
+    public static ThresholdSweep direct(IMapper mapper, ACache source, ACache target, String sourceVar,
+            String targetVar, String expression, double minThreshold) {
+        return new DirectSweep(mapper, source, target, sourceVar, targetVar, expression, minThreshold);
+    }
+
+    private static class DirectSweep extends ThresholdSweep {
+
+        private final IMapper mapper;
+        private final ACache source;
+        private final ACache target;
+        private final String sourceVar;
+        private final String targetVar;
+        private final String expression;
+
+        DirectSweep(IMapper mapper, ACache source, ACache target, String sourceVar, String targetVar,
+                String expression, double minThreshold) {
+            super(MappingFactory.createDefaultMapping(), minThreshold);
+            this.mapper = mapper;
+            this.source = source;
+            this.target = target;
+            this.sourceVar = sourceVar;
+            this.targetVar = targetVar;
+            this.expression = expression;
+        }
+
+        @Override
+        public AMapping getMapping(double threshold) {
+            if (threshold < getMinThreshold()) {
+                throw new IllegalArgumentException("Threshold " + threshold + " is below the minimal threshold "
+                        + getMinThreshold() + " of the sweep");
+            }
+            return mapper.getMapping(source, target, sourceVar, targetVar, expression, threshold);
+        }
+
+        @Override
+        public int size(double threshold) {
+            return getMapping(threshold).size();
+        }
+    }
+}
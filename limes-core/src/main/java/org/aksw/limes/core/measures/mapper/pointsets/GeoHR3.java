@@ -4,21 +4,31 @@
  */
 package org.aksw.limes.core.measures.mapper.pointsets;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.datastrutures.Point;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.measures.measure.pointsets.IPackedPointsetsMeasure;
 import org.aksw.limes.core.measures.measure.pointsets.IPointsetsMeasure;
 import org.aksw.limes.core.measures.measure.pointsets.hausdorff.CentroidIndexedHausdorffMeasure;
 import org.aksw.limes.core.measures.measure.pointsets.hausdorff.IndexedHausdorffMeasure;
+import org.aksw.limes.core.util.ComputeScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 /**
  * Still need to add tabu list. Basically checks whether two polygons have
@@ -28,6 +38,7 @@ import org.aksw.limes.core.measures.measure.pointsets.hausdorff.IndexedHausdorff
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class GeoHR3 {
+    private static final Logger logger = LoggerFactory.getLogger(GeoHR3.class);
     // this angularThreshold in is degrees, thus need to convert km to degrees
     // when using
     // this index
@@ -228,7 +239,13 @@ public class GeoHR3 {
 
     /**
      * Runs GeoHR3 for source and target dataset. Uses the set SetMeasure
-     * implementation. FastHausdorff is used as default
+     * implementation. FastHausdorff is used as default. A polygon may lie in
+     * several squares, thus a pair of polygons may be found in several pairs
+     * of squares to compare. The pair is only compared in the first of these
+     * pairs of squares, so that no record of the compared pairs is needed and
+     * the source squares can be processed in parallel. Measures that
+     * implement {@link IPackedPointsetsMeasure} run in parallel on packed
+     * polygons, all other measures run sequentially.
      *
      * @param sourceData,
      *            Source polygons
@@ -238,10 +255,9 @@ public class GeoHR3 {
      */
     public AMapping run(Set<Polygon> sourceData, Set<Polygon> targetData) {
         long begin = System.currentTimeMillis();
-        GeoIndex source = assignSquares(sourceData);
-        GeoIndex target = assignSquares(targetData);
+        final GeoIndex source = assignSquares(sourceData);
+        final GeoIndex target = assignSquares(targetData);
         long end = System.currentTimeMillis();
-        Map<String, Set<String>> computed = new HashMap<String, Set<String>>();
         indexingTime = end - begin;
         if (verbose) {
             System.out.println("Geo-Indexing took: " + indexingTime + " ms");
@@ -253,7 +269,6 @@ public class GeoHR3 {
         }
         AMapping m = MappingFactory.createDefaultMapping();
 
-        double d;
         if (setMeasure instanceof CentroidIndexedHausdorffMeasure) {
             ((CentroidIndexedHausdorffMeasure) setMeasure).computeIndexes(sourceData, targetData);
         } else if (setMeasure instanceof IndexedHausdorffMeasure) {
@@ -261,31 +276,188 @@ public class GeoHR3 {
             targetIndex.index(targetData);
             ((IndexedHausdorffMeasure) setMeasure).targetIndex = targetIndex;
         }
+
+        // sorted keys of the squares of each polygon and of the squares to
+        // compare with each source square
+        final Map<Polygon, long[]> sourceSquares = getSquareKeys(source);
+        final Map<Polygon, long[]> targetSquares = getSquareKeys(target);
+        final Map<Long, long[]> toCompare = new HashMap<Long, long[]>();
         for (Integer latIndex : source.squares.keySet()) {
             for (Integer longIndex : source.squares.get(latIndex).keySet()) {
-                GeoSquare g1 = source.getSquare(latIndex, longIndex);
-                Set<List<Integer>> squares = getSquaresToCompare(latIndex, longIndex, target);
-                for (List<Integer> squareIndex : squares) {
-                    GeoSquare g2 = target.getSquare(squareIndex.get(0), squareIndex.get(1));
-                    // only run if the hypercube actually exists
-                    for (Polygon a : g1.elements) {
-                        for (Polygon b : g2.elements) {
-                            if (!computed.containsKey(a.uri)) {
-                                computed.put(a.uri, new HashSet<String>());
-                            }
-                            if (!computed.get(a.uri).contains(b.uri)) {
-                                // add subset condition
-                                d = setMeasure.computeDistance(a, b, distanceThreshold);
-                                if (d <= distanceThreshold) {
-                                    m.add(a.uri, b.uri, 1 / (1 + d));
-                                }
-                            }
-                            computed.get(a.uri).add(b.uri);
-                        }
+                toCompare.put(getKey(latIndex, longIndex),
+                        getKeys(getSquaresToCompare(latIndex, longIndex, target), target));
+            }
+        }
+
+        if (!(setMeasure instanceof IPackedPointsetsMeasure)) {
+            for (Long square : toCompare.keySet()) {
+                add(m, compare(square, source, target, sourceSquares, targetSquares, toCompare, null));
+            }
+            return m;
+        }
+
+        final Map<Polygon, PackedPolygon> packed = new IdentityHashMap<Polygon, PackedPolygon>();
+        for (Polygon p : sourceData) {
+            packed.put(p, PackedPolygon.pack(p));
+        }
+        for (Polygon p : targetData) {
+            packed.put(p, PackedPolygon.pack(p));
+        }
+        // one task per source square
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("geohr3");
+        try {
+            List<Future<AMapping>> results = new ArrayList<Future<AMapping>>();
+            for (final Long square : toCompare.keySet()) {
+                results.add(job.submit(new Callable<AMapping>() {
+                    @Override
+                    public AMapping call() {
+                        return compare(square, source, target, sourceSquares, targetSquares, toCompare, packed);
+                    }
+                }));
+            }
+            for (Future<AMapping> result : results) {
+                add(m, job.join(result));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while computing the " + setMeasure.getName()
+                    + " distances");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
+        }
+        return m;
+    }
+
+    /**
+     * Compares the polygons of a source square with the polygons of the target
+     * squares to compare with it.
+     *
+     * @param packed
+     *            Packed polygons, or null if the polygons are not to be
+     *            packed
+     * @return Mapping of the polygons whose distance is within the threshold
+     */
+    private AMapping compare(long square, GeoIndex source, GeoIndex target, Map<Polygon, long[]> sourceSquares,
+            Map<Polygon, long[]> targetSquares, Map<Long, long[]> toCompare, Map<Polygon, PackedPolygon> packed) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        GeoSquare g1 = source.getSquare(getLatIndex(square), getLongIndex(square));
+        double d;
+        for (long squareIndex : toCompare.get(square)) {
+            GeoSquare g2 = target.getSquare(getLatIndex(squareIndex), getLongIndex(squareIndex));
+            for (Polygon a : g1.elements) {
+                for (Polygon b : g2.elements) {
+                    if (!isFirstComparison(square, squareIndex, sourceSquares.get(a),
+                            targetSquares.get(b), toCompare)) {
+                        continue;
+                    }
+                    // add subset condition
+                    if (packed == null) {
+                        d = setMeasure.computeDistance(a, b, distanceThreshold);
+                    } else {
+                        d = ((IPackedPointsetsMeasure) setMeasure).computeDistance(packed.get(a), packed.get(b),
+                                distanceThreshold);
+                    }
+                    if (d <= distanceThreshold) {
+                        m.add(a.uri, b.uri, 1 / (1 + d));
                     }
                 }
             }
         }
         return m;
     }
+
+    /**
+     * Checks whether the pair of squares (sourceSquare, targetSquare) is the
+     * first pair of squares in which two polygons are compared, i.e., whether
+     * there is no lower square of polygon a that is to be compared with a
+     * square of polygon b and no lower square of polygon b that is to be
+     * compared with sourceSquare.
+     *
+     * @param squaresA
+     *            Sorted square keys of source polygon a
+     * @param squaresB
+     *            Sorted square keys of target polygon b
+     */
+    private static boolean isFirstComparison(long sourceSquare, long targetSquare, long[] squaresA,
+            long[] squaresB, Map<Long, long[]> toCompare) {
+        for (long squareA : squaresA) {
+            if (squareA > sourceSquare) {
+                break;
+            }
+            long[] compare = toCompare.get(squareA);
+            for (long squareB : squaresB) {
+                if (squareA == sourceSquare && squareB >= targetSquare) {
+                    break;
+                }
+                if (Arrays.binarySearch(compare, squareB) >= 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void add(AMapping m, AMapping result) {
+        for (String s : result.getMap().keySet()) {
+            for (Map.Entry<String, Double> t : result.getMap().get(s).entrySet()) {
+                m.add(s, t.getKey(), t.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return Sorted keys of the squares of each polygon in the index
+     */
+    private static Map<Polygon, long[]> getSquareKeys(GeoIndex index) {
+        Map<Polygon, Set<List<Integer>>> squares = new IdentityHashMap<Polygon, Set<List<Integer>>>();
+        for (Integer latIndex : index.squares.keySet()) {
+            for (Integer longIndex : index.squares.get(latIndex).keySet()) {
+                for (Polygon p : index.squares.get(latIndex).get(longIndex).elements) {
+                    if (!squares.containsKey(p)) {
+                        squares.put(p, new HashSet<List<Integer>>());
+                    }
+                    squares.get(p).add(Arrays.asList(new Integer[] { latIndex, longIndex }));
+                }
+            }
+        }
+        Map<Polygon, long[]> keys = new IdentityHashMap<Polygon, long[]>();
+        for (Map.Entry<Polygon, Set<List<Integer>>> entry : squares.entrySet()) {
+            keys.put(entry.getKey(), getKeys(entry.getValue(), null));
+        }
+        return keys;
+    }
+
+    /**
+     * @param index
+     *            GeoIndex, if given only the squares that hold polygons are
+     *            kept
+     * @return Sorted keys of the squares
+     */
+    private static long[] getKeys(Set<List<Integer>> squares, GeoIndex index) {
+        long[] keys = new long[squares.size()];
+        int size = 0;
+        for (List<Integer> square : squares) {
+            if (index == null || !index.getSquare(square.get(0), square.get(1)).elements.isEmpty()) {
+                keys[size++] = getKey(square.get(0), square.get(1));
+            }
+        }
+        keys = Arrays.copyOf(keys, size);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static long getKey(int latIndex, int longIndex) {
+        return ((long) latIndex << 32) | (longIndex & 0xffffffffL);
+    }
+
+    private static int getLatIndex(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int getLongIndex(long key) {
+        return (int) key;
+    }
 }
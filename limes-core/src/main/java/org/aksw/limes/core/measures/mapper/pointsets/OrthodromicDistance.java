@@ -75,4 +75,36 @@ public class OrthodromicDistance {
         return R * c;
     }
 
+    /**
+     * Computes the distance between two points on earth like
+     * {@link #getDistance(double, double, double, double)}, given the cosines
+     * of their latitudes, e.g. from {@link PackedPolygon#getRadians()}. Input
+     * latitudes/longitudes are in Radians
+     *
+     * @param lat1,
+     *         Latitude of first point
+     * @param long1,
+     *         Longitude of first point
+     * @param cosLat1,
+     *         Cosine of the latitude of first point
+     * @param lat2,
+     *         Latitude of second point
+     * @param long2,
+     *         Longitude of second point
+     * @param cosLat2,
+     *         Cosine of the latitude of second point
+     * @return Distance between both points
+     */
+    public static double getDistance(double lat1, double long1, double cosLat1, double lat2, double long2,
+            double cosLat2) {
+        double dLat = lat2 - lat1;
+        double dLon = long2 - long1;
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+
+        double a = sinLat * sinLat + sinLon * sinLon * cosLat1 * cosLat2;
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return R * c;
+    }
+
 }
@@ -0,0 +1,125 @@
+package org.aksw.limes.core.measures.mapper.pointsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.limes.core.datastrutures.Point;
+
+/**
+ * Compact representation of a {@link Polygon} for the point set measures. The
+ * latitude and longitude of the i-th point are stored at the positions 2i and
+ * 2i+1 of one primitive array instead of a list of points holding lists of
+ * boxed coordinates. The coordinates in radians and the cosines of the
+ * latitudes, which the orthodromic distance needs for each pair of points, are
+ * computed once per polygon when they are first requested.
+ */
+public class PackedPolygon {
+
+    public final String uri;
+    private final double[] coordinates;
+    // latitude and longitude in radians and cosine of the latitude per point
+    private volatile double[] radians = null;
+
+    /**
+     * Constructor
+     *
+     * @param uri,
+     *            the uri of the polygon
+     * @param coordinates,
+     *            latitude and longitude of each point in degrees
+     */
+    public PackedPolygon(String uri, double[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Coordinates must consist of latitude and longitude pairs");
+        }
+        this.uri = uri;
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * Packs the points of a polygon. Only the first two coordinates of a point,
+     * i.e. its latitude and longitude, are kept.
+     *
+     * @param polygon,
+     *            the polygon to pack
+     * @return the packed polygon
+     */
+    public static PackedPolygon pack(Polygon polygon) {
+        double[] coordinates = new double[2 * polygon.points.size()];
+        int i = 0;
+        for (Point p : polygon.points) {
+            coordinates[i++] = p.coordinates.get(0);
+            coordinates[i++] = p.coordinates.get(1);
+        }
+        return new PackedPolygon(polygon.uri, coordinates);
+    }
+
+    /**
+     * @return the polygon with the points of this packed polygon
+     */
+    public Polygon toPolygon() {
+        List<Point> points = new ArrayList<Point>(size());
+        for (int i = 0; i < size(); i++) {
+            points.add(new Point("", Arrays.asList(new Double[] { getLatitude(i), getLongitude(i) })));
+        }
+        return new Polygon(uri, points);
+    }
+
+    /**
+     * @return the number of points
+     */
+    public int size() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * @param i,
+     *            the index of the point
+     * @return the latitude of the point in degrees
+     */
+    public double getLatitude(int i) {
+        return coordinates[2 * i];
+    }
+
+    /**
+     * @param i,
+     *            the index of the point
+     * @return the longitude of the point in degrees
+     */
+    public double getLongitude(int i) {
+        return coordinates[2 * i + 1];
+    }
+
+    /**
+     * @return latitude and longitude of each point in degrees, must not be
+     *         modified
+     */
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * @return latitude and longitude in radians and the cosine of the latitude
+     *         of the i-th point at the positions 3i, 3i+1 and 3i+2, must not be
+     *         modified
+     */
+    public double[] getRadians() {
+        double[] r = radians;
+        if (r == null) {
+            // computing it twice concurrently is harmless
+            r = new double[3 * size()];
+            for (int i = 0; i < size(); i++) {
+                r[3 * i] = Math.toRadians(coordinates[2 * i]);
+                r[3 * i + 1] = Math.toRadians(coordinates[2 * i + 1]);
+                r[3 * i + 2] = Math.cos(r[3 * i]);
+            }
+            radians = r;
+        }
+        return r;
+    }
+
+    public String toString() {
+        return "\nPolygon " + uri + " " + Arrays.toString(coordinates);
+    }
+}
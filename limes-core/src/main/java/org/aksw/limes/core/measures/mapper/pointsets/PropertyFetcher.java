@@ -1,7 +1,10 @@
 package org.aksw.limes.core.measures.mapper.pointsets;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.aksw.limes.core.io.parser.Parser;
 
@@ -10,10 +13,34 @@ import org.aksw.limes.core.io.parser.Parser;
  */
 public class PropertyFetcher {
 
+    /**
+     * Maximal number of expressions whose properties are kept
+     */
+    private static final int MAX_EXPRESSIONS = 1024;
+
+    // the properties of an expression do not depend on the threshold, the
+    // same expression is fetched for each pair computed by a mapper. The
+    // least recently used expression is evicted.
+    private static final Map<String, List<String>> properties = Collections
+            .synchronizedMap(new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                    return size() > MAX_EXPRESSIONS;
+                }
+            });
+
     public static List<String> getProperties(String expression, double threshold) {
-        // get property labels
-        Parser p = new Parser(expression, threshold);
-        return Arrays.asList(getPropertyLabel(p.getLeftTerm()), getPropertyLabel(p.getRightTerm()));
+        List<String> result = properties.get(expression);
+        if (result == null) {
+            // get property labels
+            Parser p = new Parser(expression, threshold);
+            result = Collections.unmodifiableList(
+                    Arrays.asList(getPropertyLabel(p.getLeftTerm()), getPropertyLabel(p.getRightTerm())));
+            properties.put(expression, result);
+        }
+        return result;
     }
 
     private static String getPropertyLabel(String term) {
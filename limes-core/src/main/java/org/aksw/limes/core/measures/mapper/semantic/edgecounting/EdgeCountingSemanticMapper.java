@@ -1,12 +1,18 @@
 package org.aksw.limes.core.measures.mapper.semantic.edgecounting;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
@@ -14,11 +20,14 @@ import org.aksw.limes.core.measures.measure.semantic.edgecounting.AEdgeCountingS
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.factory.SemanticFactory;
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.factory.SemanticType;
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.AIndex;
-import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.memory.MemoryIndex;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.file.FileIndex;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 
+import weka.core.Stopwords;
+
 public class EdgeCountingSemanticMapper extends AMapper {
     static Logger logger = LoggerFactory.getLogger(EdgeCountingSemanticMapper.class);
 
@@ -63,37 +72,101 @@ public class EdgeCountingSemanticMapper extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        AMapping m = MappingFactory.createDefaultMapping();
-        // create index before anything
-        Indexer = new MemoryIndex();
-        Indexer.preIndex();
+        // the hypernym paths are indexed once per JVM
+        Indexer = FileIndex.getInstance();
         // create semantic similarity, pass indexer as parameter
         SemanticType type = SemanticFactory.getMeasureType(expression);
         measure = SemanticFactory.createMeasure(type, Indexer);
+        return getMapping(source, target, properties.get(0), properties.get(1), measure, threshold);
+    }
+
+    /**
+     * Computes a mapping between a source and a target with a given measure,
+     * which is closed afterwards.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceProperty
+     *            Property of the source instances
+     * @param targetProperty
+     *            Property of the target instances
+     * @param measure
+     *            Semantic measure
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping which contains links between the source instances and
+     *         the target instances
+     */
+    AMapping getMapping(ACache source, ACache target, String sourceProperty, String targetProperty,
+            AEdgeCountingSemanticMeasure measure, double threshold) {
+        // load the stopwords before the workers use them
+        Stopwords.isStopword("");
 
-        for (Instance sourceInstance : source.getAllInstances()) {
-            // System.out.println("Source URI "+sourceInstance.getUri());
-            for (Instance targetInstance : target.getAllInstances()) {
-                // System.out.println("-->Target URI "+targetInstance.getUri());
-                double similarity = measure.getSimilarity(sourceInstance, targetInstance, properties.get(0),
-                        properties.get(1));
-                if (similarity >= threshold) {
-                    m.add(sourceInstance.getUri(), targetInstance.getUri(), similarity);
-                }
+        // distinct values are tokenized once
+        Map<String, Set<String>> sourceMap = getValueToUriMap(source, sourceProperty);
+        Map<String, Set<String>> targetMap = getValueToUriMap(target, targetProperty);
+        Map<String, List<String>> sourceTokens = getTokens(sourceMap.keySet(), measure);
+        Map<String, List<String>> targetTokens = getTokens(targetMap.keySet(), measure);
 
+        Map<String, Map<String, Double>> similarityBook = new ConcurrentHashMap<>(sourceTokens.size(), 1.0f);
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob(getName());
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Entry<String, List<String>> sourceValue : sourceTokens.entrySet()) {
+                results.add(job.submit(() -> {
+                    Map<String, Double> similarities = new HashMap<>();
+                    for (Entry<String, List<String>> targetValue : targetTokens.entrySet()) {
+                        double similarity = measure.getSimilarity(sourceValue.getValue(), targetValue.getValue());
+                        if (similarity >= threshold) {
+                            similarities.put(targetValue.getKey(), similarity);
+                        }
+                    }
+                    if (!similarities.isEmpty()) {
+                        similarityBook.put(sourceValue.getKey(), similarities);
+                    }
+                }));
             }
+            for (Future<?> result : results) {
+                job.join(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while computing the semantic similarities");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
+            // dictionary gets open once, during the creation of the semantic
+            // similarity.
+            // then, it stays open until all comparisons between instances are
+            // carried out. once the comparisons are over, the dictionary must
+            // be closed. the index is shared and stays open.
+            measure.close();
         }
+        // an instance pair gets the maximal similarity of its values
+        return getUriToUriMapping(similarityBook, sourceMap, targetMap);
+    }
 
-        // in case of a db, you close the connection
-        Indexer.close();
-        // dictionary gets open once, during the creation of the semantic
-        // similarity.
-        // then, it stays open until all comparisons between instances are
-        // carried out. once the comparisons are over, the dictionary must be
-        // closed.
-        measure.close();
-
-        return m;
+    /**
+     * Tokenizes the non-empty values.
+     *
+     * @param values
+     *            Values to tokenize
+     * @param measure
+     *            Semantic measure
+     * @return the tokens of each value without stopwords
+     */
+    private static Map<String, List<String>> getTokens(Set<String> values, AEdgeCountingSemanticMeasure measure) {
+        Map<String, List<String>> tokens = new HashMap<>();
+        for (String value : values) {
+            if (!value.equals("")) {
+                tokens.put(value, measure.getTokens(value));
+            }
+        }
+        return tokens;
     }
 
     @Override
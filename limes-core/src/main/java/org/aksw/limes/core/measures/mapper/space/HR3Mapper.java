@@ -4,18 +4,19 @@
  */
 package org.aksw.limes.core.measures.mapper.space;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.TreeSet;
+import java.util.Arrays;
 // * Previously call ToralOrderBlockingMapper
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
+import org.aksw.limes.core.io.cache.PointColumn;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.space.blocking.BlockIndex;
 import org.aksw.limes.core.measures.mapper.space.blocking.BlockingFactory;
-import org.aksw.limes.core.measures.mapper.space.blocking.IBlockingModule;
+import org.aksw.limes.core.measures.mapper.space.blocking.HR3Blocker;
 import org.aksw.limes.core.measures.measure.space.ISpaceMeasure;
 import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
 
@@ -34,6 +35,15 @@ public class HR3Mapper extends AMapper {
     // Then it will work
     // perfectly
 
+    /**
+     * The mapper returns every pair whose similarity reaches the threshold,
+     * with similarities that do not depend on it.
+     */
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
     public String getName() {
         return "TotalOrderBlockingMapper";
     }
@@ -63,10 +73,6 @@ public class HR3Mapper extends AMapper {
         
         AMapping mapping = MappingFactory.createDefaultMapping();
 
-        // maps each block id to a set of instances. Actually one should
-        // integrate LIMES here
-        HashMap<ArrayList<Integer>, TreeSet<String>> targetBlocks = new HashMap<ArrayList<Integer>, TreeSet<String>>();
-
         // 0. get properties
         String property1, property2;
         // get property labels
@@ -102,58 +108,48 @@ public class HR3Mapper extends AMapper {
         // distance threshold. Central for finding the right blocks and might
         // differ from blocker
         // to blocker.
-        IBlockingModule generator = BlockingFactory.getBlockingModule(property2, p.getOperator(), threshold,
-                granularity);
+        HR3Blocker generator = BlockingFactory.getHR3Blocker(property2, p.getOperator(), threshold, granularity);
 
         // initialize the measure for similarity computation
         ISpaceMeasure measure = SpaceMeasureFactory.getMeasure(p.getOperator(), dimensions);
 
-        // compute blockid for each of the elements of the target
-        // implement our simple yet efficient blocking approach
-        ArrayList<ArrayList<Integer>> blockIds;
-        for (String key : target.getAllUris()) {
-            blockIds = generator.getAllBlockIds(target.getInstance(key));
-            for (int ids = 0; ids < blockIds.size(); ids++) {
-                if (!targetBlocks.containsKey(blockIds.get(ids))) {
-                    targetBlocks.put(blockIds.get(ids), new TreeSet<String>());
-                }
-                targetBlocks.get(blockIds.get(ids)).add(key);
-            }
-        }
-
-        ArrayList<ArrayList<Integer>> blocksToCompare;
+        // parse the values once, the columns and the blocks of the target are
+        // shared with other runs if the caches have an index registry
+        PointColumn sourceColumn = PointColumn.getColumn(source, property1);
+        PointColumn targetColumn = PointColumn.getColumn(target, property2);
+        BlockIndex targetBlocks = IndexRegistry.getIndex(target, property2,
+                "hr3-" + p.getOperator() + "-" + granularity + "-" + threshold,
+                () -> new BlockIndex(targetColumn, generator), BlockIndex::footprint);
+
+        double[] sourcePoints = sourceColumn.getPoints();
+        int[] sourceOffsets = sourceColumn.getOffsets();
+        int[] blockId = new int[dimensions];
+        long[] blocksToCompare = new long[generator.getNeighbourCount()];
+        // last source instance each target instance was compared with
+        int[] compared = new int[targetColumn.size()];
+        Arrays.fill(compared, -1);
         // comparison
-        TreeSet<String> uris;
         double sim;
-        int counter = 0;
-        source.getAllUris().size();
-        for (String sourceInstanceUri : source.getAllUris()) {
-            counter++;
-            if (counter % 1000 == 0) {
-                // logger.info("Processed " + (counter * 100 / size) + "% of the
-                // links");
-                // get key
-
-            }
-            // logger.info("Getting "+property1+" from "+sourceInstanceUri);
-            blockIds = generator.getAllSourceIds(source.getInstance(sourceInstanceUri), property1);
-            // logger.info("BlockId for "+sourceInstanceUri+" is "+blockId);
-            // for all blocks in [-1, +1] in each dimension compute similarities
-            // and store them
-            for (int ids = 0; ids < blockIds.size(); ids++) {
-                blocksToCompare = generator.getBlocksToCompare(blockIds.get(ids));
-
-                // logger.info(sourceInstanceUri+" is to compare with blocks
-                // "+blocksToCompare);
-                for (int index = 0; index < blocksToCompare.size(); index++) {
-                    if (targetBlocks.containsKey(blocksToCompare.get(index))) {
-                        uris = targetBlocks.get(blocksToCompare.get(index));
-                        for (String targetInstanceUri : uris) {
-                            sim = measure.getSimilarity(source.getInstance(sourceInstanceUri),
-                                    target.getInstance(targetInstanceUri), property1, property2);
-                            if (sim >= threshold) {
-                                mapping.add(sourceInstanceUri, targetInstanceUri, sim);
-                            }
+        for (int s = 0; s < sourceColumn.size(); s++) {
+            // for all blocks around the blocks of the source points compute
+            // similarities and store them
+            for (int point = sourceOffsets[s]; point < sourceOffsets[s + 1]; point++) {
+                generator.getBlock(sourcePoints, point * sourceColumn.getDimension(), blockId);
+                generator.getBlocksToCompare(blockId, blocksToCompare);
+                for (int index = 0; index < blocksToCompare.length; index++) {
+                    int block = targetBlocks.find(blocksToCompare[index]);
+                    if (block < 0) {
+                        continue;
+                    }
+                    for (int k = targetBlocks.getStart(block); k < targetBlocks.getEnd(block); k++) {
+                        int t = targetBlocks.getInstance(k);
+                        if (compared[t] == s) {
+                            continue;
+                        }
+                        compared[t] = s;
+                        sim = getSimilarity(measure, sourceColumn, s, targetColumn, t);
+                        if (sim >= threshold) {
+                            mapping.add(sourceColumn.getUri(s), targetColumn.getUri(t), sim);
                         }
                     }
                 }
@@ -163,6 +159,26 @@ public class HR3Mapper extends AMapper {
         return mapping;
     }
 
+    /**
+     * Computes the similarity of two instances as the highest similarity of
+     * their points, i.e. for each dimension the closest values are compared.
+     */
+    private static double getSimilarity(ISpaceMeasure measure, PointColumn sourceColumn, int s,
+            PointColumn targetColumn, int t) {
+        double[] sourcePoints = sourceColumn.getPoints();
+        double[] targetPoints = targetColumn.getPoints();
+        int[] sourceOffsets = sourceColumn.getOffsets();
+        int[] targetOffsets = targetColumn.getOffsets();
+        double sim = 0;
+        for (int a = sourceOffsets[s]; a < sourceOffsets[s + 1]; a++) {
+            for (int b = targetOffsets[t]; b < targetOffsets[t + 1]; b++) {
+                sim = Math.max(sim, measure.getSimilarity(sourcePoints, a * sourceColumn.getDimension(),
+                        targetPoints, b * targetColumn.getDimension()));
+            }
+        }
+        return sim;
+    }
+
     // need to change this
     public double getRuntimeApproximation(int sourceSize, int targetSize, double threshold, Language language) {
         if (language.equals(Language.DE)) {
@@ -0,0 +1,133 @@
+package org.aksw.limes.core.measures.mapper.space.blocking;
+
+import java.util.Arrays;
+
+import org.aksw.limes.core.io.cache.PointColumn;
+
+/**
+ * Maps the packed keys of the HR3 blocks to the instances of a
+ * {@link PointColumn} that have a point in the block. The keys are kept
+ * sorted in a <code>long[]</code> and the instances of all blocks in a
+ * single <code>int[]</code>, so that no boxed ids are created.
+ */
+public class BlockIndex {
+
+    private final long[] keys;
+    private final int[] starts;
+    private final int[] instances;
+
+    /**
+     * Computes the blocks of all points of a column.
+     *
+     * @param column
+     *            Parsed points of the instances
+     * @param blocker
+     *            Blocker of the points
+     */
+    public BlockIndex(PointColumn column, HR3Blocker blocker) {
+        int dimension = column.getDimension();
+        int[] offsets = column.getOffsets();
+        double[] points = column.getPoints();
+        int[] block = new int[dimension];
+        long[] pointKeys = new long[offsets[column.size()]];
+        for (int p = 0; p < pointKeys.length; p++) {
+            blocker.getBlock(points, p * dimension, block);
+            pointKeys[p] = blocker.getKey(block);
+        }
+
+        long[] sorted = pointKeys.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        keys = Arrays.copyOf(sorted, distinct);
+
+        // count the instances of each block, an instance is counted once per
+        // block even if several of its points fall into the block
+        int[] last = new int[distinct];
+        Arrays.fill(last, -1);
+        starts = new int[distinct + 1];
+        for (int i = 0; i < column.size(); i++) {
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                int b = Arrays.binarySearch(keys, pointKeys[p]);
+                if (last[b] != i) {
+                    last[b] = i;
+                    starts[b + 1]++;
+                }
+            }
+        }
+        for (int b = 0; b < distinct; b++) {
+            starts[b + 1] += starts[b];
+        }
+        instances = new int[starts[distinct]];
+        int[] fill = Arrays.copyOf(starts, distinct);
+        Arrays.fill(last, -1);
+        for (int i = 0; i < column.size(); i++) {
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                int b = Arrays.binarySearch(keys, pointKeys[p]);
+                if (last[b] != i) {
+                    last[b] = i;
+                    instances[fill[b]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param key
+     *            Packed key of a block, see {@link HR3Blocker#getKey(int[])}
+     * @return index of the block or a negative value if no point is in the
+     *         block
+     */
+    public int find(long key) {
+        return Arrays.binarySearch(keys, key);
+    }
+
+    /**
+     * @param block
+     *            Index of a block
+     * @return position of the first instance of the block
+     */
+    public int getStart(int block) {
+        return starts[block];
+    }
+
+    /**
+     * @param block
+     *            Index of a block
+     * @return position after the last instance of the block
+     */
+    public int getEnd(int block) {
+        return starts[block + 1];
+    }
+
+    /**
+     * @param position
+     *            Position of an instance in a block
+     * @return index of the instance in the column
+     */
+    public int getInstance(int position) {
+        return instances[position];
+    }
+
+    /**
+     * @return number of non-empty blocks
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Estimates the footprint of an index.
+     *
+     * @param index
+     *            a block index
+     * @return estimated size in bytes
+     */
+    public static long footprint(BlockIndex index) {
+        return 64 + 8L * index.keys.length + 4L * index.starts.length + 4L * index.instances.length;
+    }
+}
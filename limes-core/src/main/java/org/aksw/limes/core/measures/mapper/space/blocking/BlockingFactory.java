@@ -21,4 +21,27 @@ public class BlockingFactory {
 
         return new EuclideanBlockingModule(props, measureName, threshold);
     }
+
+    /**
+     * Returns the HR3 blocker that compares the same blocks as the module of
+     * {@link #getBlockingModule(String, String, double, int)}. With a
+     * granularity of 1, HR3 compares all adjacent blocks like the
+     * {@link EuclideanBlockingModule}.
+     *
+     * @param props
+     *            List of properties that make up each dimension
+     * @param measureName
+     *            Name of the measure
+     * @param threshold
+     *            Similarity threshold
+     * @param granularity
+     *            Granularity of the euclidean blocks
+     * @return the HR3 blocker
+     */
+    public static HR3Blocker getHR3Blocker(String props, String measureName, double threshold, int granularity) {
+        if (measureName.toLowerCase().startsWith("euclidean") && granularity > 1) {
+            return new HR3Blocker(props, measureName, threshold, granularity);
+        }
+        return new HR3Blocker(props, measureName, threshold, 1);
+    }
 }
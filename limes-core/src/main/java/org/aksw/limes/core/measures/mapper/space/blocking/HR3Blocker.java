@@ -6,6 +6,7 @@ package org.aksw.limes.core.measures.mapper.space.blocking;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.TreeSet;
 
@@ -30,6 +31,10 @@ public class HR3Blocker implements IBlockingModule {
     Instance zero;
     int granularity;
     HashMap<ArrayList<Integer>, ArrayList<ArrayList<Integer>>> cache;
+    /**
+     * Offsets of the blocks to compare, dim values per block
+     */
+    int[] neighbours;
 
     public HR3Blocker(String props, String measureName, double threshold) {
         thresholds = new ArrayList<Double>();
@@ -111,6 +116,111 @@ public class HR3Blocker implements IBlockingModule {
 
     public void setGranularity(int n) {
         granularity = n;
+        neighbours = null;
+    }
+
+    /**
+     * Computes the offsets of the blocks that are to be compared with any
+     * block. As the HR3 check only depends on the distance of two blocks, they
+     * are computed once.
+     */
+    private int[] getNeighbours() {
+        int[] result = neighbours;
+        if (result == null) {
+            int width = 2 * granularity + 1;
+            int count = (int) Math.pow(width, dim);
+            int alphaPowered = (int) Math.pow(granularity, dim);
+            result = new int[count * dim];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int rest = i;
+                int hr3Index = 0;
+                boolean aligned = false;
+                for (int j = 0; j < dim; j++) {
+                    int offset = rest % width - granularity;
+                    rest = rest / width;
+                    result[size * dim + j] = offset;
+                    if (offset == 0) {
+                        aligned = true;
+                    } else {
+                        hr3Index = hr3Index + (int) Math.pow(Math.abs(offset) - 1, dim);
+                    }
+                }
+                if (aligned || hr3Index < alphaPowered) size++;
+            }
+            result = Arrays.copyOf(result, size * dim);
+            neighbours = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return number of blocks that are to be compared with a block
+     */
+    public int getNeighbourCount() {
+        return getNeighbours().length / dim;
+    }
+
+    /**
+     * Packs the id of a block into a primitive key. Ids of up to two
+     * dimensions are packed without loss, for more dimensions distinct blocks
+     * may share a key, which leads to more comparisons but never to missed
+     * ones.
+     *
+     * @param block
+     *         ID of a block
+     * @return key of the block
+     */
+    public long getKey(int[] block) {
+        long key = 0;
+        for (int i = 0; i < dim; i++) {
+            key = pack(key, block[i]);
+        }
+        return key;
+    }
+
+    private long pack(long key, int id) {
+        int bits = Math.max(1, 64 / dim);
+        long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        return Long.rotateLeft(key, bits) ^ (id & mask);
+    }
+
+    /**
+     * Computes the keys of the blocks that are to be compared with a given
+     * block, see {@link #getBlocksToCompare(ArrayList)}.
+     *
+     * @param block
+     *         ID of the block for which comparisons are needed
+     * @param keys
+     *         Keys of the blocks that are to be compared, must have a length of
+     *         at least {@link #getNeighbourCount()}
+     */
+    public void getBlocksToCompare(int[] block, long[] keys) {
+        int[] offsets = getNeighbours();
+        for (int i = 0; i < offsets.length / dim; i++) {
+            long key = 0;
+            for (int j = 0; j < dim; j++) {
+                key = pack(key, block[j] + offsets[i * dim + j]);
+            }
+            keys[i] = key;
+        }
+    }
+
+    /**
+     * Computes the block of a parsed point, e.g. a point of a
+     * {@link org.aksw.limes.core.io.cache.PointColumn}.
+     *
+     * @param points
+     *         Coordinates of points
+     * @param offset
+     *         Index of the first coordinate of the point
+     * @param block
+     *         Receives the ID of the block of the point
+     */
+    public void getBlock(double[] points, int offset, int[] block) {
+        for (int i = 0; i < dim; i++) {
+            block[i] = (int) java.lang.Math.floor((granularity * points[offset + i]) / thresholds.get(i));
+        }
     }
 
     /**
@@ -6,14 +6,20 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -30,12 +36,18 @@ import algorithms.edjoin.Record;
 public class EDJoinMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(EDJoinMapper.class);
-    private static int Q = -1;
-    private static AMapping mapping = null;
-    private static HashMap<Integer, String> sourceMap;
-    private static HashMap<Integer, String> targetMap;
+    /**
+     * Length of the q-grams
+     */
+    private static final int Q = 3;
+    /**
+     * Number of records that a thread probes at once
+     */
+    private static final int CHUNK_SIZE = 256;
     @SuppressWarnings("unused")
     private int comparisons = 0;
+    // 0 means as many threads as the shared compute scheduler has
+    private int threads = 0;
     
     private static Record[] qTokenizer(String[] objects, int q) {
         StoppUhr s = new StoppUhr();
@@ -71,8 +83,8 @@ public class EDJoinMapper extends AMapper {
         return records;
     }
 
-    private static int verification(Record currentRec, HashMap<Integer, Record> candidates, ArrayList<String> objects,
-            int q, int threshold) {
+    private static int verification(Record currentRec, HashMap<Integer, Record> candidates,
+            String[] objects, int q, int threshold, String[] uris, int border, AMapping mapping) {
         int count = 0;
         String id1, id2;
         Iterator<Record> iter = candidates.values().iterator();
@@ -89,20 +101,20 @@ public class EDJoinMapper extends AMapper {
                  * location-based mismatch filtering
                  */
                 if (e2 <= threshold) {
-                    int e3 = contentFilter(objects.get(currentRec.id), objects.get(y.id), compResult.Q, threshold, q);
+                    int e3 = contentFilter(objects[currentRec.id], objects[y.id], compResult.Q, threshold, q);
                     if (e3 <= 2 * threshold) {
-                        int ed = editDistance(objects.get(currentRec.id), objects.get(y.id));
+                        int ed = editDistance(objects[currentRec.id], objects[y.id]);
                         if (ed <= threshold) {
-                            if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(y.id))) {
-                                id1 = sourceMap.get(currentRec.id);
-                                id2 = targetMap.get(y.id);
+                            if (currentRec.id < border && y.id >= border) {
+                                id1 = uris[currentRec.id];
+                                id2 = uris[y.id];
                                 // CORRECT
                                 mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                            } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(y.id)) {
+                            } else if (currentRec.id >= border && y.id < border) {
                                 // get uris for ids
                                 {
-                                    id1 = sourceMap.get(y.id);
-                                    id2 = targetMap.get(currentRec.id);
+                                    id1 = uris[y.id];
+                                    id2 = uris[currentRec.id];
                                     // CORRECT
                                     mapping.add(id1, id2, 1.0 / (1 + (double) ed));
                                 }
@@ -343,6 +355,15 @@ public class EDJoinMapper extends AMapper {
         return min;
     }
 
+    /**
+     * The mapper returns every pair whose similarity reaches the threshold,
+     * with similarities that do not depend on it.
+     */
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
     public String getName() {
         return "EDJoin";
     }
@@ -369,14 +390,11 @@ public class EDJoinMapper extends AMapper {
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
 
-        if (Q <= 1) {
-            Q = 3;
-        }
         // convert similarity in distance threshold
         threshold = (1 - threshold) / threshold;
 
         this.comparisons = 0;
-        mapping = MappingFactory.createDefaultMapping();
+        AMapping mapping = MappingFactory.createDefaultMapping();
         if (threshold < 0) {
             logger.info("Wrong threshold setting. Returning empty mapping.");
             return mapping;
@@ -401,50 +419,103 @@ public class EDJoinMapper extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        // 3.1 fill objects from source in entry. This is for indexing and
-        // sorting
-        // later on
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<Integer, String>();
-        ArrayList<String> uris = source.getAllUris();
-        ArrayList<String> entries = new ArrayList<String>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(properties.get(0))) {
-                sourceMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
+        // 3. fill the entries with the objects from source and target. This is
+        // for indexing and sorting later on. Begin EdJoin, first run the
+        // tokenization. The records are shared with other mappers if the
+        // caches have an index registry
+        JoinRecords<Record> entries = IndexRegistry.getIndex(source, properties.get(0), target, properties.get(1),
+                "edjoin-q" + Q,
+                () -> JoinRecords.create(source, properties.get(0), target, properties.get(1),
+                        values -> qTokenizer(values, Q)),
+                e -> e.getFootprint(r -> 48 + 40L * r.qGrams.length));
+        Record[] records = entries.records;
+        int workers = Math.max(1, Math.min(getThreads(), (records.length + CHUNK_SIZE - 1) / CHUNK_SIZE));
+        if (workers == 1) {
+            join(records, entries.values, (int) threshold, entries.uris, entries.border, mapping);
+        } else {
+            mapping = join(records, entries.values, (int) threshold, entries.uris, entries.border, workers);
         }
+        /*
+         * AMapping tempMapping = MappingFactory.createDefaultMapping(); for
+         * (String key : mapping.getMap().keySet()) { for (String value :
+         * mapping.getMap().get(key).keySet()) { double confidence =
+         * mapping.getConfidence(key, value); if (confidence < threshold) {
+         * tempMapping.add(key, value, confidence); } } } mapping = tempMapping;
+         */
 
-        // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(properties.get(1))) {
-                targetMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
-        }
+        return mapping;
+    }
 
-        // transform entries into array so that tokenizer will work
-        // we will use entries later on as they do not lead to RAM errors
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+    /**
+     * Sets the number of threads that probe the records against the prefix
+     * index. With one thread, the records are probed and indexed in turn.
+     * With more threads, the prefixes of all records are indexed first and
+     * the records are probed in chunks. Both return the same mapping. By
+     * default, the mapper uses as many threads as the shared
+     * {@link ComputeScheduler} has, see
+     * {@link ComputeScheduler#PARALLELISM_PROPERTY}. The tasks run on the
+     * scheduler, thus they never use more threads than it has.
+     *
+     * @param threads
+     *            Number of threads, 0 to use the parallelism of the scheduler
+     */
+    public void setThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("Number of threads must not be negative: " + threads);
         }
+        this.threads = threads;
+    }
 
-        // Begin EdJoin. First run the tokenization
-        Record[] records = qTokenizer(entryArray, Q);
+    /**
+     * @return the number of threads that probe the records
+     */
+    public int getThreads() {
+        return threads > 0 ? threads : ComputeScheduler.getInstance().getParallelism();
+    }
+
+    /**
+     * Computes the similarity of a source and a target instance as
+     * {@link #getMapping(ACache, ACache, String, String, String, double)} does
+     * for caches that only hold these two instances, without building the
+     * caches or parsing the expression. The similarity of two values is
+     * 1/(1+d) for their edit distance d, not the normalized similarity of the
+     * Levenshtein measure.
+     *
+     * @param source
+     *            Source instance
+     * @param sourceProperty
+     *            Source property
+     * @param target
+     *            Target instance
+     * @param targetProperty
+     *            Target property
+     * @param threshold
+     *            Similarity threshold
+     * @return the similarity of the instances, 0 if it is below the threshold
+     */
+    public static double getSimilarity(Instance source, String sourceProperty, Instance target,
+            String targetProperty, double threshold) {
+        // convert similarity in distance threshold
+        double distance = (1 - threshold) / threshold;
+        if (distance < 0) {
+            return 0d;
+        }
+        JoinRecords<Record> entries = JoinRecords.create(source, sourceProperty, target, targetProperty,
+                values -> qTokenizer(values, Q));
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        join(entries.records, entries.values, (int) distance, entries.uris, entries.border, mapping);
+        double similarity = mapping.getConfidence(source.getUri(), target.getUri());
+        return similarity >= threshold ? similarity : 0d;
+    }
+
+    /**
+     * Probes each record against the prefixes of the records before it and
+     * indexes its own prefix afterwards.
+     */
+    private static void join(Record[] records, String[] entries, int threshold, String[] uris, int border,
+            AMapping mapping) {
         HashMap<Integer, LinkedList<EdPosition>> index = new HashMap<Integer, LinkedList<EdPosition>>(); // I
-        int count = 0;
         // run the core of EdJoin
-        String id1, id2;
         for (int i = 0; i < records.length; i++) {
             /*
              * if the length of a record is smaller than q, then we cannot use
@@ -452,48 +523,11 @@ public class EDJoinMapper extends AMapper {
              * filtering
              */
             if (records[i].qGrams.length == 0 && records[i].s.length() > 0) {
-                String x = records[i].s;
-                for (int j = i + 1; j < records.length; j++) {
-                    if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))
-                            || (targetMap.containsKey(records[i].id) && sourceMap.containsKey(records[j].id))) {
-                        String y = records[j].s;
-
-                        // length filtering
-                        if (Math.abs(x.length() - y.length()) <= threshold) {
-                            int ed = editDistance(x, y);
-                            if (ed <= threshold) {
-                                if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))) {
-                                    id1 = sourceMap.get(records[i].id);
-                                    id2 = targetMap.get(records[j].id);
-                                    // CORRECT
-                                    // if ((1.0 / (1 + (double) ed)) >=
-                                    // threshold)
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                } else // should not be necessary
-                                {
-                                    // get uris for ids
-                                    {
-                                        id1 = sourceMap.get(records[j].id);
-                                        id2 = targetMap.get(records[i].id);
-
-                                        // CORRECT
-                                        // if ((1.0 / (1 + (double) ed)) >=
-                                        // threshold)
-                                        mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                        // mapping.add(id2, id1, similarity);
-                                    }
-                                }
-                                count++;
-                            }
-                        } else {
-                            break;
-                        }
-                    }
-                }
+                compareShortRecord(records, i, threshold, uris, border, mapping);
             } else {
                 HashMap<Integer, Record> candidates = new HashMap<Integer, Record>(); // A
                 Record currentRec = records[i]; // record x
-                int prefixLength = calcPrefixLen(currentRec, (int) threshold, Q);
+                int prefixLength = calcPrefixLen(currentRec, threshold, Q);
                 for (int j = 0; j < prefixLength; j++) {
                     Integer tokenID = currentRec.qGrams[j].token.id; // w
                     Integer loc = currentRec.qGrams[j].loc; // locx
@@ -501,39 +535,161 @@ public class EDJoinMapper extends AMapper {
                     if (l != null) {
                         Iterator<EdPosition> iter = l.iterator();
                         while (iter.hasNext()) {
-                            EdPosition pos = iter.next();
-                            if (pos.record.qGrams.length >= currentRec.qGrams.length - threshold
-                                    && candidates.get(pos.record.id) == null) {
-                                if (Math.abs(loc - pos.EdPosition) <= threshold) {
-                                    candidates.put(pos.record.id, pos.record);
-                                }
-                            }
+                            addCandidate(currentRec, loc, iter.next(), candidates, threshold);
                         }
-                        l.add(new EdPosition(currentRec, loc)); // index the
+                        l.add(new EdPosition(currentRec, loc, i)); // index the
                         // current
                         // prefix
                     } else {
                         l = new LinkedList<EdPosition>();
-                        l.add(new EdPosition(currentRec, loc));
+                        l.add(new EdPosition(currentRec, loc, i));
                         index.put(tokenID, l);
                     }
                 }
                 if (candidates.size() > 0) {
-                    count = count + verification(currentRec, candidates, entries, Q, (int) threshold);
+                    verification(currentRec, candidates, entries, Q, threshold, uris, border, mapping);
                 }
             }
         }
-        /*
-         * AMapping tempMapping = MappingFactory.createDefaultMapping(); for
-         * (String key : mapping.getMap().keySet()) { for (String value :
-         * mapping.getMap().get(key).keySet()) { double confidence =
-         * mapping.getConfidence(key, value); if (confidence < threshold) {
-         * tempMapping.add(key, value, confidence); } } } mapping = tempMapping;
-         */
+    }
+
+    /**
+     * Indexes the prefixes of all records and probes the records in chunks
+     * with several threads. The index is read-only while the records are
+     * probed, and each record only sees the positions of the records before
+     * it, as in the sequential join. Thus, both joins return the same
+     * mapping.
+     */
+    private static AMapping join(Record[] records, String[] entries, int threshold, String[] uris,
+            int border, int workers) {
+        HashMap<Integer, ArrayList<EdPosition>> index = new HashMap<Integer, ArrayList<EdPosition>>();
+        int[] prefixLengths = new int[records.length];
+        for (int i = 0; i < records.length; i++) {
+            Record r = records[i];
+            if (r.qGrams.length == 0 && r.s.length() > 0) {
+                continue;
+            }
+            prefixLengths[i] = calcPrefixLen(r, threshold, Q);
+            for (int j = 0; j < prefixLengths[i]; j++) {
+                index.computeIfAbsent(r.qGrams[j].token.id, id -> new ArrayList<EdPosition>())
+                        .add(new EdPosition(r, r.qGrams[j].loc, i));
+            }
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("edjoin", workers);
+        try {
+            List<Future<AMapping>> results = new ArrayList<Future<AMapping>>();
+            for (int i = 0; i < workers; i++) {
+                results.add(job.submit(() -> probeChunks(records, prefixLengths, index, entries, threshold, uris,
+                        border, nextChunk)));
+            }
+            AMapping result = MappingFactory.createDefaultMapping();
+            for (Future<AMapping> f : results) {
+                // a pair can be found by several workers, add keeps the
+                // highest similarity as the sequential join does
+                AMapping m = job.join(f);
+                for (String s : m.getMap().keySet()) {
+                    for (Map.Entry<String, Double> t : m.getMap().get(s).entrySet()) {
+                        result.add(s, t.getKey(), t.getValue());
+                    }
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while joining the records");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
+        }
+    }
 
+    /**
+     * Probes the chunks of records until all chunks are taken.
+     */
+    private static AMapping probeChunks(Record[] records, int[] prefixLengths,
+            HashMap<Integer, ArrayList<EdPosition>> index, String[] entries, int threshold, String[] uris,
+            int border, AtomicInteger nextChunk) {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (int chunk = nextChunk.getAndIncrement(); chunk * CHUNK_SIZE < records.length; chunk = nextChunk
+                .getAndIncrement()) {
+            int end = Math.min(records.length, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                Record currentRec = records[i];
+                if (currentRec.qGrams.length == 0 && currentRec.s.length() > 0) {
+                    compareShortRecord(records, i, threshold, uris, border, mapping);
+                    continue;
+                }
+                HashMap<Integer, Record> candidates = new HashMap<Integer, Record>();
+                for (int j = 0; j < prefixLengths[i]; j++) {
+                    ArrayList<EdPosition> l = index.get(currentRec.qGrams[j].token.id);
+                    for (EdPosition pos : l) {
+                        if (pos.ordinal >= i) {
+                            break;
+                        }
+                        addCandidate(currentRec, currentRec.qGrams[j].loc, pos, candidates, threshold);
+                    }
+                }
+                if (candidates.size() > 0) {
+                    verification(currentRec, candidates, entries, Q, threshold, uris, border, mapping);
+                }
+            }
+        }
         return mapping;
     }
 
+    /**
+     * Adds the record at an index position to the candidates if it passes
+     * the length and the position filter.
+     */
+    private static void addCandidate(Record currentRec, int loc, EdPosition pos, HashMap<Integer, Record> candidates,
+            int threshold) {
+        if (pos.record.qGrams.length >= currentRec.qGrams.length - threshold
+                && candidates.get(pos.record.id) == null) {
+            if (Math.abs(loc - pos.EdPosition) <= threshold) {
+                candidates.put(pos.record.id, pos.record);
+            }
+        }
+    }
+
+    /**
+     * Compares a record that is shorter than q with the records after it,
+     * without q-gram filtering.
+     */
+    private static void compareShortRecord(Record[] records, int i, int threshold, String[] uris, int border,
+            AMapping mapping) {
+        String id1, id2;
+        String x = records[i].s;
+        boolean isSource = records[i].id < border;
+        for (int j = i + 1; j < records.length; j++) {
+            if (isSource != records[j].id < border) {
+                String y = records[j].s;
+
+                // length filtering
+                if (Math.abs(x.length() - y.length()) <= threshold) {
+                    int ed = editDistance(x, y);
+                    if (ed <= threshold) {
+                        if (isSource) {
+                            id1 = uris[records[i].id];
+                            id2 = uris[records[j].id];
+                        } else {
+                            id1 = uris[records[j].id];
+                            id2 = uris[records[i].id];
+                        }
+                        // CORRECT
+                        // if ((1.0 / (1 + (double) ed)) >=
+                        // threshold)
+                        mapping.add(id1, id2, 1.0 / (1 + (double) ed));
+                    }
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
     @Override
     public double getRuntimeApproximation(int sourceSize, int targetSize, double theta, Language language) {
         if (language.equals(Language.DE)) {
@@ -598,9 +754,14 @@ class EdPosition {
 
     Record record = null;
     int EdPosition = -1;
+    /**
+     * Index of the record in the sorted records
+     */
+    int ordinal = -1;
 
-    public EdPosition(Record record, int EdPosition) {
+    public EdPosition(Record record, int EdPosition, int ordinal) {
         this.record = record;
         this.EdPosition = EdPosition;
+        this.ordinal = ordinal;
     }
 }
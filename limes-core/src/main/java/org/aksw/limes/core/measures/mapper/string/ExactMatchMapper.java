@@ -10,6 +10,7 @@ import java.util.TreeSet;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
@@ -45,6 +46,34 @@ public class ExactMatchMapper extends AMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        getMapping(source, target, sourceVar, targetVar, expression, threshold, m::add);
+        return m;
+    }
+
+    /**
+     * Computes the links between a source and a target and passes each link
+     * to a consumer as soon as it is found.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Variable for the source dataset
+     * @param targetVar
+     *            Variable for the target dataset
+     * @param expression
+     *            Expression to process.
+     * @param threshold
+     *            Similarity threshold
+     * @param consumer
+     *            Consumer of the links between the source instances and the
+     *            target instances
+     */
+    @Override
+    public void getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, LinkConsumer consumer) {
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
@@ -56,16 +85,14 @@ public class ExactMatchMapper extends AMapper {
         }
         Map<String, Set<String>> sourceIndex = getValueToUriMap(source, properties.get(0));
         Map<String, Set<String>> targetIndex = getValueToUriMap(target, properties.get(1));
-        AMapping m = MappingFactory.createDefaultMapping();
         boolean swapped = sourceIndex.keySet().size() > targetIndex.keySet().size();
         (!swapped ? sourceIndex : targetIndex).keySet().stream().filter(!swapped ? targetIndex::containsKey : sourceIndex::containsKey).forEach(value -> {
             for (String sourceUri : sourceIndex.get(value)) {
                 for (String targetUri : targetIndex.get(value)) {
-                    m.add(sourceUri, targetUri, 1d);
+                    consumer.accept(sourceUri, targetUri, 1d);
                 }
             }
         });
-        return m;
     }
 
     public Map<String, Set<String>> index(ACache c, String property) {
@@ -82,6 +109,15 @@ public class ExactMatchMapper extends AMapper {
         return index;
     }
 
+    /**
+     * The mapper returns every pair whose similarity reaches the threshold,
+     * with similarities that do not depend on it.
+     */
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
     @Override
     public String getName() {
         return "exactMatch";
@@ -6,8 +6,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -17,9 +17,13 @@ import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
 import org.aksw.limes.core.measures.measure.string.JaroWinklerMeasure;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 /**
  * Mapper for bounded Jaro-Winkler distances using an efficient
@@ -27,6 +31,8 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 public class JaroWinklerMapper extends AMapper {
 
+    static Logger logger = LoggerFactory.getLogger(JaroWinklerMapper.class);
+
     /**
      * Computes a mapping between a source and a target.
      *
@@ -113,20 +119,25 @@ public class JaroWinklerMapper extends AMapper {
         // setting up parallel execution of matching
 
         ConcurrentHashMap<String, Map<String, Double>> similarityBook = new ConcurrentHashMap<>(listA.size(), 1.0f);
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        // instantiate and queue up workers
-        for (Pair<List<String>, List<String>> tempPair : partitions) {
-            Runnable worker = new TrieFilter(tempPair, similarityBook, metric.clone(), threshold);
-            executor.execute(worker);
-        }
-        // wait for threads in pool
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob(getName());
+        try {
+            // instantiate and queue up workers
+            List<Future<?>> results = new ArrayList<>();
+            for (Pair<List<String>, List<String>> tempPair : partitions) {
+                results.add(job.submit(new TrieFilter(tempPair, similarityBook, metric.clone(), threshold)));
+            }
+            // wait for the workers
+            for (Future<?> result : results) {
+                job.join(result);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while computing the Jaro-Winkler similarities");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
         }
         // return result
 
@@ -0,0 +1,126 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
+import org.aksw.limes.core.io.cache.Instance;
+
+/**
+ * The property values of a source and a target cache as entries of a join,
+ * with the records of the tokenized entries. The source entries come first:
+ * entry i is a value of the instance uris[i], which is a source instance iff
+ * i &lt; border. The records must not be modified, so that they can be shared
+ * through an {@link IndexRegistry}.
+ *
+ * @param <R>
+ *            Record class of the join
+ */
+class JoinRecords<R> {
+
+    final String[] values;
+    final String[] uris;
+    final int border;
+    final R[] records;
+
+    private JoinRecords(String[] values, String[] uris, int border, Function<String[], R[]> tokenizer) {
+        this.values = values;
+        this.uris = uris;
+        this.border = border;
+        this.records = tokenizer.apply(values);
+    }
+
+    /**
+     * Reads the entries of a source and a target property and tokenizes
+     * them.
+     *
+     * @param source
+     *            Source cache
+     * @param sourceProperty
+     *            Source property
+     * @param target
+     *            Target cache
+     * @param targetProperty
+     *            Target property
+     * @param tokenizer
+     *            Tokenizes the entries into records whose ids are the
+     *            indexes of the entries
+     * @param <R>
+     *            Record class of the join
+     * @return the entries and records
+     */
+    static <R> JoinRecords<R> create(ACache source, String sourceProperty, ACache target, String targetProperty,
+            Function<String[], R[]> tokenizer) {
+        ArrayList<String> entries = new ArrayList<String>();
+        ArrayList<String> entryUris = new ArrayList<String>();
+        addEntries(source, sourceProperty, entries, entryUris);
+        int border = entries.size();
+        addEntries(target, targetProperty, entries, entryUris);
+        return new JoinRecords<R>(entries.toArray(new String[entries.size()]),
+                entryUris.toArray(new String[entryUris.size()]), border, tokenizer);
+    }
+
+    /**
+     * Reads the entries of a source and a target instance and tokenizes them,
+     * as {@link #create(ACache, String, ACache, String, Function)} does for
+     * caches that only hold these instances.
+     *
+     * @param source
+     *            Source instance
+     * @param sourceProperty
+     *            Source property
+     * @param target
+     *            Target instance
+     * @param targetProperty
+     *            Target property
+     * @param tokenizer
+     *            Tokenizes the entries into records whose ids are the
+     *            indexes of the entries
+     * @param <R>
+     *            Record class of the join
+     * @return the entries and records
+     */
+    static <R> JoinRecords<R> create(Instance source, String sourceProperty, Instance target,
+            String targetProperty, Function<String[], R[]> tokenizer) {
+        ArrayList<String> entries = new ArrayList<String>();
+        ArrayList<String> entryUris = new ArrayList<String>();
+        addEntries(source, sourceProperty, entries, entryUris);
+        int border = entries.size();
+        addEntries(target, targetProperty, entries, entryUris);
+        return new JoinRecords<R>(entries.toArray(new String[entries.size()]),
+                entryUris.toArray(new String[entryUris.size()]), border, tokenizer);
+    }
+
+    private static void addEntries(ACache cache, String property, ArrayList<String> entries,
+            ArrayList<String> entryUris) {
+        for (String uri : cache.getAllUris()) {
+            addEntries(cache.getInstance(uri), property, entries, entryUris);
+        }
+    }
+
+    private static void addEntries(Instance instance, String property, ArrayList<String> entries,
+            ArrayList<String> entryUris) {
+        for (String s : instance.getProperty(property)) {
+            entryUris.add(instance.getUri());
+            entries.add(s);
+        }
+    }
+
+    /**
+     * Estimates the footprint of the entries and records. The URIs are
+     * shared with the caches and not counted.
+     *
+     * @param recordFootprint
+     *            Estimates the footprint of a record
+     * @return estimated size in bytes
+     */
+    long getFootprint(ToLongFunction<R> recordFootprint) {
+        long size = 64 + 24L * values.length;
+        for (int i = 0; i < values.length; i++) {
+            size += IndexRegistry.footprint(values[i]) + recordFootprint.applyAsLong(records[i]);
+        }
+        return size;
+    }
+}
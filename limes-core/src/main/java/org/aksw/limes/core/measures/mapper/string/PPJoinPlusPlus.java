@@ -9,11 +9,16 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
@@ -22,6 +27,7 @@ import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -38,10 +44,15 @@ class Position {
 
     Record record = null;
     int position = -1;
+    /**
+     * Index of the record in the sorted records
+     */
+    int ordinal = -1;
 
-    public Position(Record record, int position) {
+    public Position(Record record, int position, int ordinal) {
         this.record = record;
         this.position = position;
+        this.ordinal = ordinal;
     }
 }
 
@@ -107,6 +118,13 @@ public class PPJoinPlusPlus extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(PPJoinPlusPlus.class);
     private static final int MAX_DEPTH = 2;
+    /**
+     * Number of records that a thread probes at once
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    // 0 means as many threads as the shared compute scheduler has
+    private int threads = 0;
 
     /**
      * Berechnet die Überlappung zwischen zwei Datensätzen mithilfe ihrer Tokens
@@ -314,6 +332,15 @@ public class PPJoinPlusPlus extends AMapper {
         return records;
     }
 
+    /**
+     * The mapper returns every pair whose similarity reaches the threshold,
+     * with similarities that do not depend on it.
+     */
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
     public String getName() {
         return "PPJoinPlusPlus";
     }
@@ -340,8 +367,6 @@ public class PPJoinPlusPlus extends AMapper {
             double threshold) {
 
         AMapping mapping;
-        HashMap<Integer, String> sourceMap;
-        HashMap<Integer, String> targetMap;
         IStringMeasure measure = null;
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
@@ -412,46 +437,15 @@ public class PPJoinPlusPlus extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        // 3.1 fill objects from source in entry
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<>();
-        ArrayList<String> uris = source.getAllUris();
-        ArrayList<String> entries = new ArrayList<>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property1)) {
-                sourceMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
-        }
-
-        // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property2)) {
-                targetMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
-        }
-
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
-        }
-
-        Record[] records = tokenizer(entryArray);
-        HashMap<Integer, LinkedList<Position>> index = new HashMap<Integer, LinkedList<Position>>(); // I
-
-        if (threshold == 0) {
-        } else {
-        }
+        // 3. fill the entries with the objects from source and target and
+        // tokenize them, the records are shared with other mappers if the
+        // caches have an index registry
+        String sourceProperty = property1, targetProperty = property2;
+        JoinRecords<Record> entries = IndexRegistry.getIndex(source, sourceProperty, target, targetProperty,
+                "ppjoin-words",
+                () -> JoinRecords.create(source, sourceProperty, target, targetProperty, PPJoinPlusPlus::tokenizer),
+                e -> e.getFootprint(r -> 48 + 28L * r.tokens.length));
+        Record[] records = entries.records;
 
         MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
         measure = (IStringMeasure) MeasureFactory.createMeasure(type);
@@ -462,98 +456,275 @@ public class PPJoinPlusPlus extends AMapper {
             logger.error(MarkerFactory.getMarker("FATAL"), "Metric is null. Exiting.");
             throw new RuntimeException();
         }
+        int workers = Math.max(1, Math.min(getThreads(), (records.length + CHUNK_SIZE - 1) / CHUNK_SIZE));
+        if (workers == 1) {
+            join(records, measure, threshold, entries.uris, entries.border, mapping);
+        } else {
+            mapping = join(records, measure, threshold, entries.uris, entries.border, workers);
+        }
+        // logger.info("Mapping carried out using " + comparisons + "
+        // comparisons.");
+        AMapping tempMapping = MappingFactory.createDefaultMapping();
+        for (String key : mapping.getMap().keySet()) {
+            for (String value : mapping.getMap().get(key).keySet()) {
+                double confidence = mapping.getConfidence(key, value);
+                if (confidence >= threshold) {
+                    tempMapping.add(key, value, confidence);
+                }
+            }
+        }
+        mapping = tempMapping;
+        return mapping;
+    }
+
+    /**
+     * Sets the number of threads that probe the records against the prefix
+     * index. With one thread, the records are probed and indexed in turn.
+     * With more threads, the prefixes of all records are indexed first and
+     * the records are probed in chunks. Both return the same mapping. By
+     * default, the mapper uses as many threads as the shared
+     * {@link ComputeScheduler} has, see
+     * {@link ComputeScheduler#PARALLELISM_PROPERTY}. The tasks run on the
+     * scheduler, thus they never use more threads than it has.
+     *
+     * @param threads
+     *            Number of threads, 0 to use the parallelism of the scheduler
+     */
+    public void setThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("Number of threads must not be negative: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * @return the number of threads that probe the records
+     */
+    public int getThreads() {
+        return threads > 0 ? threads : ComputeScheduler.getInstance().getParallelism();
+    }
+
+    /**
+     * Computes the similarity of a source and a target instance as
+     * {@link #getMapping(ACache, ACache, String, String, String, double)} does
+     * for caches that only hold these two instances, without building the
+     * caches or parsing the expression. The tokens are ordered by their
+     * frequency in the values of the two instances, thus the similarity can
+     * differ from the one of the measure.
+     *
+     * @param source
+     *            Source instance
+     * @param sourceProperty
+     *            Source property
+     * @param target
+     *            Target instance
+     * @param targetProperty
+     *            Target property
+     * @param measure
+     *            Cosine, Jaccard or overlap measure
+     * @param threshold
+     *            Similarity threshold
+     * @return the similarity of the instances, 0 if it is below the threshold
+     */
+    public static double getSimilarity(Instance source, String sourceProperty, Instance target,
+            String targetProperty, IStringMeasure measure, double threshold) {
+        if (threshold <= 0) {
+            throw new InvalidThresholdException(threshold);
+        }
+        JoinRecords<Record> entries = JoinRecords.create(source, sourceProperty, target, targetProperty,
+                PPJoinPlusPlus::tokenizer);
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        join(entries.records, measure, threshold, entries.uris, entries.border, mapping);
+        double similarity = mapping.getConfidence(source.getUri(), target.getUri());
+        return similarity >= threshold ? similarity : 0d;
+    }
+
+    /**
+     * Probes each record against the prefixes of the records before it and
+     * indexes its own prefix afterwards.
+     */
+    private static void join(Record[] records, IStringMeasure measure, double threshold, String[] uris, int border,
+            AMapping mapping) {
+        HashMap<Integer, LinkedList<Position>> index = new HashMap<Integer, LinkedList<Position>>(); // I
+        int[] prefixLengths = new int[records.length];
+        int[] midPrefixes = new int[records.length];
         for (int i = 0; i < records.length; i++) {
             HashMap<Record, CandidateInfo> candidates = new HashMap<Record, CandidateInfo>(); // A
             Record currentRec = records[i]; // record x
             int tokensNumber = currentRec.tokens.length; // |x|
+            double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
 
-            currentRec.prefixLength = measure.getPrefixLength(tokensNumber, threshold);
-            currentRec.midPrefix = measure.getMidLength(tokensNumber, threshold);
+            prefixLengths[currentRec.id] = measure.getPrefixLength(tokensNumber, threshold);
+            midPrefixes[currentRec.id] = measure.getMidLength(tokensNumber, threshold);
 
-            for (int j = 0; j < currentRec.tokens.length && j < currentRec.prefixLength; j++) {
+            for (int j = 0; j < currentRec.tokens.length && j < prefixLengths[currentRec.id]; j++) {
                 Integer tokenID = currentRec.tokens[j].id;
                 LinkedList<Position> l = index.get(tokenID);
                 if (l != null) {
                     Iterator<Position> iter = l.iterator();
                     while (iter.hasNext()) {
                         Position pos = iter.next();
-                        double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
-
-                        int tokensNumber2 = pos.record.tokens.length; // |y|
-                        if (tokensNumber2 >= sizeFilteringThreshold) { // size
+                        if (pos.record.tokens.length >= sizeFilteringThreshold) { // size
                             // filtering
                             // on |y|
-                            int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
-                            int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - pos.position - 1);
-
-                            CandidateInfo cf = candidates.get(pos.record);
-                            if (cf == null) {
-                                if (ubound >= alpha) {
-                                    // differs from paper because count starts
-                                    // at 0 not 1
-                                    int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
-                                    int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, pos.record,
-                                            pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
-                                    if (H <= H_max) {
-                                        candidates.put(pos.record, new CandidateInfo(1, alpha));
-                                    } else {
-                                        candidates.put(pos.record, new CandidateInfo(Integer.MIN_VALUE, alpha));
-                                    }
-                                }
-                            } else {
-                                if (cf.currentOverlap + ubound >= alpha) {
-                                    if (cf.currentOverlap == 0) {
-                                        int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
-                                        int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1,
-                                                pos.record, pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
-                                        if (H <= H_max) {
-                                            cf.currentOverlap++; // a++;
-                                        } else {
-                                            cf.currentOverlap = Integer.MIN_VALUE;
-                                        }
-                                    } else {
-                                        cf.currentOverlap++; // a++;
-                                    }
-                                } else {
-                                    cf.currentOverlap = 0; // prune candidate
-                                }
-                            }
+                            addCandidate(currentRec, j, pos, candidates, measure, threshold);
                         } else {
                             iter.remove();
                         }
                     }
 
-                    if (j < currentRec.midPrefix) {
-                        l.add(new Position(currentRec, j)); // index the current
-                        // prefix
+                    if (j < midPrefixes[currentRec.id]) {
+                        l.add(new Position(currentRec, j, i)); // index the
+                        // current prefix
                     }
                 } else {
-                    if (j < currentRec.midPrefix) {
+                    if (j < midPrefixes[currentRec.id]) {
                         LinkedList<Position> temp = new LinkedList<Position>();
-                        temp.add(new Position(currentRec, j));
+                        temp.add(new Position(currentRec, j, i));
                         index.put(tokenID, temp);
                     }
                 }
             }
-            verification(currentRec, candidates, mapping, sourceMap, targetMap, measure);
+            verification(currentRec, candidates, mapping, uris, border, measure, prefixLengths, midPrefixes);
         }
-        // logger.info("Mapping carried out using " + comparisons + "
-        // comparisons.");
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : mapping.getMap().keySet()) {
-            for (String value : mapping.getMap().get(key).keySet()) {
-                double confidence = mapping.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
+    }
+
+    /**
+     * Indexes the prefixes of all records and probes the records in chunks
+     * with several threads. The index is read-only while the records are
+     * probed, and each record only sees the positions of the records before
+     * it. A position that the sequential join drops by size filtering fails
+     * the size filter of all later records as well, because the records are
+     * sorted by their number of tokens. Thus, both joins return the same
+     * mapping.
+     */
+    private static AMapping join(Record[] records, IStringMeasure measure, double threshold, String[] uris,
+            int border, int workers) {
+        HashMap<Integer, ArrayList<Position>> index = new HashMap<Integer, ArrayList<Position>>();
+        int[] prefixLengths = new int[records.length];
+        int[] midPrefixes = new int[records.length];
+        for (int i = 0; i < records.length; i++) {
+            Record r = records[i];
+            prefixLengths[r.id] = measure.getPrefixLength(r.tokens.length, threshold);
+            midPrefixes[r.id] = measure.getMidLength(r.tokens.length, threshold);
+            for (int j = 0; j < r.tokens.length && j < prefixLengths[r.id] && j < midPrefixes[r.id]; j++) {
+                index.computeIfAbsent(r.tokens[j].id, id -> new ArrayList<Position>()).add(new Position(r, j, i));
+            }
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("ppjoin+", workers);
+        try {
+            List<Future<AMapping>> results = new ArrayList<Future<AMapping>>();
+            for (int i = 0; i < workers; i++) {
+                results.add(job.submit(() -> probeChunks(records, index, measure, threshold, uris, border,
+                        prefixLengths, midPrefixes, nextChunk)));
+            }
+            AMapping result = MappingFactory.createDefaultMapping();
+            for (Future<AMapping> f : results) {
+                // a pair can be found by several workers, add keeps the
+                // highest similarity as the sequential join does
+                AMapping m = job.join(f);
+                for (String s : m.getMap().keySet()) {
+                    for (Map.Entry<String, Double> t : m.getMap().get(s).entrySet()) {
+                        result.add(s, t.getKey(), t.getValue());
+                    }
                 }
             }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while joining the records");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Probes the chunks of records until all chunks are taken.
+     */
+    private static AMapping probeChunks(Record[] records, HashMap<Integer, ArrayList<Position>> index,
+            IStringMeasure measure, double threshold, String[] uris, int border, int[] prefixLengths,
+            int[] midPrefixes, AtomicInteger nextChunk) {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (int chunk = nextChunk.getAndIncrement(); chunk * CHUNK_SIZE < records.length; chunk = nextChunk
+                .getAndIncrement()) {
+            int end = Math.min(records.length, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                HashMap<Record, CandidateInfo> candidates = new HashMap<Record, CandidateInfo>();
+                Record currentRec = records[i];
+                double sizeFilteringThreshold = measure.getSizeFilteringThreshold(currentRec.tokens.length,
+                        threshold);
+                for (int j = 0; j < currentRec.tokens.length && j < prefixLengths[currentRec.id]; j++) {
+                    ArrayList<Position> l = index.get(currentRec.tokens[j].id);
+                    if (l == null) {
+                        continue;
+                    }
+                    for (Position pos : l) {
+                        if (pos.ordinal >= i) {
+                            break;
+                        }
+                        if (pos.record.tokens.length >= sizeFilteringThreshold) {
+                            addCandidate(currentRec, j, pos, candidates, measure, threshold);
+                        }
+                    }
+                }
+                verification(currentRec, candidates, mapping, uris, border, measure, prefixLengths, midPrefixes);
+            }
         }
-        mapping = tempMapping;
         return mapping;
     }
 
-    private int verification(Record currentRec, HashMap<Record, CandidateInfo> candidates, AMapping mapping,
-            HashMap<Integer, String> sourceMap, HashMap<Integer, String> targetMap, IStringMeasure measure) {
+    /**
+     * Updates the candidate of the record at an index position with the
+     * j-th prefix token of the current record, applying the positional and
+     * the suffix filter.
+     */
+    private static void addCandidate(Record currentRec, int j, Position pos, HashMap<Record, CandidateInfo> candidates,
+            IStringMeasure measure, double threshold) {
+        int tokensNumber = currentRec.tokens.length; // |x|
+        int tokensNumber2 = pos.record.tokens.length; // |y|
+        int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
+        int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - pos.position - 1);
+
+        CandidateInfo cf = candidates.get(pos.record);
+        if (cf == null) {
+            if (ubound >= alpha) {
+                // differs from paper because count starts
+                // at 0 not 1
+                int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
+                int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, pos.record, pos.position + 1,
+                        pos.record.tokens.length - 1, H_max, 1);
+                if (H <= H_max) {
+                    candidates.put(pos.record, new CandidateInfo(1, alpha));
+                } else {
+                    candidates.put(pos.record, new CandidateInfo(Integer.MIN_VALUE, alpha));
+                }
+            }
+        } else {
+            if (cf.currentOverlap + ubound >= alpha) {
+                if (cf.currentOverlap == 0) {
+                    int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
+                    int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, pos.record,
+                            pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
+                    if (H <= H_max) {
+                        cf.currentOverlap++; // a++;
+                    } else {
+                        cf.currentOverlap = Integer.MIN_VALUE;
+                    }
+                } else {
+                    cf.currentOverlap++; // a++;
+                }
+            } else {
+                cf.currentOverlap = 0; // prune candidate
+            }
+        }
+    }
+
+    private static int verification(Record currentRec, HashMap<Record, CandidateInfo> candidates, AMapping mapping,
+            String[] uris, int border, IStringMeasure measure, int[] prefixLengths, int[] midPrefixes) {
         int count = 0;
         String id1, id2;
 
@@ -563,53 +734,55 @@ public class PPJoinPlusPlus extends AMapper {
             if (value.currentOverlap > 0) {
                 Record key = (Record) e.getKey();
                 int overlap = value.currentOverlap;
-                Token wx = currentRec.tokens[currentRec.prefixLength - 1];
+                int prefixLength = prefixLengths[currentRec.id];
+                int midPrefix = midPrefixes[key.id];
+                Token wx = currentRec.tokens[prefixLength - 1];
                 // Token wy = key.tokens[key.prefixLength - 1];
-                Token wy = key.tokens[key.midPrefix - 1];
+                Token wy = key.tokens[midPrefix - 1];
                 int compRes = wx.compareTo(wy);
                 if (compRes < 0) {
-                    int ubound = value.currentOverlap + currentRec.tokens.length - currentRec.prefixLength;
+                    int ubound = value.currentOverlap + currentRec.tokens.length - prefixLength;
                     if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, currentRec.prefixLength, key, value.currentOverlap);
+                        overlap += overlap(currentRec, prefixLength, key, value.currentOverlap);
                     }
                 } else if (compRes > 0) {
                     int ubound = value.currentOverlap + key.tokens.length
                             - /*
                                * key.prefixLength
-                               */ key.midPrefix;
+                               */ midPrefix;
                     if (ubound >= value.alpha) {
                         overlap += overlap(currentRec, value.currentOverlap, key,
                                 /*
                                  * key.prefixLength
-                                 */ key.midPrefix);
+                                 */ midPrefix);
                     }
                 } else { // Fehler in Pseudocode; dieser Fall falsch behandelt
                     // --> Duplikate fehlen!
-                    int ubound = value.currentOverlap + Math.min(currentRec.tokens.length - currentRec.prefixLength,
+                    int ubound = value.currentOverlap + Math.min(currentRec.tokens.length - prefixLength,
                             key.tokens.length - /*
                                                  * key.prefixLength
-                                                 */ key.midPrefix);
+                                                 */ midPrefix);
                     if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, currentRec.prefixLength, key,
+                        overlap += overlap(currentRec, prefixLength, key,
                                 /*
                                  * key.prefixLength
-                                 */ key.midPrefix);
+                                 */ midPrefix);
                     }
                 }
                 if (overlap >= value.alpha) {
                     double similarity = measure.getSimilarity(overlap, currentRec.tokens.length, key.tokens.length);
                     // use border here instead. faster!
-                    if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(key.id))) {
-                        id1 = sourceMap.get(currentRec.id);
-                        id2 = targetMap.get(key.id);
+                    if (currentRec.id < border && key.id >= border) {
+                        id1 = uris[currentRec.id];
+                        id2 = uris[key.id];
                         // CORRECT
                         mapping.add(id1, id2, similarity);
                         // mapping.add(id2, id1, similarity);
-                    } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(key.id)) {
+                    } else if (currentRec.id >= border && key.id < border) {
                         // get uris for ids
                         {
-                            id1 = sourceMap.get(key.id);
-                            id2 = targetMap.get(currentRec.id);
+                            id1 = uris[key.id];
+                            id2 = uris[currentRec.id];
 
                             // CORRECT
                             mapping.add(id1, id2, similarity);
@@ -6,8 +6,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -18,11 +18,13 @@ import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
 import org.aksw.limes.core.measures.measure.string.RatcliffObershelpMeasure;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 public class RatcliffObershelpMapper extends AMapper {
 
@@ -109,26 +111,30 @@ public class RatcliffObershelpMapper extends AMapper {
             tempPairs.add(m);
         }
 
-        int poolSize = Runtime.getRuntime().availableProcessors();
         if (tempPairs.size() == 0) {
             return MappingFactory.createDefaultMapping();
         }
-        poolSize = poolSize > tempPairs.size() ? tempPairs.size() : poolSize;
 
-        // create thread pool, one thread per partition
-        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
-        // executor = Executors.newFixedThreadPool(1);
-        for (Pair<List<String>, List<String>> tempPair : tempPairs) {
-            Runnable worker = new TrieFilter(tempPair, similarityBook, new RatcliffObershelpMeasure(), threshold);
-            executor.execute(worker);
-        }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        // one task per partition
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob(getName());
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Pair<List<String>, List<String>> tempPair : tempPairs) {
+                results.add(job.submit(new TrieFilter(tempPair, similarityBook, new RatcliffObershelpMeasure(),
+                        threshold)));
+            }
+            for (Future<?> result : results) {
+                job.join(result);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"),
+                    "Error while computing the Ratcliff-Obershelp similarities");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
         }
 
         return getUriToUriMapping(similarityBook, sourceMap, targetMap, swapped);
@@ -6,19 +6,22 @@
 package org.aksw.limes.core.measures.mapper.string.fastngram;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
-import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -31,68 +34,168 @@ public class FastNGramMapper extends AMapper {
     static Logger logger = LoggerFactory.getLogger(FastNGramMapper.class);
     static int q = 3;
 
+    /**
+     * Number of source strings that a worker takes at a time.
+     */
+    private static final int CHUNK_SIZE = 256;
+    /**
+     * Tolerance of the size and count filters, so that pairs whose similarity
+     * is exactly the threshold are not lost to rounding errors.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Computes the pairs of source and target strings whose q-gram
+     * similarity is at least the threshold. The target strings are indexed in
+     * an {@link InvertedIndex}. The source strings are split in chunks that
+     * are processed concurrently, one worker per core, and each worker counts
+     * the q-grams shared with the candidates in its own int array.
+     *
+     * @param source
+     *            Source strings
+     * @param target
+     *            Target strings
+     * @param q
+     *            value of n for n-grams
+     * @param threshold
+     *            Similarity threshold
+     * @return Mapping of the similar source and target strings
+     */
     public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold) {
-        Index index = new Index(q);
+        return compute(source, target, q, threshold, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the pairs of source and target strings whose q-gram
+     * similarity is at least the threshold, with the given number of
+     * threads.
+     *
+     * @param source
+     *            Source strings
+     * @param target
+     *            Target strings
+     * @param q
+     *            value of n for n-grams
+     * @param threshold
+     *            Similarity threshold
+     * @param threads
+     *            Number of threads, 1 to compute the mapping in the calling
+     *            thread
+     * @return Mapping of the similar source and target strings
+     */
+    public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold, int threads) {
+        return compute(source, new InvertedIndex(target, q), threshold, threads);
+    }
+
+    /**
+     * Computes the pairs of source strings and indexed target strings whose
+     * q-gram similarity is at least the threshold, with the given number of
+     * threads.
+     *
+     * @param source
+     *            Source strings
+     * @param index
+     *            Index of the target strings
+     * @param threshold
+     *            Similarity threshold
+     * @param threads
+     *            Number of threads, 1 to compute the mapping in the calling
+     *            thread
+     * @return Mapping of the similar source and target strings
+     */
+    public static AMapping compute(Set<String> source, InvertedIndex index, double threshold, int threads) {
+        String[] sources = source.toArray(new String[source.size()]);
+        AtomicInteger nextChunk = new AtomicInteger();
+        int workers = Math.max(1, Math.min(threads, (sources.length + CHUNK_SIZE - 1) / CHUNK_SIZE));
+        if (workers == 1) {
+            return computeChunks(index, sources, threshold, nextChunk);
+        }
+        ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("fast-ngram", workers);
+        try {
+            List<Future<AMapping>> results = new ArrayList<Future<AMapping>>();
+            for (int i = 0; i < workers; i++) {
+                results.add(job.submit(() -> computeChunks(index, sources, threshold, nextChunk)));
+            }
+            AMapping result = MappingFactory.createDefaultMapping();
+            for (Future<AMapping> f : results) {
+                // the workers map disjoint source strings
+                AMapping m = job.join(f);
+                for (String s : m.getMap().keySet()) {
+                    result.add(s, m.getMap().get(s));
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while computing the q-gram similarities");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Maps the chunks of source strings until all chunks are taken.
+     */
+    private static AMapping computeChunks(InvertedIndex index, String[] sources, double threshold,
+            AtomicInteger nextChunk) {
         double kappa = (1 + threshold) / threshold;
-        QGramSimilarityMeasure sim = new QGramSimilarityMeasure(q);
         ITokenizer tokenizer = new NGramTokenizer();
-        Map<String, Set<String>> targetTokens = new HashMap<String, Set<String>>();
         AMapping result = MappingFactory.createDefaultMapping();
-        // index target
-        for (String t : target) {
-            targetTokens.put(t, index.addString(t));
-        }
-        // run similarity computation
-
-        for (String s : source) {
-            Set<Integer> allSizes = index.getAllSizes();
-            Set<String> sourceTokens = tokenizer.tokenize(s, q);
-            double sourceSize = (double) sourceTokens.size();
-            for (int size = (int) Math.ceil(sourceSize * threshold); size <= (int) Math
-                    .floor(sourceSize / threshold); size++) {
-                if (allSizes.contains(size)) {
-                    // maps tokens to strings
-                    Map<String, Set<String>> stringsOfSize = index.getStrings(size);
-                    Map<String, Integer> countMap = new HashMap<String, Integer>();
-                    for (String token : sourceTokens) {
-                        if (stringsOfSize.containsKey(token)) {
-                            // take each string and add it to the count map
-                            Set<String> candidates = stringsOfSize.get(token);
-                            for (String candidate : candidates) {
-                                if (!countMap.containsKey(candidate)) {
-                                    countMap.put(candidate, 0);
-                                }
-                                countMap.put(candidate, countMap.get(candidate) + 1);
-                            }
-                        }
+        int[] counts = new int[index.size()];
+        // candidates[0] is the number of candidates
+        int[] candidates = new int[index.size() + 1];
+        for (int chunk = nextChunk.getAndIncrement(); chunk * CHUNK_SIZE < sources.length; chunk = nextChunk
+                .getAndIncrement()) {
+            int end = Math.min(sources.length, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                String s = sources[i];
+                Set<String> sourceTokens = tokenizer.tokenize(s, index.getQ());
+                double sourceSize = (double) sourceTokens.size();
+                // the strings of the sizes allowed by the size filter have
+                // consecutive ids
+                int fromId = index.getFirstIdOfSize((int) Math.ceil(sourceSize * threshold - EPSILON));
+                int toId = index.getFirstIdOfSize((int) Math.floor(sourceSize / threshold + EPSILON) + 1);
+                if (fromId >= toId) {
+                    continue;
+                }
+                for (String token : sourceTokens) {
+                    int t = index.getTokenId(token);
+                    if (t >= 0) {
+                        index.count(t, fromId, toId, counts, candidates);
                     }
-                    // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
-                    for (String candidate : countMap.keySet()) {
-                        double count = (double) countMap.get(candidate);
-                        if (kappa * count >= (sourceSize + size)) {
-                            double similarity = sim.getSimilarity(targetTokens.get(candidate), sourceTokens);
-                            if (similarity >= threshold) {
-                                result.add(s, candidate, similarity);
-                            }
+                }
+                // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
+                for (int c = 1; c <= candidates[0]; c++) {
+                    int id = candidates[c];
+                    double count = (double) counts[id];
+                    double size = (double) index.getSize(id);
+                    counts[id] = 0;
+                    if (kappa * count >= (sourceSize + size) - EPSILON) {
+                        // the counts are the sizes of the intersections
+                        double similarity = count / (size + sourceSize - count);
+                        if (similarity >= threshold) {
+                            result.add(s, index.getString(id), similarity);
                         }
                     }
                 }
-            }
-
-        }
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : result.getMap().keySet()) {
-            for (String value : result.getMap().get(key).keySet()) {
-                double confidence = result.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
-                }
+                candidates[0] = 0;
             }
         }
-        result = tempMapping;
         return result;
     }
 
+    /**
+     * The mapper returns every pair whose similarity reaches the threshold,
+     * with similarities that do not depend on it.
+     */
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
     public String getName() {
         return "FastNGram";
     }
@@ -117,6 +220,35 @@ public class FastNGramMapper extends AMapper {
      */
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
+        AMapping result = MappingFactory.createDefaultMapping();
+        getMapping(source, target, sourceVar, targetVar, expression, threshold, result::add);
+        return result;
+    }
+
+    /**
+     * Computes the links between a source and a target and passes each link
+     * to a consumer as soon as it is expanded from the similar property
+     * values to the URIs of their instances.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Variable for the source dataset
+     * @param targetVar
+     *            Variable for the target dataset
+     * @param expression
+     *            Expression to process.
+     * @param threshold
+     *            Similarity threshold
+     * @param consumer
+     *            Consumer of the links between the source instances and the
+     *            target instances
+     */
+    @Override
+    public void getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, LinkConsumer consumer) {
 
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
@@ -187,50 +319,28 @@ public class FastNGramMapper extends AMapper {
         }
 
         /////////////////// This actually runs the algorithm
-        Map<String, Set<String>> sourceMap = new HashMap<String, Set<String>>();
-        ArrayList<String> sourceUris = source.getAllUris();
-        Map<String, Set<String>> targetMap = new HashMap<String, Set<String>>();
-        ArrayList<String> targetUris = target.getAllUris();
-
-        // index source values
-        for (String s : sourceUris) {
-            TreeSet<String> values = source.getInstance(s).getProperty(property1);
-            for (String v : values) {
-                if (!sourceMap.containsKey(v)) {
-                    sourceMap.put(v, new HashSet<String>());
-                }
-                sourceMap.get(v).add(s);
-            }
-        }
-
-        // index target values
+        // index source and target values, the indexes are shared with other
+        // mappers if the caches have an index registry
+        Map<String, Set<String>> sourceMap = getValueToUriMap(source, property1);
+        Map<String, Set<String>> targetMap = getValueToUriMap(target, property2);
         // logger.info("Indexing target values");
-        for (String t : targetUris) {
-            TreeSet<String> values = target.getInstance(t).getProperty(property2);
-            for (String v : values) {
-                if (!targetMap.containsKey(v)) {
-                    targetMap.put(v, new HashSet<String>());
-                }
-                targetMap.get(v).add(t);
-            }
-        }
+        InvertedIndex index = IndexRegistry.getIndex(target, property2, "qgrams-" + q,
+                () -> new InvertedIndex(targetMap.keySet(), q), InvertedIndex::getFootprint);
 
         // run the algorithm
         // logger.info("Computing mappings");
-        AMapping m = FastNGramMapper.compute(sourceMap.keySet(), targetMap.keySet(), q, threshold);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping m = FastNGramMapper.compute(sourceMap.keySet(), index, threshold,
+                Runtime.getRuntime().availableProcessors());
         for (String s : m.getMap().keySet()) {
             for (String t : m.getMap().get(s).keySet()) {
+                double confidence = m.getConfidence(s, t);
                 for (String sourceUri : sourceMap.get(s)) {
                     for (String targetUri : targetMap.get(t)) {
-                        result.add(sourceUri, targetUri, m.getConfidence(s, t));
+                        consumer.accept(sourceUri, targetUri, confidence);
                     }
                 }
             }
         }
-
-        return result;
-
     }
 
     public double getRuntimeApproximation(int sourceSize, int targetSize, double threshold, Language language) {
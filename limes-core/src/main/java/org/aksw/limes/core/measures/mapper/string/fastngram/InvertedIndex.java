@@ -0,0 +1,203 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.aksw.limes.core.datastrutures.StringDictionary;
+import org.aksw.limes.core.io.cache.IndexRegistry;
+
+/**
+ * Inverted index of the q-grams of a set of strings, stored in primitive
+ * arrays. The q-grams are encoded as int ids by a dictionary, and the strings
+ * are numbered by their number of q-grams, so that the strings of each size
+ * have consecutive ids. The postings of a q-gram are a sorted slice of a
+ * single int array, thus the postings of a (size, q-gram) pair are a
+ * sub-slice that is found by binary search. The index is immutable once it is
+ * built and can be queried by several threads.
+ */
+public class InvertedIndex {
+
+    private final int q;
+    private final ITokenizer tokenizer = new NGramTokenizer();
+    private final StringDictionary tokens = new StringDictionary();
+    /**
+     * Indexed strings by id, ordered by size.
+     */
+    private final String[] strings;
+    /**
+     * Number of distinct q-grams of each string.
+     */
+    private final int[] sizes;
+    /**
+     * Ids of the strings of each q-gram: the postings of q-gram i are
+     * postings[start[i]] to postings[start[i + 1] - 1].
+     */
+    private final int[] start;
+    private final int[] postings;
+
+    /**
+     * Builds the index of a set of strings.
+     *
+     * @param values
+     *            Strings to index
+     * @param q
+     *            value of n for n-grams
+     */
+    public InvertedIndex(Set<String> values, int q) {
+        this.q = q;
+        int n = values.size();
+        String[] input = values.toArray(new String[n]);
+        int[][] encoded = new int[n][];
+        int[] inputSizes = new int[n];
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            Set<String> t = tokenizer.tokenize(input[i], q);
+            encoded[i] = new int[t.size()];
+            int k = 0;
+            for (String token : t) {
+                encoded[i][k++] = tokens.add(token);
+            }
+            inputSizes[i] = t.size();
+            total += t.size();
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many q-grams to index: " + total);
+        }
+        // number the strings by size with a counting sort
+        int maxSize = 0;
+        for (int size : inputSizes) {
+            maxSize = Math.max(maxSize, size);
+        }
+        int[] firstOfSize = new int[maxSize + 2];
+        for (int size : inputSizes) {
+            firstOfSize[size + 1]++;
+        }
+        for (int size = 0; size <= maxSize; size++) {
+            firstOfSize[size + 1] += firstOfSize[size];
+        }
+        strings = new String[n];
+        sizes = new int[n];
+        int[][] byId = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int id = firstOfSize[inputSizes[i]]++;
+            strings[id] = input[i];
+            sizes[id] = inputSizes[i];
+            byId[id] = encoded[i];
+        }
+        // counting sort of the (q-gram, id) pairs by q-gram
+        start = new int[tokens.size() + 1];
+        for (int[] t : byId) {
+            for (int token : t) {
+                start[token + 1]++;
+            }
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            start[i + 1] += start[i];
+        }
+        postings = new int[(int) total];
+        int[] next = Arrays.copyOf(start, tokens.size());
+        for (int id = 0; id < n; id++) {
+            for (int token : byId[id]) {
+                postings[next[token]++] = id;
+            }
+        }
+    }
+
+    public int getQ() {
+        return q;
+    }
+
+    /**
+     * @return number of indexed strings
+     */
+    public int size() {
+        return strings.length;
+    }
+
+    public String getString(int id) {
+        return strings[id];
+    }
+
+    /**
+     * @return number of distinct q-grams of the string with the given id
+     */
+    public int getSize(int id) {
+        return sizes[id];
+    }
+
+    /**
+     * @return estimated footprint of the index in bytes, the indexed strings
+     *         are shared and not counted
+     */
+    public long getFootprint() {
+        long size = 64 + 16L * tokens.size() + 8L * strings.length + 4L * sizes.length + 4L * start.length
+                + 4L * postings.length;
+        for (int i = 0; i < tokens.size(); i++) {
+            size += IndexRegistry.footprint(tokens.getString(i));
+        }
+        return size;
+    }
+
+    /**
+     * @param token
+     *            a q-gram
+     * @return the id of the q-gram or -1 if no indexed string contains it
+     */
+    public int getTokenId(String token) {
+        return tokens.getId(token);
+    }
+
+    /**
+     * @param size
+     *            a number of q-grams
+     * @return the id of the first string with at least size q-grams, or
+     *         {@link #size()} if there is none
+     */
+    public int getFirstIdOfSize(int size) {
+        int low = 0;
+        int high = sizes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sizes[mid] < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds one to the counter of each string that contains a q-gram and whose
+     * id is in [fromId, toId). Strings whose counter was zero are appended to
+     * the candidates.
+     *
+     * @param token
+     *            id of the q-gram
+     * @param fromId
+     *            lowest id, inclusive
+     * @param toId
+     *            highest id, exclusive
+     * @param counts
+     *            counters, by string id
+     * @param candidates
+     *            ids of the strings with a non-zero counter, the first
+     *            candidates[0] entries are used, starting at index 1
+     */
+    void count(int token, int fromId, int toId, int[] counts, int[] candidates) {
+        int to = start[token + 1];
+        int i = Arrays.binarySearch(postings, start[token], to, fromId);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        for (; i < to; i++) {
+            int id = postings[i];
+            if (id >= toId) {
+                return;
+            }
+            if (counts[id]++ == 0) {
+                candidates[++candidates[0]] = id;
+            }
+        }
+    }
+}
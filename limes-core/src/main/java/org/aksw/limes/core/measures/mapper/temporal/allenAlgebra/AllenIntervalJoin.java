@@ -0,0 +1,160 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+
+/**
+ * Computes Allen's temporal relations between the events of two caches
+ * directly on their {@link TemporalEvents} columns. For each source event, the
+ * relation yields a range of target begin dates and a range of target end
+ * dates, see {@link AllenRelation#getRanges(long, long, long[])}. Both ranges
+ * are located in the sorted date columns of the targets by binary search, and
+ * only the targets in the shorter of both ranges are checked against the other
+ * range. Thus, no sets of uris are built per time stamp, and results are
+ * streamed to a {@link LinkConsumer} instead of being materialized. If one of
+ * the ranges is unbounded, e.g. for After and Before, the targets of a source
+ * event are one contiguous range of a sorted column and can be counted without
+ * enumerating them.
+ */
+public class AllenIntervalJoin {
+
+    private AllenIntervalJoin() {
+    }
+
+    /**
+     * Maps each source instance to the target instances that are in a given
+     * relation with it.
+     *
+     * @param source,
+     *            The source cache
+     * @param target,
+     *            The target cache
+     * @param expression,
+     *            The metric expression
+     * @param relation,
+     *            The Allen's relation
+     * @return a mapping, the resulting mapping
+     */
+    public static AMapping getMapping(ACache source, ACache target, String expression, AllenRelation relation) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        getMapping(source, target, expression, relation, m::add);
+        return m;
+    }
+
+    /**
+     * Passes each pair of a source instance and a target instance that are in
+     * a given relation to a consumer, with similarity 1.
+     *
+     * @param source,
+     *            The source cache
+     * @param target,
+     *            The target cache
+     * @param expression,
+     *            The metric expression
+     * @param relation,
+     *            The Allen's relation
+     * @param consumer,
+     *            The consumer of the links
+     */
+    public static void getMapping(ACache source, ACache target, String expression, AllenRelation relation,
+            LinkConsumer consumer) {
+        TemporalEvents sources = TemporalEvents.fromCache(source, expression, "source");
+        TemporalEvents targets = TemporalEvents.fromCache(target, expression, "target");
+        join(sources, targets, relation, consumer);
+    }
+
+    /**
+     * Streams the pairs of source and target events that are in a given
+     * relation.
+     *
+     * @param sources,
+     *            The source events
+     * @param targets,
+     *            The target events
+     * @param relation,
+     *            The Allen's relation
+     * @param consumer,
+     *            The consumer of the links between the uris of the events
+     */
+    public static void join(TemporalEvents sources, TemporalEvents targets, AllenRelation relation,
+            LinkConsumer consumer) {
+        long[] ranges = new long[4];
+        int[] positions = new int[4];
+        for (int s = 0; s < sources.size(); s++) {
+            if (!locate(sources, s, targets, relation, ranges, positions))
+                continue;
+            if (positions[1] - positions[0] <= positions[3] - positions[2]) {
+                // scan the targets by begin date, check their end dates
+                int[] byBegin = targets.getByBegin();
+                for (int i = positions[0]; i < positions[1]; i++) {
+                    long end = targets.getEnd(byBegin[i]);
+                    if (end >= ranges[2] && end <= ranges[3])
+                        consumer.accept(sources.getUri(s), targets.getUri(byBegin[i]), 1);
+                }
+            } else {
+                // scan the targets by end date, check their begin dates
+                int[] byEnd = targets.getByEnd();
+                for (int i = positions[2]; i < positions[3]; i++) {
+                    long begin = targets.getBegin(byEnd[i]);
+                    if (begin >= ranges[0] && begin <= ranges[1])
+                        consumer.accept(sources.getUri(s), targets.getUri(byEnd[i]), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the pairs of source and target events that are in a given
+     * relation.
+     *
+     * @param sources,
+     *            The source events
+     * @param targets,
+     *            The target events
+     * @param relation,
+     *            The Allen's relation
+     * @return the number of pairs
+     */
+    public static long count(TemporalEvents sources, TemporalEvents targets, AllenRelation relation) {
+        long[] ranges = new long[4];
+        int[] positions = new int[4];
+        long count = 0;
+        for (int s = 0; s < sources.size(); s++) {
+            if (!locate(sources, s, targets, relation, ranges, positions))
+                continue;
+            if (ranges[2] == Long.MIN_VALUE && ranges[3] == Long.MAX_VALUE) {
+                count += positions[1] - positions[0];
+            } else if (ranges[0] == Long.MIN_VALUE && ranges[1] == Long.MAX_VALUE) {
+                count += positions[3] - positions[2];
+            } else {
+                int[] byBegin = targets.getByBegin();
+                for (int i = positions[0]; i < positions[1]; i++) {
+                    long end = targets.getEnd(byBegin[i]);
+                    if (end >= ranges[2] && end <= ranges[3])
+                        count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the ranges of a source event and locates them in the sorted
+     * columns of the targets.
+     *
+     * @return false if no target can be in the relation with the source event
+     */
+    private static boolean locate(TemporalEvents sources, int s, TemporalEvents targets, AllenRelation relation,
+            long[] ranges, int[] positions) {
+        relation.getRanges(sources.getBegin(s), sources.getEnd(s), ranges);
+        if (ranges[0] > ranges[1] || ranges[2] > ranges[3])
+            return false;
+        positions[0] = TemporalEvents.lowerBound(targets.getSortedBegins(), ranges[0]);
+        positions[1] = TemporalEvents.upperBound(targets.getSortedBegins(), ranges[1]);
+        positions[2] = TemporalEvents.lowerBound(targets.getSortedEnds(), ranges[2]);
+        positions[3] = TemporalEvents.upperBound(targets.getSortedEnds(), ranges[3]);
+        return positions[0] < positions[1] && positions[2] < positions[3];
+    }
+}
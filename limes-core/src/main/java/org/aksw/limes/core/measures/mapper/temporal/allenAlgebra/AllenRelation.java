@@ -0,0 +1,128 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+/**
+ * Enum class of Allen's temporal relations between a source event s = (b(s),
+ * e(s)) and a target event t = (b(t), e(t)). Given s, each relation holds for
+ * the targets whose begin date lies in one range and whose end date lies in
+ * another range, which are computed by {@link #getRanges(long, long, long[])}.
+ * The relations are defined as in the corresponding mappers, e.g. s After t
+ * iff b(s) &gt; e(t).
+ */
+public enum AllenRelation {
+
+    // b(s) > e(t)
+    AFTER {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, MIN, MAX, MIN, begin - 1);
+        }
+    },
+    // e(s) < b(t)
+    BEFORE {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, end + 1, MAX, MIN, MAX);
+        }
+    },
+    // b(t) < b(s) and e(s) < e(t)
+    DURING {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, MIN, begin - 1, end + 1, MAX);
+        }
+    },
+    // b(s) < b(t) and e(t) < e(s)
+    DURING_REVERSE {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, begin + 1, MAX, MIN, end - 1);
+        }
+    },
+    // b(s) = b(t) and e(s) = e(t)
+    EQUALS {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, begin, begin, end, end);
+        }
+    },
+    // b(t) < b(s) and e(s) = e(t)
+    FINISHES {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, MIN, begin - 1, end, end);
+        }
+    },
+    // b(s) < b(t) and e(s) = e(t)
+    IS_FINISHED_BY {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, begin + 1, MAX, end, end);
+        }
+    },
+    // b(s) = e(t)
+    IS_MET_BY {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, MIN, MAX, begin, begin);
+        }
+    },
+    // b(t) < b(s) < e(t) < e(s)
+    IS_OVERLAPPED_BY {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, MIN, begin - 1, begin + 1, end - 1);
+        }
+    },
+    // b(s) = b(t) and e(t) < e(s)
+    IS_STARTED_BY {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, begin, begin, MIN, end - 1);
+        }
+    },
+    // e(s) = b(t)
+    MEETS {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, end, end, MIN, MAX);
+        }
+    },
+    // b(s) < b(t) < e(s) < e(t)
+    OVERLAPS {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, begin + 1, end - 1, end + 1, MAX);
+        }
+    },
+    // b(s) = b(t) and e(s) < e(t)
+    STARTS {
+        @Override
+        public void getRanges(long begin, long end, long[] ranges) {
+            set(ranges, begin, begin, end + 1, MAX);
+        }
+    };
+
+    private static final long MIN = Long.MIN_VALUE;
+    private static final long MAX = Long.MAX_VALUE;
+
+    private static void set(long[] ranges, long beginFrom, long beginTo, long endFrom, long endTo) {
+        ranges[0] = beginFrom;
+        ranges[1] = beginTo;
+        ranges[2] = endFrom;
+        ranges[3] = endTo;
+    }
+
+    /**
+     * Computes the ranges of the begin and end dates of the target events that
+     * are in this relation with a source event. Both ranges are inclusive.
+     *
+     * @param begin,
+     *            the begin date of the source event
+     * @param end,
+     *            the end date of the source event
+     * @param ranges,
+     *            output array of length 4: the lowest and highest begin date
+     *            and the lowest and highest end date of the target events
+     */
+    public abstract void getRanges(long begin, long end, long[] ranges);
+}
@@ -0,0 +1,216 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.AAtomicAllenAlgebraMapper;
+import org.aksw.limes.core.util.datetime.DateTimeFormat;
+
+/**
+ * Column representation of the events of a cache. Each event s is described by
+ * its begin date b(s) and end date e(s), which are parsed once into epochs and
+ * stored in primitive arrays. Additionally, the events are sorted by their
+ * begin and by their end dates, so that the events whose begin or end date
+ * lies in a given range can be found by binary search. As the Allen's measures
+ * do, only the first value of the begin and end date properties of an
+ * instance is used. Instances without begin or end date are not events.
+ */
+public class TemporalEvents {
+
+    private final String[] uris;
+    private final long[] begins;
+    private final long[] ends;
+
+    // event ids ordered by begin date and the begin dates in that order
+    private final int[] byBegin;
+    private final long[] sortedBegins;
+    // event ids ordered by end date and the end dates in that order
+    private final int[] byEnd;
+    private final long[] sortedEnds;
+
+    /**
+     * Constructor of TemporalEvents class.
+     *
+     * @param uris,
+     *            the uris of the events
+     * @param begins,
+     *            the begin dates of the events as epochs
+     * @param ends,
+     *            the end dates of the events as epochs
+     */
+    public TemporalEvents(String[] uris, long[] begins, long[] ends) {
+        if (uris.length != begins.length || uris.length != ends.length) {
+            throw new IllegalArgumentException("Uris, begin and end dates must have the same length");
+        }
+        this.uris = uris;
+        this.begins = begins;
+        this.ends = ends;
+        this.byBegin = sort(begins);
+        this.sortedBegins = permute(begins, byBegin);
+        this.byEnd = sort(ends);
+        this.sortedEnds = permute(ends, byEnd);
+    }
+
+    /**
+     * Extracts the events of a cache, given the begin and end date properties
+     * of a metric expression.
+     *
+     * @param cache,
+     *            The cache of instances
+     * @param expression,
+     *            The metric expression
+     * @param kbType,
+     *            source or target
+     * @return the events of the cache
+     */
+    public static TemporalEvents fromCache(ACache cache, String expression, String kbType) {
+        Parser p = new Parser(expression, 1.0d);
+        String term = kbType.equalsIgnoreCase("source") ? p.getLeftTerm() : p.getRightTerm();
+        String beginProperty = AAtomicAllenAlgebraMapper.getBeginProperty(term);
+        String endProperty = AAtomicAllenAlgebraMapper.getEndProperty(term);
+
+        List<String> uris = new ArrayList<String>();
+        long[] begins = new long[cache.size()];
+        long[] ends = new long[cache.size()];
+        // time stamps are often shared by many events, parse each only once
+        Map<String, Long> epochs = new HashMap<String, Long>();
+        for (Instance instance : cache.getAllInstances()) {
+            TreeSet<String> beginValues = instance.getProperty(beginProperty);
+            TreeSet<String> endValues = instance.getProperty(endProperty);
+            if (beginValues.isEmpty() || endValues.isEmpty())
+                continue;
+            begins[uris.size()] = getEpoch(epochs, beginValues.first());
+            ends[uris.size()] = getEpoch(epochs, endValues.first());
+            uris.add(instance.getUri());
+        }
+        return new TemporalEvents(uris.toArray(new String[uris.size()]), Arrays.copyOf(begins, uris.size()),
+                Arrays.copyOf(ends, uris.size()));
+    }
+
+    private static long getEpoch(Map<String, Long> epochs, String timeStamp) {
+        Long epoch = epochs.get(timeStamp);
+        if (epoch == null) {
+            epoch = DateTimeFormat.getEpoch(timeStamp);
+            epochs.put(timeStamp, epoch);
+        }
+        return epoch;
+    }
+
+    /**
+     * Sorts the ids of values by value.
+     */
+    private static int[] sort(long[] values) {
+        // pack value rank and id into one long, so that a primitive sort
+        // suffices
+        int n = values.length;
+        long[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) Arrays.binarySearch(sortedValues, values[i]) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = (int) keys[i];
+        }
+        return ids;
+    }
+
+    private static long[] permute(long[] values, int[] ids) {
+        long[] permuted = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            permuted[i] = values[ids[i]];
+        }
+        return permuted;
+    }
+
+    /**
+     * Returns the position of the first value that is not lower than key.
+     */
+    static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < key)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first value that is higher than key.
+     */
+    static int upperBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= key)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * @return the number of events
+     */
+    public int size() {
+        return uris.length;
+    }
+
+    /**
+     * @param event,
+     *            the event id
+     * @return the uri of the event
+     */
+    public String getUri(int event) {
+        return uris[event];
+    }
+
+    /**
+     * @param event,
+     *            the event id
+     * @return the begin date of the event as epoch
+     */
+    public long getBegin(int event) {
+        return begins[event];
+    }
+
+    /**
+     * @param event,
+     *            the event id
+     * @return the end date of the event as epoch
+     */
+    public long getEnd(int event) {
+        return ends[event];
+    }
+
+    int[] getByBegin() {
+        return byBegin;
+    }
+
+    long[] getSortedBegins() {
+        return sortedBegins;
+    }
+
+    int[] getByEnd() {
+        return byEnd;
+    }
+
+    long[] getSortedEnds() {
+        return sortedEnds;
+    }
+}
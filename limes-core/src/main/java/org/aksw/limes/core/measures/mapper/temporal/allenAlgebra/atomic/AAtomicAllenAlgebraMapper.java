@@ -1,8 +1,5 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -46,7 +43,7 @@ public abstract class AAtomicAllenAlgebraMapper {
      *            The metric expression
      * @return first property of metric expression as string
      */
-    protected static String getBeginProperty(String expression) {
+    public static String getBeginProperty(String expression) {
         // expression = x.beginDate1|endDate1
         expression = expression.substring(expression.indexOf(".") + 1, expression.length());
         // expression beginDate1|endDate1
@@ -68,7 +65,7 @@ public abstract class AAtomicAllenAlgebraMapper {
      * @throws IllegalArgumentException
      *             if endDate property is not declared
      */
-    protected static String getEndProperty(String expression) throws IllegalArgumentException {
+    public static String getEndProperty(String expression) throws IllegalArgumentException {
         // expression = x.beginDate1|endDate1
         expression = expression.substring(expression.indexOf(".") + 1, expression.length());
         // expression beginDate1|endDate1
@@ -91,18 +88,13 @@ public abstract class AAtomicAllenAlgebraMapper {
      * @return the epoch value of the corresponding time stamp
      */
     protected static long getEpoch(String timeStamp) {
-
-        Date date = DateTimeFormat.getDate(timeStamp);
-        long epoch = date.getTime();
-
-        return epoch;
-
+        return DateTimeFormat.getEpoch(timeStamp);
     }
 
     /**
      * Orders a cache of instances based on their begin date property. For each
      * instance, it retrieves its begin date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
+     * epoch using the allowed date and time formats and places the
      * instance inside the corresponding set("bucket") of instances.
      * 
      * 
@@ -130,8 +122,7 @@ public abstract class AAtomicAllenAlgebraMapper {
 
             for (String value : time) {
                 // 2015-04-22T11:29:51+02:00
-                Date date = DateTimeFormat.getDate(value);
-                long epoch = date.getTime();
+                long epoch = DateTimeFormat.getEpoch(value);
                 if (!blocks.containsKey(epoch)) {
                     Set<String> l = new HashSet<String>();
                     l.add(instance.getUri());
@@ -148,7 +139,7 @@ public abstract class AAtomicAllenAlgebraMapper {
     /**
      * Orders a cache of instances based on their end date property. For each
      * instance, it retrieves its end date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
+     * epoch using the allowed date and time formats and places the
      * instance inside the corresponding set("bucket") of instances.
      * 
      * @param kbType
@@ -177,20 +168,14 @@ public abstract class AAtomicAllenAlgebraMapper {
             TreeSet<String> time = instance.getProperty(property);
 
             for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(epoch)) {
-                        Set<String> l = new HashSet<String>();
-                        l.add(instance.getUri());
-                        blocks.put(epoch, l);
-                    } else {
-                        blocks.get(epoch).add(instance.getUri());
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
+                // 2015-04-22T11:29:51+02:00
+                long epoch = DateTimeFormat.getEpoch(value);
+                if (!blocks.containsKey(epoch)) {
+                    Set<String> l = new HashSet<String>();
+                    l.add(instance.getUri());
+                    blocks.put(epoch, l);
+                } else {
+                    blocks.get(epoch).add(instance.getUri());
                 }
             }
 
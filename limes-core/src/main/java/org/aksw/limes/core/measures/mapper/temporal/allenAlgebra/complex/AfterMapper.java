@@ -8,9 +8,11 @@ import java.util.TreeSet;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenRelation;
 
 /**
  * Class for Allen's temporal relation "After".
@@ -89,26 +91,30 @@ public class AfterMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * after the aforementioned source instance, using the BeginEnd atomic Allen
-     * relation.
+     * after the aforementioned source instance, using the sorted begin and end
+     * dates of the events, see {@link AllenIntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        
         this.source = source;
         this.target = target;
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-
-        BeginEnd be = new BeginEnd();
-        // SxT \ (BE0 U BE1)
-        maps.add(be.getConcurrentEvents(source, target, expression));
-        maps.add(be.getPredecessorEvents(source, target, expression));
+        return AllenIntervalJoin.getMapping(source, target, expression, AllenRelation.AFTER);
+    }
 
-        AMapping m = getMapping(maps);
-        return m;
+    /**
+     * Passes each pair of a source instance and a target instance that are in
+     * the relation to a consumer as soon as it is found, without building the
+     * mapping, see {@link AllenIntervalJoin}.
+     */
+    @Override
+    public void getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, LinkConsumer consumer) {
+        this.source = source;
+        this.target = target;
+        AllenIntervalJoin.getMapping(source, target, expression, AllenRelation.AFTER, consumer);
     }
 
     /**
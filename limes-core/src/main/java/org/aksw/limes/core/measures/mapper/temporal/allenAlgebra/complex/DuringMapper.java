@@ -8,10 +8,11 @@ import java.util.TreeSet;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginBegin;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenRelation;
 
 /**
  * Class for Allen's temporal relation "During". Given two events X and Y, it
@@ -86,25 +87,26 @@ public class DuringMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * during the aforementioned source instance, using the BeginBegin and
-     * EndEnd atomic Allen relations.
+     * during the aforementioned source instance, using the sorted begin and end
+     * dates of the events, see {@link AllenIntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        EndEnd ee = new EndEnd();
-        BeginBegin bb = new BeginBegin();
-        // EE1 \ (BB0 U BB1)
-        maps.add(ee.getPredecessorEvents(source, target, expression));
-
-        maps.add(bb.getConcurrentEvents(source, target, expression));
-        maps.add(bb.getPredecessorEvents(source, target, expression));
+        return AllenIntervalJoin.getMapping(source, target, expression, AllenRelation.DURING);
+    }
 
-        AMapping m = getMapping(maps);
-        return m;
+    /**
+     * Passes each pair of a source instance and a target instance that are in
+     * the relation to a consumer as soon as it is found, without building the
+     * mapping, see {@link AllenIntervalJoin}.
+     */
+    @Override
+    public void getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, LinkConsumer consumer) {
+        AllenIntervalJoin.getMapping(source, target, expression, AllenRelation.DURING, consumer);
     }
 
     /**
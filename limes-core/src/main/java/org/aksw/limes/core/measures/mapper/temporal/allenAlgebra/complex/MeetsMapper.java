@@ -7,9 +7,11 @@ import java.util.TreeMap;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.LinkConsumer;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndBegin;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenRelation;
 
 /**
  * Class for Allen's temporal relation "Meets". Given two events X and Y, it
@@ -65,20 +67,27 @@ public class MeetsMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that began
-     * strictly after the aforementioned source instance, using the EndBegin
-     * Allen relation. The mapping contains 1-to-m relations.
+     * strictly after the aforementioned source instance, using the sorted begin
+     * and end dates of the events, see {@link AllenIntervalJoin}. The mapping
+     * contains 1-to-m relations.
      * 
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        EndBegin eb = new EndBegin();
-        // EB0
-        maps.add(eb.getConcurrentEvents(source, target, expression));
-        AMapping m = getMapping(maps);
-        return m;
+        return AllenIntervalJoin.getMapping(source, target, expression, AllenRelation.MEETS);
+    }
+
+    /**
+     * Passes each pair of a source instance and a target instance that are in
+     * the relation to a consumer as soon as it is found, without building the
+     * mapping, see {@link AllenIntervalJoin}.
+     */
+    @Override
+    public void getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, LinkConsumer consumer) {
+        AllenIntervalJoin.getMapping(source, target, expression, AllenRelation.MEETS, consumer);
     }
 
     /**
@@ -4,28 +4,32 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.aksw.limes.core.util.LimesWktReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.io.ParseException;
 
 /**
@@ -40,9 +44,33 @@ public class RADON {
         public final static String MIN = "min";
         public final static String MAX = "max";
         public final static String MED = "median";
-        public static boolean swap = false;
 
         public static double[] decideForTheta(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
+            double[] stats = getStats(s, t, measure);
+            return new double[] { (2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]) };
+        }
+
+        /**
+         * Decides whether source and target are swapped, so that the source
+         * has the smallest estimated area coverage, which minimizes the number
+         * of comparisons.
+         *
+         * @param s
+         *            heuristics of the source geometries
+         * @param t
+         *            heuristics of the target geometries
+         * @param measure
+         *            statistic measure, e.g. {@link #AVG}
+         * @return true if the source and target should be swapped
+         */
+        public static boolean decideForSwap(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
+            double[] stats = getStats(s, t, measure);
+            double estAreaS = stats[0] * stats[1] * s.size;
+            double estAreaT = stats[2] * stats[3] * t.size;
+            return estAreaS > estAreaT;
+        }
+
+        private static double[] getStats(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
             double[] stats;
             switch (measure) {
             case MAX:
@@ -58,12 +86,7 @@ public class RADON {
             default:
                 stats = new double[] { s.minX, s.minY, t.minX, t.minY };
             }
-            double estAreaS = stats[0] * stats[1] * s.size;
-            double estAreaT = stats[2] * stats[3] * t.size;
-            // we want to swap towards the smallest area coverage to optimizethe
-            // number of comparisons
-            swap = estAreaS > estAreaT;
-            return new double[] { (2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]) };
+            return stats;
         }
 
         private double size;
@@ -148,6 +171,10 @@ public class RADON {
 
         public int lat1, lat2, lon1, lon2;
         public Geometry polygon;
+        /**
+         * Prepared polygon of the indexed side, null on the other side
+         */
+        public PreparedGeometry prepared;
         private String uri;
         private String origin_uri;
 
@@ -227,35 +254,34 @@ public class RADON {
         }
     }
 
-    public static class Matcher implements Runnable {
+    /**
+     * Batch of candidate pairs whose relation is computed by one task.
+     */
+    public static class Matcher implements Callable<Map<String, Set<String>>> {
 
         public static int maxSize = 1000;
         private String relation;
-        private final List<Map<String, Set<String>>> result;
         private List<MBBIndex> scheduled;
 
-        public Matcher(String relation, List<Map<String, Set<String>>> result) {
+        public Matcher(String relation) {
             this.relation = relation;
-            this.result = result;
             this.scheduled = new ArrayList<>();
         }
 
         @Override
-        public void run() {
+        public Map<String, Set<String>> call() {
             Map<String, Set<String>> temp = new HashMap<>();
             for (int i = 0; i < scheduled.size(); i += 2) {
                 MBBIndex s = scheduled.get(i);
                 MBBIndex t = scheduled.get(i + 1);
-                if (relate(s.polygon, t.polygon, relation)) {
+                if (relate(s, t, relation)) {
                     if (!temp.containsKey(s.origin_uri)) {
                         temp.put(s.origin_uri, new HashSet<>());
                     }
                     temp.get(s.origin_uri).add(t.origin_uri);
                 }
             }
-            synchronized (result) {
-                result.add(temp);
-            }
+            return temp;
         }
 
         public void schedule(MBBIndex s, MBBIndex t) {
@@ -267,6 +293,39 @@ public class RADON {
             return scheduled.size();
         }
 
+        /**
+         * Computes the relation of two indexed geometries, through the
+         * prepared geometry of the first one if there is one.
+         */
+        private static boolean relate(MBBIndex s, MBBIndex t, String relation) {
+            PreparedGeometry prepared = s.prepared;
+            if (prepared == null) {
+                return relate(s.polygon, t.polygon, relation);
+            }
+            switch (relation) {
+            case DISJOINT:
+                return prepared.disjoint(t.polygon);
+            case INTERSECTS:
+                return prepared.intersects(t.polygon);
+            case TOUCHES:
+                return prepared.touches(t.polygon);
+            case CROSSES:
+                return prepared.crosses(t.polygon);
+            case WITHIN:
+                return prepared.within(t.polygon);
+            case CONTAINS:
+                return prepared.contains(t.polygon);
+            case COVERS:
+                return prepared.covers(t.polygon);
+            case COVEREDBY:
+                return prepared.coveredBy(t.polygon);
+            case OVERLAPS:
+                return prepared.overlaps(t.polygon);
+            default:
+                return relate(s.polygon, t.polygon, relation);
+            }
+        }
+
         private static Boolean relate(Geometry geometry1, Geometry geometry2, String relation) {
             switch (relation) {
             case EQUALS:
@@ -295,38 +354,6 @@ public class RADON {
         }
     }
 
-    public static class Merger implements Runnable {
-
-        private AMapping m;
-        private List<Map<String, Set<String>>> localResults = new ArrayList<>();
-
-        public Merger(List<Map<String, Set<String>>> results, AMapping m) {
-            this.m = m;
-            // copy over entries to local list
-            synchronized (results) {
-                for (Iterator<Map<String, Set<String>>> iterator = results.listIterator(); iterator.hasNext();) {
-                    localResults.add(iterator.next());
-                    iterator.remove();
-                }
-            }
-        }
-
-        @Override
-        public void run() {
-            // merge back to m
-            for (Map<String, Set<String>> result : localResults) {
-                for (String s : result.keySet()) {
-                    for (String t : result.get(s)) {
-                        if (GridSizeHeuristics.swap)
-                            m.add(t, s, 1.0d);
-                        else
-                            m.add(s, t, 1.0d);
-                    }
-                }
-            }
-        }
-    }
-
     public static final String EQUALS = "equals";
     public static final String DISJOINT = "disjoint";
     public static final String INTERSECTS = "intersects";
@@ -342,7 +369,24 @@ public class RADON {
 
     private static final Logger logger = LoggerFactory.getLogger(RADON.class);
 
+    /**
+     * Returns the geometries of the instances of a cache. The geometries are
+     * parsed once per cache and property if the cache has an
+     * {@link IndexRegistry}.
+     *
+     * @param c
+     *            a cache
+     * @param property
+     *            property whose values are WKT geometries
+     * @return map from the URIs of the instances to their geometries, which
+     *         must not be modified
+     */
     public static Map<String, Geometry> getGeometryMapFromCache(ACache c, String property) {
+        return IndexRegistry.getIndex(c, property, "radon-geometries", () -> readGeometries(c, property),
+                RADON::footprint);
+    }
+
+    private static Map<String, Geometry> readGeometries(ACache c, String property) {
         LimesWktReader wktReader = new LimesWktReader();
         Map<String, Geometry> gMap = new HashMap<>();
         for (String uri : c.getAllUris()) {
@@ -359,6 +403,15 @@ public class RADON {
         return gMap;
     }
 
+    private static long footprint(Map<String, Geometry> geometries) {
+        long size = 64;
+        for (Geometry g : geometries.values()) {
+            // entry, geometry and coordinates
+            size += 48 + 80 + 40L * g.getNumPoints();
+        }
+        return size;
+    }
+
     public static AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar,
             String expression, double threshold, String relation) {
         if (threshold <= 0) {
@@ -393,8 +446,30 @@ public class RADON {
 
     public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
             String relation) {
+        int numThreads = (int) Math.ceil(Runtime.getRuntime().availableProcessors() / 2.0d);
+        return getMapping(sourceData, targetData, relation, numThreads);
+    }
+
+    /**
+     * Computes the pairs of source and target geometries that are in a
+     * topological relation. All state is local to the call, thus several
+     * mappings can be computed at once.
+     *
+     * @param sourceData
+     *            Source geometries by URI
+     * @param targetData
+     *            Target geometries by URI
+     * @param relation
+     *            a topological relation, e.g. {@link #CONTAINS}, or a DE-9IM
+     *            pattern
+     * @param numThreads
+     *            Number of threads that compute the relations of the
+     *            candidate pairs, 1 computes them in the calling thread
+     * @return mapping of the pairs in the relation
+     */
+    public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String relation, int numThreads) {
         double thetaX, thetaY;
-        int numThreads = new Double(Math.ceil((double) Runtime.getRuntime().availableProcessors() / 2.0d)).intValue();
         // Relation thats actually used for computation.
         // Might differ from input relation when swapping occurs or the input
         // relation is 'disjoint'.
@@ -413,9 +488,8 @@ public class RADON {
         thetaX = theta[0];
         thetaY = theta[1];
         // swap smaller dataset to source
-        // if swap is necessary is decided in Stats.decideForTheta([...])!
         Map<String, Geometry> swap;
-        boolean swapped = GridSizeHeuristics.swap;
+        boolean swapped = GridSizeHeuristics.decideForSwap(heuristicsS, heuristicsT, heuristicStatMeasure);
         if (swapped) {
             swap = sourceData;
             sourceData = targetData;
@@ -436,51 +510,41 @@ public class RADON {
             }
         }
 
-        // set up indexes
-        SquareIndex sourceIndex = index(sourceData, null, thetaX, thetaY);
-        SquareIndex targetIndex = index(targetData, sourceIndex, thetaX, thetaY);
+        // set up indexes, the source geometries are prepared
+        SquareIndex sourceIndex = index(sourceData, null, thetaX, thetaY, true);
+        SquareIndex targetIndex = index(targetData, sourceIndex, thetaX, thetaY, false);
 
         // execute matching
-        ExecutorService matchExec = Executors.newFixedThreadPool(numThreads);
-        ExecutorService mergerExec = Executors.newFixedThreadPool(1);
+        ComputeScheduler.Job matchJob = numThreads > 1 ? ComputeScheduler.getInstance().newJob("radon", numThreads)
+                : null;
         AMapping m = MappingFactory.createDefaultMapping();
-        List<Map<String, Set<String>>> results = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Map<String, Set<String>>>> results = new ArrayList<>();
         Map<String, Set<String>> computed = new HashMap<>();
-        Matcher matcher = new Matcher(rel, results);
-
-        for (Integer lat : sourceIndex.map.keySet()) {
-            for (Integer lon : sourceIndex.map.get(lat).keySet()) {
-                List<MBBIndex> source = sourceIndex.getSquare(lat, lon);
-                List<MBBIndex> target = targetIndex.getSquare(lat, lon);
-                if (target != null && target.size() > 0) {
-                    for (MBBIndex a : source) {
-                        if (!computed.containsKey(a.uri))
-                            computed.put(a.uri, new HashSet<>());
-                        for (MBBIndex b : target) {
-                            if (!computed.get(a.uri).contains(b.uri)) {
-                                computed.get(a.uri).add(b.uri);
-                                boolean compute = (rel.equals(COVERS) && a.covers(b))
-                                        || (rel.equals(COVEREDBY) && b.covers(a))
-                                        || (rel.equals(CONTAINS) && a.contains(b))
-                                        || (rel.equals(WITHIN) && b.contains(a)) || (rel.equals(EQUALS) && a.equals(b))
-                                        || rel.equals(INTERSECTS) || rel.equals(CROSSES) || rel.equals(TOUCHES)
-                                        || rel.equals(OVERLAPS);
-                                if (compute) {
-                                    if (numThreads == 1) {
-                                        if (Matcher.relate(a.polygon, b.polygon, rel)) {
-                                            if (swapped)
-                                                m.add(b.origin_uri, a.origin_uri, 1.0);
-                                            else
-                                                m.add(a.origin_uri, b.origin_uri, 1.0);
-                                        }
-                                    } else {
+        Matcher matcher = new Matcher(rel);
+
+        try {
+            for (Integer lat : sourceIndex.map.keySet()) {
+                for (Integer lon : sourceIndex.map.get(lat).keySet()) {
+                    List<MBBIndex> source = sourceIndex.getSquare(lat, lon);
+                    List<MBBIndex> target = targetIndex.getSquare(lat, lon);
+                    if (target != null && target.size() > 0) {
+                        for (MBBIndex a : source) {
+                            if (!computed.containsKey(a.uri))
+                                computed.put(a.uri, new HashSet<>());
+                            for (MBBIndex b : target) {
+                                if (!computed.get(a.uri).contains(b.uri)) {
+                                    computed.get(a.uri).add(b.uri);
+                                    boolean compute = (rel.equals(COVERS) && a.covers(b))
+                                            || (rel.equals(COVEREDBY) && b.covers(a))
+                                            || (rel.equals(CONTAINS) && a.contains(b))
+                                            || (rel.equals(WITHIN) && b.contains(a))
+                                            || (rel.equals(EQUALS) && a.equals(b)) || rel.equals(INTERSECTS)
+                                            || rel.equals(CROSSES) || rel.equals(TOUCHES) || rel.equals(OVERLAPS);
+                                    if (compute) {
                                         matcher.schedule(a, b);
                                         if (matcher.size() == Matcher.maxSize) {
-                                            matchExec.execute(matcher);
-                                            matcher = new Matcher(rel, results);
-                                            if (results.size() > 0) {
-                                                mergerExec.execute(new Merger(results, m));
-                                            }
+                                            execute(matcher, matchJob, results, m, swapped);
+                                            matcher = new Matcher(rel);
                                         }
                                     }
                                 }
@@ -489,32 +553,21 @@ public class RADON {
                     }
                 }
             }
-        }
-        if (numThreads > 1) {
             if (matcher.size() > 0) {
-                matchExec.execute(matcher);
+                execute(matcher, matchJob, results, m, swapped);
             }
-            matchExec.shutdown();
-            while (!matchExec.isTerminated()) {
-                try {
-                    if (results.size() > 0) {
-                        mergerExec.execute(new Merger(results, m));
-                    }
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (results.size() > 0) {
-                mergerExec.execute(new Merger(results, m));
+            for (Future<Map<String, Set<String>>> result : results) {
+                merge(matchJob.join(result), m, swapped);
             }
-            mergerExec.shutdown();
-            while (!mergerExec.isTerminated()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error while computing topological relations");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (matchJob != null) {
+                matchJob.cancel();
             }
         }
 
@@ -539,12 +592,59 @@ public class RADON {
         return m;
     }
 
+    /**
+     * Runs a batch of candidate pairs in the job, or in the calling thread if
+     * there is no job.
+     */
+    private static void execute(Matcher matcher, ComputeScheduler.Job matchJob,
+            List<Future<Map<String, Set<String>>>> results, AMapping m, boolean swapped) {
+        if (matchJob == null) {
+            merge(matcher.call(), m, swapped);
+        } else {
+            results.add(matchJob.submit(matcher));
+        }
+    }
+
+    private static void merge(Map<String, Set<String>> result, AMapping m, boolean swapped) {
+        for (String s : result.keySet()) {
+            for (String t : result.get(s)) {
+                if (swapped)
+                    m.add(t, s, 1.0d);
+                else
+                    m.add(s, t, 1.0d);
+            }
+        }
+    }
+
     public static SquareIndex index(Map<String, Geometry> input, SquareIndex extIndex, double thetaX, double thetaY) {
+        return index(input, extIndex, thetaX, thetaY, false);
+    }
+
+    /**
+     * Indexes geometries by the squares of a grid that their minimum bounding
+     * boxes overlap.
+     *
+     * @param input
+     *            Geometries by URI
+     * @param extIndex
+     *            if not null, only the squares of this index are used
+     * @param thetaX
+     *            Number of squares per degree of longitude
+     * @param thetaY
+     *            Number of squares per degree of latitude
+     * @param prepare
+     *            true if the geometries are prepared, which speeds up the
+     *            computation of their relations to many other geometries
+     * @return the index
+     */
+    public static SquareIndex index(Map<String, Geometry> input, SquareIndex extIndex, double thetaX, double thetaY,
+            boolean prepare) {
         SquareIndex result = new SquareIndex();
 
         for (String p : input.keySet()) {
             Geometry g = input.get(p);
             Envelope envelope = g.getEnvelopeInternal();
+            PreparedGeometry prepared = prepare ? PreparedGeometryFactory.prepare(g) : null;
 
             int minLatIndex = (int) Math.floor(envelope.getMinY() * thetaY);
             int maxLatIndex = (int) Math.ceil(envelope.getMaxY() * thetaY);
@@ -559,12 +659,15 @@ public class RADON {
             if (minLongIndex < (int) Math.floor(-90d * thetaX) && maxLongIndex > (int) Math.ceil(90d * thetaX)) {
                 MBBIndex westernPart = new MBBIndex(minLatIndex, (int) Math.floor(-180d * thetaX), maxLatIndex,
                         minLongIndex, g, p + "<}W", p);
+                westernPart.prepared = prepared;
                 addToIndex(westernPart, result, extIndex);
                 MBBIndex easternPart = new MBBIndex(minLatIndex, maxLongIndex, maxLatIndex,
                         (int) Math.ceil(180 * thetaX), g, p + "<}E", p);
+                easternPart.prepared = prepared;
                 addToIndex(easternPart, result, extIndex);
             } else {
                 MBBIndex mbbIndex = new MBBIndex(minLatIndex, minLongIndex, maxLatIndex, maxLongIndex, g, p);
+                mbbIndex.prepared = prepared;
                 addToIndex(mbbIndex, result, extIndex);
             }
 
@@ -0,0 +1,469 @@
+package org.aksw.limes.core.measures.measure;
+
+import java.util.function.ToDoubleBiFunction;
+
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.mapper.string.EDJoinMapper;
+import org.aksw.limes.core.measures.mapper.string.PPJoinPlusPlus;
+import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
+import org.aksw.limes.core.measures.measure.string.ExactMatchMeasure;
+import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+import org.aksw.limes.core.measures.measure.string.JaroMeasure;
+import org.aksw.limes.core.measures.measure.string.MongeElkanMeasure;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.aksw.limes.core.measures.measure.string.RatcliffObershelpMeasure;
+import org.aksw.limes.core.measures.measure.string.StringMeasure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * A metric expression that has been parsed once into a tree of evaluators,
+ * with the properties of each atomic expression already resolved. Computing
+ * the similarity of a pair of instances with a compiled expression does not
+ * parse the expression again. An atomic expression returns the similarity
+ * that its mapper returns for caches that only hold the two instances. It
+ * calls the measure directly if the mapper computes the same similarities as
+ * the measure, runs the join of the mapper on the two instances for the
+ * PPJoin+ and EDJoin measures, and runs the mapper itself for all other
+ * measures, see {@link #getMeasure(MeasureType, String, String)}. Compiled
+ * expressions can be shared between threads, each thread runs its own mapper
+ * on its own caches.
+ * <p>
+ * As {@link MeasureProcessor#getSimilarity(Instance, Instance, String, double, String, String)}
+ * did before, an atomic expression whose similarity cannot be computed, e.g.
+ * because its properties cannot be read or its measure has no mapper, logs
+ * the error and returns 0.
+ */
+public abstract class CompiledExpression {
+
+    static Logger logger = LoggerFactory.getLogger(CompiledExpression.class);
+
+    private static final String ADD = "ADD";
+    private static final String XOR = "XOR";
+    private static final String MAX = "MAX";
+    private static final String MIN = "MIN";
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+
+    /**
+     * Threshold of the expression.
+     */
+    protected final double threshold;
+
+    protected CompiledExpression(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns similarity between two instances. If the similarity does not
+     * reach the threshold of the expression, 0 is returned.
+     *
+     * @param sourceInstance,
+     *            the source instance
+     * @param targetInstance,
+     *            the target instance
+     * @return the similarity of sourceInstance and targetInstance
+     */
+    public abstract double getSimilarity(Instance sourceInstance, Instance targetInstance);
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Compiles a metric expression.
+     *
+     * @param expression,
+     *            the metric expression
+     * @param threshold,
+     *            the threshold
+     * @param sourceVar,
+     *            the source variable
+     * @param targetVar,
+     *            the target variable
+     * @return the compiled expression
+     */
+    public static CompiledExpression compile(String expression, double threshold, String sourceVar,
+            String targetVar) {
+        Parser p = new Parser(expression, threshold);
+        if (p.isAtomic()) {
+            return compileAtomic(p, expression, threshold, sourceVar, targetVar);
+        }
+        String operator = p.getOperator();
+        if (operator.equalsIgnoreCase(ADD)) {
+            // the coefficients must be read before the terms, as reading them
+            // removes them from the terms
+            double leftCoefficient = p.getLeftCoefficient();
+            double rightCoefficient = p.getRightCoefficient();
+            return new ComplexExpression(operator, p.getThreshold(), p.getThreshold1(), p.getThreshold2(),
+                    leftCoefficient, rightCoefficient,
+                    compile(p.getLeftTerm(), p.getThreshold1(), sourceVar, targetVar),
+                    compile(p.getRightTerm(), p.getThreshold2(), sourceVar, targetVar));
+        }
+        return new ComplexExpression(operator, p.getThreshold(), p.getThreshold1(), p.getThreshold2(), 1d, 1d,
+                compile(p.getLeftTerm(), p.getThreshold1(), sourceVar, targetVar),
+                compile(p.getRightTerm(), p.getThreshold2(), sourceVar, targetVar));
+    }
+
+    private static CompiledExpression compileAtomic(Parser p, String expression, double threshold,
+            String sourceVar, String targetVar) {
+        try {
+            return compileAtomicExpression(p, expression, threshold, sourceVar, targetVar);
+        } catch (RuntimeException e) {
+            logger.error("Could not compile " + expression + ", its similarity is always 0: " + e);
+            return new ZeroExpression(threshold);
+        }
+    }
+
+    private static CompiledExpression compileAtomicExpression(Parser p, String expression, double threshold,
+            String sourceVar, String targetVar) {
+        String[] properties = getProperties(p, sourceVar);
+        // if no properties then terminate
+        if (properties[0] == null || properties[1] == null) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Property values could not be read. Exiting");
+            throw new RuntimeException();
+        }
+        if (threshold <= 0) {
+            logger.warn("Threshold of " + expression + " is not positive. Its similarity is always 0.");
+            return new ZeroExpression(threshold);
+        }
+        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+        IMeasure measure = getMeasure(type, p.getOperator(), properties[1]);
+        if (measure != null) {
+            return new AtomicExpression(threshold, measure, properties[0], properties[1]);
+        }
+        String sourceProperty = properties[0];
+        String targetProperty = properties[1];
+        switch (type) {
+        case COSINE:
+        case JACCARD:
+        case OVERLAP:
+            IStringMeasure joinMeasure = (IStringMeasure) MeasureFactory.createMeasure(type);
+            return new PairExpression(threshold, (s, t) -> PPJoinPlusPlus.getSimilarity(s, sourceProperty, t,
+                    targetProperty, joinMeasure, threshold));
+        case LEVENSHTEIN:
+            return new PairExpression(threshold,
+                    (s, t) -> EDJoinMapper.getSimilarity(s, sourceProperty, t, targetProperty, threshold));
+        case RATCLIFF:
+            // the measure stores the score of the current pair in a field,
+            // thus each pair gets its own measure
+            return new PairExpression(threshold, (s, t) -> new RatcliffObershelpMeasure().getSimilarity(s, t,
+                    sourceProperty, targetProperty, threshold));
+        default:
+            // fails for measures without a mapper
+            MapperFactory.createMapper(type);
+            return new MapperExpression(threshold, type, expression, sourceVar, targetVar);
+        }
+    }
+
+    /**
+     * Returns the measure that computes the same similarities as the mapper
+     * of the input measure type, or null if such a measure is not known. The
+     * measures of the other types differ from their mappers:
+     * <ul>
+     * <li>the PPJoin+ mapper of cosine, Jaccard and overlap orders the tokens
+     * by their frequency in the values that are joined and splits the values
+     * at punctuation, the EDJoin mapper of Levenshtein returns 1/(1+d) for an
+     * edit distance d. Their joins are run on the two instances.</li>
+     * <li>the filters of the Jaro-Winkler mapper also drop some pairs whose
+     * similarity reaches the threshold.</li>
+     * <li>the phonetic mappers skip empty values and divide the distance of two
+     * codes by a fixed length, the measures by the length of the first
+     * code.</li>
+     * <li>the temporal mappers compare all dates of an instance and skip the
+     * dates they cannot parse, the measures only compare the first dates and
+     * read a date they cannot parse as the epoch.</li>
+     * <li>the topological, point set, set Jaccard and semantic mappers read
+     * geometries, polygons, sets and hypernym paths that their measures do
+     * not read from the values of an instance.</li>
+     * </ul>
+     * These mappers are run on caches that only hold the two instances.
+     */
+    private static IMeasure getMeasure(MeasureType type, String operator, String targetProperty) {
+        switch (type) {
+        case QGRAMS:
+        case TRIGRAM:
+            // both are run by the FastNGramMapper
+            return new QGramSimilarityMeasure();
+        case JARO:
+            // same similarities up to the rounding of floats
+            return new JaroMeasure();
+        case MONGEELKAN:
+            return new MongeElkanMeasure();
+        case EXACTMATCH:
+            return new ExactMatchMeasure();
+        case EUCLIDEAN:
+        case MANHATTAN:
+        case GEO_ORTHODROMIC:
+        case GEO_GREAT_ELLIPTIC:
+            // same measure as the one of the HR3Mapper
+            return SpaceMeasureFactory.getMeasure(operator, targetProperty.split("\\|").length);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the source and the target property of an atomic expression.
+     *
+     * @return array with the source property and the target property
+     */
+    private static String[] getProperties(Parser p, String sourceVar) {
+        String[] properties = new String[2];
+        String term1 = "?" + p.getLeftTerm();
+        String term2 = "?" + p.getRightTerm();
+        if (term1.contains(".")) {
+            setProperty(properties, term1, sourceVar);
+        } else {
+            properties[0] = term1;
+        }
+        if (term2.contains(".")) {
+            setProperty(properties, term2, sourceVar);
+        } else {
+            properties[1] = term2;
+        }
+        return properties;
+    }
+
+    private static void setProperty(String[] properties, String term, String sourceVar) {
+        String[] split = term.split("\\.");
+        String property = split[1];
+        for (int i = 2; i < split.length; i++) {
+            property = property + "." + split[i];
+        }
+        if (split[0].equals(sourceVar)) {
+            properties[0] = property;
+        } else {
+            properties[1] = property;
+        }
+    }
+
+    /**
+     * Atomic expression that is evaluated by a measure.
+     */
+    private static class AtomicExpression extends CompiledExpression {
+
+        private final IMeasure measure;
+        private final String sourceProperty;
+        private final String targetProperty;
+
+        AtomicExpression(double threshold, IMeasure measure, String sourceProperty, String targetProperty) {
+            super(threshold);
+            this.measure = measure;
+            this.sourceProperty = sourceProperty;
+            this.targetProperty = targetProperty;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            if (sourceInstance == null || targetInstance == null) {
+                return 0.0d;
+            }
+            double similarity;
+            try {
+                if (measure instanceof StringMeasure) {
+                    // the kernels of the string measures stop below the threshold
+                    similarity = ((StringMeasure) measure).getSimilarity(sourceInstance, targetInstance,
+                            sourceProperty, targetProperty, threshold);
+                } else {
+                    similarity = measure.getSimilarity(sourceInstance, targetInstance, sourceProperty,
+                            targetProperty);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Could not compute " + measure.getName() + " for " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri() + ": " + e);
+                return 0.0d;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Atomic expression that is evaluated by a function of the pair of
+     * instances, e.g. the join of its mapper.
+     */
+    private static class PairExpression extends CompiledExpression {
+
+        private final ToDoubleBiFunction<Instance, Instance> function;
+
+        PairExpression(double threshold, ToDoubleBiFunction<Instance, Instance> function) {
+            super(threshold);
+            this.function = function;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            if (sourceInstance == null || targetInstance == null) {
+                return 0.0d;
+            }
+            double similarity;
+            try {
+                similarity = function.applyAsDouble(sourceInstance, targetInstance);
+            } catch (RuntimeException e) {
+                logger.error("Could not compute the similarity of " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri() + ": " + e);
+                return 0.0d;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Atomic expression that is evaluated by running its mapper on caches that
+     * only hold the pair of instances. The mappers keep the state of a mapping
+     * in their fields, thus each thread gets its own mapper and caches, which
+     * are reused for all pairs that the thread computes.
+     */
+    private static class MapperExpression extends CompiledExpression {
+
+        private final String expression;
+        private final String sourceVar;
+        private final String targetVar;
+        private final ThreadLocal<PairMapper> pairMappers;
+
+        MapperExpression(double threshold, MeasureType type, String expression, String sourceVar,
+                String targetVar) {
+            super(threshold);
+            this.expression = expression;
+            this.sourceVar = sourceVar;
+            this.targetVar = targetVar;
+            this.pairMappers = ThreadLocal.withInitial(() -> new PairMapper(MapperFactory.createMapper(type)));
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            if (sourceInstance == null || targetInstance == null) {
+                return 0.0d;
+            }
+            double similarity = 0.0d;
+            try {
+                PairMapper pairMapper = pairMappers.get();
+                pairMapper.source.setInstance(sourceInstance);
+                pairMapper.target.setInstance(targetInstance);
+                AMapping m = pairMapper.mapper.getMapping(pairMapper.source, pairMapper.target, sourceVar,
+                        targetVar, expression, threshold);
+                similarity = m.getConfidence(sourceInstance.getUri(), targetInstance.getUri());
+            } catch (RuntimeException e) {
+                logger.error("Could not compute " + expression + " for " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri() + ": " + e);
+                return 0.0d;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Mapper of a thread with the caches it is run on.
+     */
+    private static class PairMapper {
+
+        final AMapper mapper;
+        final SingleInstanceCache source = new SingleInstanceCache();
+        final SingleInstanceCache target = new SingleInstanceCache();
+
+        PairMapper(AMapper mapper) {
+            this.mapper = mapper;
+        }
+    }
+
+    /**
+     * Memory cache that holds one instance, which is replaced for each pair.
+     */
+    private static class SingleInstanceCache extends MemoryCache {
+
+        void setInstance(Instance instance) {
+            invalidateIndexes();
+            instanceMap.clear();
+            instanceMap.put(instance.getUri(), instance);
+            instanceIterator = null;
+        }
+    }
+
+    /**
+     * Atomic expression with a non-positive threshold or whose similarity
+     * cannot be computed.
+     */
+    private static class ZeroExpression extends CompiledExpression {
+
+        ZeroExpression(double threshold) {
+            super(threshold);
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            return 0.0d;
+        }
+    }
+
+    /**
+     * Complex expression that combines the similarities of its two children.
+     */
+    private static class ComplexExpression extends CompiledExpression {
+
+        private final String operator;
+        private final double threshold1;
+        private final double threshold2;
+        private final double leftCoefficient;
+        private final double rightCoefficient;
+        private final CompiledExpression left;
+        private final CompiledExpression right;
+
+        ComplexExpression(String operator, double threshold, double threshold1, double threshold2,
+                double leftCoefficient, double rightCoefficient, CompiledExpression left, CompiledExpression right) {
+            super(threshold);
+            this.operator = operator;
+            this.threshold1 = threshold1;
+            this.threshold2 = threshold2;
+            this.leftCoefficient = leftCoefficient;
+            this.rightCoefficient = rightCoefficient;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            double firstChild = leftCoefficient * left.getSimilarity(sourceInstance, targetInstance);
+            double secondChild = rightCoefficient * right.getSimilarity(sourceInstance, targetInstance);
+            if (operator.equalsIgnoreCase(MAX) | operator.equalsIgnoreCase(OR) | operator.equalsIgnoreCase(XOR)) {
+                // threshold is 0 and (s,t) are not part of the union
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                double maxSimilarity = Math.max(firstChild, secondChild);
+                return maxSimilarity >= threshold ? maxSimilarity : 0;
+            }
+            if (operator.equalsIgnoreCase(MIN) | operator.equalsIgnoreCase(AND)) {
+                // threshold is 0 and (s,t) are not part of the intersection
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                double minSimilarity = Math.min(firstChild, secondChild);
+                return minSimilarity >= threshold ? minSimilarity : 0;
+            }
+            if (operator.equalsIgnoreCase(ADD)) {
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                return firstChild + secondChild >= threshold ? firstChild + secondChild : 0;
+            }
+            // the second similarity must be 0 in order for the instance to
+            // have a chance to be included at the final result
+            if (secondChild == 0 && firstChild >= threshold1 && firstChild >= threshold) {
+                return firstChild;
+            }
+            return 0;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.aksw.limes.core.measures.measure.pointsets;
 import org.aksw.limes.core.datastrutures.Point;
 import org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.OrthodromicDistance;
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.measure.AMeasure;
 import org.aksw.limes.core.measures.measure.space.GeoGreatEllipticMeasure;
@@ -31,6 +32,27 @@ public abstract class APointsetsMeasure extends AMeasure implements IPointsetsMe
         return OrthodromicDistance.getDistanceInDegrees(x, y);
     }
 
+    /**
+     * @param x
+     *            Radians of the points of a polygon, see
+     *            {@link PackedPolygon#getRadians()}
+     * @param i
+     *            Index of point x in that polygon
+     * @param y
+     *            Radians of the points of a polygon
+     * @param j
+     *            Index of point y in that polygon
+     * @return Point-to-point distance between x and y
+     */
+    public static double pointToPointDistance(double[] x, int i, double[] y, int j) {
+        computations++;
+        if (USE_GREAT_ELLIPTIC_DISTANCE) {
+            return GeoGreatEllipticMeasure.getDistance(x[3 * i], x[3 * i + 1], y[3 * j], y[3 * j + 1]);
+        }
+        return OrthodromicDistance.getDistance(x[3 * i], x[3 * i + 1], x[3 * i + 2], y[3 * j], y[3 * j + 1],
+                y[3 * j + 2]);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -0,0 +1,13 @@
+package org.aksw.limes.core.measures.measure.pointsets;
+
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
+
+/**
+ * Point set measure that can compute distances directly on
+ * {@link PackedPolygon}s. Implementations must be stateless, so that distances
+ * can be computed concurrently.
+ */
+public interface IPackedPointsetsMeasure extends IPointsetsMeasure {
+
+    public double computeDistance(PackedPolygon X, PackedPolygon Y, double threshold);
+}
@@ -11,8 +11,10 @@ import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper;
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.measure.pointsets.APointsetsMeasure;
+import org.aksw.limes.core.measures.measure.pointsets.IPackedPointsetsMeasure;
 
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.util.GeometricShapeFactory;
@@ -21,7 +23,7 @@ import org.locationtech.jts.util.GeometricShapeFactory;
  * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
  * @version Jul 15, 2016
  */
-public class NaiveFrechetMeasure extends APointsetsMeasure {
+public class NaiveFrechetMeasure extends APointsetsMeasure implements IPackedPointsetsMeasure {
     static GeometricShapeFactory gsf = new GeometricShapeFactory();
     static GeometryFactory gf = new GeometryFactory();
     static double delta = 0.01;
@@ -51,6 +53,11 @@ public class NaiveFrechetMeasure extends APointsetsMeasure {
         return frechetDistance.computeFrechetDistance();
     }
 
+    public double computeDistance(PackedPolygon X, PackedPolygon Y, double threshold) {
+        PolygonFrechetDistance frechetDistance = new PolygonFrechetDistance(X, Y);
+        return frechetDistance.computeFrechetDistance();
+    }
+
     /*
      * (non-Javadoc)
      * 
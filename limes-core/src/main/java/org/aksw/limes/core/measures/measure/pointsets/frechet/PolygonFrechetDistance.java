@@ -9,6 +9,7 @@ import java.util.Arrays;
 
 import org.aksw.limes.core.datastrutures.Point;
 import org.aksw.limes.core.measures.mapper.pointsets.OrthodromicDistance;
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 
 import org.locationtech.jts.geom.Coordinate;
@@ -23,11 +24,14 @@ import org.locationtech.jts.util.GeometricShapeFactory;
  * @version Jul 15, 2016
  */
 public class PolygonFrechetDistance {
-    static GeometricShapeFactory gsf = new GeometricShapeFactory();
     static GeometryFactory gf = new GeometryFactory();
     static double delta = 0.01;
+    // not thread-safe, thus one per computation
+    GeometricShapeFactory gsf = new GeometricShapeFactory();
     public double[][] a, b, c, d;
-    Polygon poly1, poly2;
+    // packed coordinates of the polygons, see PackedPolygon
+    double[] coords1, coords2;
+    int n1, n2;
 
     /**
      * Constructor
@@ -38,12 +42,26 @@ public class PolygonFrechetDistance {
      *            Polygon
      */
     public PolygonFrechetDistance(Polygon p1, Polygon p2) {
-        poly1 = p1;
-        poly2 = p2;
-        a = new double[poly1.points.size()][poly2.points.size()];
-        b = new double[poly1.points.size()][poly2.points.size()];
-        c = new double[poly1.points.size()][poly2.points.size()];
-        d = new double[poly1.points.size()][poly2.points.size()];
+        this(PackedPolygon.pack(p1), PackedPolygon.pack(p2));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p1
+     *            Packed polygon
+     * @param p2
+     *            Packed polygon
+     */
+    public PolygonFrechetDistance(PackedPolygon p1, PackedPolygon p2) {
+        coords1 = p1.getCoordinates();
+        coords2 = p2.getCoordinates();
+        n1 = p1.size();
+        n2 = p2.size();
+        a = new double[n1][n2];
+        b = new double[n1][n2];
+        c = new double[n1][n2];
+        d = new double[n1][n2];
     }
 
     /**
@@ -51,11 +69,11 @@ public class PolygonFrechetDistance {
      */
     public double computeFrechetDistance() {
         // case one point polygon
-        if (poly1.points.size() == 1) {
-            return getFrechetPointToPolygonDistance(poly1.points.get(0), poly2);
+        if (n1 == 1) {
+            return getFrechetPointToPolygonDistance(coords1[0], coords1[1], coords2, n2);
         }
-        if (poly2.points.size() == 1) {
-            return getFrechetPointToPolygonDistance(poly2.points.get(0), poly1);
+        if (n2 == 1) {
+            return getFrechetPointToPolygonDistance(coords2[0], coords2[1], coords1, n1);
         }
 
         // case polygon of more than one point
@@ -73,30 +91,30 @@ public class PolygonFrechetDistance {
      * @return Frechet distance between the point p and the polygon poly
      */
     public double getFrechetPointToPolygonDistance(Point p, Polygon poly) {
-        ArrayList<Double> list = new ArrayList<Double>();
+        return getFrechetPointToPolygonDistance(p.coordinates.get(0), p.coordinates.get(1),
+                PackedPolygon.pack(poly).getCoordinates(), poly.points.size());
+    }
+
+    private double getFrechetPointToPolygonDistance(double lat, double lon, double[] poly, int n) {
+        double min = Double.MAX_VALUE;
 
         // (1) distances between the point and all the polygon points
-        for (Point q : poly.points) {
-            list.add(OrthodromicDistance.getDistanceInDegrees(p, q));
+        for (int i = 0; i < n; i++) {
+            double d = OrthodromicDistance.getDistanceInDegrees(lat, lon, poly[2 * i], poly[2 * i + 1]);
+            if (d < min)
+                min = d;
         }
 
         // (2) distances between the point and all the polygon edges
-        for (int i = 0; i < poly.points.size() - 1; i++) {
-            double d = (double) Line2D.ptSegDist( // TODO alter to (double)
+        for (int i = 0; i < n - 1; i++) {
+            double d = Line2D.ptSegDist( // TODO alter to (double)
                     // OrthodromicDistance.getPoint2LineDistanceInDegrees(a,b)
-                    poly.points.get(i).coordinates.get(0), poly.points.get(i).coordinates.get(1),
-                    poly.points.get(i + 1).coordinates.get(0), poly.points.get(i + 1).coordinates.get(1),
-                    p.coordinates.get(0), p.coordinates.get(1));
-            list.add(d);
-        }
-
-        // (3) return the minimum distance of the list
-        double min;
-        min = Double.MAX_VALUE;
-        for (double d : list) {
+                    poly[2 * i], poly[2 * i + 1], poly[2 * i + 2], poly[2 * i + 3], lat, lon);
             if (d < min)
                 min = d;
         }
+
+        // (3) return the minimum distance
         return min;
     }
 
@@ -107,43 +125,43 @@ public class PolygonFrechetDistance {
         ArrayList<Double> list = new ArrayList<Double>();
 
         // (1) distances between starting and ending points
-        list.add((double) OrthodromicDistance.getDistanceInDegrees(poly1.points.get(0), poly2.points.get(0)));
-        list.add((double) OrthodromicDistance.getDistanceInDegrees(poly1.points.get(poly1.points.size() - 1),
-                poly2.points.get(poly2.points.size() - 1)));
+        list.add(OrthodromicDistance.getDistanceInDegrees(coords1[0], coords1[1], coords2[0], coords2[1]));
+        list.add(OrthodromicDistance.getDistanceInDegrees(coords1[2 * (n1 - 1)], coords1[2 * (n1 - 1) + 1],
+                coords2[2 * (n2 - 1)], coords2[2 * (n2 - 1) + 1]));
 
         // (2) distances between vertices of one polygon and edges of the other
         // polygon
-        for (int i = 0; i < poly1.points.size(); i++) {
-            for (int j = 0; j < poly2.points.size() - 1; j++) {
+        for (int i = 0; i < n1; i++) {
+            for (int j = 0; j < n2 - 1; j++) {
                 double d = Line2D.ptSegDist( // TODO alter to (double)
                         // OrthodromicDistance.getPoint2LineDistanceInDegrees(a,b)
-                        poly2.points.get(j).coordinates.get(0), poly2.points.get(j).coordinates.get(1),
-                        poly2.points.get(j + 1).coordinates.get(0), poly2.points.get(j + 1).coordinates.get(1),
-                        poly1.points.get(i).coordinates.get(0), poly1.points.get(i).coordinates.get(1));
+                        coords2[2 * j], coords2[2 * j + 1],
+                        coords2[2 * (j + 1)], coords2[2 * (j + 1) + 1],
+                        coords1[2 * i], coords1[2 * i + 1]);
                 list.add(d);
             }
         }
 
-        for (int j = 0; j < poly2.points.size(); j++) {
-            for (int i = 0; i < poly1.points.size() - 1; i++) {
-                double d = Line2D.ptSegDist(poly1.points.get(i).coordinates.get(0),
-                        poly1.points.get(i).coordinates.get(1), poly1.points.get(i + 1).coordinates.get(0),
-                        poly1.points.get(i + 1).coordinates.get(1), poly2.points.get(j).coordinates.get(0),
-                        poly2.points.get(j).coordinates.get(1));
+        for (int j = 0; j < n2; j++) {
+            for (int i = 0; i < n1 - 1; i++) {
+                double d = Line2D.ptSegDist(coords1[2 * i],
+                        coords1[2 * i + 1], coords1[2 * (i + 1)],
+                        coords1[2 * (i + 1) + 1], coords2[2 * j],
+                        coords2[2 * j + 1]);
                 list.add(d);
             }
         }
 
         // convert into coordinate array
-        Coordinate[] poly1Curve = new Coordinate[poly1.points.size()];
-        Coordinate[] poly2Curve = new Coordinate[poly2.points.size()];
-        for (int i = 0; i < poly1.points.size(); i++) {
-            poly1Curve[i] = new Coordinate(poly1.points.get(i).coordinates.get(0),
-                    poly1.points.get(i).coordinates.get(1));
+        Coordinate[] poly1Curve = new Coordinate[n1];
+        Coordinate[] poly2Curve = new Coordinate[n2];
+        for (int i = 0; i < n1; i++) {
+            poly1Curve[i] = new Coordinate(coords1[2 * i],
+                    coords1[2 * i + 1]);
         }
-        for (int i = 0; i < poly2.points.size(); i++) {
-            poly2Curve[i] = new Coordinate(poly2.points.get(i).coordinates.get(0),
-                    poly2.points.get(i).coordinates.get(1));
+        for (int i = 0; i < n2; i++) {
+            poly2Curve[i] = new Coordinate(coords2[2 * i],
+                    coords2[2 * i + 1]);
         }
 
         // (3) common distance of two vertices of one polygon to the
@@ -154,8 +172,8 @@ public class PolygonFrechetDistance {
         LineSegment lseg;
         Coordinate c1, midPoint, c2;
         Coordinate intersect = null;
-        for (int i = 0; i < poly1.points.size() - 2; i++) {
-            for (int j = i + 2; j < poly1.points.size(); j++) {
+        for (int i = 0; i < n1 - 2; i++) {
+            for (int j = i + 2; j < n1; j++) {
                 // compute seg between i and j
                 // compute bisector and intersection point with q
                 // compute the distance
@@ -195,8 +213,8 @@ public class PolygonFrechetDistance {
             }
         }
 
-        for (int i = 0; i < poly2.points.size() - 2; i++) {
-            for (int j = i + 2; j < poly2.points.size(); j++) {
+        for (int i = 0; i < n2 - 2; i++) {
+            for (int j = i + 2; j < n2; j++) {
                 lseg = new LineSegment(poly2Curve[i], poly2Curve[j]);
                 midPoint = lseg.midPoint();
                 double origSlope = getSlope(poly2Curve[i].x, poly2Curve[i].y, poly2Curve[j].x, poly2Curve[j].y);
@@ -274,58 +292,58 @@ public class PolygonFrechetDistance {
             return false;
 
         // check first pair of segments
-        if (Line2D.ptSegDist(poly1.points.get(0).coordinates.get(0), poly1.points.get(0).coordinates.get(1),
-                poly1.points.get(1).coordinates.get(0), poly1.points.get(1).coordinates.get(1),
-                poly2.points.get(0).coordinates.get(0), poly2.points.get(0).coordinates.get(1)) > epsilon &&
+        if (Line2D.ptSegDist(coords1[0], coords1[1],
+                coords1[2 * 1], coords1[2 * 1 + 1],
+                coords2[0], coords2[1]) > epsilon &&
 
-        Line2D.ptSegDist(poly1.points.get(0).coordinates.get(0), poly1.points.get(0).coordinates.get(1),
-                poly1.points.get(1).coordinates.get(0), poly1.points.get(1).coordinates.get(1),
-                poly2.points.get(1).coordinates.get(0), poly2.points.get(1).coordinates.get(1)) > epsilon) {
+        Line2D.ptSegDist(coords1[0], coords1[1],
+                coords1[2 * 1], coords1[2 * 1 + 1],
+                coords2[2 * 1], coords2[2 * 1 + 1]) > epsilon) {
 
             return false;
         }
 
-        if (Line2D.ptSegDist(poly2.points.get(0).coordinates.get(0), poly2.points.get(0).coordinates.get(1),
-                poly2.points.get(1).coordinates.get(0), poly2.points.get(1).coordinates.get(1),
-                poly1.points.get(0).coordinates.get(0), poly1.points.get(0).coordinates.get(1)) > epsilon &&
+        if (Line2D.ptSegDist(coords2[0], coords2[1],
+                coords2[2 * 1], coords2[2 * 1 + 1],
+                coords1[0], coords1[1]) > epsilon &&
 
-        Line2D.ptSegDist(poly2.points.get(0).coordinates.get(0), poly2.points.get(0).coordinates.get(1),
-                poly2.points.get(1).coordinates.get(0), poly2.points.get(1).coordinates.get(1),
-                poly1.points.get(1).coordinates.get(0), poly1.points.get(1).coordinates.get(1)) > epsilon) {
+        Line2D.ptSegDist(coords2[0], coords2[1],
+                coords2[2 * 1], coords2[2 * 1 + 1],
+                coords1[2 * 1], coords1[2 * 1 + 1]) > epsilon) {
 
             return false;
         }
 
         // check last pair of segments
-        if (Line2D.ptSegDist(poly1.points.get(poly1.points.size() - 2).coordinates.get(0),
-                poly1.points.get(poly1.points.size() - 2).coordinates.get(1),
-                poly1.points.get(poly1.points.size() - 1).coordinates.get(0),
-                poly1.points.get(poly1.points.size() - 1).coordinates.get(1),
-                poly2.points.get(poly2.points.size() - 1).coordinates.get(0),
-                poly2.points.get(poly2.points.size() - 1).coordinates.get(1)) > epsilon &&
-
-        Line2D.ptSegDist(poly1.points.get(poly1.points.size() - 2).coordinates.get(0),
-                poly1.points.get(poly1.points.size() - 2).coordinates.get(1),
-                poly1.points.get(poly1.points.size() - 1).coordinates.get(0),
-                poly1.points.get(poly1.points.size() - 1).coordinates.get(1),
-                poly2.points.get(poly2.points.size() - 2).coordinates.get(0),
-                poly2.points.get(poly2.points.size() - 2).coordinates.get(1)) > epsilon) {
+        if (Line2D.ptSegDist(coords1[2 * (n1 - 2)],
+                coords1[2 * (n1 - 2) + 1],
+                coords1[2 * (n1 - 1)],
+                coords1[2 * (n1 - 1) + 1],
+                coords2[2 * (n2 - 1)],
+                coords2[2 * (n2 - 1) + 1]) > epsilon &&
+
+        Line2D.ptSegDist(coords1[2 * (n1 - 2)],
+                coords1[2 * (n1 - 2) + 1],
+                coords1[2 * (n1 - 1)],
+                coords1[2 * (n1 - 1) + 1],
+                coords2[2 * (n2 - 2)],
+                coords2[2 * (n2 - 2) + 1]) > epsilon) {
 
             return false;
         }
-        if (Line2D.ptSegDist(poly2.points.get(poly2.points.size() - 2).coordinates.get(0),
-                poly2.points.get(poly2.points.size() - 2).coordinates.get(1),
-                poly2.points.get(poly2.points.size() - 1).coordinates.get(0),
-                poly2.points.get(poly2.points.size() - 1).coordinates.get(1),
-                poly1.points.get(poly1.points.size() - 2).coordinates.get(0),
-                poly1.points.get(poly1.points.size() - 2).coordinates.get(1)) > epsilon &&
-
-        Line2D.ptSegDist(poly2.points.get(poly2.points.size() - 2).coordinates.get(0),
-                poly2.points.get(poly2.points.size() - 2).coordinates.get(1),
-                poly2.points.get(poly2.points.size() - 1).coordinates.get(0),
-                poly2.points.get(poly2.points.size() - 1).coordinates.get(1),
-                poly1.points.get(poly1.points.size() - 1).coordinates.get(0),
-                poly1.points.get(poly1.points.size() - 1).coordinates.get(1)) > epsilon) {
+        if (Line2D.ptSegDist(coords2[2 * (n2 - 2)],
+                coords2[2 * (n2 - 2) + 1],
+                coords2[2 * (n2 - 1)],
+                coords2[2 * (n2 - 1) + 1],
+                coords1[2 * (n1 - 2)],
+                coords1[2 * (n1 - 2) + 1]) > epsilon &&
+
+        Line2D.ptSegDist(coords2[2 * (n2 - 2)],
+                coords2[2 * (n2 - 2) + 1],
+                coords2[2 * (n2 - 1)],
+                coords2[2 * (n2 - 1) + 1],
+                coords1[2 * (n1 - 1)],
+                coords1[2 * (n1 - 1) + 1]) > epsilon) {
 
             return false;
         }
@@ -336,19 +354,19 @@ public class PolygonFrechetDistance {
         org.locationtech.jts.geom.Polygon tempCircle;
         Geometry tempGeom;
 
-        for (int i = 0; i < poly1.points.size() - 1; i++) {
-            for (int j = 0; j < poly2.points.size() - 1; j++) {
+        for (int i = 0; i < n1 - 1; i++) {
+            for (int j = 0; j < n2 - 1; j++) {
 
-                p1 = new Coordinate(poly1.points.get(i).coordinates.get(0), poly1.points.get(i).coordinates.get(1));
-                p2 = new Coordinate(poly1.points.get(i + 1).coordinates.get(0),
-                        poly1.points.get(i + 1).coordinates.get(1));
-                q1 = new Coordinate(poly2.points.get(j).coordinates.get(0), poly2.points.get(j).coordinates.get(1));
-                q2 = new Coordinate(poly2.points.get(j + 1).coordinates.get(0),
-                        poly2.points.get(j + 1).coordinates.get(1));
+                p1 = new Coordinate(coords1[2 * i], coords1[2 * i + 1]);
+                p2 = new Coordinate(coords1[2 * (i + 1)],
+                        coords1[2 * (i + 1) + 1]);
+                q1 = new Coordinate(coords2[2 * j], coords2[2 * j + 1]);
+                q2 = new Coordinate(coords2[2 * (j + 1)],
+                        coords2[2 * (j + 1) + 1]);
 
-                if (Line2D.ptSegDist(poly2.points.get(j).coordinates.get(0), poly2.points.get(j).coordinates.get(1),
-                        poly2.points.get(j + 1).coordinates.get(0), poly2.points.get(j + 1).coordinates.get(1),
-                        poly1.points.get(i).coordinates.get(0), poly1.points.get(i).coordinates.get(1)) > epsilon) {
+                if (Line2D.ptSegDist(coords2[2 * j], coords2[2 * j + 1],
+                        coords2[2 * (j + 1)], coords2[2 * (j + 1) + 1],
+                        coords1[2 * i], coords1[2 * i + 1]) > epsilon) {
 
                     a[i][j] = b[i][j] = -1;
 
@@ -389,10 +407,10 @@ public class PolygonFrechetDistance {
                 }
 
                 // fill up c_ij and d_ij
-                double val1 = Line2D.ptSegDist(poly1.points.get(i).coordinates.get(0),
-                        poly1.points.get(i).coordinates.get(1), poly1.points.get(i + 1).coordinates.get(0),
-                        poly1.points.get(i + 1).coordinates.get(1), poly2.points.get(j).coordinates.get(0),
-                        poly2.points.get(j).coordinates.get(1));
+                double val1 = Line2D.ptSegDist(coords1[2 * i],
+                        coords1[2 * i + 1], coords1[2 * (i + 1)],
+                        coords1[2 * (i + 1) + 1], coords2[2 * j],
+                        coords2[2 * j + 1]);
 
                 if (val1 > epsilon) {
                     c[i][j] = d[i][j] = -1;
@@ -436,7 +454,7 @@ public class PolygonFrechetDistance {
 
         // determine B^R_i,1
         boolean flag = true;
-        for (int i = 0; i < poly1.points.size(); i++) {
+        for (int i = 0; i < n1; i++) {
             if (flag && c[i][0] == -1 && d[i][0] == -1) {
                 flag = false;
             } else if (!flag) {
@@ -446,7 +464,7 @@ public class PolygonFrechetDistance {
 
         flag = true;
         // determine L^R_1,j
-        for (int j = 1; j < poly2.points.size(); j++) {
+        for (int j = 1; j < n2; j++) {
             if (flag && a[0][j] == -1 && b[0][j] == -1) {
                 flag = false;
             } else if (!flag) {
@@ -458,10 +476,10 @@ public class PolygonFrechetDistance {
         boolean retVal = true;
 
         // cannot enter the upper right cell
-        if (a[poly1.points.size() - 1][poly2.points.size() - 1] == -1
-                && b[poly1.points.size() - 1][poly2.points.size() - 1] == -1
-                && c[poly1.points.size() - 1][poly2.points.size() - 1] == -1
-                && d[poly1.points.size() - 1][poly2.points.size() - 1] == -1) {
+        if (a[n1 - 1][n2 - 1] == -1
+                && b[n1 - 1][n2 - 1] == -1
+                && c[n1 - 1][n2 - 1] == -1
+                && d[n1 - 1][n2 - 1] == -1) {
             retVal = false;
         }
 
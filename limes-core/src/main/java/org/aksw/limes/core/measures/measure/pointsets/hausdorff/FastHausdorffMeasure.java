@@ -5,6 +5,7 @@
 package org.aksw.limes.core.measures.measure.pointsets.hausdorff;
 
 import org.aksw.limes.core.datastrutures.Point;
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 
 /**
@@ -52,6 +53,31 @@ public class FastHausdorffMeasure extends NaiveHausdorffMeasure {
         return max;
     }
 
+    @Override
+    public double computeDistance(PackedPolygon X, PackedPolygon Y, double threshold) {
+        double[] x = X.getRadians();
+        double[] y = Y.getRadians();
+        double max = 0f;
+        double d;
+        double min;
+        for (int i = 0; i < X.size(); i++) {
+            min = Float.POSITIVE_INFINITY;
+            for (int j = 0; j < Y.size(); j++) {
+                d = pointToPointDistance(x, i, y, j);
+                if (min > d) {
+                    min = d;
+                }
+            }
+            if (min > threshold) {
+                return min;
+            }
+            if (max < min) {
+                max = min;
+            }
+        }
+        return max;
+    }
+
     /*
      * (non-Javadoc)
      * 
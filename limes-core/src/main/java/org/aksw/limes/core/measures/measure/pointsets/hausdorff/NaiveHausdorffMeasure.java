@@ -13,8 +13,10 @@ import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper;
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.measure.pointsets.APointsetsMeasure;
+import org.aksw.limes.core.measures.measure.pointsets.IPackedPointsetsMeasure;
 
 /**
  * Brute force approach to computing the SetMeasure distance between two
@@ -22,7 +24,7 @@ import org.aksw.limes.core.measures.measure.pointsets.APointsetsMeasure;
  * 
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
-public class NaiveHausdorffMeasure extends APointsetsMeasure {
+public class NaiveHausdorffMeasure extends APointsetsMeasure implements IPackedPointsetsMeasure {
 
     public int computations;
 
@@ -71,6 +73,27 @@ public class NaiveHausdorffMeasure extends APointsetsMeasure {
         return max;
     }
 
+    public double computeDistance(PackedPolygon X, PackedPolygon Y, double threshold) {
+        double[] x = X.getRadians();
+        double[] y = Y.getRadians();
+        double max = 0;
+        double d;
+        double min;
+        for (int i = 0; i < X.size(); i++) {
+            min = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < Y.size(); j++) {
+                d = pointToPointDistance(x, i, y, j);
+                if (min > d) {
+                    min = d;
+                }
+            }
+            if (max < min) {
+                max = min;
+            }
+        }
+        return max;
+    }
+
     /*
      * (non-Javadoc)
      * 
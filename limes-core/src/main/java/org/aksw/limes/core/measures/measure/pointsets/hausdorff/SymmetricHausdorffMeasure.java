@@ -4,6 +4,7 @@
  */
 package org.aksw.limes.core.measures.measure.pointsets.hausdorff;
 
+import org.aksw.limes.core.measures.mapper.pointsets.PackedPolygon;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 
 /**
@@ -28,6 +29,12 @@ public class SymmetricHausdorffMeasure extends NaiveHausdorffMeasure {
         return Math.max(nh.computeDistance(X, Y, threshold), nh.computeDistance(Y, X, threshold));
     }
 
+    @Override
+    public double computeDistance(PackedPolygon X, PackedPolygon Y, double threshold) {
+        NaiveHausdorffMeasure nh = new NaiveHausdorffMeasure();
+        return Math.max(nh.computeDistance(X, Y, threshold), nh.computeDistance(Y, X, threshold));
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -48,6 +48,19 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
 
     }
 
+    /**
+     * Creates a measure on a dictionary that is already open.
+     * 
+     * @param indexer,
+     *            the index of the hypernym paths
+     * @param dictionary,
+     *            the open dictionary
+     */
+    protected AEdgeCountingSemanticMeasure(AIndex indexer, SemanticDictionary dictionary) {
+        this.dictionary = dictionary;
+        Indexer = indexer;
+    }
+
     public SemanticDictionary getSemanticDictionary() {
         return dictionary;
     }
@@ -266,6 +279,81 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
         return similarity;
     }
 
+    /**
+     * Tokenizes a value and removes the stopwords
+     * 
+     * @param value,
+     *            the input value
+     * @return the tokens of the value that are not stopwords
+     */
+    public List<String> getTokens(String value) {
+        List<String> tokens = new ArrayList<String>();
+        String[] allTokens = tokenize(new String[] { value });
+        if (allTokens == null)
+            return tokens;
+        for (String token : allTokens) {
+            if (!Stopwords.isStopword(token))
+                tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Calculates the semantic similarity between two tokens. Similarities are
+     * looked up in and stored to the {@link TokenSimilarityCache} shared by
+     * all measures.
+     * 
+     * @param sourceToken,
+     *            the source input token
+     * @param targetToken,
+     *            the target input token
+     * @return the semantic similarity between the tokens
+     */
+    public double getTokenSimilarity(String sourceToken, String targetToken) {
+        if (sourceToken.equals(targetToken))
+            return 1d;
+        TokenSimilarityCache cache = TokenSimilarityCache.getInstance();
+        double similarity = cache.get(getName(), sourceToken, targetToken);
+        if (Double.isNaN(similarity)) {
+            similarity = getSimilarity((Object) sourceToken, (Object) targetToken);
+            cache.put(getName(), sourceToken, targetToken, similarity);
+        }
+        return similarity;
+    }
+
+    /**
+     * Calculates the semantic similarity between two bags of words, i.e. the
+     * average over the source tokens of their maximal similarity to a target
+     * token.
+     * 
+     * @param sourceTokens,
+     *            the source tokens without stopwords
+     * @param targetTokens,
+     *            the target tokens without stopwords
+     * @return the semantic similarity between the bags of words
+     */
+    public double getSimilarity(List<String> sourceTokens, List<String> targetTokens) {
+        if (sourceTokens.isEmpty())
+            return 0;
+        double sourceTokensSum = 0;
+        for (String sourceToken : sourceTokens) {
+            double maxTargetTokenSim = 0;
+            for (String targetToken : targetTokens) {
+                double targetTokenSim = getTokenSimilarity(sourceToken, targetToken);
+                if (targetTokenSim > maxTargetTokenSim) {
+                    maxTargetTokenSim = targetTokenSim;
+                }
+                if (maxTargetTokenSim == 1.0d) {
+                    break;
+                }
+            }
+            // for the current source bag of words, add the max similarity to
+            // the sum over all current source token similarities
+            sourceTokensSum += maxTargetTokenSim;
+        }
+        return sourceTokensSum / sourceTokens.size();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -276,91 +364,29 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
      */
     @Override
     public double getSimilarity(Instance instance1, Instance instance2, String property1, String property2) {
-        // test in each semantic similarity
-
-        double sim = 0;
         double maxSim = 0;
 
         // pre-tokenize all target labels
-        ArrayList<String[]> targetInTokens = new ArrayList<String[]>();
+        ArrayList<List<String>> targetInTokens = new ArrayList<List<String>>();
         for (String targetValue : instance2.getProperty(property2)) {
             if (targetValue.equals(""))
                 continue;
-            String[] tempTokens = tokenize(new String[] { targetValue });
-            targetInTokens.add(tempTokens);
+            targetInTokens.add(getTokens(targetValue));
         }
 
-        ///////////////////////////////////////////////////////////////////
-        HashMap<String, Double> similaritiesMap = new HashMap<String, Double>();
-
         for (String sourceValue : instance1.getProperty(property1)) {
             if (sourceValue.equals(""))
                 continue;
 
-            String[] sourceTokens = tokenize(new String[] { sourceValue });
-
-            for (String[] targetTokens : targetInTokens) {
-
-                double sourceTokensSum = 0;
-                // compare each token of the current source value
-                // with every token of the current target value
-                int nonSWCounter = 0;
-
-                for (String sourceToken : sourceTokens) {
-                    boolean flagSource = Stopwords.isStopword(sourceToken);
-
-                    if (!flagSource) {
-
-                        nonSWCounter++;
-                        double maxTargetTokenSim = 0;
-
-                        for (String targetToken : targetTokens) {
-
-                            boolean flagTarget = Stopwords.isStopword(targetToken);
-
-                            if (!flagTarget) {
-
-                                double targetTokenSim = 0.0d;
-
-                                double tempSim = checkSimilarity(similaritiesMap, sourceToken, targetToken);
-                                if (tempSim == Double.MAX_VALUE) {
-                                    targetTokenSim = (sourceToken.equals(targetToken) == true) ? 1d
-                                            : getSimilarity(sourceToken, targetToken);
-                                    similaritiesMap.put(sourceToken + "||" + targetToken, targetTokenSim);
-                                } else {
-                                    targetTokenSim = tempSim;
-                                }
-                                if (targetTokenSim > maxTargetTokenSim) {
-                                    maxTargetTokenSim = targetTokenSim;
-                                }
-                                if (maxTargetTokenSim == 1.0d) {
-                                    break;
-                                }
-                            }
-                        }
-                        // for the current source bag of words, add the max
-                        // similarity to the sum over all current source
-                        // token similarities
-                        sourceTokensSum += maxTargetTokenSim;
-                    }
-
-                }
-                // get the average of the max similarities of each source token
-                // this is the similarity of the current source bag of words
-                // logger.info("Non stop words " + counter);
-                // sim = sourceTokensSum;
-                if (nonSWCounter > 0)
-                    sim = (double) sourceTokensSum / ((double) (nonSWCounter));
-                else
-                    sim = 0;
-
-                // System.out.println("Score " + sim);
+            List<String> sourceTokens = getTokens(sourceValue);
 
+            for (List<String> targetTokens : targetInTokens) {
+                double sim = getSimilarity(sourceTokens, targetTokens);
                 if (sim > maxSim) {
                     maxSim = sim;
                 }
                 if (maxSim == 1.0d) {
-                    break;
+                    return maxSim;
                 }
             }
         }
@@ -0,0 +1,155 @@
+package org.aksw.limes.core.measures.measure.semantic.edgecounting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements a cache of the semantic similarities between two tokens that is
+ * shared by all edge-counting semantic measures of the JVM. Similarities are
+ * stored per measure and regardless of the order of the tokens.
+ * <p>
+ * The cache consists of two segments of at most half the maximal number of
+ * entries each. New similarities are stored in the current segment. Once it
+ * is full, it becomes the previous segment and the former previous segment is
+ * dropped. Similarities that are found in the previous segment are copied to
+ * the current one, thus the similarities used recently are kept, as with a
+ * least recently used cache, while the cache keeps accepting new tokens.
+ */
+public class TokenSimilarityCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenSimilarityCache.class);
+
+    /**
+     * System property that sets the maximal number of entries of the shared
+     * cache
+     */
+    public static final String SIZE_PROPERTY = "limes.semantic.cacheSize";
+    public static final int DEFAULT_SIZE = 1000000;
+
+    private static TokenSimilarityCache instance = null;
+
+    private final int segmentSize;
+    private volatile Map<String, Double> current = new ConcurrentHashMap<String, Double>();
+    private volatile Map<String, Double> previous = new ConcurrentHashMap<String, Double>();
+    private final AtomicInteger currentSize = new AtomicInteger();
+
+    /**
+     * @param maxSize,
+     *            the maximal number of entries, nothing is cached if it is
+     *            not positive
+     */
+    public TokenSimilarityCache(int maxSize) {
+        this.segmentSize = maxSize / 2;
+    }
+
+    /**
+     * @return the cache shared by all measures of the JVM
+     */
+    public static synchronized TokenSimilarityCache getInstance() {
+        if (instance == null) {
+            int maxSize = DEFAULT_SIZE;
+            String property = System.getProperty(SIZE_PROPERTY);
+            if (property != null) {
+                try {
+                    maxSize = Integer.parseInt(property.trim());
+                } catch (NumberFormatException e) {
+                    logger.warn(SIZE_PROPERTY + " = " + property + " is not a number. Using " + maxSize + ".");
+                }
+            }
+            instance = new TokenSimilarityCache(maxSize);
+        }
+        return instance;
+    }
+
+    private static String getKey(String measureName, String token1, String token2) {
+        if (token1.compareTo(token2) > 0) {
+            String temp = token1;
+            token1 = token2;
+            token2 = temp;
+        }
+        return measureName + "||" + token1 + "||" + token2;
+    }
+
+    /**
+     * Retrieves the similarity of two tokens.
+     *
+     * @param measureName,
+     *            the name of the measure
+     * @param token1,
+     *            the first token
+     * @param token2,
+     *            the second token
+     * @return the similarity of the tokens, or NaN if it is not cached
+     */
+    public double get(String measureName, String token1, String token2) {
+        String key = getKey(measureName, token1, token2);
+        Double similarity = current.get(key);
+        if (similarity == null) {
+            similarity = previous.get(key);
+            if (similarity == null) {
+                return Double.NaN;
+            }
+            // keep the similarity when the previous segment is dropped
+            put(key, similarity);
+        }
+        return similarity;
+    }
+
+    /**
+     * Stores the similarity of two tokens. Drops the previous segment if the
+     * current one is full.
+     *
+     * @param measureName,
+     *            the name of the measure
+     * @param token1,
+     *            the first token
+     * @param token2,
+     *            the second token
+     * @param similarity,
+     *            the similarity of the tokens
+     */
+    public void put(String measureName, String token1, String token2, double similarity) {
+        put(getKey(measureName, token1, token2), similarity);
+    }
+
+    private void put(String key, double similarity) {
+        if (segmentSize <= 0) {
+            return;
+        }
+        if (current.putIfAbsent(key, similarity) == null && currentSize.incrementAndGet() >= segmentSize) {
+            rotate();
+        }
+    }
+
+    /**
+     * Makes the full current segment the previous one.
+     */
+    private synchronized void rotate() {
+        if (currentSize.get() < segmentSize) {
+            // rotated by another thread
+            return;
+        }
+        previous = current;
+        current = new ConcurrentHashMap<String, Double>();
+        currentSize.set(0);
+    }
+
+    /**
+     * @return the number of cached similarities
+     */
+    public int size() {
+        return current.size() + previous.size();
+    }
+
+    /**
+     * Removes all cached similarities.
+     */
+    public synchronized void clear() {
+        current = new ConcurrentHashMap<String, Double>();
+        previous = new ConcurrentHashMap<String, Double>();
+        currentSize.set(0);
+    }
+}
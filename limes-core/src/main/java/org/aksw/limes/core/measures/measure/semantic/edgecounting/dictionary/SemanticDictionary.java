@@ -140,6 +140,24 @@ public class SemanticDictionary {
         return dictionary.getSynset(hypernymId);
     }
 
+    /**
+     * Retrieves the folder of the wordnet database files
+     * 
+     * @return the wordnet folder
+     */
+    public String getWordNetFolder() {
+        return wordNetFolder;
+    }
+
+    /**
+     * Retrieves the file that the wordnet database is exported to
+     * 
+     * @return the exported wordnet file
+     */
+    public File getExportedFile() {
+        return new File(exFile);
+    }
+
     /**
      * Retrieves the semantic wordnet dictionary
      * 
@@ -0,0 +1,326 @@
+package org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.file;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.dictionary.SemanticDictionary;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.finders.HypernymPathsFinder;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.AIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.SynsetID;
+
+/**
+ * Implements a persistent index of the hypernym paths of every synset in
+ * wordnet. The paths are computed once, like the {@link
+ * org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.memory.MemoryIndex}
+ * does, and written next to the exported wordnet file. Later indexes map the
+ * file into memory instead of loading the dictionary, and decode the paths of
+ * a synset when they are requested for the first time. The file is rebuilt if
+ * the exported wordnet file changes.
+ * <p>
+ * The file consists of ints. After a header, it holds one section per POS with
+ * the sorted offsets of its synsets, the first path of each synset, the first
+ * element of each path and the offsets of the path elements. All synsets of a
+ * path have the POS of the synset it leads to.
+ */
+public class FileIndex extends AIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FileIndex.class);
+
+    /**
+     * Name of the index file in the wordnet folder
+     */
+    public static final String INDEX_FILE = "JWI_Hypernym_Paths_.idx";
+
+    private static final int MAGIC = 0x4c484950;
+    private static final int VERSION = 1;
+    // magic, version, length and modification time of the exported wordnet
+    // file, number of sections
+    private static final int HEADER_SIZE = 7;
+
+    private static FileIndex sharedIndex = null;
+
+    private final File file;
+    private IntBuffer data = null;
+    // per POS number: first synset offset, first path start, first element
+    // start and first element of its section
+    private final int[][] sections = new int[POS.values().length + 1][];
+    private final Map<Long, ArrayList<ArrayList<ISynsetID>>> decoded = new ConcurrentHashMap<Long, ArrayList<ArrayList<ISynsetID>>>();
+
+    /**
+     * Creates an index stored in the wordnet folder.
+     */
+    public FileIndex() {
+        this(new File(new SemanticDictionary().getWordNetFolder(), INDEX_FILE));
+    }
+
+    /**
+     * Creates an index stored in a file.
+     *
+     * @param file,
+     *            the index file
+     */
+    public FileIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Retrieves the index that is shared by all semantic mappers of the JVM.
+     * The index is loaded, or built if needed, on the first call.
+     *
+     * @return the shared index
+     */
+    public static synchronized FileIndex getInstance() {
+        if (sharedIndex == null) {
+            FileIndex index = new FileIndex();
+            index.preIndex();
+            sharedIndex = index;
+        }
+        return sharedIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init(boolean f) {
+    }
+
+    /**
+     * {@inheritDoc} The mapped file is released when the index is garbage
+     * collected, as the index may be shared.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Maps the index file into memory. The file is built first if it does not
+     * exist or belongs to another version of the exported wordnet file.
+     */
+    @Override
+    public void preIndex() {
+        SemanticDictionary dictionary = new SemanticDictionary();
+        dictionary.exportDictionaryToFile();
+        File exported = dictionary.getExportedFile();
+        long begin = System.currentTimeMillis();
+        if (load(exported)) {
+            logger.info("Loaded hypernym index " + file + " in " + (System.currentTimeMillis() - begin) + "ms.");
+            return;
+        }
+        build(dictionary, exported);
+        if (!load(exported)) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Couldn't load hypernym index " + file + ". Exiting..");
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Maps the index file into memory if it matches the exported wordnet file.
+     *
+     * @param exported,
+     *            the exported wordnet file
+     * @return true if the index was loaded
+     */
+    boolean load(File exported) {
+        if (!file.exists()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            IntBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer();
+            if (buffer.limit() < HEADER_SIZE || buffer.get(0) != MAGIC || buffer.get(1) != VERSION
+                    || getLong(buffer, 2) != exported.length() || getLong(buffer, 4) != exported.lastModified()) {
+                logger.info("Hypernym index " + file + " is outdated.");
+                return false;
+            }
+            int position = HEADER_SIZE;
+            for (int i = 0; i < buffer.get(6); i++) {
+                int posNumber = buffer.get(position);
+                int synsets = buffer.get(position + 1);
+                int offsets = position + 2;
+                int pathStarts = offsets + synsets;
+                int paths = buffer.get(pathStarts + synsets + 1);
+                int elementStarts = pathStarts + synsets + 2;
+                int elements = elementStarts + paths + 2;
+                sections[posNumber] = new int[] { offsets, pathStarts, elementStarts, elements, synsets };
+                position = elements + buffer.get(elementStarts + paths + 1);
+            }
+            data = buffer;
+            decoded.clear();
+            return true;
+        } catch (IOException e) {
+            logger.warn("Couldn't read hypernym index " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static long getLong(IntBuffer buffer, int index) {
+        return ((long) buffer.get(index) << 32) | (buffer.get(index + 1) & 0xffffffffL);
+    }
+
+    /**
+     * Computes the hypernym paths of all synsets and writes them to the index
+     * file.
+     */
+    private void build(SemanticDictionary dictionary, File exported) {
+        logger.info("Building hypernym index " + file + ".");
+        long begin = System.currentTimeMillis();
+        dictionary.openDictionaryFromFile();
+        try {
+            write(exported, pos -> {
+                TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>> paths = new TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>>();
+                Iterator<ISynset> iterator = dictionary.getDictionary().getSynsetIterator(pos);
+                while (iterator.hasNext()) {
+                    ISynset synset = iterator.next();
+                    paths.put(synset.getOffset(), HypernymPathsFinder.getHypernymPaths(dictionary, synset));
+                }
+                return paths;
+            });
+        } finally {
+            dictionary.removeDictionary();
+        }
+        logger.info("Built hypernym index in " + (System.currentTimeMillis() - begin) + "ms.");
+    }
+
+    /**
+     * Writes the hypernym paths of the synsets of each POS to the index file.
+     *
+     * @param exported,
+     *            the exported wordnet file the paths are computed from
+     * @param paths,
+     *            the hypernym paths of the synsets of a POS by their offset
+     */
+    void write(File exported, Function<POS, TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>>> paths) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(exported.length());
+            out.writeLong(exported.lastModified());
+            out.writeInt(POS.values().length);
+            for (POS pos : POS.values()) {
+                writeSection(out, pos, paths.apply(pos));
+            }
+        } catch (IOException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Couldn't write hypernym index " + file + ". Exiting..");
+            throw new RuntimeException(e);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Couldn't write hypernym index " + file + ". Exiting..");
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, POS pos,
+            TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>> paths) throws IOException {
+        out.writeInt(pos.getNumber());
+        out.writeInt(paths.size());
+        for (Integer offset : paths.keySet()) {
+            out.writeInt(offset);
+        }
+        int pathCount = 0;
+        out.writeInt(pathCount);
+        for (ArrayList<ArrayList<ISynsetID>> synsetPaths : paths.values()) {
+            pathCount += synsetPaths.size();
+            out.writeInt(pathCount);
+        }
+        out.writeInt(pathCount);
+        int elementCount = 0;
+        out.writeInt(elementCount);
+        for (ArrayList<ArrayList<ISynsetID>> synsetPaths : paths.values()) {
+            for (List<ISynsetID> path : synsetPaths) {
+                elementCount += path.size();
+                out.writeInt(elementCount);
+            }
+        }
+        out.writeInt(elementCount);
+        for (ArrayList<ArrayList<ISynsetID>> synsetPaths : paths.values()) {
+            for (List<ISynsetID> path : synsetPaths) {
+                for (ISynsetID id : path) {
+                    out.writeInt(id.getOffset());
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ArrayList<ArrayList<ISynsetID>> getHypernymPaths(ISynset synset) {
+        return getHypernymPaths(synset.getPOS(), synset.getOffset());
+    }
+
+    /**
+     * Retrieves the hypernym paths of the synset with a given POS and offset.
+     *
+     * @param pos,
+     *            the POS of the synset
+     * @param offset,
+     *            the offset of the synset
+     * @return the hypernym paths of the synset
+     */
+    ArrayList<ArrayList<ISynsetID>> getHypernymPaths(POS pos, int offset) {
+        long key = ((long) pos.getNumber() << 32) | (offset & 0xffffffffL);
+        ArrayList<ArrayList<ISynsetID>> paths = decoded.get(key);
+        if (paths == null) {
+            paths = decode(pos, offset);
+            decoded.put(key, paths);
+        }
+        return paths;
+    }
+
+    private ArrayList<ArrayList<ISynsetID>> decode(POS pos, int offset) {
+        ArrayList<ArrayList<ISynsetID>> paths = new ArrayList<ArrayList<ISynsetID>>();
+        int[] section = sections[pos.getNumber()];
+        if (section == null) {
+            return paths;
+        }
+        // binary search of the synset offset
+        int low = 0;
+        int high = section[4] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = data.get(section[0] + middle);
+            if (value < offset) {
+                low = middle + 1;
+            } else if (value > offset) {
+                high = middle - 1;
+            } else {
+                for (int p = data.get(section[1] + middle); p < data.get(section[1] + middle + 1); p++) {
+                    int end = data.get(section[2] + p + 1);
+                    ArrayList<ISynsetID> path = new ArrayList<ISynsetID>(end - data.get(section[2] + p));
+                    for (int e = data.get(section[2] + p); e < end; e++) {
+                        path.add(new SynsetID(data.get(section[3] + e), pos));
+                    }
+                    paths.add(path);
+                }
+                return paths;
+            }
+        }
+        return paths;
+    }
+}
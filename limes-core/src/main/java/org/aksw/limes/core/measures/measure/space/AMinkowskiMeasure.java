@@ -37,6 +37,15 @@ abstract class AMinkowskiMeasure extends ASpaceMeasure {
         return 1.0/(1+distance);
     }
 
+    @Override
+    public double getSimilarity(double[] points1, int offset1, double[] points2, int offset2) {
+        double distance = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            distance += innerPTerm(points1[offset1 + i], points2[offset2 + i]);
+        }
+        return 1.0 / (1 + outerPTerm(distance));
+    }
+
     @Override
     public double getSimilarity(Instance instance1, Instance instance2, String properties1, String properties2) {
         String p1[] = properties1.split("\\|");
@@ -71,6 +80,16 @@ abstract class AMinkowskiMeasure extends ASpaceMeasure {
      * @param yi value of y_i
      * @return |x_i-y_i|^p
      */
-    abstract double innerPTerm(String xi, String yi);
+    double innerPTerm(String xi, String yi) {
+        return innerPTerm(Double.parseDouble(xi), Double.parseDouble(yi));
+    }
+
+    /**
+     * Implementation for the inner p-term on parsed values.
+     * @param xi value of x_i
+     * @param yi value of y_i
+     * @return |x_i-y_i|^p
+     */
+    abstract double innerPTerm(double xi, double yi);
 
 }
@@ -131,11 +131,17 @@ public class GeoGreatEllipticMeasure extends ASpaceMeasure {
 
         double lat1 = Double.parseDouble(p1[0]);
         double lon1 = Double.parseDouble(p1[1]);
-        double lat2 = Double.parseDouble(p1[0]);
+        double lat2 = Double.parseDouble(p2[0]);
         double lon2 = Double.parseDouble(p2[1]);
         return getDistance(lat1, lon1, lat2, lon2);
     }
 
+    // assume lat, long
+    @Override
+    public double getSimilarity(double[] points1, int offset1, double[] points2, int offset2) {
+        return getDistance(points1[offset1], points1[offset1 + 1], points2[offset2], points2[offset2 + 1]);
+    }
+
     @Override
     public double getSimilarity(Instance instance1, Instance instance2, String property1, String property2) {
         String p1[] = property1.split("\\|");
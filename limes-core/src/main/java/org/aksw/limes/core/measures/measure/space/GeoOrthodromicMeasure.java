@@ -31,13 +31,19 @@ public class GeoOrthodromicMeasure extends ASpaceMeasure {
 
         double lat1 = Double.parseDouble(p1[0]);
         double lon1 = Double.parseDouble(p1[1]);
-        double lat2 = Double.parseDouble(p1[0]);
+        double lat2 = Double.parseDouble(p2[0]);
         double lon2 = Double.parseDouble(p2[1]);
 
         double d = distance(lat1, lon1, lat2, lon2);
         return 1 / (1 + d);
     }
 
+    // assume lat, long
+    public double getSimilarity(double[] points1, int offset1, double[] points2, int offset2) {
+        double d = distance(points1[offset1], points1[offset1 + 1], points2[offset2], points2[offset2 + 1]);
+        return 1 / (1 + d);
+    }
+
     public static double distance(double lat1, double lon1, double lat2, double lon2) {
         double value1 = Math.pow(Math.sin((lat1 - lat2) / 2.0)* D2R, 2)
                 + Math.cos(lat1 * D2R) * Math.cos(lat2 * D2R) * Math.pow(Math.sin((lon1 - lon2) / 2.0)* D2R, 2);
@@ -14,4 +14,20 @@ public interface ISpaceMeasure extends IMeasure {
     public void setDimension(int n);
 
     public double getThreshold(int dimension, double simThreshold);
+
+    /**
+     * Computes the similarity of two points that were parsed beforehand, e.g.
+     * the points of a {@link org.aksw.limes.core.io.cache.PointColumn}.
+     *
+     * @param points1
+     *            Coordinates of the first point
+     * @param offset1
+     *            Index of the first coordinate of the first point
+     * @param points2
+     *            Coordinates of the second point
+     * @param offset2
+     *            Index of the first coordinate of the second point
+     * @return the similarity of the points
+     */
+    public double getSimilarity(double[] points1, int offset1, double[] points2, int offset2);
 }
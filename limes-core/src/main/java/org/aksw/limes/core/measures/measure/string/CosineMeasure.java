@@ -35,7 +35,12 @@ public class CosineMeasure extends StringMeasure  {
     }
 
     public double getSimilarity(Object object1, Object object2) {
-        return new CosineSimilarity().getSimilarity(object1 + "", object2 + "");
+        return getSimilarity(object1, object2, 0);
+    }
+
+    @Override
+    public double getSimilarity(Object object1, Object object2, double threshold) {
+        return StringKernels.cosineSimilarity(object1 + "", object2 + "", threshold);
     }
 
     public String getType() {
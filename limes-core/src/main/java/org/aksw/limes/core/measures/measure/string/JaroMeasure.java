@@ -76,25 +76,12 @@ public class JaroMeasure extends StringMeasure {
      */
 
     public float getSimilarity(String string1, String string2) {
+        return (float) StringKernels.jaroSimilarity(string1, string2, 0);
+    }
 
-        // get half the length of the string rounded up - (this is the distance
-        // used for acceptable transpositions)
-        int halflen = ((int) (Math.min(string1.length(), string2.length()))) / 2;
-
-        // get common characters
-        List<Character> common1 = getCommonCharacters(string1, string2, halflen);
-        List<Character> common2 = getCommonCharacters(string2, string1, halflen);
-
-        // check for zero in common
-
-        // get the number of transpositions
-        int transpositions = getTranspositions(common1, common2);
-        if (transpositions == -1)
-            return 0f;
-
-        // calculate jaro metric
-        return (common1.size() / ((float) string1.length()) + common2.size() / ((float) string2.length())
-                + (common1.size() - transpositions) / ((float) common1.size())) / 3.0f;
+    @Override
+    public double getSimilarity(Object object1, Object object2, double threshold) {
+        return StringKernels.jaroSimilarity(object1 + "", object2 + "", threshold);
     }
 
     public double getSimilarity(Object object1, Object object2) {
@@ -163,4 +150,4 @@ public class JaroMeasure extends StringMeasure {
         return false;
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
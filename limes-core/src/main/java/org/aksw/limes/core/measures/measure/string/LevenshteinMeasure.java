@@ -37,8 +37,12 @@ public class LevenshteinMeasure extends StringMeasure {
     }
 
     public double getSimilarity(Object object1, Object object2) {
-        return (new uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein()).getSimilarity(object1 + "",
-                object2 + "");
+        return getSimilarity(object1, object2, 0);
+    }
+
+    @Override
+    public double getSimilarity(Object object1, Object object2, double threshold) {
+        return StringKernels.levenshteinSimilarity(object1 + "", object2 + "", threshold);
     }
 
     public String getType() {
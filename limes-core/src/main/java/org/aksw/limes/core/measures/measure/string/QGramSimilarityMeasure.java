@@ -29,9 +29,14 @@ public class QGramSimilarityMeasure extends StringMeasure {
 
 
     public double getSimilarity(String x, String y) {
-        Set<String> yTokens = tokenizer.tokenize(y, q);
-        Set<String> xTokens = tokenizer.tokenize(x, q);
-        return getSimilarity(xTokens, yTokens);
+        return getSimilarity(x, y, 0);
+    }
+
+    @Override
+    public double getSimilarity(Object object1, Object object2, double threshold) {
+        String x = object1 == null ? "" : object1.toString();
+        String y = object2 == null ? "" : object2.toString();
+        return StringKernels.qGramSimilarity(x, y, q, threshold);
     }
 
     public double getSimilarity(Set<String> X, Set<String> Y) {
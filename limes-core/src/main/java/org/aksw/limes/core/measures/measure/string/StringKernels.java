@@ -0,0 +1,422 @@
+package org.aksw.limes.core.measures.measure.string;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free kernels of the string measures that are evaluated for every
+ * candidate pair, e.g. by the linear filter. The kernels read the characters
+ * of their inputs directly and keep their intermediate arrays in buffers of
+ * the calling thread, which are reused by the next call.
+ * <p>
+ * The methods with a threshold return 0 as soon as the similarity can not
+ * reach the threshold any more, otherwise they return the same value as the
+ * corresponding measure.
+ */
+public final class StringKernels {
+
+    /**
+     * Maximal length of the q-grams, whose characters are packed into a long
+     */
+    public static final int MAX_Q = 4;
+
+    /**
+     * Slack of the bounds that stop a computation, for rounding errors
+     */
+    private static final double EPSILON = 1e-6;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private StringKernels() {
+    }
+
+    /**
+     * Computes the q-grams of a string padded with q - 1 blanks on both sides,
+     * as the {@link org.aksw.limes.core.measures.mapper.string.fastngram.NGramTokenizer}
+     * does. The characters of each q-gram are packed into a long.
+     *
+     * @param s
+     *            the string
+     * @param q
+     *            length of the q-grams, at most {@link #MAX_Q}
+     * @param grams
+     *            array of at least s.length() + q - 1 elements that receives
+     *            the distinct q-grams in ascending order
+     * @return number of distinct q-grams
+     */
+    public static int qGrams(CharSequence s, int q, long[] grams) {
+        if (q < 1 || q > MAX_Q) {
+            throw new IllegalArgumentException("q must be between 1 and " + MAX_Q + ", got " + q);
+        }
+        int length = s.length() + 2 * (q - 1);
+        int size = s.length() + q - 1;
+        long gram = 0;
+        for (int p = 0; p < length; p++) {
+            char c = p < q - 1 || p >= s.length() + q - 1 ? ' ' : s.charAt(p - q + 1);
+            gram = (gram << 16) | c;
+            if (p >= q - 1) {
+                grams[p - q + 1] = q == MAX_Q ? gram : gram & ((1L << (16 * q)) - 1);
+            }
+        }
+        return distinct(grams, size);
+    }
+
+    /**
+     * Jaccard similarity of two sets of q-grams.
+     *
+     * @param a
+     *            distinct q-grams of the first string in ascending order
+     * @param sizeA
+     *            number of q-grams of the first string
+     * @param b
+     *            distinct q-grams of the second string in ascending order
+     * @param sizeB
+     *            number of q-grams of the second string
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold
+     */
+    public static double jaccard(long[] a, int sizeA, long[] b, int sizeB, double threshold) {
+        if (sizeA + sizeB == 0) {
+            return threshold > 1 ? 0 : 1;
+        }
+        // overlap z is needed for z / (sizeA + sizeB - z) >= threshold
+        double minOverlap = threshold * (sizeA + sizeB) / (1 + threshold) - EPSILON;
+        if (Math.min(sizeA, sizeB) < minOverlap) {
+            return 0;
+        }
+        int overlap = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sizeA && j < sizeB) {
+            if (overlap + Math.min(sizeA - i, sizeB - j) < minOverlap) {
+                return 0;
+            }
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                overlap++;
+                i++;
+                j++;
+            }
+        }
+        double similarity = overlap / (double) (sizeA + sizeB - overlap);
+        return similarity >= threshold ? similarity : 0;
+    }
+
+    /**
+     * Jaccard similarity of the padded q-grams of two strings, see
+     * {@link QGramSimilarityMeasure}.
+     *
+     * @param a
+     *            first string
+     * @param b
+     *            second string
+     * @param q
+     *            length of the q-grams, at most {@link #MAX_Q}
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold
+     */
+    public static double qGramSimilarity(CharSequence a, CharSequence b, int q, double threshold) {
+        Scratch scratch = SCRATCH.get();
+        long[] gramsA = scratch.gramsA(a.length() + q);
+        long[] gramsB = scratch.gramsB(b.length() + q);
+        return jaccard(gramsA, qGrams(a, q, gramsA), gramsB, qGrams(b, q, gramsB), threshold);
+    }
+
+    /**
+     * Levenshtein distance with unit costs.
+     *
+     * @param a
+     *            first string
+     * @param b
+     *            second string
+     * @param maxDistance
+     *            maximal distance of interest
+     * @return the distance or maxDistance + 1 if it exceeds maxDistance
+     */
+    public static int levenshteinDistance(CharSequence a, CharSequence b, int maxDistance) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        Scratch scratch = SCRATCH.get();
+        int[] previous = scratch.row(0, m + 1);
+        int[] current = scratch.row(1, m + 1);
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            char c = a.charAt(i - 1);
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+                current[j] = d;
+                if (d < rowMin) {
+                    rowMin = d;
+                }
+            }
+            // the distance is at least the minimum of each row
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], maxDistance + 1);
+    }
+
+    /**
+     * Normalized Levenshtein similarity, 1 - distance / length of the longer
+     * string, see {@link LevenshteinMeasure}.
+     *
+     * @param a
+     *            first string
+     * @param b
+     *            second string
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold
+     */
+    public static double levenshteinSimilarity(CharSequence a, CharSequence b, double threshold) {
+        int maxLength = Math.max(a.length(), b.length());
+        if (maxLength == 0) {
+            return threshold > 1 ? 0 : 1;
+        }
+        // one more than the allowed distance, the exact check is done below
+        int maxDistance = threshold <= 0 ? maxLength : (int) ((1 - threshold) * maxLength) + 1;
+        int distance = levenshteinDistance(a, b, maxDistance);
+        if (distance > maxDistance) {
+            return 0;
+        }
+        // same float arithmetic as SimMetrics
+        double similarity = 1.0f - (distance / (float) maxLength);
+        return similarity >= threshold ? similarity : 0;
+    }
+
+    /**
+     * Jaro similarity, see {@link JaroMeasure#getSimilarity(String, String)}.
+     *
+     * @param a
+     *            first string
+     * @param b
+     *            second string
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold
+     */
+    public static double jaroSimilarity(CharSequence a, CharSequence b, double threshold) {
+        int n = a.length();
+        int m = b.length();
+        if (n == 0 || m == 0 || jaroBound(Math.min(n, m), n, m) < threshold) {
+            return 0;
+        }
+        int halfLength = Math.min(n, m) / 2;
+        Scratch scratch = SCRATCH.get();
+        char[] commonA = scratch.commonA(n);
+        int common = commonCharacters(a, b, halfLength, scratch.copy(m), commonA);
+        if (common == 0 || jaroBound(common, n, m) < threshold) {
+            return 0;
+        }
+        char[] commonB = scratch.commonB(m);
+        if (commonCharacters(b, a, halfLength, scratch.copy(n), commonB) != common) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0; i < common; i++) {
+            if (commonA[i] != commonB[i]) {
+                transpositions++;
+            }
+        }
+        transpositions /= 2;
+        // same float arithmetic as the measure
+        double similarity = (common / ((float) n) + common / ((float) m)
+                + (common - transpositions) / ((float) common)) / 3.0f;
+        return similarity >= threshold ? similarity : 0;
+    }
+
+    /**
+     * Upper bound of the Jaro similarity of strings with a number of common
+     * characters, reached without transpositions.
+     */
+    private static double jaroBound(int common, int n, int m) {
+        return (common / (double) n + common / (double) m + 1) / 3 + EPSILON;
+    }
+
+    /**
+     * Collects the characters of a that occur in b within a window of
+     * halfLength around their position, see
+     * {@link JaroMeasure#getCommonCharacters(String, String, int)}.
+     */
+    private static int commonCharacters(CharSequence a, CharSequence b, int halfLength, char[] copy,
+            char[] common) {
+        int n = a.length();
+        int m = b.length();
+        for (int j = 0; j < m; j++) {
+            copy[j] = b.charAt(j);
+        }
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            char c = a.charAt(i);
+            for (int j = Math.max(0, i - halfLength); j < Math.min(i + halfLength, m); j++) {
+                if (copy[j] == c) {
+                    common[size++] = c;
+                    copy[j] = (char) 0;
+                    break;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Cosine similarity of the sets of whitespace separated tokens of two
+     * strings, see {@link CosineMeasure}. The tokens are compared by 64 bit
+     * hashes of their characters.
+     *
+     * @param a
+     *            first string
+     * @param b
+     *            second string
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold or one of the
+     *         strings has no token
+     */
+    public static double cosineSimilarity(CharSequence a, CharSequence b, double threshold) {
+        Scratch scratch = SCRATCH.get();
+        long[] tokensA = scratch.gramsA(a.length() / 2 + 1);
+        long[] tokensB = scratch.gramsB(b.length() / 2 + 1);
+        int sizeA = tokens(a, tokensA);
+        int sizeB = tokens(b, tokensB);
+        if (sizeA == 0 || sizeB == 0) {
+            return 0;
+        }
+        // overlap z is needed for z / sqrt(sizeA * sizeB) >= threshold
+        double minOverlap = threshold * Math.sqrt(sizeA * (double) sizeB) - EPSILON;
+        if (Math.min(sizeA, sizeB) < minOverlap) {
+            return 0;
+        }
+        int overlap = 0;
+        for (int i = 0, j = 0; i < sizeA && j < sizeB;) {
+            if (tokensA[i] < tokensB[j]) {
+                i++;
+            } else if (tokensA[i] > tokensB[j]) {
+                j++;
+            } else {
+                overlap++;
+                i++;
+                j++;
+            }
+        }
+        // same float arithmetic as SimMetrics
+        double similarity = (float) overlap
+                / (float) (Math.pow((float) sizeA, 0.5f) * Math.pow((float) sizeB, 0.5f));
+        return similarity >= threshold ? similarity : 0;
+    }
+
+    /**
+     * Hashes the whitespace separated tokens of a string.
+     *
+     * @return number of distinct tokens
+     */
+    private static int tokens(CharSequence s, long[] tokens) {
+        int size = 0;
+        long hash = 0;
+        boolean inToken = false;
+        for (int i = 0; i <= s.length(); i++) {
+            char c = i < s.length() ? s.charAt(i) : ' ';
+            if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens[size++] = hash;
+                    inToken = false;
+                }
+            } else {
+                if (!inToken) {
+                    // FNV-1a
+                    hash = 0xcbf29ce484222325L;
+                    inToken = true;
+                }
+                hash = (hash ^ c) * 0x100000001b3L;
+            }
+        }
+        return distinct(tokens, size);
+    }
+
+    /**
+     * Sorts the first size elements of an array and moves the distinct ones
+     * to the front.
+     *
+     * @return number of distinct elements
+     */
+    private static int distinct(long[] values, int size) {
+        Arrays.sort(values, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || values[i] != values[distinct - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Buffers of a thread, grown on demand.
+     */
+    private static class Scratch {
+        long[] gramsA = new long[64];
+        long[] gramsB = new long[64];
+        int[][] rows = { new int[64], new int[64] };
+        char[] commonA = new char[64];
+        char[] commonB = new char[64];
+        char[] copy = new char[64];
+
+        long[] gramsA(int size) {
+            if (gramsA.length < size) {
+                gramsA = new long[Math.max(size, 2 * gramsA.length)];
+            }
+            return gramsA;
+        }
+
+        long[] gramsB(int size) {
+            if (gramsB.length < size) {
+                gramsB = new long[Math.max(size, 2 * gramsB.length)];
+            }
+            return gramsB;
+        }
+
+        int[] row(int index, int size) {
+            if (rows[index].length < size) {
+                rows[index] = new int[Math.max(size, 2 * rows[index].length)];
+            }
+            return rows[index];
+        }
+
+        char[] commonA(int size) {
+            if (commonA.length < size) {
+                commonA = new char[Math.max(size, 2 * commonA.length)];
+            }
+            return commonA;
+        }
+
+        char[] commonB(int size) {
+            if (commonB.length < size) {
+                commonB = new char[Math.max(size, 2 * commonB.length)];
+            }
+            return commonB;
+        }
+
+        char[] copy(int size) {
+            if (copy.length < size) {
+                copy = new char[Math.max(size, 2 * copy.length)];
+            }
+            return copy;
+        }
+    }
+}
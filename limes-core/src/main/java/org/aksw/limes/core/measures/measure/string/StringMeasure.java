@@ -1,8 +1,56 @@
 package org.aksw.limes.core.measures.measure.string;
 
+import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.measures.measure.AMeasure;
 
 public abstract class StringMeasure extends AMeasure implements IStringMeasure {
-    
-    
+
+    /**
+     * Computes the similarity of two values if it reaches a threshold.
+     * Measures that are backed by {@link StringKernels} stop as soon as the
+     * threshold can not be reached.
+     *
+     * @param object1
+     *            the source value
+     * @param object2
+     *            the target value
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold
+     */
+    public double getSimilarity(Object object1, Object object2, double threshold) {
+        double sim = getSimilarity(object1, object2);
+        return sim >= threshold ? sim : 0;
+    }
+
+    /**
+     * Computes the highest similarity of the values of two instances if it
+     * reaches a threshold. The threshold is raised to the highest similarity
+     * found so far, so that the remaining pairs of values stop early.
+     *
+     * @param instance1
+     *            the source instance
+     * @param instance2
+     *            the target instance
+     * @param property1
+     *            the source property
+     * @param property2
+     *            the target property
+     * @param threshold
+     *            similarity threshold
+     * @return the similarity or 0 if it is below the threshold
+     */
+    public double getSimilarity(Instance instance1, Instance instance2, String property1, String property2,
+            double threshold) {
+        double max = 0;
+        for (String p1 : instance1.getProperty(property1)) {
+            for (String p2 : instance2.getProperty(property2)) {
+                double sim = getSimilarity(p1, p2, Math.max(threshold, max));
+                if (max < sim) {
+                    max = sim;
+                }
+            }
+        }
+        return max >= threshold ? max : 0;
+    }
 }
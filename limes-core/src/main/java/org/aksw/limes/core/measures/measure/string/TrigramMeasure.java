@@ -48,21 +48,19 @@ public class TrigramMeasure extends StringMeasure {
     }
 
     public double getSimilarity(Object object1, Object object2) {
-        String p1 = "  " + object1 + "  ";
-        String p2 = "  " + object2 + "  ";
+        return getSimilarity(object1, object2, 0);
+    }
+
+    @Override
+    public double getSimilarity(Object object1, Object object2, double threshold) {
+        String p1 = object1 + "";
+        String p2 = object2 + "";
 
-        if (p1.length() == 4 && p2.length() == 4)
-            return 1.0;
-        if ((p1.length() == 4 && p2.length() > 4) || (p2.length() == 4 && p1.length() > 4))
+        if (p1.length() == 0 && p2.length() == 0)
+            return threshold > 1 ? 0.0 : 1.0;
+        if (p1.length() == 0 || p2.length() == 0)
             return 0.0;
-        Set<String> t1 = getTrigrams(p1);
-        Set<String> t2 = getTrigrams(p2);
-        double counter = 0;
-        for (String s : t1) {
-            if (t2.contains(s))
-                counter++;
-        }
-        return counter / (t1.size() + t2.size() - counter);
+        return StringKernels.qGramSimilarity(p1, p2, 3, threshold);
     }
 
     public Set<String> getTrigrams(String a) {
@@ -7,6 +7,7 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.exceptions.NoSuchParameterException;
 import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
 import org.aksw.limes.core.io.config.Configuration;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.slf4j.Logger;
@@ -78,6 +79,11 @@ public abstract class ACoreMLAlgorithm {
         }
         this.sourceCache = sourceCache;
         this.targetCache = targetCache;
+        if (sourceCache != null && targetCache != null) {
+            // the learned specifications evaluate the same properties again
+            // and again, share the indexes of their mappers
+            IndexRegistry.attach(sourceCache, targetCache);
+        }
     }
 
     /**
@@ -69,6 +69,7 @@ public class Eagle extends ACoreMLAlgorithm {
     public static final String REPRODUCTION_RATE = "reproduction_rate";
     public static final String CROSSOVER_RATE = "crossover_rate";
     public static final String PSEUDO_FMEASURE = "pseudo_fmeasure";
+    public static final String THREADS = "threads";
 
     public static final String MEASURE = "measure";
     public static final String PROPERTY_MAPPING = "property_mapping";
@@ -117,7 +118,7 @@ public class Eagle extends ACoreMLAlgorithm {
         Integer nGen = (Integer) getParameter(GENERATIONS);
         
         for (int gen = 1; gen <= nGen; gen++) {
-            gp.evolve();
+            evolve();
             bestSolutions.add(determineFittest(gp, gen));
         }
 
@@ -144,7 +145,7 @@ public class Eagle extends ACoreMLAlgorithm {
         specifications = new LinkedList<LinkSpecification>();
         logger.info("Start learning");
         for (int gen = 1; gen <= nGen; gen++) {
-            gp.evolve();
+            evolve();
             IGPProgram currentBest = determineFittestUnsup(gp, gen);
             LinkSpecification currentBestMetric = getLinkSpecification(currentBest);
             //TODO: save the best LS of each generation
@@ -210,6 +211,7 @@ public class Eagle extends ACoreMLAlgorithm {
         learningParameters.add(new LearningParameter(MEASURE, new FMeasure(), IQualitativeMeasure.class, Double.NaN, Double.NaN, Double.NaN, MEASURE));
         learningParameters.add(new LearningParameter(PSEUDO_FMEASURE, new PseudoFMeasure(), IQualitativeMeasure.class, Double.NaN, Double.NaN, Double.NaN, MEASURE));
         learningParameters.add(new LearningParameter(PROPERTY_MAPPING, new PropertyMapping(), PropertyMapping.class, Double.NaN, Double.NaN, Double.NaN, PROPERTY_MAPPING));        
+        learningParameters.add(new LearningParameter(THREADS, Runtime.getRuntime().availableProcessors(), Integer.class, 1, Integer.MAX_VALUE, 1, THREADS));
     }
 
 
@@ -263,6 +265,18 @@ public class Eagle extends ACoreMLAlgorithm {
     }
 
 
+    /**
+     * Evolves the population by one generation. The fitness of the programs
+     * is calculated in parallel before JGAP selects among them and after the
+     * new generation was created.
+     */
+    private void evolve() {
+        Integer threads = (Integer) getParameter(THREADS);
+        fitness.calculateFitness(gp.getGPPopulation(), threads);
+        gp.evolve();
+        fitness.calculateFitness(gp.getGPPopulation(), threads);
+    }
+
     /**
      * Returns only positive matches, that are those with a confidence higher then 0.
      *
@@ -3,14 +3,16 @@ package org.aksw.limes.core.ml.algorithm.dragon.FitnessFunctions;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.aksw.limes.core.datastrutures.PairSimilar;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.dragon.DecisionTree;
 import org.aksw.limes.core.ml.algorithm.dragon.Dragon;
@@ -38,6 +40,8 @@ public class GiniIndex extends FitnessFunctionDTL {
 	private void populateInstances() {
 		metricExpressions = new HashSet<>();
 		fullInstances = new ArrayList<>();
+		// every metric is parsed once and evaluated for all instances
+		final Map<String, CompiledExpression> compiledExpressions = new HashMap<>();
 		for (final String s : this.dt.getRefMapping().getMap().keySet()) {
 			for (final String t : this.dt.getRefMapping().getMap().get(s).keySet()) {
 				final TrainingInstance currentInstance = new TrainingInstance(s, t,
@@ -49,9 +53,12 @@ public class GiniIndex extends FitnessFunctionDTL {
 						if (this.dt.getTargetCache().getInstance(t) != null
 								|| this.dt.getSourceCache().getInstance(s) != null) {
 							currentInstance.getMeasureValues().put(metricExpression,
-									MeasureProcessor.getSimilarity(this.dt.getSourceCache().getInstance(s),
-											this.dt.getTargetCache().getInstance(t), metricExpression,
-											this.dt.getMinPropertyCoverage(), "?x", "?y"));
+									compiledExpressions
+											.computeIfAbsent(metricExpression,
+													e -> CompiledExpression.compile(e,
+															this.dt.getMinPropertyCoverage(), "?x", "?y"))
+											.getSimilarity(this.dt.getSourceCache().getInstance(s),
+													this.dt.getTargetCache().getInstance(t)));
 						} else {
 							System.err.println("Could not find");
 						}
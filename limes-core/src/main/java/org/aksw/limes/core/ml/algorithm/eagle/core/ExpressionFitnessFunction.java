@@ -5,9 +5,11 @@ import java.util.Map.Entry;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
+import org.aksw.limes.core.execution.engine.AtomicMappingMemo;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
@@ -63,6 +65,10 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
     private AMapping trainingData;
 
     private boolean useFullCaches = false;
+    /**
+     * Atomic mappings shared by all individuals and generations
+     */
+    private final AtomicMappingMemo memo = new AtomicMappingMemo();
 
     /**
      * Needed for subclasses.
@@ -129,13 +135,28 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      * @return Double value. The closer to 0 the better.
      */
     public double calculateRawFitness(IGPProgram p) {
+        return calculateRawFitness(getLinkSpecification(p));
+    }
+
+    @Override
+    protected LinkSpecification getLinkSpecification(IGPProgram p) {
         p.getGPConfiguration().clearStack();
         p.getGPConfiguration().clearMemory();
+        return super.getLinkSpecification(p);
+    }
+
+    /**
+     * Calculates the fitness of the link specification of a GPProgram, see
+     * {@link #calculateRawFitness(IGPProgram)}.
+     *
+     * @param spec
+     *            Link specification of the GPProgram.
+     * @return Double value. The closer to 0 the better.
+     */
+    @Override
+    public double calculateRawFitness(LinkSpecification spec) {
         // get actual Mapping
-        Object[] args = {};
-        ProgramChromosome pc = p.getChromosome(0);
         AMapping actualMapping = MappingFactory.createDefaultMapping();
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
         String expr = spec.getFilterExpression();
 
         if (expr == null)
@@ -243,6 +264,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
 
             ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache,
                     targetCache, this.m_config.source.getVar(), this.m_config.target.getVar(), 0, 1.0);
+            ((SimpleExecutionEngine) engine).setMemo(memo);
             IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT, sC, tC);
             return engine.execute(spec, planner);
         } catch (Exception e) {
@@ -263,6 +285,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      *            include non-matches.
      */
     public void trimKnowledgeBases(AMapping trainingData) {
+        memo.clear();
         trimmedSourceCache = sC;
         trimmedTargetCache = tC;
         if (trainingData.size() <= 0) {
@@ -334,6 +357,8 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
     }
 
     public void fillCachesIncrementally(AMapping matches) {
+        // the trimmed caches change
+        memo.clear();
         for (String sUri : matches.getMap().keySet())
             for (String tUri : matches.getMap().get(sUri).keySet()) {
                 if (!trimmedSourceCache.containsUri(sUri)) {
@@ -355,6 +380,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
     }
 
     public void setCaches(ACache sC, ACache tC) {
+        memo.clear();
         this.sC = sC;
         this.tC = tC;
     }
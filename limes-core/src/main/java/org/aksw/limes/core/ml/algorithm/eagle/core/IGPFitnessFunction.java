@@ -1,7 +1,20 @@
 package org.aksw.limes.core.ml.algorithm.eagle.core;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.jgap.gp.GPFitnessFunction;
+import org.jgap.gp.IGPProgram;
+import org.jgap.gp.impl.GPPopulation;
+import org.jgap.gp.impl.ProgramChromosome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 /**
  * @author Tommaso Soru (tsoru@informatik.uni-leipzig.de)
@@ -14,8 +27,78 @@ public abstract class IGPFitnessFunction extends GPFitnessFunction implements IF
 	 */
 	private static final long serialVersionUID = -94163100342394354L;
 	
+	static Logger logger = LoggerFactory.getLogger(IGPFitnessFunction.class);
+
 	public abstract void addToReference(AMapping m);
 	
 	public abstract void fillCachesIncrementally(AMapping matches);
 	
+	/**
+	 * Calculates the fitness of the link specification of a program. Must be
+	 * thread-safe, as it is called by several threads at once.
+	 *
+	 * @param spec
+	 *            link specification of a program
+	 * @return fitness value, the closer to 0 the better
+	 */
+	public abstract double calculateRawFitness(LinkSpecification spec);
+
+	/**
+	 * Executes a program to get its link specification.
+	 *
+	 * @param p
+	 *            GP program
+	 * @return the link specification of the program
+	 */
+	protected LinkSpecification getLinkSpecification(IGPProgram p) {
+		Object[] args = {};
+		ProgramChromosome pc = p.getChromosome(0);
+		return (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+	}
+
+	/**
+	 * Calculates the fitness of all programs of a population whose fitness is
+	 * not known yet in parallel, so that JGAP does not evaluate them one by
+	 * one during the evolution. The programs are executed sequentially, as
+	 * they share the stack of their configuration, only their link
+	 * specifications are evaluated in parallel.
+	 *
+	 * @param population
+	 *            GP population
+	 * @param threads
+	 *            number of threads, the programs are left to JGAP if it is 1
+	 */
+	public void calculateFitness(GPPopulation population, int threads) {
+		List<IGPProgram> programs = new ArrayList<IGPProgram>();
+		List<LinkSpecification> specs = new ArrayList<LinkSpecification>();
+		for (IGPProgram p : population.getGPPrograms()) {
+			if (p != null && p.getFitnessValueDirectly() < 0) {
+				programs.add(p);
+				specs.add(getLinkSpecification(p));
+			}
+		}
+		int workers = Math.min(threads, programs.size());
+		if (workers <= 1) {
+			return;
+		}
+		ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("eagle", workers);
+		try {
+			List<Future<Double>> results = new ArrayList<Future<Double>>();
+			for (LinkSpecification spec : specs) {
+				results.add(job.submit(() -> calculateRawFitness(spec)));
+			}
+			for (int i = 0; i < programs.size(); i++) {
+				programs.get(i).setFitnessValue(job.join(results.get(i)));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			logger.error(MarkerFactory.getMarker("FATAL"), "Error while calculating the fitness of the population");
+			throw new RuntimeException(e.getCause());
+		} finally {
+			job.cancel();
+		}
+	}
+
 }
@@ -2,9 +2,10 @@ package org.aksw.limes.core.ml.algorithm.eagle.core;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
-import org.aksw.limes.core.execution.engine.ExecutionEngine;
+import org.aksw.limes.core.execution.engine.AtomicMappingMemo;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
@@ -13,7 +14,6 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.jgap.gp.IGPProgram;
-import org.jgap.gp.impl.ProgramChromosome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,10 +33,13 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     private static final long serialVersionUID = -7114137172832439294L;
     static Logger logger = LoggerFactory.getLogger("LIMES");
     private static PseudoFMeasureFitnessFunction instance = null;
-    public ExecutionEngine engine;
     ACache sourceCache, targetCache;
     LinkSpecGeneticLearnerConfig config;
     double beta = 1.0d;
+    /**
+     * Atomic mappings shared by all individuals and generations
+     */
+    private final AtomicMappingMemo memo = new AtomicMappingMemo();
 
     PseudoFMeasure pfm;
 
@@ -46,8 +49,6 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
         sourceCache = c1;
         targetCache = c2;
         this.pfm = pfm;
-        engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, c1, c2, a_config.source.getVar(),
-                a_config.target.getVar(), 0, 1.0);
     }
 
     /**
@@ -87,12 +88,20 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      *         memory error.
      */
     public double calculateRawFitness(IGPProgram p) {
-        double pseudoFMeasure = calculatePseudoMeasure(p);
+        return calculateRawFitness(getLinkSpecification(p));
+    }
+
+    /**
+     * Determine fitness of the link specification of an individual.
+     *
+     * @param spec
+     *            link specification of the individual
+     * @return 1-PseudoFMeasure, see {@link #calculateRawFitness(IGPProgram)}
+     */
+    @Override
+    public double calculateRawFitness(LinkSpecification spec) {
+        double pseudoFMeasure = calculatePseudoMeasure(spec);
         if (!(pseudoFMeasure >= 0d && pseudoFMeasure <= 1d)) {
-            Object[] args = {};
-            ProgramChromosome pc = null;
-            pc = p.getChromosome(0);
-            LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
             logger.info("LS: " + spec);
             logger.error("Pseudo Measure was not in [0,1]");
             System.out.println("Pseudo Measure for (" + spec + ") was not in [0,1]");
@@ -107,11 +116,11 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public AMapping calculateMapping(IGPProgram p) {
         // execute individual
-        Object[] args = {};
-        ProgramChromosome pc = null;
-        pc = p.getChromosome(0);
+        return calculateMapping(getLinkSpecification(p));
+    }
+
+    private AMapping calculateMapping(LinkSpecification spec) {
         AMapping actualMapping = MappingFactory.createDefaultMapping();
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
         // get Mapping
         try {
             actualMapping = getMapping(sourceCache, targetCache, spec);
@@ -129,8 +138,12 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      * @return PseudoMeasure
      */
     public Double calculatePseudoMeasure(IGPProgram p) {
+        return calculatePseudoMeasure(getLinkSpecification(p));
+    }
+
+    private double calculatePseudoMeasure(LinkSpecification spec) {
         // mapping
-        AMapping mapping = calculateMapping(p);
+        AMapping mapping = calculateMapping(spec);
         // gold standard is not needed by pseudoFM
         GoldStandard gold = new GoldStandard(mapping, sourceCache, targetCache);
         return pfm.calculate(mapping, gold, beta);
@@ -146,6 +159,10 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      */
     public AMapping getMapping(ACache sC, ACache tC, LinkSpecification spec) {
         try {
+            // a new engine per call, as several individuals are evaluated at once
+            SimpleExecutionEngine engine = (SimpleExecutionEngine) ExecutionEngineFactory.getEngine(
+                    ExecutionEngineType.DEFAULT, sC, tC, config.source.getVar(), config.target.getVar(), 0, 1.0);
+            engine.setMemo(memo);
             IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT, sC, tC);
             return engine.execute(spec, planner);
         } catch (Exception e) {
@@ -10,6 +10,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.datastrutures.Tree;
@@ -20,9 +22,6 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.Recall;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
-import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
-import org.aksw.limes.core.execution.planning.plan.Instruction;
-import org.aksw.limes.core.execution.planning.plan.Plan;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
@@ -33,14 +32,20 @@ import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.IMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.mapper.ThresholdSweep;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.ml.algorithm.ACoreMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.LearningParameter;
 import org.aksw.limes.core.ml.algorithm.MLResults;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.euclid.LinearSelfConfigurator;
+import org.aksw.limes.core.util.ComputeScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
 
 /**
  * This class uses Least General Generalization (LGG) to learn Link
@@ -66,6 +71,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     public static final String PARAMETER_ATOMIC_MEASURES = "atomic measures";
     public static final String PARAMETER_SAVE_MAPPING = "save mapping";
     public static final String PARAMETER_FMEASURE_BETA = "beta";
+    public static final String PARAMETER_NUMBER_OF_THREADS = "number of threads";
     public static List<String> sourceUris;
     public static List<String> targetUris;
     static Logger logger = LoggerFactory.getLogger(AWombat.class);
@@ -117,21 +123,19 @@ public abstract class AWombat extends ACoreMLAlgorithm {
      *            URI
      * @param measure
      *            name
-     * @param threshold
-     *            of the LS
-     * @return Mapping from source to target resources after applying the atomic
-     *         mapper measure(sourceProperty, targetProperty)
+     * @param minThreshold
+     *            lowest threshold of the LS that will be tried
+     * @return Links of the atomic mapper measure(sourceProperty,
+     *         targetProperty) at minThreshold, from which the mappings at all
+     *         higher thresholds are read
      */
-    private AMapping executeAtomicMeasure(String sourceProperty, String targetProperty, String measure,
-            double threshold) {
+    private ThresholdSweep sweepAtomicMeasure(String sourceProperty, String targetProperty, String measure,
+            double minThreshold) {
         String measureExpression = measure + "(" + sourceVariable + "." + sourceProperty + ", " + targetVariable + "."
                 + targetProperty + ")";
-        Instruction inst = new Instruction(Instruction.Command.RUN, measureExpression, threshold + "", -1, -1, -1);
-        ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache, targetCache,
-                "?" + sourceVariable, "?" + targetVariable, 0, 1.0);
-        Plan plan = new Plan();
-        plan.addInstruction(inst);
-        return ((SimpleExecutionEngine) ee).executeInstructions(plan);
+        IMapper mapper = MapperFactory.createMapper(MeasureFactory.getMeasureType(measureExpression));
+        return mapper.getSweep(sourceCache, targetCache, "?" + sourceVariable, "?" + targetVariable,
+                measureExpression, minThreshold);
     }
 
     /**
@@ -284,18 +288,45 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     }
 
     /**
+     * Computes the initial classifiers of all property pairs and atomic
+     * measures, in parallel if more than one thread is configured.
+     *
      * @return initial classifiers
      */
     protected final List<ExtendedClassifier> findInitialClassifiers() {
         logger.debug("Geting all initial classifiers ...");
-        List<ExtendedClassifier> initialClassifiers = new ArrayList<>();
+        List<String[]> candidates = new ArrayList<>();
         for (String p : sourcePropertiesCoverageMap.keySet()) {
             for (String q : targetPropertiesCoverageMap.keySet()) {
                 for (String m : getAtomicMeasures()) {
-                    ExtendedClassifier cp = findInitialClassifier(p, q, m);
-                    // only add if classifier covers all entries
-                    initialClassifiers.add(cp);
+                    candidates.add(new String[] { p, q, m });
+                }
+            }
+        }
+        List<ExtendedClassifier> initialClassifiers = new ArrayList<>();
+        int threads = Math.max(1, Math.min(getNumberOfThreads(), candidates.size()));
+        if (threads == 1) {
+            for (String[] c : candidates) {
+                initialClassifiers.add(findInitialClassifier(c[0], c[1], c[2]));
+            }
+        } else {
+            ComputeScheduler.Job job = ComputeScheduler.getInstance().newJob("wombat", threads);
+            try {
+                List<Future<ExtendedClassifier>> results = new ArrayList<>();
+                for (String[] c : candidates) {
+                    results.add(job.submit(() -> findInitialClassifier(c[0], c[1], c[2])));
                 }
+                for (Future<ExtendedClassifier> result : results) {
+                    initialClassifiers.add(job.join(result));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                logger.error(MarkerFactory.getMarker("FATAL"), "Error while computing the initial classifiers");
+                throw new RuntimeException(e.getCause());
+            } finally {
+                job.cancel();
             }
         }
         logger.debug("Done computing all initial classifiers.");
@@ -328,8 +359,10 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         AMapping bestMapping = MappingFactory.createDefaultMapping();
 
         double minThreshold = this.getThreshold(measure);
+        // all tried thresholds are above minThreshold, so the mapper runs once
+        ThresholdSweep sweep = sweepAtomicMeasure(sourceProperty, targetProperty, measure, minThreshold);
         for (double threshold = 1d; threshold > minThreshold; threshold = threshold * getPropertyLearningRate()) {
-            AMapping mapping = executeAtomicMeasure(sourceProperty, targetProperty, measure, threshold);
+            AMapping mapping = sweep.getMapping(threshold);
             double overlap = fMeasure(mapping);
             if (maxOverlap < overlap) {
                 theta = threshold;
@@ -450,6 +483,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         double propertyLearningRate = 0.9;
         double overallPenaltyWeight = 0.5d;
         boolean verbose = false;
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
         Set<String> measures = new HashSet<>(Arrays.asList("jaccard", "cosine", "qgrams"));
 
         learningParameters = new ArrayList<>();
@@ -481,6 +515,8 @@ public abstract class AWombat extends ACoreMLAlgorithm {
                 PARAMETER_ATOMIC_MEASURES));
         learningParameters.add(new LearningParameter(PARAMETER_SAVE_MAPPING, saveMapping, Boolean.class, 0, 1, 0,
                 PARAMETER_SAVE_MAPPING));
+        learningParameters.add(new LearningParameter(PARAMETER_NUMBER_OF_THREADS, numberOfThreads, Integer.class, 1d,
+                Integer.MAX_VALUE, 1, PARAMETER_NUMBER_OF_THREADS));
     }
 
     protected boolean isVerbose() {
@@ -527,6 +563,10 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return Integer.parseInt(getParameter(PARAMETER_MAX_ITERATIONS_NUMBER).toString());
     }
 
+    protected int getNumberOfThreads() {
+        return Integer.parseInt(getParameter(PARAMETER_NUMBER_OF_THREADS).toString());
+    }
+
     protected int getMaxRefinmentTreeSize() {
         return Integer.parseInt(getParameter(PARAMETER_MAX_REFINEMENT_TREE_SIZE).toString());
     }
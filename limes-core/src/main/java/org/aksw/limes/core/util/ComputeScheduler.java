@@ -0,0 +1,306 @@
+package org.aksw.limes.core.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Work-stealing scheduler for the CPU-bound tasks of the mappers, the
+ * execution engines and the learning algorithms. All parallel computations of
+ * the JVM share the threads of {@link #getInstance()}, so that concurrent
+ * linking tasks do not start a thread pool each.
+ * <p>
+ * The tasks of a computation are submitted to a {@link Job}, which runs at
+ * most a given number of them at the same time and holds back the rest. A
+ * thread that waits for a task of a job, see {@link Job#join(Future)}, runs
+ * the held back tasks of the job itself, so that nested jobs do not deadlock.
+ * Tasks that block for I/O should not be submitted to the scheduler.
+ * <p>
+ * The number of threads of the shared scheduler is read from the system
+ * property {@value #PARALLELISM_PROPERTY} and defaults to the number of
+ * available processors.
+ */
+public class ComputeScheduler {
+
+    static Logger logger = LoggerFactory.getLogger(ComputeScheduler.class);
+
+    /**
+     * System property that sets the number of threads of the shared scheduler
+     */
+    public static final String PARALLELISM_PROPERTY = "limes.parallelism";
+
+    private static ComputeScheduler instance;
+
+    private final ForkJoinPool pool;
+    private final long created = System.nanoTime();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicInteger heldTasks = new AtomicInteger();
+
+    /**
+     * @param parallelism
+     *            Number of threads of the scheduler
+     */
+    public ComputeScheduler(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, got " + parallelism);
+        }
+        // tasks are not forked, thus they are run in submission order
+        pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * @return the scheduler shared by all computations of the JVM
+     */
+    public static synchronized ComputeScheduler getInstance() {
+        if (instance == null) {
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            String property = System.getProperty(PARALLELISM_PROPERTY);
+            if (property != null) {
+                try {
+                    parallelism = Math.max(1, Integer.parseInt(property.trim()));
+                } catch (NumberFormatException e) {
+                    logger.warn(PARALLELISM_PROPERTY + " = " + property + " is not a number. Using " + parallelism
+                            + " threads.");
+                }
+            }
+            logger.info("Starting compute scheduler with " + parallelism + " threads");
+            instance = new ComputeScheduler(parallelism);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a job whose tasks use all threads of the scheduler.
+     *
+     * @param name
+     *            Name of the job, used for logging
+     * @return a new job
+     */
+    public Job newJob(String name) {
+        return newJob(name, getParallelism());
+    }
+
+    /**
+     * @param name
+     *            Name of the job, used for logging
+     * @param maxParallelism
+     *            Maximal number of tasks of the job that run at the same time,
+     *            at most the parallelism of the scheduler
+     * @return a new job
+     */
+    public Job newJob(String name, int maxParallelism) {
+        return new Job(name, Math.max(1, Math.min(maxParallelism, getParallelism())));
+    }
+
+    /**
+     * @return number of threads of the scheduler
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return number of tasks that wait for a thread, including the tasks
+     *         held back by the parallelism limits of their jobs
+     */
+    public long getQueueDepth() {
+        return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount() + heldTasks.get();
+    }
+
+    /**
+     * @return number of threads that currently run tasks
+     */
+    public int getActiveCount() {
+        return pool.getActiveThreadCount();
+    }
+
+    /**
+     * @return share of the thread time since the scheduler was created that
+     *         was spent running tasks, between 0 and 1
+     */
+    public double getUtilization() {
+        long elapsed = System.nanoTime() - created;
+        if (elapsed <= 0) {
+            return 0d;
+        }
+        return Math.min(1d, busyNanos.get() / ((double) elapsed * getParallelism()));
+    }
+
+    /**
+     * @return number of tasks run by the threads of the scheduler
+     */
+    public long getCompletedTaskCount() {
+        return completedTasks.get();
+    }
+
+    /**
+     * Group of tasks of one computation, e.g. the partitions of a mapping.
+     */
+    public class Job {
+
+        private final String name;
+        private final int maxParallelism;
+        private final ArrayDeque<Task<?>> held = new ArrayDeque<>();
+        private int running = 0;
+
+        Job(String name, int maxParallelism) {
+            this.name = name;
+            this.maxParallelism = maxParallelism;
+        }
+
+        /**
+         * Submits a task. The task is run as soon as fewer than
+         * {@link #getMaxParallelism()} tasks of the job are running.
+         *
+         * @param callable
+         *            the task
+         * @return the future result of the task
+         */
+        public <T> Future<T> submit(Callable<T> callable) {
+            Task<T> task = new Task<>(callable);
+            synchronized (this) {
+                if (running >= maxParallelism) {
+                    held.add(task);
+                    heldTasks.incrementAndGet();
+                    return task.future;
+                }
+                running++;
+            }
+            dispatch(task);
+            return task.future;
+        }
+
+        /**
+         * @param runnable
+         *            the task
+         * @return a future that is completed when the task is done
+         */
+        public Future<?> submit(Runnable runnable) {
+            return submit(() -> {
+                runnable.run();
+                return null;
+            });
+        }
+
+        /**
+         * Waits for the result of a task of this job. While the task is not
+         * done, the calling thread runs tasks of the job that are held back.
+         *
+         * @param future
+         *            a future returned by this job
+         * @return the result of the task
+         * @throws InterruptedException
+         *             if the calling thread is interrupted
+         * @throws ExecutionException
+         *             if the task failed
+         */
+        public <T> T join(Future<T> future) throws InterruptedException, ExecutionException {
+            while (!future.isDone()) {
+                Task<?> task = poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+            return future.get();
+        }
+
+        /**
+         * Cancels the tasks of the job that did not start yet. Running tasks
+         * are finished, their results are dropped.
+         */
+        public void cancel() {
+            synchronized (this) {
+                for (Task<?> task : held) {
+                    task.future.cancel(false);
+                }
+                heldTasks.addAndGet(-held.size());
+                held.clear();
+            }
+        }
+
+        /**
+         * @return number of tasks of the job that are held back
+         */
+        public synchronized int getQueueDepth() {
+            return held.size();
+        }
+
+        /**
+         * @return number of tasks of the job that run on the scheduler
+         */
+        public synchronized int getRunningCount() {
+            return running;
+        }
+
+        public int getMaxParallelism() {
+            return maxParallelism;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private synchronized Task<?> poll() {
+            Task<?> task = held.poll();
+            if (task != null) {
+                heldTasks.decrementAndGet();
+            }
+            return task;
+        }
+
+        private void dispatch(Task<?> task) {
+            pool.execute(() -> {
+                long begin = System.nanoTime();
+                task.run();
+                busyNanos.addAndGet(System.nanoTime() - begin);
+                completedTasks.incrementAndGet();
+                // the slot of the finished task is passed on to the next held
+                // task, which is queued behind the tasks of other jobs
+                Task<?> next;
+                synchronized (this) {
+                    next = poll();
+                    if (next == null) {
+                        running--;
+                    }
+                }
+                if (next != null) {
+                    dispatch(next);
+                }
+            });
+        }
+    }
+
+    /**
+     * Task whose result is delivered to a future.
+     */
+    private static class Task<T> implements Runnable {
+        final Callable<T> callable;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package org.aksw.limes.core.util.datetime;
 
-import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
 /**
  * Enum class of the allowed date and time formats. Allowed formats are devised
  * from https://www.w3.org/TR/NOTE-datetime
@@ -34,6 +38,8 @@ public enum DateTimeFormat {
     FORMAT8("yyyy-MM"), 
     FORMAT9("yyyy");
 
+    private static final Logger logger = LoggerFactory.getLogger(DateTimeFormat.class);
+
     private String pattern;
 
     DateTimeFormat(String value) {
@@ -44,6 +50,22 @@ public enum DateTimeFormat {
         return this.pattern;
     }
 
+    /**
+     * Parsers of the allowed formats, in the order of the formats. The parsers
+     * are not thread-safe, thus every thread uses its own.
+     */
+    private static final ThreadLocal<SimpleDateFormat[]> PARSERS = new ThreadLocal<SimpleDateFormat[]>() {
+        @Override
+        protected SimpleDateFormat[] initialValue() {
+            DateTimeFormat[] formats = DateTimeFormat.values();
+            SimpleDateFormat[] parsers = new SimpleDateFormat[formats.length];
+            for (int i = 0; i < formats.length; i++) {
+                parsers[i] = new SimpleDateFormat(formats[i].getPattern());
+            }
+            return parsers;
+        }
+    };
+
     /**
      * Returns the Date value of a time stamp
      *
@@ -53,28 +75,28 @@ public enum DateTimeFormat {
      * 
      */
     public static Date getDate(String timeStamp) {
-        SimpleDateFormat df = null;
-        Date date = null;
-
-        for (DateTimeFormat pat : DateTimeFormat.values()) {
-            try {
-                System.out.println("Before: " + date);
-                df = new SimpleDateFormat(pat.getPattern());
-                // exception -> date remains null
-                date = df.parse(timeStamp);
-                System.out.println("After: " + date.toString());
-                // no exception -> date gets a value
-                if (date != null)
-                    break;
-            } catch (ParseException e) {
-            }
-        }
-        if (date == null) {
-            System.err.println("Couldn't parse date: " + timeStamp);
-            throw new RuntimeException();
-        }
+        return new Date(getEpoch(timeStamp));
+    }
 
-        return date;
+    /**
+     * Returns the epoch value of a time stamp, i.e. the time stamp is parsed
+     * with the first allowed format that matches it.
+     *
+     * @param timeStamp,
+     *            the input time stamp
+     * @return the epoch value of the time stamp in milliseconds
+     * 
+     */
+    public static long getEpoch(String timeStamp) {
+        for (SimpleDateFormat df : PARSERS.get()) {
+            // unlike parse(String), no exception is thrown if the format does
+            // not match
+            Date date = df.parse(timeStamp, new ParsePosition(0));
+            if (date != null)
+                return date.getTime();
+        }
+        logger.error(MarkerFactory.getMarker("FATAL"), "Couldn't parse date: " + timeStamp);
+        throw new RuntimeException("Couldn't parse date: " + timeStamp);
     }
 
 }
@@ -0,0 +1,108 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.measures.mapper.IMapper;
+import org.aksw.limes.core.measures.mapper.string.JaroWinklerMapper;
+import org.aksw.limes.core.measures.mapper.string.fastngram.FastNGramMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AtomicMappingMemoTest {
+
+    private static final String EXPRESSION = "qgrams(x.label, y.label)";
+
+    public ACache source;
+    public ACache target;
+    public IMapper mapper = new FastNGramMapper();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        String[] labels = { "leipzig", "leipzig city", "berlin", "berlin mitte", "dresden", "dresdner" };
+        for (int i = 0; i < labels.length; i++) {
+            source.addTriple("S" + i, "label", labels[i]);
+            target.addTriple("T" + i, "label", labels[(i + 1) % labels.length]);
+        }
+    }
+
+    @Test
+    public void testLowerThresholdReuse() {
+        AtomicMappingMemo memo = new AtomicMappingMemo();
+        assertEquals(mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.5),
+                memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.5));
+        assertEquals(mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.8),
+                memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.8));
+        assertEquals(1, memo.getMisses());
+        assertEquals(1, memo.getHits());
+
+        // a lower threshold runs the mapper again and replaces the entry
+        assertEquals(mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.3),
+                memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.3));
+        memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.4);
+        assertEquals(2, memo.getMisses());
+        assertEquals(2, memo.getHits());
+        assertEquals(mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.3).size(), memo.getLinks());
+
+        // other caches are other entries
+        memo.getMapping(mapper, target, source, "?x", "?y", EXPRESSION, 0.4);
+        assertEquals(3, memo.getMisses());
+    }
+
+    @Test
+    public void testBound() {
+        long links = mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.3).size();
+        AtomicMappingMemo memo = new AtomicMappingMemo(links);
+        memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.3);
+        assertEquals(links, memo.getLinks());
+        // evicts the first entry
+        memo.getMapping(mapper, target, source, "?x", "?y", EXPRESSION, 0.3);
+        memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.3);
+        assertEquals(3, memo.getMisses());
+
+        memo.clear();
+        assertEquals(0, memo.getLinks());
+    }
+
+    @Test
+    public void testEngine() {
+        AtomicMappingMemo memo = new AtomicMappingMemo();
+        SimpleExecutionEngine engine = new SimpleExecutionEngine(source, target, "?x", "?y");
+        engine.setMemo(memo);
+        SimpleExecutionEngine plain = new SimpleExecutionEngine(source, target, "?x", "?y");
+        Instruction run = new Instruction(Command.RUN, EXPRESSION, "0.5", -1, -1, -1);
+        assertEquals(plain.executeRun(run), engine.executeRun(run));
+        assertEquals(plain.executeRun(run), engine.executeRun(run));
+        assertEquals(1, memo.getHits());
+    }
+
+    @Test
+    public void testNotExact() {
+        AtomicMappingMemo memo = new AtomicMappingMemo();
+        IMapper jaroWinkler = new JaroWinklerMapper();
+        String expression = "jaroWinkler(x.label, y.label)";
+        assertEquals(jaroWinkler.getMapping(source, target, "?x", "?y", expression, 0.8),
+                memo.getMapping(jaroWinkler, source, target, "?x", "?y", expression, 0.8));
+        memo.getMapping(jaroWinkler, source, target, "?x", "?y", expression, 0.8);
+        assertEquals(2, memo.getMisses());
+        assertEquals(0, memo.getHits());
+        assertEquals(0, memo.getLinks());
+    }
+
+    @Test
+    public void testCacheChange() {
+        AtomicMappingMemo memo = new AtomicMappingMemo();
+        memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.5);
+        target.addTriple("T6", "label", "leipzig");
+        assertEquals(0, memo.getLinks());
+        assertEquals(mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.5),
+                memo.getMapping(mapper, source, target, "?x", "?y", EXPRESSION, 0.5));
+        assertEquals(2, memo.getMisses());
+    }
+
+}
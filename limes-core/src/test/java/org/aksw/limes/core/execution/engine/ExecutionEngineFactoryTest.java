@@ -32,6 +32,15 @@ public class ExecutionEngineFactoryTest {
         assertTrue(engine instanceof SimpleExecutionEngine);
     }
 
+    @Test
+    public void testEqualParallel() {
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.PARALLEL, null, null, null, null, 0, 1.0);
+        assertTrue(engine instanceof ParallelExecutionEngine);
+        assertTrue(ExecutionEngineFactory.getExecutionEngineType("parallel") == ExecutionEngineType.PARALLEL);
+        engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.PARALLEL, null, null, null, null, 0, 1.0, 3);
+        assertTrue(((ParallelExecutionEngine) engine).getParallelism() == 3);
+    }
+
     @Test
     public void testEqualLiger() {
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.PARTIAL_RECALL, null, null, null, null, 0, 1.0);
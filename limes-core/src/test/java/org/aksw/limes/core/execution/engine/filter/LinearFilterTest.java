@@ -11,6 +11,9 @@ import org.aksw.limes.core.execution.planning.plan.Plan;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -307,6 +310,38 @@ public class LinearFilterTest {
 
     }
 
+    @Test
+    public void pipelinedFilter() {
+        System.out.println("pipelinedFilter");
+        SimpleExecutionEngine ee = new SimpleExecutionEngine(source, target, "?x", "?y");
+
+        Instruction run1 = new Instruction(Command.RUN, "qgrams(x.name, y.name)", "0.3", -1, -1, 0);
+        Plan plan = new Plan();
+        plan.setInstructionList(new ArrayList<Instruction>());
+        plan.addInstruction(run1);
+        AMapping m1 = ee.executeInstructions(plan);
+
+        Instruction filter1 = new Instruction(Command.FILTER, null, "0.5", -1, -1, 0);
+        assertTrue(ee.executeFilter(filter1, m1).equals(ee.executeFilteredRun(run1, filter1)));
+
+        Instruction filter2 = new Instruction(Command.FILTER, "overlap(x.name, y.name)", "0.3", -1, -1, 0);
+        assertTrue(ee.executeFilter(filter2, m1).equals(ee.executeFilteredRun(run1, filter2)));
+
+        Instruction filter3 = new Instruction(Command.FILTER, "overlap(x.name, y.name)", "0.3", -1, -1, 0);
+        filter3.setMainThreshold("0.4");
+        assertTrue(ee.executeFilter(filter3, m1).equals(ee.executeFilteredRun(run1, filter3)));
+
+        LinearFilter f = new LinearFilter();
+        AMapping m2 = f.reversefilter(m1, "overlap(x.name, y.name)", 0.4, 0.35, source, target, "?x", "?y");
+        AMapping m3 = MappingFactory.createDefaultMapping();
+        MapperFactory.createMapper(MeasureType.QGRAMS).getMapping(source, target, "?x", "?y",
+                "qgrams(x.name, y.name)", 0.3,
+                f.reversefilter(m3::add, "overlap(x.name, y.name)", 0.4, 0.35, source, target, "?x", "?y"));
+        assertTrue(m2.equals(m3));
+
+        System.out.println("------------------------");
+    }
+
     @Test
     public void filterWithCoEfficient() {
         System.out.println("filterWithCoEfficient");
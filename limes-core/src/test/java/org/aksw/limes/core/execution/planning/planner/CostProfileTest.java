@@ -0,0 +1,120 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CostProfileTest {
+
+    public CostProfile profile;
+
+    private static double runtime(int s, int t, double threshold) {
+        return 2 + 0.003 * s + 0.001 * t + 1e-6 * s * t - 0.5 * threshold;
+    }
+
+    private static double size(int s, int t, double threshold) {
+        return s * t * (1 - threshold) / 100d;
+    }
+
+    @Before
+    public void setUp() {
+        profile = new CostProfile();
+        for (int s : new int[] { 100, 500, 1000 }) {
+            for (int t : new int[] { 200, 400, 2000 }) {
+                for (double threshold : new double[] { 0.5, 0.9 }) {
+                    profile.addRun(MeasureType.TRIGRAM, s, t, threshold, runtime(s, t, threshold),
+                            size(s, t, threshold));
+                }
+            }
+        }
+        profile.addFilter(MeasureType.TRIGRAM, 1000, 2);
+    }
+
+    @Test
+    public void testEstimates() {
+        assertTrue(profile.isCalibrated(MeasureType.TRIGRAM));
+        assertFalse(profile.isCalibrated(MeasureType.LEVENSHTEIN));
+        assertEquals(runtime(5000, 3000, 0.7),
+                profile.getRuntimeApproximation(MeasureType.TRIGRAM, 5000, 3000, 0.7), 0.01 * runtime(5000, 3000, 0.7));
+        assertEquals(size(5000, 3000, 0.7),
+                profile.getMappingSizeApproximation(MeasureType.TRIGRAM, 5000, 3000, 0.7), 0.01 * size(5000, 3000, 0.7));
+        assertEquals(20, profile.getFilterRuntimeApproximation(MeasureType.TRIGRAM, 10000), 1e-9);
+
+        profile.addRun(MeasureType.LEVENSHTEIN, 10, 10, 0.5, 1, 1);
+        assertFalse(profile.isCalibrated(MeasureType.LEVENSHTEIN));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("costs", ".ser");
+        try {
+            profile.save(file);
+            CostProfile loaded = CostProfile.load(file);
+            assertTrue(loaded.isCalibrated(MeasureType.TRIGRAM));
+            assertEquals(profile.getRuntimeApproximation(MeasureType.TRIGRAM, 5000, 3000, 0.7),
+                    loaded.getRuntimeApproximation(MeasureType.TRIGRAM, 5000, 3000, 0.7), 1e-9);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPlanner() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        for (int i = 0; i < 100; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+            target.addTriple("T" + i, "name", "name" + i);
+        }
+        HeliosPlanner planner = new HeliosPlanner(source, target);
+        planner.setCostProfile(profile);
+        assertEquals(profile.getRuntimeApproximation(MeasureType.TRIGRAM, 100, 100, 0.8),
+                planner.getAtomicRuntimeCosts("trigrams", 0.8), 1e-9);
+        assertEquals(profile.getMappingSizeApproximation(MeasureType.TRIGRAM, 100, 100, 0.8),
+                planner.getAtomicMappingSizes("trigrams", 0.8), 1e-9);
+        assertEquals(profile.getFilterRuntimeApproximation(MeasureType.TRIGRAM, 50),
+                planner.getFilterCosts(Arrays.asList("trigrams(x.name,y.name)"), 50), 1e-9);
+    }
+
+    @Test
+    public void testPlannerUnits() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        for (int i = 0; i < 100; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+            target.addTriple("T" + i, "name", "name" + i);
+        }
+        LinkSpecification calibrated = new LinkSpecification("trigrams(x.name,y.name)", 0.8);
+        LinkSpecification mixed = new LinkSpecification(
+                "AND(trigrams(x.name,y.name)|0.8,levenshtein(x.name,y.name)|0.5)", 0.8);
+        assertTrue(profile.isCalibrated(calibrated));
+        assertFalse(profile.isCalibrated(mixed));
+
+        HeliosPlanner planner = new HeliosPlanner(source, target);
+        planner.setCostProfile(profile);
+        assertEquals(profile.getRuntimeApproximation(MeasureType.TRIGRAM, 100, 100, 0.8),
+                planner.plan(calibrated).getRuntimeCost(), 1e-9);
+        // the levenshtein mapper is not calibrated, thus no cost is taken
+        // from the profile
+        HeliosPlanner fixed = new HeliosPlanner(source, target);
+        assertEquals(fixed.plan(mixed).getRuntimeCost(), planner.plan(mixed).getRuntimeCost(), 1e-9);
+
+        DynamicPlanner dynamic = new DynamicPlanner(source, target);
+        dynamic.setCostProfile(profile);
+        dynamic.init(calibrated);
+        assertEquals(profile.getRuntimeApproximation(MeasureType.TRIGRAM, 100, 100, 0.8),
+                dynamic.plan(calibrated).getRuntimeCost(), 1e-9);
+    }
+
+}
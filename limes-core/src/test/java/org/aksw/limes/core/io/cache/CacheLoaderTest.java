@@ -0,0 +1,96 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheLoaderTest {
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("limes").toFile();
+    }
+
+    private KBInfo createKB(String id, String function) throws IOException {
+        File file = new File(folder, id + ".csv");
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("id,label,number");
+            for (int i = 0; i < 10; i++) {
+                writer.println(id + i + ",Label" + i + "," + i);
+            }
+        }
+        KBInfo kb = new KBInfo("?" + id);
+        kb.setId(id);
+        kb.setEndpoint(file.getAbsolutePath());
+        kb.setType("csv");
+        kb.setProperties(new ArrayList<String>(Arrays.asList("label", "number")));
+        LinkedHashMap<String, Map<String, String>> functions = new LinkedHashMap<>();
+        HashMap<String, String> f1 = new HashMap<>();
+        f1.put("label", "lowercase");
+        functions.put("label", f1);
+        HashMap<String, String> f2 = new HashMap<>();
+        f2.put("name", function);
+        functions.put("name", f2);
+        kb.setFunctions(functions);
+        return kb;
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        KBInfo source = createKB("s", "lowercase");
+        KBInfo target = createKB("t", "concat(label,number)");
+        CacheLoader loader = new CacheLoader(folder, -1);
+        loader.load(source, target);
+        loader.awaitSnapshots();
+
+        assertEquals(10, loader.getSourceCache().size());
+        assertEquals("label3", loader.getSourceCache().getInstance("s3").getProperty("label").first());
+        assertEquals("label33", loader.getTargetCache().getInstance("t3").getProperty("name").first());
+        // the source was preprocessed on ingest, the target after loading
+        assertTrue(new File(folder, "cache/" + source.hashCode() + ".preprocessed.snapshot").exists());
+        assertTrue(new File(folder, "cache/" + target.hashCode() + ".snapshot").exists());
+
+        CacheLoader reloader = new CacheLoader(folder, 5);
+        reloader.load(source, target);
+        assertEquals(5, reloader.getSourceCache().size());
+        assertEquals(loader.getSourceCache().getInstance("s3"), reloader.getSourceCache().getInstance("s3"));
+        assertEquals("label33", reloader.getTargetCache().getInstance("t3").getProperty("name").first());
+    }
+
+    @Test
+    public void testLoadTwice() throws IOException {
+        KBInfo source = createKB("s", "lowercase");
+        KBInfo target = createKB("t", "concat(label,number)");
+        KBInfo other = createKB("o", "lowercase");
+        CacheLoader loader = new CacheLoader(folder, -1);
+        loader.load(source, target);
+        // the snapshots of the first call are still written
+        loader.load(other, target);
+        loader.awaitSnapshots();
+
+        assertEquals("label3", loader.getSourceCache().getInstance("o3").getProperty("label").first());
+        assertEquals("label33", loader.getTargetCache().getInstance("t3").getProperty("name").first());
+        assertTrue(new File(folder, "cache/" + source.hashCode() + ".preprocessed.snapshot").exists());
+        assertTrue(new File(folder, "cache/" + other.hashCode() + ".preprocessed.snapshot").exists());
+
+        loader.load(source, other);
+        loader.awaitSnapshots();
+        assertEquals(10, loader.getTargetCache().size());
+    }
+
+}
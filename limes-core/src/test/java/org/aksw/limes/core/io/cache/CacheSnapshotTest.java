@@ -0,0 +1,134 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheSnapshotTest {
+
+    public MemoryCache cache = new MemoryCache();
+    public File file;
+
+    @Before
+    public void setUp() throws IOException {
+        cache = new MemoryCache();
+        cache.addTriple("S1", "name", "kleanthi");
+        cache.addTriple("S1", "surname", "georgala");
+        cache.addTriple("S2", "name", "lukas");
+        cache.addTriple("S2", "name", "λουκάς");
+        cache.addTriple("S3", "age", "52");
+        cache.addTriple("S4", "age", "");
+        file = File.createTempFile("cache", ".snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        CacheSnapshot.write(cache, "key", file);
+        CacheSnapshot snapshot = CacheSnapshot.open(file);
+        assertEquals("key", snapshot.getKey());
+        assertEquals(cache.size(), snapshot.size());
+        assertEquals(cache.getAllUris(), snapshot.getAllUris());
+        for (String uri : cache.getAllUris()) {
+            int index = snapshot.indexOf(uri);
+            assertTrue(index >= 0);
+            assertEquals(uri, snapshot.getUri(index));
+            assertEquals(cache.getInstance(uri), snapshot.getInstance(index));
+        }
+        assertEquals(-1, snapshot.indexOf("S5"));
+        snapshot.close();
+    }
+
+    @Test
+    public void testHybridCache() throws IOException {
+        HybridCache hybrid = new HybridCache();
+        cache.getAllInstances().forEach(i -> hybrid.addInstance(i));
+        hybrid.saveSnapshot(file, "key");
+        HybridCache loaded = HybridCache.loadSnapshot(file);
+        assertEquals(hybrid.size(), loaded.size());
+        assertEquals(hybrid.getAllUris(), loaded.getAllUris());
+        assertTrue(loaded.containsUri("S2"));
+        assertFalse(loaded.containsUri("S5"));
+        assertNull(loaded.getInstance("S5"));
+        // changes of instances are kept when all instances are loaded
+        loaded.getInstance("S3").addProperty("name", "johnny");
+        loaded.addTriple("S5", "name", "taylor");
+        assertEquals(5, loaded.size());
+        assertEquals("johnny", loaded.getInstance("S3").getProperty("name").first());
+        assertEquals(hybrid.getInstance("S1"), loaded.getInstance("S1"));
+    }
+
+    @Test
+    public void testHybridCacheConcurrentLoad() throws Exception {
+        HybridCache hybrid = new HybridCache();
+        for (int i = 0; i < 2000; i++) {
+            hybrid.addTriple("S" + i, "name", "name " + i);
+        }
+        hybrid.saveSnapshot(file, "key");
+        HybridCache loaded = HybridCache.loadSnapshot(file);
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                loaded.getInstance("S" + i).addProperty("read", "true");
+            }
+        });
+        reader.start();
+        // loads all instances while they are read
+        loaded.addTriple("S2000", "name", "name 2000");
+        reader.join();
+        // the instances read concurrently are the instances of the cache
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("true", loaded.getInstance("S" + i).getProperty("read").first());
+        }
+    }
+
+    @Test
+    public void testOverwriteOpenSnapshot() throws IOException {
+        CacheSnapshot.write(cache, "key", file);
+        CacheSnapshot snapshot = CacheSnapshot.open(file);
+        MemoryCache other = new MemoryCache();
+        other.addTriple("T1", "name", "other");
+        CacheSnapshot.write(other, "other", file);
+        // the open snapshot still reads the file it has mapped
+        assertEquals("key", snapshot.getKey());
+        assertEquals(cache.getInstance("S2"), snapshot.getInstance(snapshot.indexOf("S2")));
+        snapshot.close();
+        CacheSnapshot replaced = CacheSnapshot.open(file);
+        assertEquals("other", replaced.getKey());
+        assertEquals(1, replaced.size());
+        replaced.close();
+        File[] left = file.getAbsoluteFile().getParentFile()
+                .listFiles((dir, name) -> name.startsWith(file.getName()) && name.endsWith(".tmp"));
+        assertEquals(0, left.length);
+    }
+
+    @Test
+    public void testChecksum() throws IOException {
+        CacheSnapshot.write(cache, "key", file);
+        try (RandomAccessFile f = new RandomAccessFile(file, "rw")) {
+            f.seek(f.length() - 1);
+            int b = f.read();
+            f.seek(f.length() - 1);
+            f.write(b ^ 1);
+        }
+        try {
+            CacheSnapshot.open(file);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexRegistryTest {
+
+    private ACache source;
+    private ACache target;
+    private AtomicInteger builds;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "name", "ibuprofen");
+        target.addTriple("T1", "name", "aspirin");
+        builds = new AtomicInteger();
+    }
+
+    private Object getIndex(ACache cache, String type) {
+        return IndexRegistry.getIndex(cache, "name", type, () -> new int[builds.incrementAndGet()], i -> 60);
+    }
+
+    @Test
+    public void testReuse() {
+        IndexRegistry registry = IndexRegistry.attach(source, target);
+        assertSame(registry, target.getIndexRegistry());
+        Object index = getIndex(source, "values");
+        assertSame(index, getIndex(source, "values"));
+        assertNotSame(index, getIndex(target, "values"));
+        assertNotSame(index, getIndex(source, "qgrams-3"));
+        assertEquals(3, builds.get());
+        assertEquals(1, registry.getHits());
+        assertEquals(3, registry.getMisses());
+        assertEquals(180, registry.getMemoryUsage());
+
+        Object pair = IndexRegistry.getIndex(source, "name", target, "name", "ppjoin-words", () -> new Object(),
+                i -> 0);
+        assertSame(pair, IndexRegistry.getIndex(source, "name", target, "name", "ppjoin-words", () -> new Object(),
+                i -> 0));
+        assertNotSame(pair, IndexRegistry.getIndex(target, "name", source, "name", "ppjoin-words",
+                () -> new Object(), i -> 0));
+    }
+
+    @Test
+    public void testWithoutRegistry() {
+        getIndex(source, "values");
+        getIndex(source, "values");
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    public void testInvalidation() {
+        IndexRegistry registry = IndexRegistry.attach(source, target);
+        Object index = getIndex(source, "values");
+        Object targetIndex = getIndex(target, "values");
+        IndexRegistry.getIndex(source, "name", target, "name", "ppjoin-words", () -> new Object(), i -> 0);
+        source.addTriple("S2", "name", "paracetamol");
+        assertEquals(1, registry.size());
+        assertNotSame(index, getIndex(source, "values"));
+        assertSame(targetIndex, getIndex(target, "values"));
+        assertEquals(120, registry.getMemoryUsage());
+
+        registry.invalidate(target);
+        assertEquals(1, registry.size());
+        assertEquals(60, registry.getMemoryUsage());
+    }
+
+    @Test
+    public void testEviction() {
+        IndexRegistry registry = new IndexRegistry(150);
+        source.setIndexRegistry(registry);
+        Object first = getIndex(source, "first");
+        Object second = getIndex(source, "second");
+        // first is now the most recently used index
+        assertSame(first, getIndex(source, "first"));
+        getIndex(source, "third");
+        assertEquals(2, registry.size());
+        assertEquals(120, registry.getMemoryUsage());
+        assertSame(first, getIndex(source, "first"));
+        assertNotSame(second, getIndex(source, "second"));
+
+        registry.setMemoryBudget(50);
+        assertEquals(0, registry.size());
+        assertEquals(0, registry.getMemoryUsage());
+    }
+
+}
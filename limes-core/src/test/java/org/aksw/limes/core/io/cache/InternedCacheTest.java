@@ -0,0 +1,143 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InternedCacheTest {
+
+    public MemoryCache memory = new MemoryCache();
+    public InternedCache cache = new InternedCache();
+
+    @Before
+    public void prepareData() {
+        memory = new MemoryCache();
+        memory.addTriple("S1", "name", "kleanthi");
+        memory.addTriple("S1", "surname", "georgala");
+        memory.addTriple("S2", "name", "lukas");
+        memory.addTriple("S2", "name", "luke");
+        memory.addTriple("S2", "name", "lukas");
+        memory.addTriple("S3", "age", "52");
+        cache = new InternedCache();
+        for (Instance i : memory.getAllInstances()) {
+            for (String p : i.getAllProperties()) {
+                for (String v : i.getProperty(p)) {
+                    cache.addTriple(i.getUri(), p, v);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInstances() {
+        assertEquals(memory.size(), cache.size());
+        for (String uri : memory.getAllUris()) {
+            assertTrue(cache.containsUri(uri));
+            assertEquals(memory.getInstance(uri), cache.getInstance(uri));
+            assertEquals(cache.getInstance(uri), memory.getInstance(uri));
+        }
+        assertEquals(2, cache.getInstance("S2").getProperty("name").size());
+        assertTrue(cache.getInstance("S3").getProperty("name").isEmpty());
+        assertNull(cache.getInstance("S4"));
+        assertEquals(memory.getAllProperties(), cache.getAllProperties());
+        assertEquals(cache, InternedCache.copyOf(memory));
+    }
+
+    @Test
+    public void testUpdates() {
+        Instance i = cache.getInstance("S1");
+        TreeSet<String> values = new TreeSet<String>();
+        values.add("klea");
+        i.replaceProperty("name", values);
+        i.addProperty("age", "26");
+        i.removePropery("surname");
+        Instance j = cache.getInstance("S1");
+        assertEquals(values, j.getProperty("name"));
+        assertEquals("26", j.getProperty("age").first());
+        assertFalse(j.getAllProperties().contains("surname"));
+
+        Instance k = new Instance("S2");
+        k.addProperty("name", "lukas");
+        cache.replaceInstance("S2", k);
+        assertEquals(k, cache.getInstance("S2"));
+
+        InternedCache cloned = cache.clone();
+        assertTrue(cloned != cache);
+        assertEquals(cache, cloned);
+        cloned.addTriple("S3", "age", "53");
+        assertFalse(cache.equals(cloned));
+    }
+
+    @Test
+    public void testReadOnlyValues() {
+        TreeSet<String> names = cache.getInstance("S2").getProperty("name");
+        // the decoded values are shared until the property changes
+        assertSame(names, cache.getProperty(cache.getId("S2"), "name"));
+        try {
+            names.add("lucas");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            names.iterator().remove();
+            fail();
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            // expected
+        }
+        cache.addTriple("S2", "name", "lucas");
+        TreeSet<String> changed = cache.getInstance("S2").getProperty("name");
+        assertEquals(3, changed.size());
+        assertEquals(2, names.size());
+
+        // values given to a plain instance are copied, thus modifiable
+        Instance copy = new Instance("S2");
+        copy.addProperty("name", changed);
+        copy.addProperty("name", "luc");
+        assertEquals(4, copy.getProperty("name").size());
+        Instance viewCopy = cache.getInstance("S2").copy();
+        viewCopy.addProperty("name", "luc");
+        assertEquals(4, viewCopy.getProperty("name").size());
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        InternedCache large = new InternedCache();
+        for (int i = 0; i < 2000; i++) {
+            large.addTriple("S" + i, "name", "name" + i);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    int found = 0;
+                    for (Instance i : large.getAllInstances()) {
+                        if (i.getProperty("name").first().equals("name" + i.getUri().substring(1))) {
+                            found++;
+                        }
+                    }
+                    return found;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(2000, result.get().intValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
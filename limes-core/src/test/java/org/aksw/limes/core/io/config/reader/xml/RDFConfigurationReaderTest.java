@@ -159,6 +159,7 @@ public class RDFConfigurationReaderTest {
         
         assertTrue(config.getExpectedSelectivity() == 0.8);
         assertTrue(config.getOptimizationTime() == 1000);
+        assertTrue(config.getExecutionParallelism() == 0);
         
         
         
@@ -173,6 +174,7 @@ public class RDFConfigurationReaderTest {
         
         assertTrue(config.getExpectedSelectivity() == 1.0);
         assertTrue(config.getOptimizationTime() == 0);
+        assertTrue(config.getExecutionParallelism() == 4);
         
         
         
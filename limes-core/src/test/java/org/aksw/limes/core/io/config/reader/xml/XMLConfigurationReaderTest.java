@@ -203,6 +203,7 @@ public class XMLConfigurationReaderTest {
         
         assertTrue(config.getOptimizationTime() == 0);
         assertTrue(config.getExpectedSelectivity() == 1.0);
+        assertTrue(config.getExecutionParallelism() == 0);
     }
     
     @Test
@@ -214,6 +215,7 @@ public class XMLConfigurationReaderTest {
         
         assertTrue(config.getOptimizationTime() == 1000);
         assertTrue(config.getExpectedSelectivity() == 0.65);
+        assertTrue(config.getExecutionParallelism() == 4);
     }
 
 }
@@ -0,0 +1,119 @@
+package org.aksw.limes.core.io.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileMappingTest {
+
+    private AMapping memory;
+    private AMapping memory2;
+    private FileMapping file;
+    private FileMapping file2;
+
+    @Before
+    public void setUp() {
+        memory = MappingFactory.createDefaultMapping();
+        memory2 = MappingFactory.createDefaultMapping();
+        // small segments and sort buffers to test spilling
+        file = new FileMapping(new File(System.getProperty("java.io.tmpdir")), 1 << 12, 100);
+        file2 = file.createEmptyMapping();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            String s = "s" + random.nextInt(50);
+            String t = "t" + random.nextInt(30);
+            double sim = random.nextInt(10) / 10d;
+            memory.add(s, t, sim);
+            file.add(s, t, sim);
+            s = "s" + random.nextInt(50);
+            t = "t" + random.nextInt(30);
+            memory2.add(s, t, sim);
+            file2.add(s, t, sim);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.close();
+        file2.close();
+    }
+
+    @Test
+    public void testAdd() {
+        assertEquals(memory.size(), file.size());
+        assertEquals(memory.getMap(), file.getMap());
+        for (String s : memory.getMap().keySet()) {
+            for (String t : memory.getMap().get(s).keySet()) {
+                assertTrue(file.contains(s, t));
+                assertEquals(memory.getConfidence(s, t), file.getConfidence(s, t), 0d);
+            }
+        }
+        assertFalse(file.contains("t1", "s1"));
+    }
+
+    @Test
+    public void testIterator() {
+        Iterator<Link> it = file.iterator();
+        Link previous = it.next();
+        int count = 1;
+        while (it.hasNext()) {
+            Link link = it.next();
+            assertTrue(previous.compareTo(link) < 0);
+            previous = link;
+            count++;
+        }
+        assertEquals(memory.size(), count);
+    }
+
+    @Test
+    public void testOperations() {
+        assertEquals(memory.getSubMap(0.5).getMap(), file.getSubMap(0.5).getMap());
+        assertEquals(memory.getBestOneToNMapping().getMap(), file.getBestOneToNMapping().getMap());
+        assertEquals(memory.reverseSourceTarget().getMap(), file.reverseSourceTarget().getMap());
+        assertEquals(memory.getOnlyPositiveExamples().getMap(), file.getOnlyPositiveExamples().getMap());
+    }
+
+    @Test
+    public void testSetOperations() {
+        AMapping union = MappingOperations.union(file, file2);
+        assertTrue(union instanceof FileMapping);
+        assertEquals(MappingOperations.union(memory, memory2).getMap(), union.getMap());
+        assertEquals(MappingOperations.intersection(memory, memory2).getMap(),
+                MappingOperations.intersection(file, file2).getMap());
+        assertEquals(MappingOperations.difference(memory, memory2).getMap(),
+                MappingOperations.difference(file, file2).getMap());
+        assertEquals(MappingOperations.difference(memory, memory2).getMap(),
+                MappingOperations.difference(memory, file2).getMap());
+    }
+
+    @Test
+    public void testFiles() throws IOException {
+        File parent = Files.createTempDirectory("limes-test-").toFile();
+        FileMapping m = new FileMapping(parent, FileMapping.DEFAULT_SEGMENT_SIZE, 100);
+        // no directory before the first link
+        assertEquals(0, parent.listFiles().length);
+        m.add("s", "t", 1d);
+        File[] directories = parent.listFiles();
+        assertEquals(1, directories.length);
+        // the first segment is sized to the data, not to the maximal size
+        for (File segment : directories[0].listFiles()) {
+            assertTrue(segment.length() < FileMapping.DEFAULT_SEGMENT_SIZE);
+        }
+        assertEquals(1d, m.getConfidence("s", "t"), 0d);
+        m.close();
+        assertEquals(0, parent.listFiles().length);
+        assertEquals(0, m.size());
+        parent.delete();
+    }
+}
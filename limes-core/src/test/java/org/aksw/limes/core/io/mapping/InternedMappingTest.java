@@ -0,0 +1,119 @@
+package org.aksw.limes.core.io.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InternedMappingTest {
+
+    private AMapping memory;
+    private AMapping interned;
+
+    @Before
+    public void setUp() {
+        memory = MappingFactory.createMapping(MappingType.MEMORY_MAPPING);
+        interned = MappingFactory.createMapping(MappingType.INTERNED_MAPPING);
+        for (AMapping m : new AMapping[] { memory, interned }) {
+            m.add("Potter", "Harry", 0.7);
+            m.add("Potter", "James", 0.7);
+            m.add("Potter", "Lily", 0.5);
+            m.add("Granger", "Hermione", 0.9);
+            m.add("Weasley", "Ron", 0.4);
+            m.add("Weasley", "Ron", 0.6);
+            m.add("Weasley", "Fred", 0.2);
+            m.add("Weasley", "Ginny", 0.3);
+            m.add("Weasley", "Ginny", 0.1);
+            m.add("Malfoy", "Draco", 0.0);
+        }
+    }
+
+    @Test
+    public void testAdd() {
+        assertTrue(interned instanceof InternedMapping);
+        assertEquals(memory.size(), interned.size());
+        assertEquals(memory.getNumberofMappings(), interned.getNumberofMappings());
+        assertEquals(memory.getNumberofPositiveMappings(), interned.getNumberofPositiveMappings());
+        assertEquals(0.6, interned.getConfidence("Weasley", "Ron"), 0d);
+        assertEquals(0.3, interned.getConfidence("Weasley", "Ginny"), 0d);
+        assertEquals(0d, interned.getConfidence("Weasley", "Harry"), 0d);
+        assertTrue(interned.contains("Malfoy", "Draco"));
+        assertFalse(interned.contains("Draco", "Malfoy"));
+        assertEquals(memory.getMap(), interned.getMap());
+    }
+
+    @Test
+    public void testOperations() {
+        assertEquals(memory.getSubMap(0.5).getMap(), interned.getSubMap(0.5).getMap());
+        assertEquals(memory.getBestOneToNMapping().getMap(), interned.getBestOneToNMapping().getMap());
+        assertEquals(memory.reverseSourceTarget().getMap(), interned.reverseSourceTarget().getMap());
+        assertEquals(memory.getOnlyPositiveExamples().getMap(), interned.getOnlyPositiveExamples().getMap());
+        assertEquals(memory.getBestOneToOneMappings(memory).getMap(),
+                interned.getBestOneToOneMappings(interned).getMap());
+        assertEquals(memory.getReversedMap(), interned.getReversedMap());
+    }
+
+    @Test
+    public void testEquals() {
+        AMapping other = MappingFactory.createMapping(MappingType.INTERNED_MAPPING);
+        other.setMap(interned.getMap());
+        assertEquals(interned, other);
+        assertEquals(interned.hashCode(), other.hashCode());
+        other.add("Potter", "Harry", 0.9);
+        assertFalse(interned.equals(other));
+        assertEquals(0.9, other.getMap().get("Potter").get("Harry"), 0d);
+    }
+
+    @Test
+    public void testGetMapCached() {
+        assertTrue(interned.getMap() == interned.getMap());
+        assertTrue(interned.getReversedMap() == interned.getReversedMap());
+        interned.add("Potter", "Albus", 0.8);
+        memory.add("Potter", "Albus", 0.8);
+        assertEquals(memory.getMap(), interned.getMap());
+        assertTrue(interned.getReversedMap().get(0.8).get("Potter").contains("Albus"));
+    }
+
+    @Test
+    public void testDerivedMappings() {
+        AMapping subMap = interned.getSubMap(0.5);
+        subMap.add("Lovegood", "Luna", 0.8);
+        subMap.add("Potter", "Harry", 0.9);
+        assertEquals(0.9, subMap.getConfidence("Potter", "Harry"), 0d);
+        assertEquals(0.8, subMap.getConfidence("Lovegood", "Luna"), 0d);
+        assertFalse(interned.contains("Lovegood", "Luna"));
+        assertEquals(memory.getMap(), interned.getMap());
+        interned.add("Weasley", "Percy", 0.5);
+        assertFalse(subMap.contains("Weasley", "Percy"));
+        assertEquals(memory.getSubMap(0.5).size() + 1, subMap.size());
+    }
+
+    @Test
+    public void testConcurrentDerivedMappings() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        AMapping[] results = new AMapping[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            int thread = i;
+            threads[i] = new Thread(() -> {
+                AMapping m = interned.getSubMap(0.3);
+                for (int j = 0; j < 10000; j++) {
+                    m.add("S" + thread + "_" + j, "T" + j, 1d);
+                }
+                results[thread] = m;
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            assertEquals(memory.getSubMap(0.3).size() + 10000, results[i].size());
+            assertTrue(results[i].contains("S" + i + "_9999", "T9999"));
+            assertEquals(0.7, results[i].getConfidence("Potter", "Harry"), 0d);
+        }
+        assertEquals(memory.getMap(), interned.getMap());
+    }
+}
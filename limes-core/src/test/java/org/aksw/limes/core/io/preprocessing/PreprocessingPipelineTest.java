@@ -0,0 +1,118 @@
+package org.aksw.limes.core.io.preprocessing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.InternedCache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PreprocessingPipelineTest {
+
+	public LinkedHashMap<String, Map<String, String>> functions;
+
+	@Before
+	public void prepareData() {
+		functions = new LinkedHashMap<>();
+		HashMap<String, String> f1 = new HashMap<>();
+		f1.put("name", "lowercase->regexreplace([0-9]+,#)->replace(#, number )");
+		functions.put("label", f1);
+		HashMap<String, String> f2 = new HashMap<>();
+		f2.put("value", "number");
+		functions.put("value", f2);
+	}
+
+	private ACache createCache(ACache cache, int size) {
+		for (int i = 0; i < size; i++) {
+			cache.addTriple("i" + i, "label", "Label" + i);
+			cache.addTriple("i" + i, "label", "Other Label " + (i % 10));
+			cache.addTriple("i" + i, "value", i + "^^http://www.w3.org/2001/XMLSchema#Integer");
+			cache.addTriple("i" + i, "comment", "Comment " + i);
+		}
+		return cache;
+	}
+
+	@Test
+	public void testParallel() {
+		ACache sequential = createCache(new MemoryCache(), 5000);
+		new PreprocessingPipeline(functions).apply(sequential, 1);
+		ACache parallel = createCache(new MemoryCache(), 5000);
+		new PreprocessingPipeline(functions).apply(parallel, 4);
+		assertEquals(sequential, parallel);
+		assertEquals("labelnumber ", sequential.getInstance("i7").getProperty("name").first());
+		assertEquals("7", sequential.getInstance("i7").getProperty("value").first());
+		assertEquals(0, sequential.getInstance("i7").getProperty("label").size());
+	}
+
+	@Test
+	public void testParallelInterned() {
+		// distinct values grow the dictionaries and columns while processing
+		HashMap<String, String> f3 = new HashMap<>();
+		f3.put("comment", "uppercase");
+		functions.put("comment", f3);
+		ACache sequential = createCache(new MemoryCache(), 5000);
+		new PreprocessingPipeline(functions).apply(sequential, 1);
+		// the views of the interned cache write to shared columns
+		ACache parallel = createCache(new InternedCache(), 5000);
+		new PreprocessingPipeline(functions).apply(parallel, 4);
+		assertEquals(InternedCache.copyOf(sequential), parallel);
+	}
+
+	@Test
+	public void testIngest() {
+		ACache processed = createCache(new MemoryCache(), 100);
+		Preprocessor.applyFunctionsToCache(processed, functions);
+		ACache ingested = new MemoryCache();
+		ingested.setIngestPipeline(new PreprocessingPipeline(functions));
+		createCache(ingested, 100);
+		assertEquals(processed, ingested);
+	}
+
+	@Test
+	public void testIngestInterned() {
+		ACache processed = createCache(new MemoryCache(), 100);
+		Preprocessor.applyFunctionsToCache(processed, functions);
+		ACache ingested = new InternedCache();
+		ingested.setIngestPipeline(new PreprocessingPipeline(functions));
+		createCache(ingested, 100);
+		assertEquals(InternedCache.copyOf(processed), ingested);
+		assertEquals(0, ingested.getInstance("i7").getProperty("label").size());
+	}
+
+	@Test
+	public void testIngestChainsOfProperty() {
+		// the second chain renames the values processed by the first one
+		LinkedHashMap<String, String> f1 = new LinkedHashMap<>();
+		f1.put("label", "lowercase->regexreplace([0-9]+,#)");
+		f1.put("name", "uppercase");
+		functions.put("label", f1);
+		ACache processed = createCache(new MemoryCache(), 100);
+		Preprocessor.applyFunctionsToCache(processed, functions);
+		ACache ingested = new MemoryCache();
+		ingested.setIngestPipeline(new PreprocessingPipeline(functions));
+		createCache(ingested, 100);
+		assertEquals(processed, ingested);
+		assertEquals("LABEL#", ingested.getInstance("i7").getProperty("name").first());
+		assertEquals(0, ingested.getInstance("i7").getProperty("label").size());
+	}
+
+	@Test
+	public void testIngestComplexFunction() {
+		HashMap<String, String> f3 = new HashMap<>();
+		f3.put("concat", "concat(name,value)");
+		functions.put("concat", f3);
+		try {
+			new MemoryCache().setIngestPipeline(new PreprocessingPipeline(functions));
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
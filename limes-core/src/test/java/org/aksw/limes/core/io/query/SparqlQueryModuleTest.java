@@ -1,5 +1,6 @@
 package org.aksw.limes.core.io.query;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -10,7 +11,15 @@ import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -64,4 +73,75 @@ public class SparqlQueryModuleTest {
         assertTrue(cache.size() > 0);
     }
 
+    private KBInfo registerModel(int size) {
+        Model model = ModelFactory.createDefaultModel();
+        Resource drug = model.createResource("http://dbpedia.org/ontology/Drug");
+        for (int i = 0; i < size; i++) {
+            Resource r = model.createResource("http://example.org/drug/" + i);
+            model.add(r, RDF.type, drug);
+            model.add(r, RDFS.label, "drug " + i);
+            if (i % 2 == 0) {
+                model.add(r, RDFS.comment, "comment " + i);
+            }
+        }
+        ModelRegistry.register("drugs", model);
+        kbInfo.setEndpoint("drugs");
+        kbInfo.setPageSize(100);
+        kbInfo.setMaxOffset(-1);
+        kbInfo.setOptionalProperties(Arrays.asList("rdfs:comment"));
+        return kbInfo;
+    }
+
+    @Test
+    public void parallelPagesTest() {
+        KBInfo kb = registerModel(1050);
+        SparqlQueryModule sequential = new SparqlQueryModule(kb);
+        sequential.setPagesInFlight(1);
+        ACache expected = new MemoryCache();
+        sequential.fillCache(expected, false);
+        SparqlQueryModule parallel = new SparqlQueryModule(kb);
+        parallel.setPagesInFlight(8);
+        ACache cache = new MemoryCache();
+        parallel.fillCache(cache, false);
+        ModelRegistry.unregister("drugs");
+        assertEquals(1050, expected.size());
+        assertEquals(expected, cache);
+        assertEquals("comment 4", cache.getInstance("http://example.org/drug/4")
+                .getProperty("http://www.w3.org/2000/01/rdf-schema#comment").first());
+    }
+
+    @Test
+    public void maxOffsetTest() {
+        KBInfo kb = registerModel(1050);
+        kb.setMinOffset(30);
+        kb.setMaxOffset(520);
+        ACache cache = new MemoryCache();
+        new SparqlQueryModule(kb).fillCache(cache, false);
+        ModelRegistry.unregister("drugs");
+        assertEquals(490, cache.size());
+    }
+
+    @Test
+    public void retryTest() {
+        KBInfo kb = registerModel(250);
+        int[] failures = { 0 };
+        SparqlQueryModule sqm = new SparqlQueryModule(kb) {
+            @Override
+            protected QueryExecution createQueryExecution(Query query, Model model) {
+                synchronized (failures) {
+                    if (failures[0] < 2) {
+                        failures[0]++;
+                        throw new RuntimeException("Endpoint unavailable");
+                    }
+                }
+                return super.createQueryExecution(query, model);
+            }
+        };
+        sqm.setPageRetries(2, 1);
+        ACache cache = new MemoryCache();
+        sqm.fillCache(cache, false);
+        ModelRegistry.unregister("drugs");
+        assertEquals(250, cache.size());
+    }
+
 }
@@ -0,0 +1,96 @@
+package org.aksw.limes.core.io.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingFileQueryModuleTest {
+
+    KBInfo kbinfo;
+
+    @Before
+    public void init() {
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("rdfs", "http://www.w3.org/2000/01/rdf-schema#");
+        prefixes.put("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#");
+        prefixes.put("dbpo", "http://dbpedia.org/ontology/");
+        prefixes.put("owl", "http://www.w3.org/2002/07/owl#");
+
+        kbinfo = new KBInfo(
+                "DBpedia",                                                            //String id
+                Thread.currentThread().getContextClassLoader().getResource("ibuprofen.nt").getPath(),
+                null,                                                                //String graph
+                "?x",                                                                //String var
+                new ArrayList<String>(Arrays.asList("rdfs:label", "dbpo:abstract")),   //List<String> properties
+                new ArrayList<String>(Arrays.asList("owl:sameAs")),                  //List<String> optionlProperties
+                new ArrayList<String>(Arrays.asList("?x rdf:type dbpo:Drug")),        //ArrayList<String> restrictions
+                new LinkedHashMap<String, Map<String, String>>(),                    //LinkedHashMap<String, Map<String, String>> functions
+                prefixes,                                                            //Map<String, String> prefixes
+                1000,                                                                //int pageSize
+                "N3",                                                                //String type
+                -1,                                                                  //int minOffset
+                -1                                                                   //int maxoffset
+        );
+    }
+
+    @Test
+    public void fillCacheTest() {
+        ACache expected = new MemoryCache();
+        new FileQueryModule(kbinfo).fillCache(expected);
+        ACache cache = new MemoryCache();
+        new StreamingFileQueryModule(kbinfo).fillCache(cache);
+        assertTrue(cache.size() > 0);
+        assertEquals(expected, cache);
+
+        StreamingFileQueryModule parallel = new StreamingFileQueryModule(kbinfo);
+        parallel.setParallelism(4);
+        ACache parallelCache = new MemoryCache();
+        parallel.fillCache(parallelCache);
+        assertEquals(expected, parallelCache);
+    }
+
+    @Test
+    public void fillCacheWithoutClassTest() {
+        kbinfo.getRestrictions().clear();
+        ACache expected = new MemoryCache();
+        new FileQueryModule(kbinfo).fillCache(expected);
+        ACache cache = new MemoryCache();
+        new StreamingFileQueryModule(kbinfo).fillCache(cache);
+        assertTrue(cache.size() > 0);
+        assertEquals(expected, cache);
+
+        // a single required property needs no filtering of the subjects
+        kbinfo.setProperties(Arrays.asList("rdfs:label"));
+        kbinfo.setOptionalProperties(new ArrayList<String>());
+        expected = new MemoryCache();
+        new FileQueryModule(kbinfo).fillCache(expected);
+        StreamingFileQueryModule parallel = new StreamingFileQueryModule(kbinfo);
+        parallel.setParallelism(4);
+        cache = new MemoryCache();
+        parallel.fillCache(cache);
+        assertEquals(expected, cache);
+    }
+
+    @Test
+    public void canStreamTest() {
+        assertTrue(StreamingFileQueryModule.canStream(kbinfo));
+        kbinfo.setProperties(Arrays.asList("rdfs:label", "dbpo:abstract/rdfs:label"));
+        assertFalse(StreamingFileQueryModule.canStream(kbinfo));
+        kbinfo.setProperties(Arrays.asList("rdfs:label"));
+        kbinfo.getRestrictions().add("FILTER(?x != <http://dbpedia.org/resource/Aspirin>)");
+        assertFalse(StreamingFileQueryModule.canStream(kbinfo));
+    }
+
+}
@@ -2,8 +2,13 @@ package org.aksw.limes.core.measures.mapper;
 
 import static org.junit.Assert.assertTrue;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
 import org.junit.Test;
 
 public class SetOperationsTest {
@@ -25,4 +30,56 @@ public class SetOperationsTest {
         //assertTrue(MappingOperations.xor(a, b).size() != 0);
     }
 
+    private static AMapping randomMapping(MappingType type, long seed) {
+        AMapping m = MappingFactory.createMapping(type);
+        Random random = new Random(seed);
+        for (int i = 0; i < 500; i++) {
+            m.add("s" + random.nextInt(40), "t" + random.nextInt(40), random.nextInt(10) / 10d);
+        }
+        return m;
+    }
+
+    @Test
+    public void testStrategies() {
+        AMapping a = randomMapping(MappingType.MEMORY_MAPPING, 1);
+        AMapping b = randomMapping(MappingType.MEMORY_MAPPING, 2);
+        AMapping union = MappingOperations.union(a, b);
+        AMapping intersection = MappingOperations.intersection(a, b);
+        AMapping difference = MappingOperations.difference(a, b);
+        assertEquals(union.size(), union.getNumberofMappings());
+        assertEquals(a.size() + b.size(), union.size() + intersection.size());
+        assertEquals(a.size(), difference.size() + intersection.size());
+
+        // interned mappings
+        AMapping ia = randomMapping(MappingType.INTERNED_MAPPING, 1);
+        AMapping ib = randomMapping(MappingType.INTERNED_MAPPING, 2);
+        assertEquals(union.getMap(), MappingOperations.union(ia, ib).getMap());
+        assertEquals(intersection.getMap(), MappingOperations.intersection(ia, ib).getMap());
+        assertEquals(difference.getMap(), MappingOperations.difference(ia, ib).getMap());
+
+        // mixed inputs
+        assertEquals(union.getMap(), MappingOperations.union(ia, b).getMap());
+        assertEquals(intersection.getMap(), MappingOperations.intersection(a, ib).getMap());
+
+        // reused inputs
+        AMapping m = MappingOperations.union(randomMapping(MappingType.MEMORY_MAPPING, 1),
+                randomMapping(MappingType.MEMORY_MAPPING, 2), true);
+        assertEquals(union.getMap(), m.getMap());
+        assertEquals(union.size(), m.size());
+        m = MappingOperations.intersection(randomMapping(MappingType.MEMORY_MAPPING, 1),
+                randomMapping(MappingType.MEMORY_MAPPING, 2), true);
+        assertEquals(intersection.getMap(), m.getMap());
+        assertEquals(intersection.size(), m.size());
+        m = MappingOperations.difference(randomMapping(MappingType.MEMORY_MAPPING, 1),
+                randomMapping(MappingType.MEMORY_MAPPING, 2), true);
+        assertEquals(difference.getMap(), m.getMap());
+        assertEquals(difference.size(), m.size());
+
+        // empty inputs
+        AMapping empty = MappingFactory.createDefaultMapping();
+        assertEquals(a.getMap(), MappingOperations.union(a, empty).getMap());
+        assertEquals(0, MappingOperations.intersection(empty, a).size());
+        assertEquals(a.getMap(), MappingOperations.difference(a, empty).getMap());
+    }
+
 }
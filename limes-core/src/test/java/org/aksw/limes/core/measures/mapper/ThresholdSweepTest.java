@@ -0,0 +1,104 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.string.JaroWinklerMapper;
+import org.aksw.limes.core.measures.mapper.string.fastngram.FastNGramMapper;
+import org.junit.Test;
+
+public class ThresholdSweepTest {
+
+    @Test
+    public void testGetMapping() {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        mapping.add("s1", "t1", 1d);
+        mapping.add("s1", "t2", 0.5);
+        mapping.add("s2", "t2", 0.8);
+        mapping.add("s3", "t3", 0.3);
+        ThresholdSweep sweep = new ThresholdSweep(mapping, 0.4);
+
+        assertEquals(3, sweep.size(0.4));
+        assertEquals(2, sweep.size(0.8));
+        assertEquals(0, sweep.size(1.1));
+        assertEquals(mapping.getSubMap(0.4), sweep.getMapping(0.4));
+        assertEquals(mapping.getSubMap(0.8), sweep.getMapping(0.8));
+        assertEquals(mapping.getSubMap(1), sweep.getMapping(1));
+    }
+
+    @Test
+    public void testEqualSimilarities() {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 100; i++) {
+            mapping.add("s" + i, "t" + (i % 7), (i % 5) / 4d);
+        }
+        ThresholdSweep sweep = new ThresholdSweep(mapping, 0.25);
+        assertEquals(80, sweep.size(0.25));
+        assertEquals(40, sweep.size(0.75));
+        for (int k = 1; k <= 4; k++) {
+            assertEquals(mapping.getSubMap(k / 4d), sweep.getMapping(k / 4d));
+        }
+    }
+
+    @Test
+    public void testBelowMinThreshold() {
+        try {
+            new ThresholdSweep(MappingFactory.createDefaultMapping(), 0.5).getMapping(0.4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static ACache[] createCaches() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        String[] labels = { "leipzig", "leipzig city", "berlin", "berlin mitte", "dresden", "dresdner" };
+        for (int i = 0; i < labels.length; i++) {
+            source.addTriple("S" + i, "label", labels[i]);
+            target.addTriple("T" + i, "label", labels[(i + 1) % labels.length]);
+        }
+        return new ACache[] { source, target };
+    }
+
+    @Test
+    public void testMapperSweep() {
+        ACache[] caches = createCaches();
+        ACache source = caches[0];
+        ACache target = caches[1];
+        IMapper mapper = new FastNGramMapper();
+        String expression = "qgrams(x.label, y.label)";
+        ThresholdSweep sweep = mapper.getSweep(source, target, "?x", "?y", expression, 0.3);
+        for (double threshold = 1; threshold > 0.3; threshold *= 0.9) {
+            assertEquals(mapper.getMapping(source, target, "?x", "?y", expression, threshold),
+                    sweep.getMapping(threshold));
+        }
+    }
+
+    @Test
+    public void testDirectSweep() {
+        ACache[] caches = createCaches();
+        ACache source = caches[0];
+        ACache target = caches[1];
+        IMapper mapper = new JaroWinklerMapper();
+        assertFalse(mapper.isExact());
+        String expression = "jaroWinkler(x.label, y.label)";
+        ThresholdSweep sweep = mapper.getSweep(source, target, "?x", "?y", expression, 0.5);
+        for (double threshold = 1; threshold > 0.5; threshold *= 0.9) {
+            assertEquals(mapper.getMapping(source, target, "?x", "?y", expression, threshold),
+                    sweep.getMapping(threshold));
+        }
+        try {
+            sweep.getMapping(0.4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+}
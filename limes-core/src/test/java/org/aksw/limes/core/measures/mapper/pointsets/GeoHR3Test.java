@@ -0,0 +1,87 @@
+package org.aksw.limes.core.measures.mapper.pointsets;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.datastrutures.Point;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.measures.measure.pointsets.IPointsetsMeasure;
+import org.aksw.limes.core.measures.measure.pointsets.hausdorff.FastHausdorffMeasure;
+import org.aksw.limes.core.measures.measure.pointsets.hausdorff.NaiveHausdorffMeasure;
+import org.aksw.limes.core.measures.measure.pointsets.hausdorff.SymmetricHausdorffMeasure;
+import org.junit.Test;
+
+public class GeoHR3Test {
+
+    private static final float THRESHOLD = 20f;
+
+    private Set<Polygon> createPolygons(String prefix, int size, Random random) {
+        Set<Polygon> polygons = new HashSet<Polygon>();
+        for (int i = 0; i < size; i++) {
+            Polygon p = new Polygon(prefix + i);
+            double lat = 50 + random.nextDouble();
+            double lon = 10 + random.nextDouble();
+            for (int j = 0; j < 1 + random.nextInt(5); j++) {
+                p.add(new Point(lat + (random.nextDouble() - 0.5) / 5, lon + (random.nextDouble() - 0.5) / 5));
+            }
+            polygons.add(p);
+        }
+        return polygons;
+    }
+
+    private AMapping bruteForce(Set<Polygon> source, Set<Polygon> target, IPointsetsMeasure measure) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (Polygon a : source) {
+            for (Polygon b : target) {
+                double d = measure.computeDistance(a, b, THRESHOLD);
+                if (d <= THRESHOLD) {
+                    m.add(a.uri, b.uri, 1 / (1 + d));
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testRun() {
+        Random random = new Random(42);
+        Set<Polygon> source = createPolygons("s", 200, random);
+        Set<Polygon> target = createPolygons("t", 200, random);
+
+        AMapping expected = bruteForce(source, target, new NaiveHausdorffMeasure());
+        assertEquals(expected, new GeoHR3(THRESHOLD, 4, MeasureType.GEO_NAIVE_HAUSDORFF).run(source, target));
+        assertEquals(expected, new GeoHR3(THRESHOLD, 4, MeasureType.GEO_FAST_HAUSDORFF).run(source, target));
+
+        expected = bruteForce(source, target, new SymmetricHausdorffMeasure());
+        assertEquals(expected,
+                new GeoHR3(THRESHOLD, 4, MeasureType.GEO_SYMMETRIC_HAUSDORFF).run(source, target));
+
+        // not packed, thus computed sequentially
+        IPointsetsMeasure min = (IPointsetsMeasure) MeasureFactory.createMeasure(MeasureType.GEO_MIN);
+        expected = bruteForce(source, target, min);
+        assertEquals(expected, new GeoHR3(THRESHOLD, 4, MeasureType.GEO_MIN).run(source, target));
+    }
+
+    @Test
+    public void testPackedDistance() {
+        Random random = new Random(7);
+        Polygon[] polygons = createPolygons("p", 20, random).toArray(new Polygon[0]);
+        NaiveHausdorffMeasure naive = new NaiveHausdorffMeasure();
+        FastHausdorffMeasure fast = new FastHausdorffMeasure();
+        for (Polygon a : polygons) {
+            PackedPolygon x = PackedPolygon.pack(a);
+            assertEquals(a.points, x.toPolygon().points);
+            for (Polygon b : polygons) {
+                PackedPolygon y = PackedPolygon.pack(b);
+                assertEquals(naive.computeDistance(a, b, THRESHOLD), naive.computeDistance(x, y, THRESHOLD), 0);
+                assertEquals(fast.computeDistance(a, b, THRESHOLD), fast.computeDistance(x, y, THRESHOLD), 0);
+            }
+        }
+    }
+}
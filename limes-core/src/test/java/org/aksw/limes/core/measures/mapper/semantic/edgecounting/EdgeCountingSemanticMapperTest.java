@@ -0,0 +1,118 @@
+package org.aksw.limes.core.measures.mapper.semantic.edgecounting;
+
+import static org.junit.Assert.assertEquals;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.AEdgeCountingSemanticMeasure;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.TokenSimilarityCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.mit.jwi.item.ISynset;
+
+public class EdgeCountingSemanticMapperTest {
+
+    /**
+     * Computes the similarity of two tokens from their first letters instead
+     * of wordnet.
+     */
+    private static class LetterMeasure extends AEdgeCountingSemanticMeasure {
+
+        LetterMeasure() {
+            super(null, null);
+        }
+
+        @Override
+        public double getSimilarity(Object object1, Object object2) {
+            String a = object1.toString();
+            String b = object2.toString();
+            return a.charAt(0) == b.charAt(0) ? 0.6 : 0.1;
+        }
+
+        @Override
+        public double getSimilarityBetweenConcepts(ISynset synset1, ISynset synset2) {
+            return 0;
+        }
+
+        @Override
+        public double getRuntimeApproximation(double mappingSize) {
+            return mappingSize / 1000d;
+        }
+
+        @Override
+        public String getName() {
+            return "letter";
+        }
+
+        @Override
+        public String getType() {
+            return "semantic";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        TokenSimilarityCache.getInstance().clear();
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "label", "red car");
+        source.addTriple("S2", "label", "the big house");
+        source.addTriple("S3", "label", "blue boat");
+        source.addTriple("S3", "label", "yacht");
+        // same value as S1, thus tokenized once
+        source.addTriple("S4", "label", "red car");
+
+        target.addTriple("T1", "label", "red car");
+        target.addTriple("T2", "label", "rose cat");
+        target.addTriple("T3", "label", "huge barn");
+        target.addTriple("T4", "label", "yellow");
+    }
+
+    @After
+    public void tearDown() {
+        TokenSimilarityCache.getInstance().clear();
+    }
+
+    /**
+     * Compares each source instance with each target instance.
+     */
+    private AMapping bruteForce(AEdgeCountingSemanticMeasure measure, double threshold) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                double similarity = measure.getSimilarity(source.getInstance(s), target.getInstance(t), "label",
+                        "label");
+                if (similarity >= threshold) {
+                    m.add(s, t, similarity);
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testSameAsMeasure() {
+        EdgeCountingSemanticMapper mapper = new EdgeCountingSemanticMapper();
+        for (double threshold : new double[] { 0.05, 0.3, 0.6, 1 }) {
+            AMapping expected = bruteForce(new LetterMeasure(), threshold);
+            AMapping mapping = mapper.getMapping(source, target, "label", "label", new LetterMeasure(), threshold);
+            assertEquals("threshold " + threshold, expected.size(), mapping.size());
+            for (String s : expected.getMap().keySet()) {
+                for (String t : expected.getMap().get(s).keySet()) {
+                    assertEquals(s + " " + t, expected.getConfidence(s, t), mapping.getConfidence(s, t), 1e-9);
+                }
+            }
+        }
+    }
+}
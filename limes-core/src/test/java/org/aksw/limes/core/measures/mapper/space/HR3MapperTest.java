@@ -0,0 +1,79 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.space.blocking.HR3Blocker;
+import org.aksw.limes.core.measures.measure.space.EuclideanMeasure;
+import org.junit.Test;
+
+public class HR3MapperTest {
+
+    private ACache createCache(String prefix, int size, Random random) {
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            cache.addTriple(prefix + i, "lat", "" + random.nextInt(100) / 10d);
+            cache.addTriple(prefix + i, "lon", "" + random.nextInt(100) / 10d);
+            if (i % 7 == 0) {
+                cache.addTriple(prefix + i, "lon", "" + random.nextInt(100) / 10d);
+            }
+        }
+        cache.addTriple(prefix + "nan", "lat", "unknown");
+        cache.addTriple(prefix + "nan", "lon", "1.0");
+        return cache;
+    }
+
+    @Test
+    public void testMapping() {
+        Random random = new Random(42);
+        ACache source = createCache("S", 200, random);
+        ACache target = createCache("T", 200, random);
+        EuclideanMeasure measure = new EuclideanMeasure();
+        for (double threshold : new double[] { 0.5, 0.7, 0.9 }) {
+            AMapping expected = MappingFactory.createDefaultMapping();
+            for (String s : source.getAllUris()) {
+                for (String t : target.getAllUris()) {
+                    double sim = measure.getSimilarity(source.getInstance(s), target.getInstance(t), "lat|lon",
+                            "lat|lon");
+                    if (sim >= threshold) {
+                        expected.add(s, t, sim);
+                    }
+                }
+            }
+            AMapping mapping = new HR3Mapper().getMapping(source, target, "?x", "?y",
+                    "euclidean(x.lat|lon, y.lat|lon)", threshold);
+            assertTrue(expected.size() > 0);
+            assertEquals(expected, mapping);
+        }
+    }
+
+    @Test
+    public void testBlocksToCompare() {
+        HR3Blocker blocker = new HR3Blocker(4, 2);
+        ArrayList<Integer> blockId = new ArrayList<Integer>();
+        blockId.add(3);
+        blockId.add(-5);
+        Set<Long> expected = new HashSet<Long>();
+        for (ArrayList<Integer> block : blocker.getBlocksToCompare(blockId)) {
+            expected.add(blocker.getKey(new int[] { block.get(0), block.get(1) }));
+        }
+        long[] keys = new long[blocker.getNeighbourCount()];
+        blocker.getBlocksToCompare(new int[] { 3, -5 }, keys);
+        Set<Long> result = new HashSet<Long>();
+        for (long key : keys) {
+            result.add(key);
+        }
+        assertEquals(expected.size(), keys.length);
+        assertEquals(expected, result);
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.Test;
+
+public class EDJoinMapperTest {
+
+    private static ACache generateCache(Random random, String prefix, int size) {
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            // short strings over a small alphabet, some shorter than q
+            char[] s = new char[1 + random.nextInt(8)];
+            for (int j = 0; j < s.length; j++) {
+                s[j] = (char) ('a' + random.nextInt(4));
+            }
+            cache.addTriple(prefix + i, "name", new String(s));
+        }
+        return cache;
+    }
+
+    @Test
+    public void testParallelMapping() {
+        Random random = new Random(13);
+        ACache source = generateCache(random, "S", 1000);
+        ACache target = generateCache(random, "T", 1200);
+        EDJoinMapper mapper = new EDJoinMapper();
+        for (double threshold : new double[] { 0.3, 0.5, 1 }) {
+            String expression = "levenshtein(x.name, y.name)";
+            mapper.setThreads(1);
+            AMapping expected = mapper.getMapping(source, target, "?x", "?y", expression, threshold);
+            mapper.setThreads(4);
+            AMapping parallel = mapper.getMapping(source, target, "?x", "?y", expression, threshold);
+            assertTrue(expected.size() > 0);
+            assertEquals(expected, parallel);
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.IndexRegistry;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.Test;
+
+public class PPJoinPlusPlusTest {
+
+    private static ACache generateCache(Random random, String prefix, int size) {
+        String[] words = { "ibuprofen", "aspirin", "paracetamol", "acid", "sodium", "tablet", "leipzig", "berlin" };
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            StringBuilder s = new StringBuilder(words[random.nextInt(words.length)]);
+            for (int j = random.nextInt(4); j > 0; j--) {
+                s.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            cache.addTriple(prefix + i, "name", s.toString());
+            // some instances have two labels
+            if (random.nextInt(10) == 0) {
+                cache.addTriple(prefix + i, "name", words[random.nextInt(words.length)]);
+            }
+        }
+        return cache;
+    }
+
+    @Test
+    public void testParallelMapping() {
+        Random random = new Random(13);
+        ACache source = generateCache(random, "S", 1000);
+        ACache target = generateCache(random, "T", 1200);
+        PPJoinPlusPlus mapper = new PPJoinPlusPlus();
+        for (String measure : new String[] { "jaccard", "cosine" }) {
+            for (double threshold : new double[] { 0.5, 0.8 }) {
+                String expression = measure + "(x.name, y.name)";
+                mapper.setThreads(1);
+                AMapping expected = mapper.getMapping(source, target, "?x", "?y", expression, threshold);
+                mapper.setThreads(4);
+                AMapping parallel = mapper.getMapping(source, target, "?x", "?y", expression, threshold);
+                assertTrue(expected.size() > 0);
+                assertEquals(expected, parallel);
+            }
+        }
+    }
+
+    @Test
+    public void testSharedRecords() {
+        ACache source = generateCache(new Random(13), "S", 300);
+        ACache target = generateCache(new Random(14), "T", 300);
+        IndexRegistry registry = IndexRegistry.attach(source, target);
+        PPJoinPlusPlus mapper = new PPJoinPlusPlus();
+        for (double threshold : new double[] { 0.5, 0.8, 0.5 }) {
+            AMapping expected = mapper.getMapping(generateCache(new Random(13), "S", 300),
+                    generateCache(new Random(14), "T", 300), "?x", "?y", "jaccard(x.name, y.name)", threshold);
+            assertEquals(expected,
+                    mapper.getMapping(source, target, "?x", "?y", "jaccard(x.name, y.name)", threshold));
+        }
+        assertEquals(1, registry.getMisses());
+        assertEquals(2, registry.getHits());
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.junit.Test;
+
+public class FastNGramMapperTest {
+
+    private static Set<String> generateStrings(Random random, int size) {
+        String[] words = { "ibuprofen", "aspirin", "paracetamol", "acid", "sodium", "tablet", "leipzig", "berlin" };
+        Set<String> result = new HashSet<String>();
+        while (result.size() < size) {
+            StringBuilder s = new StringBuilder(words[random.nextInt(words.length)]);
+            for (int i = random.nextInt(3); i > 0; i--) {
+                s.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            // random typos
+            if (random.nextBoolean()) {
+                s.setCharAt(random.nextInt(s.length()), (char) ('a' + random.nextInt(26)));
+            }
+            result.add(s.toString());
+        }
+        return result;
+    }
+
+    @Test
+    public void testCompute() {
+        Random random = new Random(7);
+        Set<String> source = generateStrings(random, 600);
+        Set<String> target = generateStrings(random, 700);
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure();
+        for (double threshold : new double[] { 0.4, 0.7, 1 }) {
+            AMapping expected = MappingFactory.createDefaultMapping();
+            for (String s : source) {
+                for (String t : target) {
+                    double similarity = measure.getSimilarity(t, s);
+                    if (similarity >= threshold) {
+                        expected.add(s, t, similarity);
+                    }
+                }
+            }
+            assertEquals(expected, FastNGramMapper.compute(source, target, 3, threshold, 1));
+            assertEquals(expected, FastNGramMapper.compute(source, target, 3, threshold, 4));
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.AfterMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.BeforeMapper;
+import org.aksw.limes.core.measures.measure.temporal.TemporalMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.AfterMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.BeforeMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.DuringMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.DuringReverseMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.EqualsMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.FinishesMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsFinishedByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsMetByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsOverlappedByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsStartedByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.MeetsMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.OverlapsMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.StartsMeasure;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AllenIntervalJoinTest {
+
+    private static final String EXPRESSION = "tmp_equals(x.beginsAtDateTime|endsAtDateTime,y.b|e)";
+
+    public ACache source;
+    public ACache target;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            addEvent(source, "S" + i, "beginsAtDateTime", "endsAtDateTime", random);
+            addEvent(target, "T" + i, "b", "e", random);
+        }
+        // instances without end date are no events
+        source.addTriple("S50", "beginsAtDateTime", "2015-05-20T08:21:04+02:00");
+    }
+
+    private void addEvent(ACache cache, String uri, String beginProperty, String endProperty, Random random) {
+        // few distinct minutes, so that many events share their dates
+        int begin = random.nextInt(12);
+        int end = begin + random.nextInt(6);
+        cache.addTriple(uri, beginProperty, String.format("2015-05-20T08:%02d:04+02:00", begin));
+        cache.addTriple(uri, endProperty, String.format("2015-05-20T08:%02d:04+02:00", end));
+    }
+
+    private void check(AllenRelation relation, TemporalMeasure measure) {
+        AMapping expected = MappingFactory.createDefaultMapping();
+        for (Instance s : source.getAllInstances()) {
+            if (s.getProperty("endsAtDateTime").isEmpty())
+                continue;
+            for (Instance t : target.getAllInstances()) {
+                if (measure.getSimilarity(s, t, "beginsAtDateTime|endsAtDateTime", "b|e") != 0)
+                    expected.add(s.getUri(), t.getUri(), 1);
+            }
+        }
+        assertTrue(relation.name(), expected.size() > 0);
+        AMapping m = AllenIntervalJoin.getMapping(source, target, EXPRESSION, relation);
+        assertEquals(relation.name(), expected, m);
+        long count = AllenIntervalJoin.count(TemporalEvents.fromCache(source, EXPRESSION, "source"),
+                TemporalEvents.fromCache(target, EXPRESSION, "target"), relation);
+        assertEquals(relation.name(), expected.size(), count);
+    }
+
+    @Test
+    public void testRelations() {
+        check(AllenRelation.AFTER, new AfterMeasure());
+        check(AllenRelation.BEFORE, new BeforeMeasure());
+        check(AllenRelation.DURING, new DuringMeasure());
+        check(AllenRelation.DURING_REVERSE, new DuringReverseMeasure());
+        check(AllenRelation.EQUALS, new EqualsMeasure());
+        check(AllenRelation.FINISHES, new FinishesMeasure());
+        check(AllenRelation.IS_FINISHED_BY, new IsFinishedByMeasure());
+        check(AllenRelation.IS_MET_BY, new IsMetByMeasure());
+        check(AllenRelation.IS_OVERLAPPED_BY, new IsOverlappedByMeasure());
+        check(AllenRelation.IS_STARTED_BY, new IsStartedByMeasure());
+        check(AllenRelation.MEETS, new MeetsMeasure());
+        check(AllenRelation.OVERLAPS, new OverlapsMeasure());
+        check(AllenRelation.STARTS, new StartsMeasure());
+    }
+
+    @Test
+    public void testStreaming() {
+        AMapping expected = AllenIntervalJoin.getMapping(source, target, EXPRESSION, AllenRelation.BEFORE);
+        AMapping streamed = MappingFactory.createDefaultMapping();
+        new BeforeMapper().getMapping(source, target, "?x", "?y", EXPRESSION, 1, streamed::add);
+        assertEquals(expected, streamed);
+
+        // a consumer can count the links without collecting them
+        long[] links = new long[1];
+        new AfterMapper().getMapping(source, target, "?x", "?y", EXPRESSION, 1, (s, t, sim) -> links[0]++);
+        assertEquals(AllenIntervalJoin.getMapping(source, target, EXPRESSION, AllenRelation.AFTER).size(), links[0]);
+    }
+
+    @Test
+    public void testEvents() {
+        TemporalEvents events = TemporalEvents.fromCache(source, EXPRESSION, "source");
+        assertEquals(50, events.size());
+        long[] sortedBegins = events.getSortedBegins();
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.getBegin(events.getByBegin()[i]), sortedBegins[i]);
+            assertEquals(events.getEnd(events.getByEnd()[i]), events.getSortedEnds()[i]);
+            assertTrue(i == 0 || sortedBegins[i - 1] <= sortedBegins[i]);
+        }
+        assertEquals(0, TemporalEvents.lowerBound(sortedBegins, Long.MIN_VALUE));
+        assertEquals(events.size(), TemporalEvents.upperBound(sortedBegins, Long.MAX_VALUE));
+    }
+}
@@ -2,11 +2,24 @@ package org.aksw.limes.core.measures.mapper.topology;
 
 import static org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper.getPoints;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
+import org.aksw.limes.core.util.LimesWktReader;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
 
 public class RADONTest {
 
@@ -62,4 +75,53 @@ public class RADONTest {
 
     }
 
+    /**
+     * Squares of the given side centered in the cells of a grid with cells of
+     * side 2: a square of side 1 is within the square of side 3 of its cell
+     * and touches those of the neighbouring cells.
+     */
+    private static Map<String, Geometry> squares(String prefix, int n, double side) throws Exception {
+        LimesWktReader reader = new LimesWktReader();
+        Map<String, Geometry> squares = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double x = i * 2, y = j * 2, d = (side - 2) / 2;
+                squares.put(prefix + i + "-" + j,
+                        reader.read("POLYGON ((" + (x - d) + " " + (y - d) + ", " + (x + 2 + d) + " " + (y - d) + ", "
+                                + (x + 2 + d) + " " + (y + 2 + d) + ", " + (x - d) + " " + (y + 2 + d) + ", " + (x - d)
+                                + " " + (y - d) + "))"));
+            }
+        }
+        return squares;
+    }
+
+    @Test
+    public void testConcurrentMappings() throws Exception {
+        Map<String, Geometry> small = squares("s", 20, 1);
+        Map<String, Geometry> large = squares("l", 20, 3);
+        String[] relations = { RADON.INTERSECTS, RADON.WITHIN, RADON.CONTAINS, RADON.TOUCHES, RADON.DISJOINT };
+        List<AMapping> expected = new ArrayList<>();
+        for (String relation : relations) {
+            // both orders, so that the sources are swapped in one of them
+            expected.add(RADON.getMapping(small, large, relation, 1));
+            expected.add(RADON.getMapping(large, small, relation, 1));
+        }
+        assertTrue(expected.get(2).size() > 0);
+        assertEquals(expected.get(2), expected.get(5).reverseSourceTarget());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AMapping>> results = new ArrayList<>();
+            for (String relation : relations) {
+                results.add(pool.submit(() -> RADON.getMapping(small, large, relation, 2)));
+                results.add(pool.submit(() -> RADON.getMapping(large, small, relation, 2)));
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), results.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,111 @@
+package org.aksw.limes.core.measures.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "pub", "test");
+        source.addTriple("S1", "conf", "conf one");
+        source.addTriple("S2", "pub", "test2");
+        source.addTriple("S2", "conf", "conf2");
+
+        target.addTriple("S1", "pub", "test");
+        target.addTriple("S1", "conf", "conf one");
+        target.addTriple("S3", "pub", "test1");
+        target.addTriple("S3", "conf", "conf three");
+    }
+
+    /**
+     * Runs the mapper of an atomic expression on caches that only hold the
+     * source instance s and the target instance t.
+     */
+    private double getMapperSimilarity(String expression, double threshold, String s, String t) {
+        ACache sourceCache = new MemoryCache();
+        ACache targetCache = new MemoryCache();
+        sourceCache.addInstance(source.getInstance(s));
+        targetCache.addInstance(target.getInstance(t));
+        Parser p = new Parser(expression, threshold);
+        AMapper mapper = MapperFactory.createMapper(MeasureFactory.getMeasureType(p.getOperator()));
+        AMapping m = mapper.getMapping(sourceCache, targetCache, "?x", "?y", expression, threshold);
+        double similarity = m.getConfidence(s, t);
+        return similarity >= threshold ? similarity : 0;
+    }
+
+    private double getSimilarity(String expression, double threshold, String s, String t) {
+        return CompiledExpression.compile(expression, threshold, "?x", "?y").getSimilarity(source.getInstance(s),
+                target.getInstance(t));
+    }
+
+    @Test
+    public void testSameAsMapper() {
+        String[] expressions = { "trigrams(x.conf,y.conf)", "qgrams(x.pub,y.pub)", "jaro(x.pub,y.pub)",
+                "jarowinkler(x.conf,y.conf)", "mongeelkan(x.conf,y.conf)", "ratcliff(x.pub,y.pub)",
+                "exactmatch(x.pub,y.pub)", "jaccard(x.conf,y.conf)", "cosine(x.conf,y.conf)",
+                "overlap(x.conf,y.conf)", "levenshtein(x.pub,y.pub)", "levenshtein(x.conf,y.conf)",
+                "soundex(x.pub,y.pub)" };
+        for (String expression : expressions) {
+            CompiledExpression compiled = CompiledExpression.compile(expression, 0.2, "?x", "?y");
+            for (String s : source.getAllUris()) {
+                for (String t : target.getAllUris()) {
+                    double expected = getMapperSimilarity(expression, 0.2, s, t);
+                    double sim = compiled.getSimilarity(source.getInstance(s), target.getInstance(t));
+                    // the Jaro mapper and measure round floats differently
+                    assertEquals(expression + " " + s + " " + t, expected, sim, 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testComplexExpressions() {
+        // S1 has the same values in the source and the target
+        assertEquals(1.6d, getSimilarity("ADD(0.8*trigram(x.conf, y.conf),0.8*cosine(y.conf, x.conf))", 0.2,
+                "S1", "S1"), 1e-9);
+        assertEquals(1d, getSimilarity("AND(jaccard(x.conf,y.conf)|0.2,trigrams(x.pub,y.pub)|0.2)", 0.2,
+                "S1", "S1"), 1e-9);
+        assertEquals(0d, getSimilarity("MINUS(trigrams(x.pub,y.pub)|0.3,overlap(x.conf,y.conf)|0.9)", 0.2,
+                "S1", "S1"), 1e-9);
+
+        // conf2 and conf three do not share a token
+        assertEquals(0d, getSimilarity("AND(jaccard(x.conf,y.conf)|0.2,trigrams(x.pub,y.pub)|0.2)", 0.2,
+                "S2", "S3"), 1e-9);
+        double trigrams = getMapperSimilarity("trigrams(x.pub,y.pub)", 0.3, "S2", "S3");
+        assertTrue(trigrams > 0);
+        assertEquals(trigrams, getSimilarity("MINUS(trigrams(x.pub,y.pub)|0.3,overlap(x.conf,y.conf)|0.9)", 0.2,
+                "S2", "S3"), 1e-9);
+        assertEquals(trigrams, getSimilarity("OR(trigrams(x.pub,y.pub)|0.3,jaccard(x.conf,y.conf)|0.2)", 0.2,
+                "S2", "S3"), 1e-9);
+    }
+
+    @Test
+    public void testThreshold() {
+        CompiledExpression compiled = CompiledExpression.compile("trigrams(x.conf,y.conf)", 0.9, "?x", "?y");
+        assertTrue(compiled.getSimilarity(source.getInstance("S1"), target.getInstance("S1")) == 1.0);
+        assertTrue(compiled.getSimilarity(source.getInstance("S2"), target.getInstance("S3")) == 0.0);
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        // neither property belongs to the source variable
+        assertEquals(0d, getSimilarity("trigrams(y.conf,y.conf)", 0.2, "S1", "S1"), 0d);
+        // the threshold is not positive
+        assertEquals(0d, getSimilarity("trigrams(x.conf,y.conf)", 0, "S1", "S1"), 0d);
+    }
+}
@@ -0,0 +1,116 @@
+package org.aksw.limes.core.measures.measure.semantic.edgecounting;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.Instance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.mit.jwi.item.ISynset;
+
+public class AEdgeCountingSemanticMeasureTest {
+
+    /**
+     * Looks the token similarities up in a table instead of wordnet and counts
+     * how often they are computed.
+     */
+    private static class TableMeasure extends AEdgeCountingSemanticMeasure {
+
+        private final Map<String, Double> similarities = new HashMap<String, Double>();
+        private int computed = 0;
+
+        TableMeasure() {
+            super(null, null);
+            similarities.put("car bus", 0.5);
+            similarities.put("car vehicle", 0.8);
+            similarities.put("road street", 0.9);
+        }
+
+        @Override
+        public double getSimilarity(Object object1, Object object2) {
+            computed++;
+            Double similarity = similarities.get(object1 + " " + object2);
+            if (similarity == null)
+                similarity = similarities.get(object2 + " " + object1);
+            return similarity == null ? 0 : similarity;
+        }
+
+        @Override
+        public double getSimilarityBetweenConcepts(ISynset synset1, ISynset synset2) {
+            return 0;
+        }
+
+        @Override
+        public double getRuntimeApproximation(double mappingSize) {
+            return mappingSize / 1000d;
+        }
+
+        @Override
+        public String getName() {
+            return "table";
+        }
+
+        @Override
+        public String getType() {
+            return "semantic";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        TokenSimilarityCache.getInstance().clear();
+    }
+
+    @After
+    public void tearDown() {
+        TokenSimilarityCache.getInstance().clear();
+    }
+
+    @Test
+    public void testGetSimilarity() {
+        TableMeasure measure = new TableMeasure();
+        // car matches vehicle best, road matches street
+        assertEquals((0.8 + 0.9) / 2, measure.getSimilarity(Arrays.asList("car", "road"),
+                Arrays.asList("bus", "vehicle", "street")), 1e-9);
+        // equal tokens are similar without a lookup
+        assertEquals(1d, measure.getSimilarity(Arrays.asList("car"), Arrays.asList("bus", "car")), 0d);
+        // unknown tokens count as not similar
+        assertEquals(0.25, measure.getSimilarity(Arrays.asList("car", "tree"), Arrays.asList("bus")), 1e-9);
+        assertEquals(0d, measure.getSimilarity(Collections.<String> emptyList(), Arrays.asList("bus")), 0d);
+        assertEquals(0d, measure.getSimilarity(Arrays.asList("car"), Collections.<String> emptyList()), 0d);
+    }
+
+    @Test
+    public void testCachedTokenSimilarity() {
+        TableMeasure measure = new TableMeasure();
+        assertEquals(0.5, measure.getTokenSimilarity("car", "bus"), 0d);
+        assertEquals(1, measure.computed);
+        // the similarity is symmetric, thus the reversed pair is cached too
+        assertEquals(0.5, measure.getTokenSimilarity("bus", "car"), 0d);
+        assertEquals(0.5, measure.getSimilarity(Arrays.asList("car"), Arrays.asList("bus")), 0d);
+        assertEquals(1, measure.computed);
+    }
+
+    @Test
+    public void testInstanceSimilarity() {
+        TableMeasure measure = new TableMeasure();
+        Instance source = new Instance("s");
+        source.addProperty("label", "the car");
+        source.addProperty("label", "");
+        Instance target = new Instance("t");
+        target.addProperty("label", "bus");
+        target.addProperty("label", "vehicle");
+        // stopwords are removed and the best pair of values counts
+        assertEquals(0.8, measure.getSimilarity(source, target, "label", "label"), 1e-9);
+    }
+}
@@ -0,0 +1,47 @@
+package org.aksw.limes.core.measures.measure.semantic.edgecounting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TokenSimilarityCacheTest {
+
+    @Test
+    public void testGet() {
+        TokenSimilarityCache cache = new TokenSimilarityCache(100);
+        assertTrue(Double.isNaN(cache.get("wupalmer", "car", "bus")));
+        cache.put("wupalmer", "car", "bus", 0.5);
+        assertEquals(0.5, cache.get("wupalmer", "car", "bus"), 0d);
+        // the order of the tokens does not matter, the measure does
+        assertEquals(0.5, cache.get("wupalmer", "bus", "car"), 0d);
+        assertTrue(Double.isNaN(cache.get("shortest_path", "car", "bus")));
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertTrue(Double.isNaN(cache.get("wupalmer", "car", "bus")));
+    }
+
+    @Test
+    public void testEviction() {
+        TokenSimilarityCache cache = new TokenSimilarityCache(100);
+        cache.put("wupalmer", "car", "bus", 0.5);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("wupalmer", "token" + i, "other", i / 1000d);
+            // a similarity that is used keeps its place in the cache
+            assertEquals(0.5, cache.get("wupalmer", "car", "bus"), 0d);
+            assertTrue(cache.size() <= 100);
+        }
+        // the cache keeps storing new similarities once it is full
+        assertEquals(0.999, cache.get("wupalmer", "token999", "other"), 0d);
+        assertTrue(Double.isNaN(cache.get("wupalmer", "token0", "other")));
+    }
+
+    @Test
+    public void testDisabled() {
+        TokenSimilarityCache cache = new TokenSimilarityCache(0);
+        cache.put("wupalmer", "car", "bus", 0.5);
+        assertEquals(0, cache.size());
+        assertTrue(Double.isNaN(cache.get("wupalmer", "car", "bus")));
+    }
+}
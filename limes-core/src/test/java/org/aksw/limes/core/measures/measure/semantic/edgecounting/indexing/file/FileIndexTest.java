@@ -0,0 +1,114 @@
+package org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.SynsetID;
+
+public class FileIndexTest {
+
+    private File exported;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        exported = File.createTempFile("wordnet", ".wn");
+        Files.write(exported.toPath(), "wordnet".getBytes(StandardCharsets.UTF_8));
+        file = File.createTempFile("hypernyms", ".idx");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        exported.delete();
+        file.delete();
+    }
+
+    private static ArrayList<ISynsetID> path(POS pos, int... offsets) {
+        ArrayList<ISynsetID> path = new ArrayList<ISynsetID>();
+        for (int offset : offsets) {
+            path.add(new SynsetID(offset, pos));
+        }
+        return path;
+    }
+
+    /**
+     * Two synsets per POS, the first one with two paths and the second one
+     * with a path of a single synset. The offsets depend on the POS.
+     */
+    private static TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>> getPaths(POS pos, int shift) {
+        int base = 100 * pos.getNumber() + shift;
+        TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>> paths = new TreeMap<Integer, ArrayList<ArrayList<ISynsetID>>>();
+        ArrayList<ArrayList<ISynsetID>> synsetPaths = new ArrayList<ArrayList<ISynsetID>>();
+        synsetPaths.add(path(pos, base + 1, base + 2, base + 5));
+        synsetPaths.add(path(pos, base + 3, base + 5));
+        paths.put(base + 5, synsetPaths);
+        synsetPaths = new ArrayList<ArrayList<ISynsetID>>();
+        synsetPaths.add(path(pos, base + 1));
+        paths.put(base + 1, synsetPaths);
+        return paths;
+    }
+
+    private static void assertPaths(ArrayList<ArrayList<ISynsetID>> expected,
+            ArrayList<ArrayList<ISynsetID>> paths) {
+        assertEquals(expected.size(), paths.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).size(), paths.get(i).size());
+            for (int j = 0; j < expected.get(i).size(); j++) {
+                assertEquals(expected.get(i).get(j).getOffset(), paths.get(i).get(j).getOffset());
+                assertEquals(expected.get(i).get(j).getPOS(), paths.get(i).get(j).getPOS());
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        FileIndex index = new FileIndex(file);
+        assertFalse(index.load(exported));
+        index.write(exported, pos -> getPaths(pos, 0));
+        assertTrue(index.load(exported));
+        for (POS pos : POS.values()) {
+            for (Integer offset : getPaths(pos, 0).keySet()) {
+                assertPaths(getPaths(pos, 0).get(offset), index.getHypernymPaths(pos, offset));
+            }
+            // unknown synsets have no paths
+            assertTrue(index.getHypernymPaths(pos, 100 * pos.getNumber() + 2).isEmpty());
+        }
+
+        // a new index reads the file without building it
+        FileIndex loaded = new FileIndex(file);
+        assertTrue(loaded.load(exported));
+        assertPaths(getPaths(POS.VERB, 0).get(205), loaded.getHypernymPaths(POS.VERB, 205));
+    }
+
+    @Test
+    public void testRebuild() throws IOException {
+        FileIndex index = new FileIndex(file);
+        index.write(exported, pos -> getPaths(pos, 0));
+        assertTrue(index.load(exported));
+
+        // the exported wordnet file changes, thus the index is outdated
+        Files.write(exported.toPath(), "another wordnet".getBytes(StandardCharsets.UTF_8));
+        assertFalse(new FileIndex(file).load(exported));
+
+        index.write(exported, pos -> getPaths(pos, 10));
+        assertTrue(index.load(exported));
+        assertPaths(getPaths(POS.NOUN, 10).get(115), index.getHypernymPaths(POS.NOUN, 115));
+        // paths that were decoded before the rebuild are not kept
+        assertTrue(index.getHypernymPaths(POS.NOUN, 105).isEmpty());
+    }
+}
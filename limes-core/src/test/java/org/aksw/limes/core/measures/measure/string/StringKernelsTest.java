@@ -0,0 +1,171 @@
+package org.aksw.limes.core.measures.measure.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.mapper.string.fastngram.NGramTokenizer;
+import org.junit.Test;
+
+public class StringKernelsTest {
+
+    private static final double[] THRESHOLDS = { 0.0, 0.3, 0.5, 0.8, 1.0 };
+
+    private String[] generateStrings(int size, long seed) {
+        Random random = new Random(seed);
+        char[] alphabet = { 'a', 'b', 'c', 'd', ' ', 'e' };
+        String[] strings = new String[size];
+        for (int i = 0; i < size; i++) {
+            char[] s = new char[random.nextInt(12)];
+            for (int j = 0; j < s.length; j++) {
+                s[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            strings[i] = new String(s);
+        }
+        return strings;
+    }
+
+    @Test
+    public void testQGrams() {
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure();
+        NGramTokenizer tokenizer = new NGramTokenizer();
+        String[] strings = generateStrings(60, 1);
+        for (String a : strings) {
+            for (String b : strings) {
+                double expected = measure.getSimilarity(tokenizer.tokenize(a, 3), tokenizer.tokenize(b, 3));
+                assertEquals(a + "/" + b, expected, StringKernels.qGramSimilarity(a, b, 3, 0), 0.0);
+                for (double t : THRESHOLDS) {
+                    assertEquals(expected >= t ? expected : 0, StringKernels.qGramSimilarity(a, b, 3, t), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTrigram() {
+        TrigramMeasure measure = new TrigramMeasure();
+        assertEquals(1.0, measure.getSimilarity("", ""), 0.0);
+        assertEquals(0.0, measure.getSimilarity("", " "), 0.0);
+        for (String a : generateStrings(40, 2)) {
+            for (String b : generateStrings(40, 3)) {
+                if (a.isEmpty() || b.isEmpty()) {
+                    continue;
+                }
+                Set<String> t1 = measure.getTrigrams("  " + a + "  ");
+                Set<String> t2 = measure.getTrigrams("  " + b + "  ");
+                Set<String> common = new HashSet<>(t1);
+                common.retainAll(t2);
+                double expected = common.size() / (double) (t1.size() + t2.size() - common.size());
+                assertEquals(expected, measure.getSimilarity(a, b), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testLevenshtein() {
+        String[] strings = generateStrings(60, 4);
+        for (String a : strings) {
+            for (String b : strings) {
+                int distance = levenshtein(a, b);
+                int maxLength = Math.max(a.length(), b.length());
+                double expected = maxLength == 0 ? 1 : 1.0f - (distance / (float) maxLength);
+                assertEquals(distance, StringKernels.levenshteinDistance(a, b, maxLength));
+                assertEquals(Math.min(distance, 3), StringKernels.levenshteinDistance(a, b, 2));
+                for (double t : THRESHOLDS) {
+                    assertEquals(expected >= t ? expected : 0, StringKernels.levenshteinSimilarity(a, b, t), 0.0);
+                }
+            }
+        }
+    }
+
+    private int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(Math.min(d[i - 1][j], d[i][j - 1]) + 1, d[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    public void testJaro() {
+        String[] strings = generateStrings(60, 5);
+        for (String a : strings) {
+            for (String b : strings) {
+                double expected = jaro(a, b);
+                assertEquals(a + "/" + b, expected, new JaroMeasure().getSimilarity(a, b), 0.0);
+                for (double t : THRESHOLDS) {
+                    assertEquals(expected >= t ? expected : 0, StringKernels.jaroSimilarity(a, b, t), 0.0);
+                }
+            }
+        }
+        assertEquals(0.944, new JaroMeasure().getSimilarity("MARTHA", "MARHTA"), 0.001);
+    }
+
+    /**
+     * Jaro similarity computed with the character lists of the measure.
+     */
+    private float jaro(String a, String b) {
+        int halfLength = Math.min(a.length(), b.length()) / 2;
+        List<Character> common1 = JaroMeasure.getCommonCharacters(a, b, halfLength);
+        List<Character> common2 = JaroMeasure.getCommonCharacters(b, a, halfLength);
+        int transpositions = JaroMeasure.getTranspositions(common1, common2);
+        if (transpositions == -1) {
+            return 0f;
+        }
+        return (common1.size() / ((float) a.length()) + common2.size() / ((float) b.length())
+                + (common1.size() - transpositions) / ((float) common1.size())) / 3.0f;
+    }
+
+    @Test
+    public void testCosine() {
+        String[] strings = generateStrings(60, 6);
+        for (String a : strings) {
+            for (String b : strings) {
+                Set<String> t1 = tokens(a);
+                Set<String> t2 = tokens(b);
+                double expected = 0;
+                if (!t1.isEmpty() && !t2.isEmpty()) {
+                    Set<String> common = new HashSet<>(t1);
+                    common.retainAll(t2);
+                    expected = (float) common.size()
+                            / (float) (Math.pow((float) t1.size(), 0.5f) * Math.pow((float) t2.size(), 0.5f));
+                }
+                for (double t : THRESHOLDS) {
+                    assertEquals(expected >= t ? expected : 0, StringKernels.cosineSimilarity(a, b, t), 0.0);
+                }
+            }
+        }
+    }
+
+    private Set<String> tokens(String s) {
+        Set<String> tokens = new HashSet<>(Arrays.asList(s.trim().split("\\s+")));
+        tokens.remove("");
+        return tokens;
+    }
+
+    @Test
+    public void testInstanceThreshold() {
+        Instance s = new Instance("s");
+        s.addProperty("label", "Berlin");
+        s.addProperty("label", "Leipzig");
+        Instance t = new Instance("t");
+        t.addProperty("name", "Leipzig");
+        t.addProperty("name", "Bern");
+        TrigramMeasure measure = new TrigramMeasure();
+        assertEquals(1.0, measure.getSimilarity(s, t, "label", "name", 0.9), 0.0);
+        assertEquals(measure.getSimilarity(s, t, "label", "name"), measure.getSimilarity(s, t, "label", "name", 0),
+                0.0);
+    }
+}
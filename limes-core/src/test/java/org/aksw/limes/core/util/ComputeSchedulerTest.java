@@ -0,0 +1,75 @@
+package org.aksw.limes.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ComputeSchedulerTest {
+
+    @Test
+    public void testParallelismLimit() throws Exception {
+        ComputeScheduler scheduler = new ComputeScheduler(4);
+        ComputeScheduler.Job job = scheduler.newJob("test", 2);
+        assertEquals(2, job.getMaxParallelism());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            results.add(job.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return n * n;
+            }));
+        }
+        assertTrue(job.getQueueDepth() > 0);
+        assertTrue(scheduler.getQueueDepth() >= job.getQueueDepth());
+        for (int i = results.size() - 1; i >= 0; i--) {
+            assertEquals(i * i, job.join(results.get(i)).intValue());
+        }
+        // the joining thread runs held back tasks as well
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(0, job.getQueueDepth());
+        assertTrue(scheduler.getUtilization() > 0);
+    }
+
+    @Test
+    public void testNestedJobs() throws Exception {
+        ComputeScheduler scheduler = new ComputeScheduler(2);
+        ComputeScheduler.Job job = scheduler.newJob("test", 2);
+        Future<Integer> root = job.submit(() -> sum(job, 0, 64));
+        assertEquals(64 * 63 / 2, job.join(root).intValue());
+    }
+
+    private int sum(ComputeScheduler.Job job, int from, int to) throws Exception {
+        if (to - from == 1) {
+            return from;
+        }
+        int middle = (from + to) / 2;
+        Future<Integer> right = job.submit(() -> sum(job, middle, to));
+        return sum(job, from, middle) + job.join(right);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        ComputeScheduler.Job job = new ComputeScheduler(2).newJob("test");
+        Future<Object> result = job.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+        try {
+            job.join(result);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}